@@ -0,0 +1,164 @@
+package com.rfb.repository;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.repository.rowmapper.RfbEventAttendanceRowMapper;
+import com.rfb.repository.rowmapper.RfbEventRowMapper;
+import com.rfb.repository.rowmapper.RfbUserRowMapper;
+import com.rfb.service.ColumnConverter;
+import com.rfb.service.EntityManager;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.convert.CustomConversions;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.data.r2dbc.query.UpdateMapper;
+import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Compares the idempotent check-in, {@link RfbEventAttendanceRepository#upsert}, with the plain insert it replaces, over a burst of
+ * retried check-ins: every user checks in several times, concurrently, at the same event. Run it with {@code ./gradlew jmh}: the
+ * number of attendances written by an operation is printed after every iteration.
+ * <p>
+ * The repository runs on an in-memory H2 database behind a connection pool, with the columns, indexes and unique constraint of the
+ * {@code rfb_event_attendance} table; the insert runs without the constraint, as before.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CheckInBenchmark {
+
+    private static final LocalDate TODAY = LocalDate.of(2021, 4, 3);
+
+    @Param({ "insert", "upsert" })
+    private String mode;
+
+    @Param({ "50" })
+    private int users;
+
+    @Param({ "20" })
+    private int checkInsPerUser;
+
+    @Param({ "16" })
+    private int concurrency;
+
+    private ConnectionPool connectionPool;
+
+    private DatabaseClient db;
+
+    private RfbEventAttendanceRepositoryInternalImpl repository;
+
+    private long attendances;
+
+    @Setup
+    public void setUp() {
+        connectionPool =
+            new ConnectionPool(
+                ConnectionPoolConfiguration
+                    .builder(H2ConnectionFactory.inMemory("check-in-" + mode))
+                    .initialSize(concurrency)
+                    .maxSize(concurrency)
+                    .build()
+            );
+        R2dbcCustomConversions conversions = new R2dbcCustomConversions(
+            CustomConversions.StoreConversions.of(H2Dialect.INSTANCE.getSimpleTypeHolder(), R2dbcCustomConversions.STORE_CONVERTERS),
+            List.of()
+        );
+        MappingR2dbcConverter converter = new MappingR2dbcConverter(new R2dbcMappingContext(), conversions);
+        db = DatabaseClient.create(connectionPool);
+        R2dbcEntityTemplate template = new R2dbcEntityTemplate(db, H2Dialect.INSTANCE, converter);
+        EntityManager entityManager = new EntityManager(
+            SqlRenderer.create(),
+            new UpdateMapper(H2Dialect.INSTANCE, converter),
+            template,
+            H2Dialect.INSTANCE,
+            new ApplicationProperties()
+        );
+        ColumnConverter columnConverter = new ColumnConverter(conversions, converter);
+        repository =
+            new RfbEventAttendanceRepositoryInternalImpl(
+                template,
+                entityManager,
+                new RfbEventRowMapper(columnConverter),
+                new RfbUserRowMapper(columnConverter),
+                new RfbEventAttendanceRowMapper(columnConverter)
+            );
+
+        Flux
+            .just(
+                "CREATE TABLE rfb_event (id BIGINT AUTO_INCREMENT PRIMARY KEY, event_date DATE, event_code VARCHAR(255)," +
+                " rfb_location_id BIGINT, version BIGINT)",
+                "CREATE TABLE rfb_user (id BIGINT AUTO_INCREMENT PRIMARY KEY, username VARCHAR(255), home_location_id BIGINT," +
+                " version BIGINT)",
+                "CREATE TABLE rfb_event_attendance (id BIGINT AUTO_INCREMENT PRIMARY KEY, attendance_date DATE, rfb_event_id BIGINT," +
+                " rfb_user_id BIGINT, version BIGINT)",
+                "upsert".equals(mode)
+                    ? "ALTER TABLE rfb_event_attendance ADD CONSTRAINT ux_rfb_event_attendance__rfb_event_id__rfb_user_id" +
+                    " UNIQUE (rfb_event_id, rfb_user_id)"
+                    : "CREATE INDEX ix_rfb_event_attendance__rfb_event_id__rfb_user_id ON rfb_event_attendance (rfb_event_id, rfb_user_id)",
+                "INSERT INTO rfb_event (event_date, event_code, version) VALUES (DATE '2021-04-03', 'E1', 0)"
+            )
+            .concatWith(
+                Flux.range(1, users).map(user -> "INSERT INTO rfb_user (username, version) VALUES ('user" + user + "', 0)")
+            )
+            .concatMap(sql -> db.sql(sql).fetch().rowsUpdated())
+            .blockLast();
+    }
+
+    @Setup(Level.Invocation)
+    public void deleteAttendances() {
+        db.sql("DELETE FROM rfb_event_attendance").fetch().rowsUpdated().block();
+    }
+
+    @Benchmark
+    public Long checkIns() {
+        return Flux
+            .range(0, users * checkInsPerUser)
+            .flatMap(i -> checkIn(1 + i % users), concurrency)
+            .count()
+            .block();
+    }
+
+    private Mono<RfbEventAttendance> checkIn(long rfbUserId) {
+        RfbEventAttendance attendance = new RfbEventAttendance();
+        attendance.setAttendanceDate(TODAY);
+        attendance.setRfbEventId(1L);
+        attendance.setRfbUserId(rfbUserId);
+        return "upsert".equals(mode) ? repository.upsert(attendance) : repository.insert(attendance);
+    }
+
+    @TearDown(Level.Invocation)
+    public void countAttendances() {
+        attendances = db.sql("SELECT COUNT(*) FROM rfb_event_attendance").map(row -> row.get(0, Long.class)).one().block();
+    }
+
+    @TearDown(Level.Iteration)
+    public void printAttendances() {
+        System.out.println("attendances written per operation: " + attendances);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionPool.dispose();
+    }
+}
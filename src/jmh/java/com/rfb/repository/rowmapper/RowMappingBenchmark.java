@@ -0,0 +1,243 @@
+package com.rfb.repository.rowmapper;
+
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbUser;
+import com.rfb.service.ColumnConverter;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.convert.CustomConversions;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Compares the row mappers, which map the columns with a cached {@link RowMapping} plan, with the lookup of every column by name they
+ * replace, over the rows of {@code RfbEventAttendanceRepository.findAll}: an attendance joined with its event and its user. Run it with
+ * {@code ./gradlew jmh}: the gc profiler reports the bytes allocated per operation next to the times.
+ * <p>
+ * The rows are held in memory, with a case-insensitive lookup of the column names like the drivers, so only the mapping is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RowMappingBenchmark {
+
+    private static final String[] COLUMNS = {
+        "e_id",
+        "e_attendance_date",
+        "e_rfb_event_id",
+        "e_rfb_user_id",
+        "e_version",
+        "rfbEvent_id",
+        "rfbEvent_event_date",
+        "rfbEvent_event_code",
+        "rfbEvent_rfb_location_id",
+        "rfbEvent_version",
+        "rfbUser_id",
+        "rfbUser_username",
+        "rfbUser_home_location_id",
+        "rfbUser_version",
+    };
+
+    @Param({ "100000" })
+    private int rows;
+
+    private ColumnConverter converter;
+
+    private RfbEventAttendanceRowMapper rfbEventAttendanceMapper;
+
+    private RfbEventRowMapper rfbEventMapper;
+
+    private RfbUserRowMapper rfbUserMapper;
+
+    private RowMetadata metadata;
+
+    private Row[] result;
+
+    @Setup
+    public void setUp() {
+        R2dbcCustomConversions conversions = new R2dbcCustomConversions(
+            CustomConversions.StoreConversions.of(H2Dialect.INSTANCE.getSimpleTypeHolder(), R2dbcCustomConversions.STORE_CONVERTERS),
+            List.of()
+        );
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        rfbEventAttendanceMapper = new RfbEventAttendanceRowMapper(converter);
+        rfbEventMapper = new RfbEventRowMapper(converter);
+        rfbUserMapper = new RfbUserRowMapper(converter);
+        metadata = new InMemoryRowMetadata();
+        result = new Row[rows];
+        LocalDate firstDay = LocalDate.of(2021, 1, 2);
+        for (int i = 0; i < rows; i++) {
+            long eventId = 1 + i % 500;
+            long userId = 1 + i % 50000;
+            result[i] =
+                new InMemoryRow(
+                    (long) i,
+                    firstDay.plusDays(eventId),
+                    eventId,
+                    userId,
+                    0L,
+                    eventId,
+                    firstDay.plusDays(eventId),
+                    "E" + eventId,
+                    1 + eventId % 40,
+                    0L,
+                    userId,
+                    "user" + userId,
+                    1 + userId % 40,
+                    0L
+                );
+        }
+    }
+
+    @Benchmark
+    public void plan(Blackhole blackhole) {
+        for (Row row : result) {
+            RfbEventAttendance entity = rfbEventAttendanceMapper.apply(row, metadata, "e");
+            entity.setRfbEvent(rfbEventMapper.apply(row, metadata, "rfbEvent"));
+            entity.setRfbUser(rfbUserMapper.apply(row, metadata, "rfbUser"));
+            blackhole.consume(entity);
+        }
+    }
+
+    @Benchmark
+    public void byName(Blackhole blackhole) {
+        for (Row row : result) {
+            RfbEventAttendance entity = rfbEventAttendanceByName(row, "e");
+            entity.setRfbEvent(rfbEventByName(row, "rfbEvent"));
+            entity.setRfbUser(rfbUserByName(row, "rfbUser"));
+            blackhole.consume(entity);
+        }
+    }
+
+    private RfbEventAttendance rfbEventAttendanceByName(Row row, String prefix) {
+        RfbEventAttendance entity = new RfbEventAttendance();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setAttendanceDate(converter.fromRow(row, prefix + "_attendance_date", LocalDate.class));
+        entity.setRfbEventId(converter.fromRow(row, prefix + "_rfb_event_id", Long.class));
+        entity.setRfbUserId(converter.fromRow(row, prefix + "_rfb_user_id", Long.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        return entity;
+    }
+
+    private RfbEvent rfbEventByName(Row row, String prefix) {
+        RfbEvent entity = new RfbEvent();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setEventDate(converter.fromRow(row, prefix + "_event_date", LocalDate.class));
+        entity.setEventCode(converter.fromRow(row, prefix + "_event_code", String.class));
+        entity.setRfbLocationId(converter.fromRow(row, prefix + "_rfb_location_id", Long.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        return entity;
+    }
+
+    private RfbUser rfbUserByName(Row row, String prefix) {
+        RfbUser entity = new RfbUser();
+        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
+        entity.setUsername(converter.fromRow(row, prefix + "_username", String.class));
+        entity.setHomeLocationId(converter.fromRow(row, prefix + "_home_location_id", Long.class));
+        entity.setVersion(converter.fromRow(row, prefix + "_version", Long.class));
+        return entity;
+    }
+
+    private static final class InMemoryRowMetadata implements RowMetadata {
+
+        private final Map<String, Integer> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        private final List<ColumnMetadata> columnMetadatas = new ArrayList<>();
+
+        private InMemoryRowMetadata() {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                String name = COLUMNS[i];
+                Class<?> javaType = javaType(name);
+                indexes.put(name, i);
+                columnMetadatas.add(
+                    new ColumnMetadata() {
+                        @Override
+                        public String getName() {
+                            return name;
+                        }
+
+                        @Override
+                        public Class<?> getJavaType() {
+                            return javaType;
+                        }
+                    }
+                );
+            }
+        }
+
+        private static Class<?> javaType(String name) {
+            if (name.endsWith("_date")) {
+                return LocalDate.class;
+            }
+            return name.endsWith("_code") || name.endsWith("_username") ? String.class : Long.class;
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columnMetadatas.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columnMetadatas.get(indexes.get(name));
+        }
+
+        @Override
+        public Iterable<? extends ColumnMetadata> getColumnMetadatas() {
+            return columnMetadatas;
+        }
+
+        @Override
+        public Collection<String> getColumnNames() {
+            return Arrays.asList(COLUMNS);
+        }
+    }
+
+    private static final class InMemoryRow implements Row {
+
+        private static final Map<String, Integer> INDEXES = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        static {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                INDEXES.put(COLUMNS[i], i);
+            }
+        }
+
+        private final Object[] values;
+
+        private InMemoryRow(Object... values) {
+            this.values = values;
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            return type.cast(values[index]);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return get(INDEXES.get(name), type);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.rfb.web.rest;
+
+import com.rfb.RfbloyaltyApp;
+import com.rfb.web.rest.vm.CheckInVM;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import tech.jhipster.config.JHipsterConstants;
+
+/**
+ * Measures the throughput of the check-in at the start line, {@link RfbEventAttendanceResource#checkIn}, which should sustain 500
+ * check-ins per second. Run it with {@code ./gradlew jmh}: the score is the number of check-ins per second. The whole application
+ * path is compiled over several warmup iterations, so the score is only steady with more of them than the default, e.g. 8 of 10s.
+ * <p>
+ * The check-ins run through the application context of the {@code prod} profile, on an in-memory H2 database migrated by Liquibase
+ * rather than MySQL. The event code and the usernames are resolved from their caches, which are filled by the warmup, and every
+ * check-in writes a new attendance with its counters, leaderboards, streaks and attendee bitmaps. The request mapping, the JSON and
+ * the security filters aren't measured. Every operation checks all the runners in at the same event, with a bounded number of
+ * check-ins in flight, after the attendances of the previous operation are deleted.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(CheckInResourceBenchmark.RUNNERS)
+public class CheckInResourceBenchmark {
+
+    static final int RUNNERS = 1000;
+
+    private static final String EVENT_CODE = "START";
+
+    @Param({ "16" })
+    private int concurrency;
+
+    private ConfigurableApplicationContext context;
+
+    private DatabaseClient db;
+
+    private RfbEventAttendanceResource rfbEventAttendanceResource;
+
+    @Setup
+    public void setUp() {
+        // the production configuration, without the operator debugging of the other profiles, on H2 instead of MySQL
+        context =
+            new SpringApplicationBuilder(RfbloyaltyApp.class)
+                .profiles(JHipsterConstants.SPRING_PROFILE_PRODUCTION)
+                .web(WebApplicationType.NONE)
+                .run(
+                    "--spring.r2dbc.url=r2dbc:h2:mem:///check-in;DB_CLOSE_DELAY=-1",
+                    "--spring.r2dbc.username=rfbloyalty",
+                    "--spring.r2dbc.password=",
+                    "--spring.liquibase.url=jdbc:h2:mem:check-in;DB_CLOSE_DELAY=-1",
+                    "--logging.level.ROOT=WARN",
+                    "--logging.level.com.rfb=WARN"
+                );
+        db = context.getBean(DatabaseClient.class);
+        rfbEventAttendanceResource = context.getBean(RfbEventAttendanceResource.class);
+
+        Flux
+            .just(
+                "INSERT INTO rfb_location (location_name) VALUES ('Lakeside')",
+                "INSERT INTO rfb_event (event_date, event_code, rfb_location_id) VALUES (CURRENT_DATE, '" +
+                EVENT_CODE +
+                "', (SELECT MAX(id) FROM rfb_location))"
+            )
+            .concatWith(Flux.range(1, RUNNERS).map(runner -> "INSERT INTO rfb_user (username) VALUES ('runner" + runner + "')"))
+            .concatMap(sql -> db.sql(sql).fetch().rowsUpdated())
+            .blockLast();
+    }
+
+    @Setup(Level.Invocation)
+    public void deleteAttendances() {
+        db.sql("DELETE FROM rfb_event_attendance").fetch().rowsUpdated().block();
+    }
+
+    @Benchmark
+    public Long checkIns() {
+        return Flux
+            .range(1, RUNNERS)
+            .flatMap(runner -> rfbEventAttendanceResource.checkIn(checkIn("runner" + runner)), concurrency)
+            .count()
+            .block();
+    }
+
+    private static CheckInVM checkIn(String username) {
+        CheckInVM checkIn = new CheckInVM();
+        checkIn.setEventCode(EVENT_CODE);
+        checkIn.setUsername(username);
+        return checkIn;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+}
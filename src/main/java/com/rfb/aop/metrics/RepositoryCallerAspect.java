@@ -0,0 +1,65 @@
+package com.rfb.aop.metrics;
+
+import com.rfb.config.metrics.SqlMetrics;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Aspect for naming the caller of the SQL statements: the repository method is put in the Reactor context of its result, where it's
+ * found by the {@link com.rfb.config.metrics.MeteredConnectionFactory}.
+ * <p>
+ * The repositories are the Spring Data repositories, the classes annotated with {@link org.springframework.stereotype.Repository}, and
+ * the {@link com.rfb.service.EntityManager}, which is also used directly by the services. The outermost repository call wins, so a
+ * statement issued by a custom repository fragment is attributed to the public method.
+ */
+@Aspect
+public class RepositoryCallerAspect {
+
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    /**
+     * Advice that adds the repository method to the context of its reactive result.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws {@link IllegalArgumentException}.
+     */
+    @Around(
+        "this(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Repository)" +
+        " || within(com.rfb.service.EntityManager)"
+    )
+    public Object nameCaller(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (!(result instanceof Mono) && !(result instanceof Flux)) {
+            return result;
+        }
+        String caller = repositoryNames.computeIfAbsent(joinPoint.getThis().getClass(), type -> repositoryName(joinPoint.getThis())) +
+        "." +
+        joinPoint.getSignature().getName();
+        if (result instanceof Mono) {
+            return ((Mono<?>) result).contextWrite(context -> withCaller(context, caller));
+        }
+        return ((Flux<?>) result).contextWrite(context -> withCaller(context, caller));
+    }
+
+    private static Context withCaller(Context context, String caller) {
+        return context.hasKey(SqlMetrics.CALLER_CONTEXT_KEY) ? context : context.put(SqlMetrics.CALLER_CONTEXT_KEY, caller);
+    }
+
+    private static String repositoryName(Object proxy) {
+        for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+            if (type.getName().startsWith("com.rfb.")) {
+                return type.getSimpleName();
+            }
+        }
+        return ClassUtils.getUserClass(proxy).getSimpleName();
+    }
+}
@@ -0,0 +1,77 @@
+package com.rfb.aop.routing;
+
+import com.rfb.config.routing.ReplicaRouting;
+import com.rfb.security.SecurityUtils;
+import java.lang.reflect.Method;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+import org.springframework.transaction.interceptor.TransactionAttributeSource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Aspect for routing the transactions: the read-only flag of {@code @Transactional} methods is put in the Reactor context of their
+ * result, where it's found by {@link ReplicaRouting} when the transaction opens its connection, and the writes are recorded for the
+ * current user.
+ * <p>
+ * It must run outside of the transaction interceptor, so the flag is in the context when the transaction begins. The outermost
+ * transactional call wins, like the transaction propagation does.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TransactionRoutingAspect {
+
+    private final TransactionAttributeSource transactionAttributeSource = new AnnotationTransactionAttributeSource();
+
+    private final ReplicaRouting replicaRouting;
+
+    public TransactionRoutingAspect(ReplicaRouting replicaRouting) {
+        this.replicaRouting = replicaRouting;
+    }
+
+    /**
+     * Advice that adds the read-only flag to the context of the reactive result.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable throws {@link IllegalArgumentException}.
+     */
+    @Around(
+        "@within(org.springframework.transaction.annotation.Transactional)" +
+        " || @annotation(org.springframework.transaction.annotation.Transactional)"
+    )
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object result = joinPoint.proceed();
+        if (!(result instanceof Mono) && !(result instanceof Flux)) {
+            return result;
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        TransactionAttribute attribute = transactionAttributeSource.getTransactionAttribute(
+            method,
+            AopUtils.getTargetClass(joinPoint.getTarget())
+        );
+        boolean readOnly = attribute != null && attribute.isReadOnly();
+        if (result instanceof Mono) {
+            Mono<?> mono = readOnly ? (Mono<?>) result : recordWrite().then((Mono<?>) result);
+            return mono.contextWrite(context -> withReadOnly(context, readOnly));
+        }
+        Flux<?> flux = readOnly ? (Flux<?>) result : recordWrite().thenMany((Flux<?>) result);
+        return flux.contextWrite(context -> withReadOnly(context, readOnly));
+    }
+
+    private Mono<Void> recordWrite() {
+        return SecurityUtils.getCurrentUserLogin().doOnNext(replicaRouting::recordWrite).then();
+    }
+
+    private static Context withReadOnly(Context context, boolean readOnly) {
+        return context.hasKey(ReplicaRouting.READ_ONLY_CONTEXT_KEY) ? context : context.put(ReplicaRouting.READ_ONLY_CONTEXT_KEY, readOnly);
+    }
+}
@@ -1,5 +1,9 @@
 package com.rfb.config;
 
+import java.time.Duration;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +13,204 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Batch batch = new Batch();
+
+    private final Database database = new Database();
+
+    private final Counters counters = new Counters();
+
+    private final Archive archive = new Archive();
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public Counters getCounters() {
+        return counters;
+    }
+
+    public Archive getArchive() {
+        return archive;
+    }
+
+    public static class Batch {
+
+        private int chunkSize = 500;
+
+        private int maxSize = 10000;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    public static class Database {
+
+        private List<Replica> replicas = new ArrayList<>();
+
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        private String lagQuery = "SELECT 0";
+
+        private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+        private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+        public List<Replica> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(List<Replica> replicas) {
+            this.replicas = replicas;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public Duration getLagCheckInterval() {
+            return lagCheckInterval;
+        }
+
+        public void setLagCheckInterval(Duration lagCheckInterval) {
+            this.lagCheckInterval = lagCheckInterval;
+        }
+
+        public Duration getReadYourWritesWindow() {
+            return readYourWritesWindow;
+        }
+
+        public void setReadYourWritesWindow(Duration readYourWritesWindow) {
+            this.readYourWritesWindow = readYourWritesWindow;
+        }
+
+        public static class Replica {
+
+            private String url;
+
+            private String username;
+
+            private String password;
+
+            public String getUrl() {
+                return url;
+            }
+
+            public void setUrl(String url) {
+                this.url = url;
+            }
+
+            public String getUsername() {
+                return username;
+            }
+
+            public void setUsername(String username) {
+                this.username = username;
+            }
+
+            public String getPassword() {
+                return password;
+            }
+
+            public void setPassword(String password) {
+                this.password = password;
+            }
+        }
+    }
+
+    public static class Counters {
+
+        private int rebuildPartitions = 4;
+
+        public int getRebuildPartitions() {
+            return rebuildPartitions;
+        }
+
+        public void setRebuildPartitions(int rebuildPartitions) {
+            this.rebuildPartitions = rebuildPartitions;
+        }
+    }
+
+    public static class Archive {
+
+        private boolean enabled = false;
+
+        private Period horizon = Period.ofYears(3);
+
+        private String directory = "archive";
+
+        private String cron = "0 30 2 * * ?";
+
+        private int segmentSize = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Period getHorizon() {
+            return horizon;
+        }
+
+        public void setHorizon(Period horizon) {
+            this.horizon = horizon;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public String getCron() {
+            return cron;
+        }
+
+        public void setCron(String cron) {
+            this.cron = cron;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package com.rfb.config;
 
+import com.rfb.aop.routing.TransactionRoutingAspect;
+import com.rfb.config.pool.ConnectionPoolHealthIndicator;
+import com.rfb.config.pool.MeteredConnectionPool;
+import com.rfb.config.routing.ReplicaRouting;
+import com.rfb.config.routing.ReplicaRoutingPostProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.r2dbc.spi.ConnectionFactory;
 import java.sql.SQLException;
 import java.time.Duration;
@@ -15,11 +21,19 @@ import java.util.List;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.boot.autoconfigure.r2dbc.ConnectionFactoryOptionsBuilderCustomizer;
+import org.springframework.boot.autoconfigure.r2dbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.convert.CustomConversions;
 import org.springframework.data.convert.ReadingConverter;
 import org.springframework.data.convert.WritingConverter;
@@ -39,6 +53,7 @@ import tech.jhipster.config.h2.H2ConfigurationHelper;
 @Configuration
 @EnableR2dbcRepositories("com.rfb.repository")
 @EnableTransactionManagement
+@EnableAspectJAutoProxy
 public class DatabaseConfiguration {
 
     private final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
@@ -77,6 +92,72 @@ public class DatabaseConfiguration {
         return String.valueOf(port);
     }
 
+    /**
+     * Create the pool of the primary database connections, configured by the {@code spring.r2dbc.pool} properties.
+     *
+     * @param properties the R2DBC properties.
+     * @param resourceLoader the resource loader, to detect an embedded database.
+     * @param customizers the customizers of the connection options.
+     * @param meterRegistry the registry of the pool metrics.
+     * @return the connection pool.
+     */
+    @Bean(destroyMethod = "dispose")
+    public MeteredConnectionPool connectionFactory(
+        R2dbcProperties properties,
+        ResourceLoader resourceLoader,
+        ObjectProvider<ConnectionFactoryOptionsBuilderCustomizer> customizers,
+        MeterRegistry meterRegistry
+    ) {
+        ConnectionFactory connectionFactory = ConnectionFactoryBuilder
+            .of(properties, () -> EmbeddedDatabaseConnection.get(resourceLoader.getClassLoader()))
+            .configure(options -> customizers.orderedStream().forEach(customizer -> customizer.customize(options)))
+            .build();
+        R2dbcProperties.Pool pool = properties.getPool();
+        log.debug("Connection pool of {} to {} connections", pool.getInitialSize(), pool.getMaxSize());
+        return new MeteredConnectionPool(MeteredConnectionPool.configuration(connectionFactory, pool), meterRegistry, "connectionFactory");
+    }
+
+    /**
+     * Warm up the connection pool, and keep the readiness probe out of service until it's done.
+     *
+     * @param connectionFactory the connection factory.
+     * @return the health indicator of the connection pool.
+     */
+    @Bean(initMethod = "start")
+    public ConnectionPoolHealthIndicator connectionPoolHealthIndicator(ConnectionFactory connectionFactory) {
+        return new ConnectionPoolHealthIndicator(connectionFactory);
+    }
+
+    /**
+     * Route the read-only transactions to the replicas, if any are configured in {@code application.database.replicas}.
+     *
+     * @param applicationProperties the application properties.
+     * @param r2dbcProperties the R2DBC properties, whose pool settings are also used for the replicas.
+     * @param meterRegistry the registry of the pool metrics.
+     * @return the replica routing, checking the lag of the replicas while the application runs.
+     */
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "application.database", name = "replicas[0].url")
+    public ReplicaRouting replicaRouting(
+        ApplicationProperties applicationProperties,
+        R2dbcProperties r2dbcProperties,
+        MeterRegistry meterRegistry
+    ) {
+        log.info("Routing the read-only transactions to {} replica(s)", applicationProperties.getDatabase().getReplicas().size());
+        return new ReplicaRouting(applicationProperties.getDatabase(), r2dbcProperties.getPool(), meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.database", name = "replicas[0].url")
+    public TransactionRoutingAspect transactionRoutingAspect(ReplicaRouting replicaRouting) {
+        return new TransactionRoutingAspect(replicaRouting);
+    }
+
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(ObjectProvider<ReplicaRouting> replicaRouting) {
+        return new ReplicaRoutingPostProcessor(replicaRouting);
+    }
+
     /**
      * Simple singleton to convert {@link UUID}s to their {@link String} representation.
      */
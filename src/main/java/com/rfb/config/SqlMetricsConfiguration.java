@@ -0,0 +1,50 @@
+package com.rfb.config;
+
+import com.rfb.aop.metrics.RepositoryCallerAspect;
+import com.rfb.config.metrics.MeteredConnectionFactory;
+import com.rfb.config.metrics.SqlMetrics;
+import com.rfb.config.metrics.SqlStatsEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+/**
+ * Records the execution time of the SQL statements per statement fingerprint and calling repository method, and publishes them on
+ * the {@code /management/sql-stats} endpoint.
+ */
+@Configuration
+@EnableAspectJAutoProxy
+public class SqlMetricsConfiguration {
+
+    @Bean
+    public SqlMetrics sqlMetrics(MeterRegistry registry) {
+        return new SqlMetrics(registry);
+    }
+
+    @Bean
+    public static BeanPostProcessor meteredConnectionFactoryPostProcessor(ObjectProvider<SqlMetrics> sqlMetrics) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ConnectionFactory && !(bean instanceof MeteredConnectionFactory)) {
+                    return new MeteredConnectionFactory((ConnectionFactory) bean, sqlMetrics::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public RepositoryCallerAspect repositoryCallerAspect() {
+        return new RepositoryCallerAspect();
+    }
+
+    @Bean
+    public SqlStatsEndpoint sqlStatsEndpoint(MeterRegistry registry) {
+        return new SqlStatsEndpoint(registry);
+    }
+}
@@ -0,0 +1,279 @@
+package com.rfb.config.metrics;
+
+import io.r2dbc.spi.Batch;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.ConnectionMetadata;
+import io.r2dbc.spi.IsolationLevel;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
+import io.r2dbc.spi.ValidationDepth;
+import io.r2dbc.spi.Wrapped;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ConnectionFactory}, which records the {@link SqlMetrics} of the statements executed on its connections.
+ * <p>
+ * An execution is timed from the subscription to {@link Statement#execute()} until its result has been consumed, and it is tagged
+ * with the calling repository method, found in the Reactor context under {@link SqlMetrics#CALLER_CONTEXT_KEY}.
+ */
+public class MeteredConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory delegate;
+    private final Supplier<SqlMetrics> sqlMetrics;
+
+    /**
+     * @param delegate the connection factory to meter.
+     * @param sqlMetrics supplies the metrics, it's called lazily, as the connection factory is created before the meter registry.
+     */
+    public MeteredConnectionFactory(ConnectionFactory delegate, Supplier<SqlMetrics> sqlMetrics) {
+        this.delegate = delegate;
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono.from(delegate.create()).map(connection -> new MeteredConnection(connection, sqlMetrics.get()));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return delegate;
+    }
+
+    private static Flux<Result> execute(Publisher<? extends Result> results, String sql, SqlMetrics sqlMetrics) {
+        return Flux.deferContextual(
+            context -> {
+                String caller = context.getOrDefault(SqlMetrics.CALLER_CONTEXT_KEY, SqlMetrics.UNKNOWN_CALLER);
+                long start = System.nanoTime();
+                return Flux.from(results).map(result -> new MeteredResult(result, sql, caller, start, sqlMetrics));
+            }
+        );
+    }
+
+    private static class MeteredConnection implements Connection, Wrapped<Connection> {
+
+        private final Connection delegate;
+        private final SqlMetrics sqlMetrics;
+
+        MeteredConnection(Connection delegate, SqlMetrics sqlMetrics) {
+            this.delegate = delegate;
+            this.sqlMetrics = sqlMetrics;
+        }
+
+        @Override
+        public Statement createStatement(String sql) {
+            return new MeteredStatement(delegate.createStatement(sql), sql, sqlMetrics);
+        }
+
+        @Override
+        public Batch createBatch() {
+            return new MeteredBatch(delegate.createBatch(), sqlMetrics);
+        }
+
+        @Override
+        public Publisher<Void> beginTransaction() {
+            return delegate.beginTransaction();
+        }
+
+        @Override
+        public Publisher<Void> close() {
+            return delegate.close();
+        }
+
+        @Override
+        public Publisher<Void> commitTransaction() {
+            return delegate.commitTransaction();
+        }
+
+        @Override
+        public Publisher<Void> createSavepoint(String name) {
+            return delegate.createSavepoint(name);
+        }
+
+        @Override
+        public boolean isAutoCommit() {
+            return delegate.isAutoCommit();
+        }
+
+        @Override
+        public ConnectionMetadata getMetadata() {
+            return delegate.getMetadata();
+        }
+
+        @Override
+        public IsolationLevel getTransactionIsolationLevel() {
+            return delegate.getTransactionIsolationLevel();
+        }
+
+        @Override
+        public Publisher<Void> releaseSavepoint(String name) {
+            return delegate.releaseSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransaction() {
+            return delegate.rollbackTransaction();
+        }
+
+        @Override
+        public Publisher<Void> rollbackTransactionToSavepoint(String name) {
+            return delegate.rollbackTransactionToSavepoint(name);
+        }
+
+        @Override
+        public Publisher<Void> setAutoCommit(boolean autoCommit) {
+            return delegate.setAutoCommit(autoCommit);
+        }
+
+        @Override
+        public Publisher<Void> setTransactionIsolationLevel(IsolationLevel isolationLevel) {
+            return delegate.setTransactionIsolationLevel(isolationLevel);
+        }
+
+        @Override
+        public Publisher<Boolean> validate(ValidationDepth depth) {
+            return delegate.validate(depth);
+        }
+
+        @Override
+        public Connection unwrap() {
+            return delegate;
+        }
+    }
+
+    private static class MeteredStatement implements Statement {
+
+        private final Statement delegate;
+        private final String sql;
+        private final SqlMetrics sqlMetrics;
+
+        MeteredStatement(Statement delegate, String sql, SqlMetrics sqlMetrics) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.sqlMetrics = sqlMetrics;
+        }
+
+        @Override
+        public Statement add() {
+            delegate.add();
+            return this;
+        }
+
+        @Override
+        public Statement bind(int index, Object value) {
+            delegate.bind(index, value);
+            return this;
+        }
+
+        @Override
+        public Statement bind(String name, Object value) {
+            delegate.bind(name, value);
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(int index, Class<?> type) {
+            delegate.bindNull(index, type);
+            return this;
+        }
+
+        @Override
+        public Statement bindNull(String name, Class<?> type) {
+            delegate.bindNull(name, type);
+            return this;
+        }
+
+        @Override
+        public Statement returnGeneratedValues(String... columns) {
+            delegate.returnGeneratedValues(columns);
+            return this;
+        }
+
+        @Override
+        public Statement fetchSize(int rows) {
+            delegate.fetchSize(rows);
+            return this;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            return MeteredConnectionFactory.execute(delegate.execute(), sql, sqlMetrics);
+        }
+    }
+
+    private static class MeteredBatch implements Batch {
+
+        private final Batch delegate;
+        private final SqlMetrics sqlMetrics;
+        private final List<String> sqls = new ArrayList<>();
+
+        MeteredBatch(Batch delegate, SqlMetrics sqlMetrics) {
+            this.delegate = delegate;
+            this.sqlMetrics = sqlMetrics;
+        }
+
+        @Override
+        public Batch add(String sql) {
+            delegate.add(sql);
+            sqls.add(sql);
+            return this;
+        }
+
+        @Override
+        public Publisher<? extends Result> execute() {
+            return MeteredConnectionFactory.execute(delegate.execute(), String.join("; ", sqls), sqlMetrics);
+        }
+    }
+
+    private static class MeteredResult implements Result {
+
+        private final Result delegate;
+        private final String sql;
+        private final String caller;
+        private final long start;
+        private final SqlMetrics sqlMetrics;
+
+        MeteredResult(Result delegate, String sql, String caller, long start, SqlMetrics sqlMetrics) {
+            this.delegate = delegate;
+            this.sql = sql;
+            this.caller = caller;
+            this.start = start;
+            this.sqlMetrics = sqlMetrics;
+        }
+
+        @Override
+        public Publisher<Integer> getRowsUpdated() {
+            AtomicLong rows = new AtomicLong();
+            return Flux.from(delegate.getRowsUpdated()).doOnNext(rows::addAndGet).doFinally(signal -> record(rows.get()));
+        }
+
+        @Override
+        public <T> Publisher<T> map(BiFunction<Row, RowMetadata, ? extends T> mappingFunction) {
+            AtomicLong rows = new AtomicLong();
+            return Flux
+                .from(delegate.<T>map(mappingFunction))
+                .doOnNext(row -> rows.incrementAndGet())
+                .doFinally(signal -> record(rows.get()));
+        }
+
+        private void record(long rows) {
+            sqlMetrics.record(sql, caller, System.nanoTime() - start, rows);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.rfb.config.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Records the execution time and the number of rows of the SQL statements, tagged by the statement fingerprint and the calling
+ * repository method.
+ * <p>
+ * The fingerprint is the statement without its literals and bind markers, so the executions of the same query share their metrics.
+ * The number of fingerprints is bounded, the new fingerprints seen after the bound are recorded as {@link #OTHER_STATEMENT}. The
+ * fingerprints of the recently executed SQL texts are kept in a separate bounded cache, so the regular expressions only run for a text
+ * which isn't in it.
+ */
+public class SqlMetrics {
+
+    public static final String STATEMENT_TIMER = "sql.statement";
+    public static final String STATEMENT_ROWS = "sql.statement.rows";
+    public static final String STATEMENT_TAG = "statement";
+    public static final String CALLER_TAG = "caller";
+
+    /**
+     * The key of the calling repository method in the Reactor context.
+     */
+    public static final String CALLER_CONTEXT_KEY = SqlMetrics.class.getName() + ".caller";
+
+    public static final String UNKNOWN_CALLER = "unknown";
+
+    /**
+     * The fingerprint of the statements which are recorded once there are {@link #MAX_FINGERPRINTS} fingerprints.
+     */
+    public static final String OTHER_STATEMENT = "other";
+
+    // upper bound for the recorded fingerprints, and so for the meters
+    static final int MAX_FINGERPRINTS = 1024;
+
+    // upper bound for the cached fingerprints of the SQL texts, as the batch statements have a text per number of bind markers
+    static final int MAX_SQL_TEXTS = 4096;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$:])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern BIND_MARKER = Pattern.compile("\\$\\d+|(?<!:):\\w+");
+    private static final Pattern VALUE_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern VALUE_ROWS = Pattern.compile("(\\(\\?\\.\\.\\.\\)|\\(\\?\\))(?:\\s*,\\s*\\1)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * The meters of a statement fingerprint and caller.
+     */
+    private static final class Meters {
+
+        private final Timer timer;
+        private final DistributionSummary rows;
+
+        private Meters(Timer timer, DistributionSummary rows) {
+            this.timer = timer;
+            this.rows = rows;
+        }
+    }
+
+    private final MeterRegistry registry;
+    // the fingerprints by SQL text, the least recently used is evicted once there are too many
+    private final Map<String, String> fingerprints = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > MAX_SQL_TEXTS;
+            }
+        }
+    );
+    // the meters by fingerprint and caller, so an execution doesn't build and look up its meters in the registry
+    private final Map<String, Map<String, Meters>> meters = new ConcurrentHashMap<>();
+
+    public SqlMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Records an execution of a statement.
+     * @param sql the executed SQL.
+     * @param caller the calling repository method, or {@link #UNKNOWN_CALLER}.
+     * @param durationNanos the time from the execution until the result was consumed.
+     * @param rows the number of fetched or updated rows.
+     */
+    public void record(String sql, String caller, long durationNanos, long rows) {
+        String statement = statementOf(sql);
+        Meters statementMeters = meters
+            .computeIfAbsent(statement, key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(caller, key -> registerMeters(statement, caller));
+        statementMeters.timer.record(durationNanos, TimeUnit.NANOSECONDS);
+        statementMeters.rows.record(rows);
+    }
+
+    private String statementOf(String sql) {
+        String statement = fingerprints.get(sql);
+        if (statement == null) {
+            statement = fingerprint(sql);
+            fingerprints.put(sql, statement);
+        }
+        // the meters of a fingerprint are registered by its first execution, so their number is the number of fingerprints
+        if (!meters.containsKey(statement) && meters.size() >= MAX_FINGERPRINTS) {
+            return OTHER_STATEMENT;
+        }
+        return statement;
+    }
+
+    private Meters registerMeters(String statement, String caller) {
+        Timer timer = Timer
+            .builder(STATEMENT_TIMER)
+            .description("Execution time of the SQL statements")
+            .tag(STATEMENT_TAG, statement)
+            .tag(CALLER_TAG, caller)
+            .publishPercentiles(0.99)
+            .register(registry);
+        DistributionSummary rows = DistributionSummary
+            .builder(STATEMENT_ROWS)
+            .description("Number of rows fetched or updated by the SQL statements")
+            .tag(STATEMENT_TAG, statement)
+            .tag(CALLER_TAG, caller)
+            .register(registry);
+        return new Meters(timer, rows);
+    }
+
+    /**
+     * Normalizes a statement: the literals and bind markers are replaced by {@code ?}, lists of values by {@code ?...}, and multi-row
+     * values by their first row.
+     * @param sql the SQL statement.
+     * @return the fingerprint of the statement.
+     */
+    public static String fingerprint(String sql) {
+        String fingerprint = STRING_LITERAL.matcher(sql).replaceAll("?");
+        fingerprint = BIND_MARKER.matcher(fingerprint).replaceAll("?");
+        fingerprint = NUMBER_LITERAL.matcher(fingerprint).replaceAll("?");
+        fingerprint = VALUE_LIST.matcher(fingerprint).replaceAll("?...");
+        fingerprint = VALUE_ROWS.matcher(fingerprint).replaceAll("$1, ...");
+        return WHITESPACE.matcher(fingerprint).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,124 @@
+package com.rfb.config.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint listing the SQL statements recorded by {@link SqlMetrics}, the most expensive ones first.
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    public static final int DEFAULT_TOP = 20;
+
+    private final MeterRegistry registry;
+
+    public SqlStatsEndpoint(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Lists the statements by descending total execution time.
+     * @param top the maximum number of statements, {@link #DEFAULT_TOP} if it isn't given.
+     * @return the statistics of the statements.
+     */
+    @ReadOperation
+    public List<StatementStats> sqlStats(@Nullable Integer top) {
+        return registry
+            .find(SqlMetrics.STATEMENT_TIMER)
+            .timers()
+            .stream()
+            .map(this::toStatementStats)
+            .sorted(Comparator.comparingDouble(StatementStats::getTotalTimeMs).reversed())
+            .limit(top != null && top > 0 ? top : DEFAULT_TOP)
+            .collect(Collectors.toList());
+    }
+
+    private StatementStats toStatementStats(Timer timer) {
+        String statement = timer.getId().getTag(SqlMetrics.STATEMENT_TAG);
+        String caller = timer.getId().getTag(SqlMetrics.CALLER_TAG);
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        double p99 = 0;
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            if (percentile.percentile() == 0.99) {
+                p99 = percentile.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        DistributionSummary rows = registry
+            .find(SqlMetrics.STATEMENT_ROWS)
+            .tag(SqlMetrics.STATEMENT_TAG, statement)
+            .tag(SqlMetrics.CALLER_TAG, caller)
+            .summary();
+        return new StatementStats(
+            statement,
+            caller,
+            snapshot.count(),
+            snapshot.total(TimeUnit.MILLISECONDS),
+            snapshot.mean(TimeUnit.MILLISECONDS),
+            p99,
+            rows != null ? (long) rows.totalAmount() : 0
+        );
+    }
+
+    /**
+     * The statistics of a statement fingerprint, executed by a caller.
+     */
+    public static class StatementStats {
+
+        private final String statement;
+        private final String caller;
+        private final long count;
+        private final double totalTimeMs;
+        private final double meanMs;
+        private final double p99Ms;
+        private final long rows;
+
+        public StatementStats(String statement, String caller, long count, double totalTimeMs, double meanMs, double p99Ms, long rows) {
+            this.statement = statement;
+            this.caller = caller;
+            this.count = count;
+            this.totalTimeMs = totalTimeMs;
+            this.meanMs = meanMs;
+            this.p99Ms = p99Ms;
+            this.rows = rows;
+        }
+
+        public String getStatement() {
+            return statement;
+        }
+
+        public String getCaller() {
+            return caller;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getTotalTimeMs() {
+            return totalTimeMs;
+        }
+
+        public double getMeanMs() {
+            return meanMs;
+        }
+
+        public double getP99Ms() {
+            return p99Ms;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.rfb.config.pool;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Wrapped;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import reactor.core.publisher.Mono;
+
+/**
+ * Warms up the connection pool to its initial size, and reports it as out of service until the warmup succeeded, so the readiness
+ * probe only goes green with open connections.
+ */
+public class ConnectionPoolHealthIndicator implements ReactiveHealthIndicator {
+
+    private final Logger log = LoggerFactory.getLogger(ConnectionPoolHealthIndicator.class);
+
+    private final ConnectionPool pool;
+    private volatile boolean warmedUp;
+
+    /**
+     * @param connectionFactory the connection factory, which is or wraps the connection pool.
+     */
+    public ConnectionPoolHealthIndicator(ConnectionFactory connectionFactory) {
+        this.pool = findPool(connectionFactory);
+    }
+
+    /**
+     * Starts the warmup, in the background so the application startup doesn't fail if the database isn't available yet.
+     */
+    public void start() {
+        warmup().subscribe();
+    }
+
+    @Override
+    public Mono<Health> health() {
+        if (pool == null) {
+            return Mono.just(Health.unknown().withDetail("pool", "none").build());
+        }
+        return warmedUp ? Mono.just(up()) : warmup();
+    }
+
+    private Mono<Health> warmup() {
+        if (pool == null) {
+            return Mono.empty();
+        }
+        return pool
+            .warmup()
+            .map(
+                created -> {
+                    if (!warmedUp) {
+                        log.info("Warmed up the connection pool with {} connection(s)", created);
+                    }
+                    warmedUp = true;
+                    return up();
+                }
+            )
+            .onErrorResume(
+                error -> {
+                    log.warn("Could not warm up the connection pool: {}", error.toString());
+                    return Mono.just(Health.outOfService().withException(error).build());
+                }
+            );
+    }
+
+    private Health up() {
+        Health.Builder health = Health.up();
+        pool
+            .getMetrics()
+            .ifPresent(
+                metrics ->
+                    health
+                        .withDetail("allocated", metrics.allocatedSize())
+                        .withDetail("acquired", metrics.acquiredSize())
+                        .withDetail("idle", metrics.idleSize())
+                        .withDetail("pending", metrics.pendingAcquireSize())
+                        .withDetail("maxAllocated", metrics.getMaxAllocatedSize())
+            );
+        return health.build();
+    }
+
+    private static ConnectionPool findPool(Object connectionFactory) {
+        while (!(connectionFactory instanceof ConnectionPool) && connectionFactory instanceof Wrapped) {
+            connectionFactory = ((Wrapped<?>) connectionFactory).unwrap();
+        }
+        return connectionFactory instanceof ConnectionPool ? (ConnectionPool) connectionFactory : null;
+    }
+}
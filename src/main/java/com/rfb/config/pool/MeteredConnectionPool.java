@@ -0,0 +1,153 @@
+package com.rfb.config.pool;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.PropertyMapper;
+import reactor.core.publisher.Mono;
+import reactor.pool.PoolMetricsRecorder;
+
+/**
+ * A {@link ConnectionPool}, which publishes its metrics to Micrometer, tagged with the pool name:
+ * <ul>
+ * <li>the {@code r2dbc.pool.acquired}, {@code allocated}, {@code idle} and {@code pending} gauges;</li>
+ * <li>the {@code r2dbc.pool.acquire} timer, the time a caller waited for a connection;</li>
+ * <li>the {@code r2dbc.pool.allocation} timer, the time to open a new connection;</li>
+ * <li>the {@code r2dbc.pool.connection.lifetime} and {@code r2dbc.pool.connection.idle} timers.</li>
+ * </ul>
+ */
+public class MeteredConnectionPool extends ConnectionPool {
+
+    private static final String OUTCOME_TAG = "outcome";
+
+    private final Timer acquireSuccess;
+    private final Timer acquireFailure;
+    private final MeterRegistry registry;
+
+    public MeteredConnectionPool(ConnectionPoolConfiguration.Builder configuration, MeterRegistry registry, String name) {
+        super(configuration.name(name).metricsRecorder(new MicrometerRecorder(registry, name)).build());
+        this.registry = registry;
+        this.acquireSuccess = acquireTimer(registry, name, "success");
+        this.acquireFailure = acquireTimer(registry, name, "failure");
+        new ConnectionPoolMetrics(this, name, Tags.empty()).bindTo(registry);
+    }
+
+    /**
+     * Creates the configuration of a pool from the {@code spring.r2dbc.pool} properties.
+     * @param connectionFactory the factory of the pooled connections.
+     * @param pool the pool properties.
+     * @return the pool configuration.
+     */
+    public static ConnectionPoolConfiguration.Builder configuration(ConnectionFactory connectionFactory, R2dbcProperties.Pool pool) {
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+            .builder(connectionFactory)
+            .initialSize(pool.getInitialSize())
+            .maxSize(pool.getMaxSize())
+            .validationDepth(pool.getValidationDepth());
+        PropertyMapper map = PropertyMapper.get().alwaysApplyingWhenNonNull();
+        map.from(pool.getMaxIdleTime()).to(configuration::maxIdleTime);
+        map.from(pool.getMaxLifeTime()).to(configuration::maxLifeTime);
+        map.from(pool.getMaxAcquireTime()).to(configuration::maxAcquireTime);
+        map.from(pool.getMaxCreateConnectionTime()).to(configuration::maxCreateConnectionTime);
+        map.from(pool.getValidationQuery()).whenHasText().to(configuration::validationQuery);
+        return configuration;
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(
+            () -> {
+                Timer.Sample sample = Timer.start(registry);
+                return super
+                    .create()
+                    .doOnSuccess(connection -> sample.stop(acquireSuccess))
+                    .doOnError(error -> sample.stop(acquireFailure));
+            }
+        );
+    }
+
+    private static Timer acquireTimer(MeterRegistry registry, String name, String outcome) {
+        return Timer
+            .builder("r2dbc.pool.acquire")
+            .description("Time to acquire a connection from the pool")
+            .tag("name", name)
+            .tag(OUTCOME_TAG, outcome)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static class MicrometerRecorder implements PoolMetricsRecorder {
+
+        private final Timer allocationSuccess;
+        private final Timer allocationFailure;
+        private final Timer lifetime;
+        private final Timer idleTime;
+
+        MicrometerRecorder(MeterRegistry registry, String name) {
+            this.allocationSuccess = timer(registry, name, "r2dbc.pool.allocation", "Time to open a new connection", "success");
+            this.allocationFailure = timer(registry, name, "r2dbc.pool.allocation", "Time to open a new connection", "failure");
+            this.lifetime = timer(registry, name, "r2dbc.pool.connection.lifetime", "Lifetime of the closed connections", null);
+            this.idleTime = timer(registry, name, "r2dbc.pool.connection.idle", "Idle time of the acquired connections", null);
+        }
+
+        private static Timer timer(MeterRegistry registry, String name, String metric, String description, String outcome) {
+            Timer.Builder builder = Timer.builder(metric).description(description).tag("name", name);
+            if (outcome != null) {
+                builder.tag(OUTCOME_TAG, outcome);
+            }
+            return builder.register(registry);
+        }
+
+        @Override
+        public void recordAllocationSuccessAndLatency(long latencyMs) {
+            allocationSuccess.record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordAllocationFailureAndLatency(long latencyMs) {
+            allocationFailure.record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordResetLatency(long latencyMs) {
+            // the connections are reset by their release, which is part of the statement timings
+        }
+
+        @Override
+        public void recordDestroyLatency(long latencyMs) {
+            // closing a connection doesn't delay the callers
+        }
+
+        @Override
+        public void recordRecycled() {
+            // counted by the acquire timer
+        }
+
+        @Override
+        public void recordLifetimeDuration(long millisecondsSinceAllocation) {
+            lifetime.record(millisecondsSinceAllocation, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordIdleTime(long millisecondsIdle) {
+            idleTime.record(millisecondsIdle, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void recordSlowPath() {
+            // implementation detail of the pool
+        }
+
+        @Override
+        public void recordFastPath() {
+            // implementation detail of the pool
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.rfb.config.routing;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.config.pool.MeteredConnectionPool;
+import com.rfb.security.SecurityUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.ContextView;
+
+/**
+ * Selects the database of a connection: read-only transactions go to a replica, everything else to the primary.
+ * <p>
+ * A replica is only used while it's reachable and its lag, measured every {@code lag-check-interval} by the {@code lag-query}, is
+ * below {@code max-lag}. The reads of a user who wrote in the last {@code read-your-writes-window} stay on the primary, so they see
+ * their own changes; this is tracked per application instance.
+ * <p>
+ * Every replica has its own connection pool, with the {@code spring.r2dbc.pool} settings of the primary, whose metrics are tagged with
+ * the name {@code replica<n>}.
+ */
+public class ReplicaRouting {
+
+    /**
+     * The key of the read-only flag of the current transaction in the Reactor context.
+     */
+    public static final String READ_ONLY_CONTEXT_KEY = ReplicaRouting.class.getName() + ".readOnly";
+
+    // the write times are cleaned up when there are more users than this
+    private static final int MAX_TRACKED_WRITERS = 10_000;
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRouting.class);
+
+    private final ApplicationProperties.Database properties;
+    private final List<Replica> replicas;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private Disposable lagChecks;
+
+    public ReplicaRouting(ApplicationProperties.Database properties, R2dbcProperties.Pool pool, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        List<ApplicationProperties.Database.Replica> replicaProperties = properties.getReplicas();
+        this.replicas =
+            IntStream
+                .range(0, replicaProperties.size())
+                .mapToObj(i -> new Replica(replicaProperties.get(i), pool, meterRegistry, "replica" + i))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Starts the periodic lag checks of the replicas; until the first check succeeded, a replica isn't used.
+     */
+    public void start() {
+        lagChecks =
+            Flux
+                .interval(Duration.ZERO, properties.getLagCheckInterval(), Schedulers.boundedElastic())
+                .onBackpressureDrop()
+                .concatMap(tick -> checkReplicas(), 1)
+                .subscribe();
+    }
+
+    public void stop() {
+        if (lagChecks != null) {
+            lagChecks.dispose();
+        }
+        replicas.forEach(replica -> replica.connectionPool.dispose());
+    }
+
+    /**
+     * Selects a replica for the current connection request.
+     * @param context the context of the connection request.
+     * @return an available replica, or empty if the connection must go to the primary.
+     */
+    public Mono<ConnectionFactory> selectReplica(ContextView context) {
+        if (!context.getOrDefault(READ_ONLY_CONTEXT_KEY, false)) {
+            return Mono.empty();
+        }
+        return SecurityUtils
+            .getCurrentUserLogin()
+            .map(this::hasRecentlyWritten)
+            .defaultIfEmpty(false)
+            .flatMap(recentlyWritten -> recentlyWritten ? Mono.empty() : Mono.justOrEmpty(nextAvailableReplica()));
+    }
+
+    /**
+     * Records a write of a user, whose reads then go to the primary for the {@code read-your-writes-window}.
+     * @param login the login of the user.
+     */
+    public void recordWrite(String login) {
+        long now = System.nanoTime();
+        if (lastWrites.size() >= MAX_TRACKED_WRITERS) {
+            lastWrites.values().removeIf(time -> now - time >= properties.getReadYourWritesWindow().toNanos());
+        }
+        lastWrites.put(login, now);
+    }
+
+    /**
+     * Checks the lag of all replicas.
+     * @return a Mono completing when all replicas were checked.
+     */
+    public Mono<Void> checkReplicas() {
+        return Flux.fromIterable(replicas).flatMap(this::checkReplica).then();
+    }
+
+    private boolean hasRecentlyWritten(String login) {
+        Long lastWrite = lastWrites.get(login);
+        return lastWrite != null && System.nanoTime() - lastWrite < properties.getReadYourWritesWindow().toNanos();
+    }
+
+    private ConnectionFactory nextAvailableReplica() {
+        long maxLagMillis = properties.getMaxLag().toMillis();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.lagMillis <= maxLagMillis) {
+                return replica.connectionPool;
+            }
+        }
+        return null;
+    }
+
+    private Mono<Void> checkReplica(Replica replica) {
+        return Mono
+            .usingWhen(replica.connectionPool.create(), this::queryLag, Connection::close)
+            .timeout(properties.getLagCheckInterval())
+            .doOnNext(
+                lag -> {
+                    if (!lag.isPresent()) {
+                        log.warn("Replication to {} is stopped", replica.url);
+                    }
+                    replica.lagMillis = lag.map(seconds -> (long) (seconds.doubleValue() * 1000)).orElse(Long.MAX_VALUE);
+                }
+            )
+            .onErrorResume(
+                error -> {
+                    log.warn("Replica {} is unavailable: {}", replica.url, error.toString());
+                    replica.lagMillis = Long.MAX_VALUE;
+                    return Mono.empty();
+                }
+            )
+            .then();
+    }
+
+    private Mono<Optional<Number>> queryLag(Connection connection) {
+        return Flux
+            .from(connection.createStatement(properties.getLagQuery()).execute())
+            .concatMap(result -> result.map((row, metadata) -> Optional.ofNullable(row.get(0, Number.class))))
+            .next();
+    }
+
+    private static class Replica {
+
+        private final String url;
+        private final MeteredConnectionPool connectionPool;
+        private volatile long lagMillis = Long.MAX_VALUE;
+
+        Replica(ApplicationProperties.Database.Replica properties, R2dbcProperties.Pool pool, MeterRegistry meterRegistry, String name) {
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+            if (StringUtils.hasText(properties.getUsername())) {
+                options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+            }
+            if (StringUtils.hasText(properties.getPassword())) {
+                options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+            }
+            this.url = properties.getUrl();
+            ConnectionFactory connectionFactory = ConnectionFactories.get(options.build());
+            this.connectionPool =
+                new MeteredConnectionPool(MeteredConnectionPool.configuration(connectionFactory, pool), meterRegistry, name);
+        }
+    }
+}
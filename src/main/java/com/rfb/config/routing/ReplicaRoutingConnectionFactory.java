@@ -0,0 +1,43 @@
+package com.rfb.config.routing;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Mono;
+
+/**
+ * A {@link ConnectionFactory}, which creates the connections of read-only transactions on a replica selected by
+ * {@link ReplicaRouting}, and all others on the primary.
+ * <p>
+ * The transaction manager binds the connection to the transaction, so all statements of a transaction use the same database.
+ */
+public class ReplicaRoutingConnectionFactory implements ConnectionFactory, Wrapped<ConnectionFactory> {
+
+    private final ConnectionFactory primary;
+    private final ReplicaRouting replicaRouting;
+
+    public ReplicaRoutingConnectionFactory(ConnectionFactory primary, ReplicaRouting replicaRouting) {
+        this.primary = primary;
+        this.replicaRouting = replicaRouting;
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        return Mono
+            .deferContextual(replicaRouting::selectReplica)
+            .defaultIfEmpty(primary)
+            .flatMap(connectionFactory -> Mono.from(connectionFactory.create()));
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    @Override
+    public ConnectionFactory unwrap() {
+        return primary;
+    }
+}
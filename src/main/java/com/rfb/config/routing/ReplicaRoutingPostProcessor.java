@@ -0,0 +1,35 @@
+package com.rfb.config.routing;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+/**
+ * Wraps the primary {@link ConnectionFactory} in a {@link ReplicaRoutingConnectionFactory}, if replicas are configured.
+ * <p>
+ * It runs before the other post-processors, so the connection factories wrapping this one, like the metered one, see the
+ * connections of both the primary and the replicas.
+ */
+public class ReplicaRoutingPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<ReplicaRouting> replicaRouting;
+
+    public ReplicaRoutingPostProcessor(ObjectProvider<ReplicaRouting> replicaRouting) {
+        this.replicaRouting = replicaRouting;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof ConnectionFactory) || bean instanceof ReplicaRoutingConnectionFactory) {
+            return bean;
+        }
+        ReplicaRouting routing = replicaRouting.getIfAvailable();
+        return routing != null ? new ReplicaRoutingConnectionFactory((ConnectionFactory) bean, routing) : bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,95 @@
+package com.rfb.domain;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * The number of attendances of a user at a location, which is maintained together with the attendances.
+ * <p>
+ * {@link #ALL} stands for all the users, or all the locations: the counter of {@code (user, ALL)} is the total of the user, and the
+ * counter of {@code (ALL, location)} is the total of the location.
+ */
+public class RfbAttendanceCounter implements Serializable, Comparable<RfbAttendanceCounter> {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final long ALL = 0L;
+
+    private static final Comparator<RfbAttendanceCounter> KEY_ORDER = Comparator
+        .comparingLong(RfbAttendanceCounter::getRfbUserId)
+        .thenComparingLong(RfbAttendanceCounter::getRfbLocationId);
+
+    private long rfbUserId;
+
+    private long rfbLocationId;
+
+    private long attendanceCount;
+
+    public RfbAttendanceCounter() {}
+
+    public RfbAttendanceCounter(long rfbUserId, long rfbLocationId, long attendanceCount) {
+        this.rfbUserId = rfbUserId;
+        this.rfbLocationId = rfbLocationId;
+        this.attendanceCount = attendanceCount;
+    }
+
+    public long getRfbUserId() {
+        return rfbUserId;
+    }
+
+    public void setRfbUserId(long rfbUserId) {
+        this.rfbUserId = rfbUserId;
+    }
+
+    public long getRfbLocationId() {
+        return rfbLocationId;
+    }
+
+    public void setRfbLocationId(long rfbLocationId) {
+        this.rfbLocationId = rfbLocationId;
+    }
+
+    public long getAttendanceCount() {
+        return attendanceCount;
+    }
+
+    public void setAttendanceCount(long attendanceCount) {
+        this.attendanceCount = attendanceCount;
+    }
+
+    /**
+     * Orders the counters by their key, which is also the order they are locked in.
+     */
+    @Override
+    public int compareTo(RfbAttendanceCounter other) {
+        return KEY_ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RfbAttendanceCounter)) {
+            return false;
+        }
+        RfbAttendanceCounter other = (RfbAttendanceCounter) o;
+        return rfbUserId == other.rfbUserId && rfbLocationId == other.rfbLocationId;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rfbUserId, rfbLocationId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RfbAttendanceCounter{" +
+            "rfbUserId=" + getRfbUserId() +
+            ", rfbLocationId=" + getRfbLocationId() +
+            ", attendanceCount=" + getAttendanceCount() +
+            "}";
+    }
+}
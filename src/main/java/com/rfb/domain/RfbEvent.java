@@ -38,6 +38,9 @@ public class RfbEvent implements Serializable {
     @Column("rfb_location_id")
     private Long rfbLocationId;
 
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -132,6 +135,19 @@ public class RfbEvent implements Serializable {
         this.rfbLocationId = rfbLocation;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public RfbEvent version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -158,6 +174,7 @@ public class RfbEvent implements Serializable {
             "id=" + getId() +
             ", eventDate='" + getEventDate() + "'" +
             ", eventCode='" + getEventCode() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -36,6 +36,9 @@ public class RfbEventAttendance implements Serializable {
     @Column("rfb_user_id")
     private Long rfbUserId;
 
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -109,6 +112,19 @@ public class RfbEventAttendance implements Serializable {
         this.rfbUserId = rfbUser;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public RfbEventAttendance version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -134,6 +150,7 @@ public class RfbEventAttendance implements Serializable {
         return "RfbEventAttendance{" +
             "id=" + getId() +
             ", attendanceDate='" + getAttendanceDate() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
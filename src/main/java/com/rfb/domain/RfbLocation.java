@@ -30,6 +30,9 @@ public class RfbLocation implements Serializable {
     @JsonIgnoreProperties(value = { "rfbEventAttendances", "rfbLocation" }, allowSetters = true)
     private Set<RfbEvent> rvbEvents = new HashSet<>();
 
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -101,6 +104,19 @@ public class RfbLocation implements Serializable {
         this.rvbEvents = rfbEvents;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public RfbLocation version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -127,6 +143,7 @@ public class RfbLocation implements Serializable {
             "id=" + getId() +
             ", locationName='" + getLocationName() + "'" +
             ", runDayOfWeek=" + getRunDayOfWeek() +
+            ", version=" + getVersion() +
             "}";
     }
 }
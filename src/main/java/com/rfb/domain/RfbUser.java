@@ -32,6 +32,9 @@ public class RfbUser implements Serializable {
     @JsonIgnoreProperties(value = { "rfbEvent", "rfbUser" }, allowSetters = true)
     private Set<RfbEventAttendance> rfbEventAttendances = new HashSet<>();
 
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -113,6 +116,19 @@ public class RfbUser implements Serializable {
         this.rfbEventAttendances = rfbEventAttendances;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public RfbUser version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -138,6 +154,7 @@ public class RfbUser implements Serializable {
         return "RfbUser{" +
             "id=" + getId() +
             ", username='" + getUsername() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,61 @@
+package com.rfb.repository;
+
+import com.rfb.service.AttendanceStats;
+import java.time.LocalDate;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for the {@link AttendanceStats} of a period, which are counted from the {@code rfb_event_attendance} table.
+ * <p>
+ * The rows are read into the primitive counters as they arrive, without mapping them to entities, so counting a year of attendances
+ * doesn't allocate an entity, a boxed id and a map entry per row.
+ */
+@Repository
+public class AttendanceStatsRepository {
+
+    private static final String SELECT_ATTENDANCES =
+        "SELECT a.rfb_user_id, e.rfb_location_id, a.attendance_date FROM rfb_event_attendance a" +
+        " LEFT JOIN rfb_event e ON e.id = a.rfb_event_id WHERE a.attendance_date >= :from AND a.attendance_date < :to";
+
+    private final DatabaseClient db;
+
+    public AttendanceStatsRepository(R2dbcEntityTemplate template) {
+        this.db = template.getDatabaseClient();
+    }
+
+    /**
+     * Counts the attendances of a period.
+     * @param from the first day of the period.
+     * @param to the first day after the period.
+     * @return the counts per user, location and day of the week.
+     */
+    public Mono<AttendanceStats> countAttendances(LocalDate from, LocalDate to) {
+        return Mono.defer(
+            () -> {
+                AttendanceStats stats = new AttendanceStats();
+                return db
+                    .sql(SELECT_ATTENDANCES)
+                    .bind("from", from)
+                    .bind("to", to)
+                    .map(
+                        (row, metadata) -> {
+                            Long rfbUserId = row.get(0, Long.class);
+                            Long rfbLocationId = row.get(1, Long.class);
+                            stats.add(
+                                rfbUserId != null ? rfbUserId : AttendanceStats.NONE,
+                                rfbLocationId != null ? rfbLocationId : AttendanceStats.NONE,
+                                row.get(2, LocalDate.class)
+                            );
+                            // the rows are only counted, so a single constant is emitted for all of them
+                            return Boolean.TRUE;
+                        }
+                    )
+                    .all()
+                    .then(Mono.just(stats));
+            }
+        );
+    }
+}
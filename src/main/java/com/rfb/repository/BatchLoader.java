@@ -0,0 +1,77 @@
+package com.rfb.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Flux;
+
+/**
+ * Loads a one-to-many relationship for many entities at once, instead of one query per entity (the N+1 problem).
+ * <p>
+ * The entities are collected into windows of at most {@code batchSize} entities; the children of every window are loaded with a single
+ * {@code WHERE fk IN (...)} query, grouped by their foreign key, and handed to the entity they belong to. The entities are emitted in
+ * their original order, after their window was loaded.
+ *
+ * @param <V> the type of the children.
+ */
+public final class BatchLoader<V> {
+
+    private final Function<Collection<Long>, Flux<V>> loadAll;
+    private final Function<V, Long> foreignKey;
+    private final int batchSize;
+
+    /**
+     * @param loadAll loads the children of the given parent ids, with a single query.
+     * @param foreignKey the parent id of a child.
+     * @param batchSize the maximum number of entities, whose children are loaded with the same query.
+     */
+    public BatchLoader(Function<Collection<Long>, Flux<V>> loadAll, Function<V, Long> foreignKey, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be positive");
+        this.loadAll = loadAll;
+        this.foreignKey = foreignKey;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Loads the children of the given entities.
+     * @param <T> the type of the entities.
+     * @param entities the entities, whose children are loaded.
+     * @param id the id of an entity.
+     * @param setter hands the children to their entity, it gets an empty list for an entity without children.
+     * @return the entities, with their children.
+     */
+    public <T> Flux<T> load(Flux<T> entities, Function<T, Long> id, BiConsumer<T, List<V>> setter) {
+        return entities
+            .buffer(batchSize)
+            .concatMap(
+                window -> {
+                    Set<Long> ids = window.stream().map(id).filter(Objects::nonNull).collect(Collectors.toSet());
+                    if (ids.isEmpty()) {
+                        window.forEach(entity -> setter.accept(entity, new ArrayList<>()));
+                        return Flux.fromIterable(window);
+                    }
+                    return loadAll
+                        .apply(ids)
+                        .collect(Collectors.groupingBy(foreignKey))
+                        .flatMapIterable(
+                            children -> {
+                                window.forEach(entity -> setter.accept(entity, childrenOf(children, id.apply(entity))));
+                                return window;
+                            }
+                        );
+                }
+            );
+    }
+
+    private List<V> childrenOf(Map<Long, List<V>> children, Long id) {
+        List<V> result = id != null ? children.get(id) : null;
+        return result != null ? result : new ArrayList<>();
+    }
+}
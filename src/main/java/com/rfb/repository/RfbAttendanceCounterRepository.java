@@ -0,0 +1,224 @@
+package com.rfb.repository;
+
+import com.rfb.domain.RfbAttendanceCounter;
+import io.r2dbc.spi.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Repository for the {@link RfbAttendanceCounter}s, which are stored in the {@code rfb_attendance_counter} table, keyed by
+ * {@code (rfb_user_id, rfb_location_id)}.
+ * <p>
+ * The table has a composite primary key, which isn't supported by the Spring Data repositories, so the statements are written here.
+ */
+@Repository
+public class RfbAttendanceCounterRepository {
+
+    private static final String COLUMNS = "rfb_user_id, rfb_location_id, attendance_count";
+
+    private static final String SELECT_USER_COUNTERS =
+        "SELECT a.rfb_user_id, " +
+        RfbAttendanceCounter.ALL +
+        ", COUNT(*) FROM rfb_event_attendance a WHERE a.rfb_user_id IS NOT NULL AND MOD(a.rfb_user_id, %1$d) = %2$d" +
+        " GROUP BY a.rfb_user_id";
+
+    private static final String SELECT_USER_LOCATION_COUNTERS =
+        "SELECT a.rfb_user_id, e.rfb_location_id, COUNT(*) FROM rfb_event_attendance a JOIN rfb_event e ON e.id = a.rfb_event_id" +
+        " WHERE a.rfb_user_id IS NOT NULL AND e.rfb_location_id IS NOT NULL AND MOD(a.rfb_user_id, %1$d) = %2$d" +
+        " GROUP BY a.rfb_user_id, e.rfb_location_id";
+
+    private static final String SELECT_LOCATION_COUNTERS =
+        "SELECT " +
+        RfbAttendanceCounter.ALL +
+        ", e.rfb_location_id, COUNT(*) FROM rfb_event_attendance a JOIN rfb_event e ON e.id = a.rfb_event_id" +
+        " WHERE e.rfb_location_id IS NOT NULL GROUP BY e.rfb_location_id";
+
+    private final DatabaseClient db;
+
+    private final String addSql;
+
+    public RfbAttendanceCounterRepository(R2dbcEntityTemplate template, R2dbcDialect dialect) {
+        this.db = template.getDatabaseClient();
+        this.addSql = createAddSql(dialect);
+    }
+
+    /**
+     * Creates the statement, which adds a delta to a counter, and creates the counter if it doesn't exist yet.
+     */
+    private static String createAddSql(R2dbcDialect dialect) {
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        String userId = bindMarkers.next().getPlaceholder();
+        String locationId = bindMarkers.next().getPlaceholder();
+        String delta = bindMarkers.next().getPlaceholder();
+        if (dialect instanceof MySqlDialect) {
+            return (
+                "INSERT INTO rfb_attendance_counter (" +
+                COLUMNS +
+                ") VALUES (" +
+                userId +
+                ", " +
+                locationId +
+                ", " +
+                delta +
+                ") ON DUPLICATE KEY UPDATE attendance_count = attendance_count + VALUES(attendance_count)"
+            );
+        }
+        return (
+            "MERGE INTO rfb_attendance_counter c USING (SELECT CAST(" +
+            userId +
+            " AS BIGINT) AS u, CAST(" +
+            locationId +
+            " AS BIGINT) AS l, CAST(" +
+            delta +
+            " AS BIGINT) AS n) s ON (c.rfb_user_id = s.u AND c.rfb_location_id = s.l)" +
+            " WHEN MATCHED THEN UPDATE SET attendance_count = c.attendance_count + s.n" +
+            " WHEN NOT MATCHED THEN INSERT (" +
+            COLUMNS +
+            ") VALUES (s.u, s.l, s.n)"
+        );
+    }
+
+    /**
+     * Gets the number of attendances of a user at a location.
+     * @param rfbUserId the id of the user, or {@link RfbAttendanceCounter#ALL}.
+     * @param rfbLocationId the id of the location, or {@link RfbAttendanceCounter#ALL}.
+     * @return the number of attendances, or an empty {@link Mono} if nothing was counted yet.
+     */
+    public Mono<Long> findAttendanceCount(long rfbUserId, long rfbLocationId) {
+        return db
+            .sql("SELECT attendance_count FROM rfb_attendance_counter WHERE rfb_user_id = :rfbUserId AND rfb_location_id = :rfbLocationId")
+            .bind("rfbUserId", rfbUserId)
+            .bind("rfbLocationId", rfbLocationId)
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one();
+    }
+
+    /**
+     * Gets all the counters, except the totals of the locations.
+     * @return the totals of the users, and their counters per location.
+     */
+    public Flux<RfbAttendanceCounter> findAllUserCounters() {
+        return db
+            .sql("SELECT " + COLUMNS + " FROM rfb_attendance_counter WHERE rfb_user_id <> :all")
+            .bind("all", RfbAttendanceCounter.ALL)
+            .map((row, metadata) -> new RfbAttendanceCounter(row.get(0, Long.class), row.get(1, Long.class), row.get(2, Long.class)))
+            .all();
+    }
+
+    /**
+     * Counts the attendances of the users per location in a period, which isn't maintained in the counters.
+     * @param from the first day of the period.
+     * @param to the first day after the period.
+     * @return the number of attendances per user and location; the attendances of events without a location are counted with the
+     * location {@link RfbAttendanceCounter#ALL}.
+     */
+    public Flux<RfbAttendanceCounter> countUserAttendances(LocalDate from, LocalDate to) {
+        return db
+            .sql(
+                "SELECT a.rfb_user_id, COALESCE(e.rfb_location_id, " +
+                RfbAttendanceCounter.ALL +
+                "), COUNT(*) FROM rfb_event_attendance a LEFT JOIN rfb_event e ON e.id = a.rfb_event_id" +
+                " WHERE a.rfb_user_id IS NOT NULL AND a.attendance_date >= :from AND a.attendance_date < :to" +
+                " GROUP BY a.rfb_user_id, e.rfb_location_id"
+            )
+            .bind("from", from)
+            .bind("to", to)
+            .map((row, metadata) -> new RfbAttendanceCounter(row.get(0, Long.class), row.get(1, Long.class), row.get(2, Long.class)))
+            .all();
+    }
+
+    /**
+     * Counts the attendances of the users at an event.
+     * @param rfbEventId the id of the event.
+     * @return the number of attendances per user, with the location {@link RfbAttendanceCounter#ALL}.
+     */
+    public Flux<RfbAttendanceCounter> countEventAttendances(long rfbEventId) {
+        return db
+            .sql(
+                "SELECT rfb_user_id, COUNT(*) FROM rfb_event_attendance WHERE rfb_event_id = :rfbEventId AND rfb_user_id IS NOT NULL" +
+                " GROUP BY rfb_user_id"
+            )
+            .bind("rfbEventId", rfbEventId)
+            .map((row, metadata) -> new RfbAttendanceCounter(row.get(0, Long.class), RfbAttendanceCounter.ALL, row.get(1, Long.class)))
+            .all();
+    }
+
+    /**
+     * Adds the deltas to the counters, with a single batched statement. The counters are updated in the given order, which should be
+     * the natural order of the counters, so concurrent transactions lock them in the same order.
+     * @param deltas the counters, with the delta to be added as their attendance count.
+     * @return a {@link Mono} signaling the completion.
+     */
+    public Mono<Void> add(List<RfbAttendanceCounter> deltas) {
+        if (deltas.isEmpty()) {
+            return Mono.empty();
+        }
+        return db
+            .inConnectionMany(
+                connection -> {
+                    Statement statement = connection.createStatement(addSql);
+                    for (int i = 0; i < deltas.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        RfbAttendanceCounter delta = deltas.get(i);
+                        statement.bind(0, delta.getRfbUserId()).bind(1, delta.getRfbLocationId()).bind(2, delta.getAttendanceCount());
+                    }
+                    return Flux.from(statement.execute()).concatMap(result -> result.getRowsUpdated());
+                }
+            )
+            .then();
+    }
+
+    /**
+     * Counts the attendances of a partition of the users again: the users whose id modulo {@code partitions} is {@code partition}.
+     * Both the totals of the users, and their counters per location are replaced.
+     * @param partition the partition to count.
+     * @param partitions the number of partitions.
+     * @return the number of counters written.
+     */
+    public Mono<Integer> rebuildUserCounters(int partition, int partitions) {
+        String deleteSql =
+            "DELETE FROM rfb_attendance_counter WHERE rfb_user_id <> " +
+            RfbAttendanceCounter.ALL +
+            " AND MOD(rfb_user_id, " +
+            partitions +
+            ") = " +
+            partition;
+        List<String> insertSqls = new ArrayList<>();
+        insertSqls.add(insertInto(String.format(SELECT_USER_COUNTERS, partitions, partition)));
+        insertSqls.add(insertInto(String.format(SELECT_USER_LOCATION_COUNTERS, partitions, partition)));
+        return rebuild(deleteSql, insertSqls);
+    }
+
+    /**
+     * Counts the attendances of all the locations again.
+     * @return the number of counters written.
+     */
+    public Mono<Integer> rebuildLocationCounters() {
+        String deleteSql = "DELETE FROM rfb_attendance_counter WHERE rfb_user_id = " + RfbAttendanceCounter.ALL;
+        return rebuild(deleteSql, List.of(insertInto(SELECT_LOCATION_COUNTERS)));
+    }
+
+    private Mono<Integer> rebuild(String deleteSql, List<String> insertSqls) {
+        return db
+            .sql(deleteSql)
+            .fetch()
+            .rowsUpdated()
+            .thenMany(Flux.fromIterable(insertSqls).concatMap(sql -> db.sql(sql).fetch().rowsUpdated()))
+            .reduce(0, Integer::sum);
+    }
+
+    private static String insertInto(String select) {
+        return "INSERT INTO rfb_attendance_counter (" + COLUMNS + ") " + select;
+    }
+}
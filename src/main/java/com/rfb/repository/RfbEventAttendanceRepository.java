@@ -1,7 +1,11 @@
 package com.rfb.repository;
 
 import com.rfb.domain.RfbEventAttendance;
+import com.rfb.service.Keyset;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.query.Criteria;
@@ -29,6 +33,25 @@ public interface RfbEventAttendanceRepository extends R2dbcRepository<RfbEventAt
     @Query("SELECT * FROM rfb_event_attendance entity WHERE entity.rfb_user_id IS NULL")
     Flux<RfbEventAttendance> findAllWhereRfbUserIsNull();
 
+    @Query("SELECT * FROM rfb_event_attendance entity WHERE entity.rfb_event_id IN (:eventIds) AND entity.rfb_user_id IN (:userIds)")
+    Flux<RfbEventAttendance> findAllByRfbEventIdInAndRfbUserIdIn(Collection<Long> eventIds, Collection<Long> userIds);
+
+    @Query("SELECT * FROM rfb_event_attendance entity WHERE entity.rfb_user_id IN (:userIds)")
+    Flux<RfbEventAttendance> findAllByRfbUserIdIn(Collection<Long> userIds);
+
+    /**
+     * Deletes the attendance, like {@link #deleteById(Object)}, but tells whether it existed.
+     * @param id the id of the attendance.
+     * @return the number of deleted attendances.
+     */
+    @Modifying
+    @Query("DELETE FROM rfb_event_attendance WHERE id = :id")
+    Mono<Integer> removeById(Long id);
+
+    @Modifying
+    @Query("DELETE FROM rfb_event_attendance WHERE id IN (:ids)")
+    Mono<Integer> removeAllByIdIn(Collection<Long> ids);
+
     // just to avoid having unambigous methods
     @Override
     Flux<RfbEventAttendance> findAll();
@@ -42,11 +65,22 @@ public interface RfbEventAttendanceRepository extends R2dbcRepository<RfbEventAt
 
 interface RfbEventAttendanceRepositoryInternal {
     <S extends RfbEventAttendance> Mono<S> insert(S entity);
+    Flux<RfbEventAttendance> insertAll(List<RfbEventAttendance> entities);
+
+    /**
+     * Checks a user in to an event: inserts the attendance, unless the user attended the event already. Relies on the unique
+     * (rfb_event_id, rfb_user_id) constraint, so retried and concurrent check-ins of the same user never create a duplicate.
+     * @param entity the new attendance, with the event and the user.
+     * @return the given entity with its id if it was inserted, otherwise the existing attendance.
+     */
+    Mono<RfbEventAttendance> upsert(RfbEventAttendance entity);
     <S extends RfbEventAttendance> Mono<S> save(S entity);
     Mono<Integer> update(RfbEventAttendance entity);
+    Mono<Integer> patch(RfbEventAttendance entity);
 
     Flux<RfbEventAttendance> findAll();
     Mono<RfbEventAttendance> findById(Long id);
     Flux<RfbEventAttendance> findAllBy(Pageable pageable);
     Flux<RfbEventAttendance> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<RfbEventAttendance> findAllAfter(Keyset keyset, int size);
 }
@@ -8,6 +8,7 @@ import com.rfb.repository.rowmapper.RfbEventAttendanceRowMapper;
 import com.rfb.repository.rowmapper.RfbEventRowMapper;
 import com.rfb.repository.rowmapper.RfbUserRowMapper;
 import com.rfb.service.EntityManager;
+import com.rfb.service.Keyset;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.time.LocalDate;
@@ -15,8 +16,9 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
@@ -73,11 +75,22 @@ class RfbEventAttendanceRepositoryInternalImpl implements RfbEventAttendanceRepo
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Flux<RfbEventAttendance> findAllAfter(Keyset keyset, int size) {
+        return createQuery(PageRequest.of(0, size, keyset.getSort()), keyset.toCriteria()).all();
+    }
+
     RowsFetchSpec<RfbEventAttendance> createQuery(Pageable pageable, Criteria criteria) {
+        return db
+            .sql(entityManager.createSelect(RfbEventAttendance.class, "rfbEvent,rfbUser", this::createSelectFrom, pageable, criteria))
+            .map(this::process);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = RfbEventAttendanceSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(RfbEventSqlHelper.getColumns(rfbEventTable, "rfbEvent"));
         columns.addAll(RfbUserSqlHelper.getColumns(rfbUserTable, "rfbUser"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
@@ -87,24 +100,6 @@ class RfbEventAttendanceRepositoryInternalImpl implements RfbEventAttendanceRepo
             .leftOuterJoin(rfbUserTable)
             .on(Column.create("rfb_user_id", entityTable))
             .equals(Column.create("id", rfbUserTable));
-
-        String select = entityManager.createSelect(selectFrom, RfbEventAttendance.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
     }
 
     @Override
@@ -118,9 +113,9 @@ class RfbEventAttendanceRepositoryInternalImpl implements RfbEventAttendanceRepo
     }
 
     private RfbEventAttendance process(Row row, RowMetadata metadata) {
-        RfbEventAttendance entity = rfbeventattendanceMapper.apply(row, "e");
-        entity.setRfbEvent(rfbeventMapper.apply(row, "rfbEvent"));
-        entity.setRfbUser(rfbuserMapper.apply(row, "rfbUser"));
+        RfbEventAttendance entity = rfbeventattendanceMapper.apply(row, metadata, "e");
+        entity.setRfbEvent(rfbeventMapper.apply(row, metadata, "rfbEvent"));
+        entity.setRfbUser(rfbuserMapper.apply(row, metadata, "rfbUser"));
         return entity;
     }
 
@@ -129,6 +124,20 @@ class RfbEventAttendanceRepositoryInternalImpl implements RfbEventAttendanceRepo
         return entityManager.insert(entity);
     }
 
+    @Override
+    public Flux<RfbEventAttendance> insertAll(List<RfbEventAttendance> entities) {
+        return entityManager.insertAll(entities);
+    }
+
+    @Override
+    public Mono<RfbEventAttendance> upsert(RfbEventAttendance entity) {
+        // most duplicates are retries, which are answered by the unique index without writing; the insert handles the concurrent ones
+        Mono<RfbEventAttendance> existing = Mono.defer(
+            () -> createQuery(null, where("rfbEventId").is(entity.getRfbEventId()).and("rfbUserId").is(entity.getRfbUserId())).one()
+        );
+        return existing.switchIfEmpty(entityManager.insertIfAbsent(entity, "rfb_event_id", "rfb_user_id")).switchIfEmpty(existing);
+    }
+
     @Override
     public <S extends RfbEventAttendance> Mono<S> save(S entity) {
         if (entity.getId() == null) {
@@ -138,6 +147,11 @@ class RfbEventAttendanceRepositoryInternalImpl implements RfbEventAttendanceRepo
                 .map(
                     numberOfUpdates -> {
                         if (numberOfUpdates.intValue() <= 0) {
+                            if (entity.getVersion() != null) {
+                                throw new OptimisticLockingFailureException(
+                                    "RfbEventAttendance with id = " + entity.getId() + " was updated concurrently"
+                                );
+                            }
                             throw new IllegalStateException("Unable to update RfbEventAttendance with id = " + entity.getId());
                         }
                         return entity;
@@ -148,8 +162,12 @@ class RfbEventAttendanceRepositoryInternalImpl implements RfbEventAttendanceRepo
 
     @Override
     public Mono<Integer> update(RfbEventAttendance entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity);
+    }
+
+    @Override
+    public Mono<Integer> patch(RfbEventAttendance entity) {
+        return entityManager.patch(entity);
     }
 }
 
@@ -162,6 +180,7 @@ class RfbEventAttendanceSqlHelper {
 
         columns.add(Column.aliased("rfb_event_id", table, columnPrefix + "_rfb_event_id"));
         columns.add(Column.aliased("rfb_user_id", table, columnPrefix + "_rfb_user_id"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
         return columns;
     }
 }
@@ -1,6 +1,8 @@
 package com.rfb.repository;
 
 import com.rfb.domain.RfbEvent;
+import com.rfb.service.Keyset;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -23,6 +25,9 @@ public interface RfbEventRepository extends R2dbcRepository<RfbEvent, Long>, Rfb
     @Query("SELECT * FROM rfb_event entity WHERE entity.rfb_location_id IS NULL")
     Flux<RfbEvent> findAllWhereRfbLocationIsNull();
 
+    @Query("SELECT entity.id FROM rfb_event entity WHERE entity.event_code = :eventCode ORDER BY entity.id DESC LIMIT 1")
+    Mono<Long> findIdByEventCode(String eventCode);
+
     // just to avoid having unambigous methods
     @Override
     Flux<RfbEvent> findAll();
@@ -36,11 +41,14 @@ public interface RfbEventRepository extends R2dbcRepository<RfbEvent, Long>, Rfb
 
 interface RfbEventRepositoryInternal {
     <S extends RfbEvent> Mono<S> insert(S entity);
+    Flux<RfbEvent> insertAll(List<RfbEvent> entities);
     <S extends RfbEvent> Mono<S> save(S entity);
     Mono<Integer> update(RfbEvent entity);
+    Mono<Integer> patch(RfbEvent entity);
 
     Flux<RfbEvent> findAll();
     Mono<RfbEvent> findById(Long id);
     Flux<RfbEvent> findAllBy(Pageable pageable);
     Flux<RfbEvent> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<RfbEvent> findAllAfter(Keyset keyset, int size);
 }
@@ -5,8 +5,8 @@ import static org.springframework.data.relational.core.query.Query.query;
 
 import com.rfb.domain.RfbEvent;
 import com.rfb.repository.rowmapper.RfbEventRowMapper;
-import com.rfb.repository.rowmapper.RfbLocationRowMapper;
 import com.rfb.service.EntityManager;
+import com.rfb.service.Keyset;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.time.LocalDate;
@@ -14,15 +14,16 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -39,22 +40,21 @@ class RfbEventRepositoryInternalImpl implements RfbEventRepositoryInternal {
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
 
-    private final RfbLocationRowMapper rfblocationMapper;
+    private final RfbLocationCache rfbLocationCache;
     private final RfbEventRowMapper rfbeventMapper;
 
     private static final Table entityTable = Table.aliased("rfb_event", EntityManager.ENTITY_ALIAS);
-    private static final Table rfbLocationTable = Table.aliased("rfb_location", "rfbLocation");
 
     public RfbEventRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
-        RfbLocationRowMapper rfblocationMapper,
+        RfbLocationCache rfbLocationCache,
         RfbEventRowMapper rfbeventMapper
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
-        this.rfblocationMapper = rfblocationMapper;
+        this.rfbLocationCache = rfbLocationCache;
         this.rfbeventMapper = rfbeventMapper;
     }
 
@@ -65,37 +65,22 @@ class RfbEventRepositoryInternalImpl implements RfbEventRepositoryInternal {
 
     @Override
     public Flux<RfbEvent> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().concatMap(this::withLocation);
+    }
+
+    @Override
+    public Flux<RfbEvent> findAllAfter(Keyset keyset, int size) {
+        return createQuery(PageRequest.of(0, size, keyset.getSort()), keyset.toCriteria()).all().concatMap(this::withLocation);
     }
 
     RowsFetchSpec<RfbEvent> createQuery(Pageable pageable, Criteria criteria) {
+        return db.sql(entityManager.createSelect(RfbEvent.class, "", this::createSelectFrom, pageable, criteria)).map(this::process);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = RfbEventSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        columns.addAll(RfbLocationSqlHelper.getColumns(rfbLocationTable, "rfbLocation"));
-        SelectFromAndJoinCondition selectFrom = Select
-            .builder()
-            .select(columns)
-            .from(entityTable)
-            .leftOuterJoin(rfbLocationTable)
-            .on(Column.create("rfb_location_id", entityTable))
-            .equals(Column.create("id", rfbLocationTable));
-
-        String select = entityManager.createSelect(selectFrom, RfbEvent.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        // the rfbLocation isn't joined, it's set from the RfbLocationCache
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -105,13 +90,15 @@ class RfbEventRepositoryInternalImpl implements RfbEventRepositoryInternal {
 
     @Override
     public Mono<RfbEvent> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().flatMap(this::withLocation);
     }
 
     private RfbEvent process(Row row, RowMetadata metadata) {
-        RfbEvent entity = rfbeventMapper.apply(row, "e");
-        entity.setRfbLocation(rfblocationMapper.apply(row, "rfbLocation"));
-        return entity;
+        return rfbeventMapper.apply(row, metadata, "e");
+    }
+
+    private Mono<RfbEvent> withLocation(RfbEvent entity) {
+        return rfbLocationCache.hydrate(entity, RfbEvent::getRfbLocationId, RfbEvent::setRfbLocation);
     }
 
     @Override
@@ -119,6 +106,11 @@ class RfbEventRepositoryInternalImpl implements RfbEventRepositoryInternal {
         return entityManager.insert(entity);
     }
 
+    @Override
+    public Flux<RfbEvent> insertAll(List<RfbEvent> entities) {
+        return entityManager.insertAll(entities);
+    }
+
     @Override
     public <S extends RfbEvent> Mono<S> save(S entity) {
         if (entity.getId() == null) {
@@ -128,6 +120,11 @@ class RfbEventRepositoryInternalImpl implements RfbEventRepositoryInternal {
                 .map(
                     numberOfUpdates -> {
                         if (numberOfUpdates.intValue() <= 0) {
+                            if (entity.getVersion() != null) {
+                                throw new OptimisticLockingFailureException(
+                                    "RfbEvent with id = " + entity.getId() + " was updated concurrently"
+                                );
+                            }
                             throw new IllegalStateException("Unable to update RfbEvent with id = " + entity.getId());
                         }
                         return entity;
@@ -138,8 +135,12 @@ class RfbEventRepositoryInternalImpl implements RfbEventRepositoryInternal {
 
     @Override
     public Mono<Integer> update(RfbEvent entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity);
+    }
+
+    @Override
+    public Mono<Integer> patch(RfbEvent entity) {
+        return entityManager.patch(entity);
     }
 }
 
@@ -152,6 +153,7 @@ class RfbEventSqlHelper {
         columns.add(Column.aliased("event_code", table, columnPrefix + "_event_code"));
 
         columns.add(Column.aliased("rfb_location_id", table, columnPrefix + "_rfb_location_id"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
         return columns;
     }
 }
@@ -0,0 +1,92 @@
+package com.rfb.repository;
+
+import com.rfb.domain.RfbLocation;
+import com.rfb.service.LookupCache;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * All the {@link RfbLocation}s in memory, so the queries of the rfbEvents and the rfbUsers don't join the {@code rfb_location} table:
+ * the locations change a few times a year, and there are few of them.
+ * <p>
+ * The locations are loaded with a single query when they're first needed, and kept in a {@link LookupCache}. The service of the
+ * locations invalidates them once an update or a delete is committed; a location which is missing, e.g. as it was created since, loads
+ * them again.
+ */
+@Repository
+public class RfbLocationCache {
+
+    private static final String ALL = "all";
+
+    private final RfbLocationRepository rfbLocationRepository;
+
+    private final LookupCache<String, Map<Long, RfbLocation>> locations = new LookupCache<>(1, LookupCache.DEFAULT_TIME_TO_LIVE);
+
+    public RfbLocationCache(RfbLocationRepository rfbLocationRepository) {
+        this.rfbLocationRepository = rfbLocationRepository;
+    }
+
+    /**
+     * Gets a location.
+     * @param id the id of the location.
+     * @return a copy of the location, or an empty {@link Mono} if it doesn't exist.
+     */
+    public Mono<RfbLocation> findById(Long id) {
+        return locations()
+            .flatMap(
+                loaded -> {
+                    if (loaded.containsKey(id)) {
+                        return Mono.just(loaded.get(id));
+                    }
+                    locations.invalidate(stale -> stale == loaded);
+                    return locations().flatMap(reloaded -> Mono.justOrEmpty(reloaded.get(id)));
+                }
+            )
+            .map(RfbLocationCache::copyOf);
+    }
+
+    /**
+     * Sets the location of an entity.
+     * @param <T> the type of the entity.
+     * @param entity the entity.
+     * @param locationId the id of the location of the entity.
+     * @param setter sets the location of the entity.
+     * @return the entity, with its location if it has one.
+     */
+    public <T> Mono<T> hydrate(T entity, Function<T, Long> locationId, BiConsumer<T, RfbLocation> setter) {
+        Long id = locationId.apply(entity);
+        if (id == null) {
+            return Mono.just(entity);
+        }
+        return findById(id)
+            .map(
+                location -> {
+                    setter.accept(entity, location);
+                    return entity;
+                }
+            )
+            .defaultIfEmpty(entity);
+    }
+
+    /**
+     * Drops the locations, so they are loaded again by the next query.
+     */
+    public void invalidate() {
+        locations.invalidate();
+    }
+
+    private Mono<Map<Long, RfbLocation>> locations() {
+        return locations.get(ALL, all -> rfbLocationRepository.findAll().collectMap(RfbLocation::getId));
+    }
+
+    private static RfbLocation copyOf(RfbLocation location) {
+        return new RfbLocation()
+            .id(location.getId())
+            .locationName(location.getLocationName())
+            .runDayOfWeek(location.getRunDayOfWeek())
+            .version(location.getVersion());
+    }
+}
@@ -1,6 +1,8 @@
 package com.rfb.repository;
 
 import com.rfb.domain.RfbLocation;
+import com.rfb.service.Keyset;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -30,11 +32,14 @@ public interface RfbLocationRepository extends R2dbcRepository<RfbLocation, Long
 
 interface RfbLocationRepositoryInternal {
     <S extends RfbLocation> Mono<S> insert(S entity);
+    Flux<RfbLocation> insertAll(List<RfbLocation> entities);
     <S extends RfbLocation> Mono<S> save(S entity);
     Mono<Integer> update(RfbLocation entity);
+    Mono<Integer> patch(RfbLocation entity);
 
     Flux<RfbLocation> findAll();
     Mono<RfbLocation> findById(Long id);
     Flux<RfbLocation> findAllBy(Pageable pageable);
     Flux<RfbLocation> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<RfbLocation> findAllAfter(Keyset keyset, int size);
 }
@@ -6,14 +6,16 @@ import static org.springframework.data.relational.core.query.Query.query;
 import com.rfb.domain.RfbLocation;
 import com.rfb.repository.rowmapper.RfbLocationRowMapper;
 import com.rfb.service.EntityManager;
+import com.rfb.service.Keyset;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
@@ -62,27 +64,18 @@ class RfbLocationRepositoryInternalImpl implements RfbLocationRepositoryInternal
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Flux<RfbLocation> findAllAfter(Keyset keyset, int size) {
+        return createQuery(PageRequest.of(0, size, keyset.getSort()), keyset.toCriteria()).all();
+    }
+
     RowsFetchSpec<RfbLocation> createQuery(Pageable pageable, Criteria criteria) {
+        return db.sql(entityManager.createSelect(RfbLocation.class, "", this::createSelectFrom, pageable, criteria)).map(this::process);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = RfbLocationSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-
-        String select = entityManager.createSelect(selectFrom, RfbLocation.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -96,7 +89,7 @@ class RfbLocationRepositoryInternalImpl implements RfbLocationRepositoryInternal
     }
 
     private RfbLocation process(Row row, RowMetadata metadata) {
-        RfbLocation entity = rfblocationMapper.apply(row, "e");
+        RfbLocation entity = rfblocationMapper.apply(row, metadata, "e");
         return entity;
     }
 
@@ -105,6 +98,11 @@ class RfbLocationRepositoryInternalImpl implements RfbLocationRepositoryInternal
         return entityManager.insert(entity);
     }
 
+    @Override
+    public Flux<RfbLocation> insertAll(List<RfbLocation> entities) {
+        return entityManager.insertAll(entities);
+    }
+
     @Override
     public <S extends RfbLocation> Mono<S> save(S entity) {
         if (entity.getId() == null) {
@@ -114,6 +112,11 @@ class RfbLocationRepositoryInternalImpl implements RfbLocationRepositoryInternal
                 .map(
                     numberOfUpdates -> {
                         if (numberOfUpdates.intValue() <= 0) {
+                            if (entity.getVersion() != null) {
+                                throw new OptimisticLockingFailureException(
+                                    "RfbLocation with id = " + entity.getId() + " was updated concurrently"
+                                );
+                            }
                             throw new IllegalStateException("Unable to update RfbLocation with id = " + entity.getId());
                         }
                         return entity;
@@ -124,8 +127,12 @@ class RfbLocationRepositoryInternalImpl implements RfbLocationRepositoryInternal
 
     @Override
     public Mono<Integer> update(RfbLocation entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity);
+    }
+
+    @Override
+    public Mono<Integer> patch(RfbLocation entity) {
+        return entityManager.patch(entity);
     }
 }
 
@@ -137,6 +144,7 @@ class RfbLocationSqlHelper {
         columns.add(Column.aliased("location_name", table, columnPrefix + "_location_name"));
         columns.add(Column.aliased("run_day_of_week", table, columnPrefix + "_run_day_of_week"));
 
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
         return columns;
     }
 }
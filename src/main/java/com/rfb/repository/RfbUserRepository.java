@@ -1,6 +1,8 @@
 package com.rfb.repository;
 
 import com.rfb.domain.RfbUser;
+import com.rfb.service.Keyset;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
@@ -21,6 +23,9 @@ public interface RfbUserRepository extends R2dbcRepository<RfbUser, Long>, RfbUs
     @Query("SELECT * FROM rfb_user entity WHERE entity.home_location_id IS NULL")
     Flux<RfbUser> findAllWhereHomeLocationIsNull();
 
+    @Query("SELECT entity.id FROM rfb_user entity WHERE entity.username = :username ORDER BY entity.id DESC LIMIT 1")
+    Mono<Long> findIdByUsername(String username);
+
     // just to avoid having unambigous methods
     @Override
     Flux<RfbUser> findAll();
@@ -34,11 +39,14 @@ public interface RfbUserRepository extends R2dbcRepository<RfbUser, Long>, RfbUs
 
 interface RfbUserRepositoryInternal {
     <S extends RfbUser> Mono<S> insert(S entity);
+    Flux<RfbUser> insertAll(List<RfbUser> entities);
     <S extends RfbUser> Mono<S> save(S entity);
     Mono<Integer> update(RfbUser entity);
+    Mono<Integer> patch(RfbUser entity);
 
     Flux<RfbUser> findAll();
     Mono<RfbUser> findById(Long id);
     Flux<RfbUser> findAllBy(Pageable pageable);
     Flux<RfbUser> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<RfbUser> findAllAfter(Keyset keyset, int size);
 }
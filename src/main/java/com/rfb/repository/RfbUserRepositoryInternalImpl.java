@@ -4,24 +4,25 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
 import com.rfb.domain.RfbUser;
-import com.rfb.repository.rowmapper.RfbLocationRowMapper;
 import com.rfb.repository.rowmapper.RfbUserRowMapper;
 import com.rfb.service.EntityManager;
+import com.rfb.service.Keyset;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.function.BiFunction;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -38,22 +39,21 @@ class RfbUserRepositoryInternalImpl implements RfbUserRepositoryInternal {
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final EntityManager entityManager;
 
-    private final RfbLocationRowMapper rfblocationMapper;
+    private final RfbLocationCache rfbLocationCache;
     private final RfbUserRowMapper rfbuserMapper;
 
     private static final Table entityTable = Table.aliased("rfb_user", EntityManager.ENTITY_ALIAS);
-    private static final Table homeLocationTable = Table.aliased("rfb_location", "homeLocation");
 
     public RfbUserRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
-        RfbLocationRowMapper rfblocationMapper,
+        RfbLocationCache rfbLocationCache,
         RfbUserRowMapper rfbuserMapper
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
-        this.rfblocationMapper = rfblocationMapper;
+        this.rfbLocationCache = rfbLocationCache;
         this.rfbuserMapper = rfbuserMapper;
     }
 
@@ -64,37 +64,22 @@ class RfbUserRepositoryInternalImpl implements RfbUserRepositoryInternal {
 
     @Override
     public Flux<RfbUser> findAllBy(Pageable pageable, Criteria criteria) {
-        return createQuery(pageable, criteria).all();
+        return createQuery(pageable, criteria).all().concatMap(this::withLocation);
+    }
+
+    @Override
+    public Flux<RfbUser> findAllAfter(Keyset keyset, int size) {
+        return createQuery(PageRequest.of(0, size, keyset.getSort()), keyset.toCriteria()).all().concatMap(this::withLocation);
     }
 
     RowsFetchSpec<RfbUser> createQuery(Pageable pageable, Criteria criteria) {
+        return db.sql(entityManager.createSelect(RfbUser.class, "", this::createSelectFrom, pageable, criteria)).map(this::process);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = RfbUserSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        columns.addAll(RfbLocationSqlHelper.getColumns(homeLocationTable, "homeLocation"));
-        SelectFromAndJoinCondition selectFrom = Select
-            .builder()
-            .select(columns)
-            .from(entityTable)
-            .leftOuterJoin(homeLocationTable)
-            .on(Column.create("home_location_id", entityTable))
-            .equals(Column.create("id", homeLocationTable));
-
-        String select = entityManager.createSelect(selectFrom, RfbUser.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        // the homeLocation isn't joined, it's set from the RfbLocationCache
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -104,13 +89,15 @@ class RfbUserRepositoryInternalImpl implements RfbUserRepositoryInternal {
 
     @Override
     public Mono<RfbUser> findById(Long id) {
-        return createQuery(null, where("id").is(id)).one();
+        return createQuery(null, where("id").is(id)).one().flatMap(this::withLocation);
     }
 
     private RfbUser process(Row row, RowMetadata metadata) {
-        RfbUser entity = rfbuserMapper.apply(row, "e");
-        entity.setHomeLocation(rfblocationMapper.apply(row, "homeLocation"));
-        return entity;
+        return rfbuserMapper.apply(row, metadata, "e");
+    }
+
+    private Mono<RfbUser> withLocation(RfbUser entity) {
+        return rfbLocationCache.hydrate(entity, RfbUser::getHomeLocationId, RfbUser::setHomeLocation);
     }
 
     @Override
@@ -118,6 +105,11 @@ class RfbUserRepositoryInternalImpl implements RfbUserRepositoryInternal {
         return entityManager.insert(entity);
     }
 
+    @Override
+    public Flux<RfbUser> insertAll(List<RfbUser> entities) {
+        return entityManager.insertAll(entities);
+    }
+
     @Override
     public <S extends RfbUser> Mono<S> save(S entity) {
         if (entity.getId() == null) {
@@ -127,6 +119,11 @@ class RfbUserRepositoryInternalImpl implements RfbUserRepositoryInternal {
                 .map(
                     numberOfUpdates -> {
                         if (numberOfUpdates.intValue() <= 0) {
+                            if (entity.getVersion() != null) {
+                                throw new OptimisticLockingFailureException(
+                                    "RfbUser with id = " + entity.getId() + " was updated concurrently"
+                                );
+                            }
                             throw new IllegalStateException("Unable to update RfbUser with id = " + entity.getId());
                         }
                         return entity;
@@ -137,8 +134,12 @@ class RfbUserRepositoryInternalImpl implements RfbUserRepositoryInternal {
 
     @Override
     public Mono<Integer> update(RfbUser entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity);
+    }
+
+    @Override
+    public Mono<Integer> patch(RfbUser entity) {
+        return entityManager.patch(entity);
     }
 }
 
@@ -150,6 +151,7 @@ class RfbUserSqlHelper {
         columns.add(Column.aliased("username", table, columnPrefix + "_username"));
 
         columns.add(Column.aliased("home_location_id", table, columnPrefix + "_home_location_id"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
         return columns;
     }
 }
@@ -3,33 +3,33 @@ package com.rfb.repository.rowmapper;
 import com.rfb.domain.RfbEvent;
 import com.rfb.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.time.LocalDate;
-import java.util.function.BiFunction;
 import org.springframework.stereotype.Service;
 
 /**
  * Converter between {@link Row} to {@link RfbEvent}, with proper type conversions.
  */
 @Service
-public class RfbEventRowMapper implements BiFunction<Row, String, RfbEvent> {
+public class RfbEventRowMapper {
 
-    private final ColumnConverter converter;
+    private final RowMapping<RfbEvent> mapping;
 
     public RfbEventRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.mapping =
+            new RowMapping<>(converter, RfbEvent::new)
+                .column("_id", Long.class, RfbEvent::setId)
+                .column("_event_date", LocalDate.class, RfbEvent::setEventDate)
+                .column("_event_code", String.class, RfbEvent::setEventCode)
+                .column("_rfb_location_id", Long.class, RfbEvent::setRfbLocationId)
+                .column("_version", Long.class, RfbEvent::setVersion);
     }
 
     /**
      * Take a {@link Row} and a column prefix, and extract all the fields.
      * @return the {@link RfbEvent} stored in the database.
      */
-    @Override
-    public RfbEvent apply(Row row, String prefix) {
-        RfbEvent entity = new RfbEvent();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setEventDate(converter.fromRow(row, prefix + "_event_date", LocalDate.class));
-        entity.setEventCode(converter.fromRow(row, prefix + "_event_code", String.class));
-        entity.setRfbLocationId(converter.fromRow(row, prefix + "_rfb_location_id", Long.class));
-        return entity;
+    public RfbEvent apply(Row row, RowMetadata metadata, String prefix) {
+        return mapping.apply(row, metadata, prefix);
     }
 }
@@ -3,31 +3,31 @@ package com.rfb.repository.rowmapper;
 import com.rfb.domain.RfbLocation;
 import com.rfb.service.ColumnConverter;
 import io.r2dbc.spi.Row;
-import java.util.function.BiFunction;
+import io.r2dbc.spi.RowMetadata;
 import org.springframework.stereotype.Service;
 
 /**
  * Converter between {@link Row} to {@link RfbLocation}, with proper type conversions.
  */
 @Service
-public class RfbLocationRowMapper implements BiFunction<Row, String, RfbLocation> {
+public class RfbLocationRowMapper {
 
-    private final ColumnConverter converter;
+    private final RowMapping<RfbLocation> mapping;
 
     public RfbLocationRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.mapping =
+            new RowMapping<>(converter, RfbLocation::new)
+                .column("_id", Long.class, RfbLocation::setId)
+                .column("_location_name", String.class, RfbLocation::setLocationName)
+                .column("_run_day_of_week", Integer.class, RfbLocation::setRunDayOfWeek)
+                .column("_version", Long.class, RfbLocation::setVersion);
     }
 
     /**
      * Take a {@link Row} and a column prefix, and extract all the fields.
      * @return the {@link RfbLocation} stored in the database.
      */
-    @Override
-    public RfbLocation apply(Row row, String prefix) {
-        RfbLocation entity = new RfbLocation();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setLocationName(converter.fromRow(row, prefix + "_location_name", String.class));
-        entity.setRunDayOfWeek(converter.fromRow(row, prefix + "_run_day_of_week", Integer.class));
-        return entity;
+    public RfbLocation apply(Row row, RowMetadata metadata, String prefix) {
+        return mapping.apply(row, metadata, prefix);
     }
 }
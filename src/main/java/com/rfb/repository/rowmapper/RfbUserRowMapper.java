@@ -3,31 +3,31 @@ package com.rfb.repository.rowmapper;
 import com.rfb.domain.RfbUser;
 import com.rfb.service.ColumnConverter;
 import io.r2dbc.spi.Row;
-import java.util.function.BiFunction;
+import io.r2dbc.spi.RowMetadata;
 import org.springframework.stereotype.Service;
 
 /**
  * Converter between {@link Row} to {@link RfbUser}, with proper type conversions.
  */
 @Service
-public class RfbUserRowMapper implements BiFunction<Row, String, RfbUser> {
+public class RfbUserRowMapper {
 
-    private final ColumnConverter converter;
+    private final RowMapping<RfbUser> mapping;
 
     public RfbUserRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.mapping =
+            new RowMapping<>(converter, RfbUser::new)
+                .column("_id", Long.class, RfbUser::setId)
+                .column("_username", String.class, RfbUser::setUsername)
+                .column("_home_location_id", Long.class, RfbUser::setHomeLocationId)
+                .column("_version", Long.class, RfbUser::setVersion);
     }
 
     /**
      * Take a {@link Row} and a column prefix, and extract all the fields.
      * @return the {@link RfbUser} stored in the database.
      */
-    @Override
-    public RfbUser apply(Row row, String prefix) {
-        RfbUser entity = new RfbUser();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setUsername(converter.fromRow(row, prefix + "_username", String.class));
-        entity.setHomeLocationId(converter.fromRow(row, prefix + "_home_location_id", Long.class));
-        return entity;
+    public RfbUser apply(Row row, RowMetadata metadata, String prefix) {
+        return mapping.apply(row, metadata, prefix);
     }
 }
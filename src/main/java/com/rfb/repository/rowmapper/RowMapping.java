@@ -0,0 +1,155 @@
+package com.rfb.repository.rowmapper;
+
+import com.rfb.service.ColumnConverter;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Maps the columns of a {@link Row} to the properties of an entity.
+ * <p>
+ * The column indexes and the type conversions are resolved once for every column prefix and {@link RowMetadata} shape, and cached as
+ * a plan. Mapping a row is then index based: no column name is built or looked up, and no exception is thrown for a conversion.
+ * @param <E> the type of the entity.
+ */
+public final class RowMapping<E> {
+
+    // upper bound for the cached plans, a mapper only sees a few distinct selects
+    private static final int MAX_PLANS = 64;
+
+    private final ColumnConverter converter;
+    private final Supplier<E> factory;
+    private final List<Column<E, ?>> columns = new ArrayList<>();
+    private final Map<String, Plan<E>> plans = new ConcurrentHashMap<>();
+    private volatile Plan<E> lastPlan;
+
+    public RowMapping(ColumnConverter converter, Supplier<E> factory) {
+        this.converter = converter;
+        this.factory = factory;
+    }
+
+    /**
+     * Adds a column to the mapping.
+     * @param suffix the name of the column after its prefix, e.g. {@code "_id"}.
+     * @param type the type of the property.
+     * @param setter sets the value of the column on the entity.
+     * @param <T> the type of the property.
+     * @return this mapping.
+     */
+    public <T> RowMapping<E> column(String suffix, Class<T> type, BiConsumer<E, ? super T> setter) {
+        columns.add(new Column<>(suffix, type, setter));
+        return this;
+    }
+
+    /**
+     * Takes a {@link Row} and a column prefix, and extracts all the fields.
+     * @param row the row.
+     * @param metadata the metadata of the row.
+     * @param prefix the prefix of the columns.
+     * @return the entity.
+     * @throws IllegalArgumentException if a column of the mapping isn't in the row.
+     */
+    public E apply(Row row, RowMetadata metadata, String prefix) {
+        Plan<E> plan = lastPlan;
+        if (plan == null || plan.metadata != metadata || !plan.prefix.equals(prefix)) {
+            plan = getPlan(metadata, prefix);
+            lastPlan = plan;
+        }
+        E entity = factory.get();
+        for (ResolvedColumn<E, ?> column : plan.columns) {
+            column.read(row, entity);
+        }
+        return entity;
+    }
+
+    private Plan<E> getPlan(RowMetadata metadata, String prefix) {
+        String key = prefix + "|" + String.join(",", metadata.getColumnNames());
+        Plan<E> plan = plans.get(key);
+        if (plan == null) {
+            plan = new Plan<>(metadata, prefix, resolve(metadata, prefix));
+            if (plans.size() < MAX_PLANS) {
+                plans.putIfAbsent(key, plan);
+            }
+        } else if (plan.metadata != metadata) {
+            // same shape, but a new result: keep its metadata, so the following rows of the result hit the fast path
+            plan = new Plan<>(metadata, prefix, plan.columns);
+        }
+        return plan;
+    }
+
+    private List<ResolvedColumn<E, ?>> resolve(RowMetadata metadata, String prefix) {
+        List<ColumnMetadata> columnMetadatas = new ArrayList<>();
+        metadata.getColumnMetadatas().forEach(columnMetadatas::add);
+        List<ResolvedColumn<E, ?>> resolved = new ArrayList<>(columns.size());
+        for (Column<E, ?> column : columns) {
+            String name = prefix + column.suffix;
+            int index = 0;
+            while (index < columnMetadatas.size() && !columnMetadatas.get(index).getName().equalsIgnoreCase(name)) {
+                index++;
+            }
+            if (index == columnMetadatas.size()) {
+                throw new IllegalArgumentException("Column " + name + " is not in the row: " + metadata.getColumnNames());
+            }
+            resolved.add(column.resolve(index, columnMetadatas.get(index).getJavaType(), converter));
+        }
+        return List.copyOf(resolved);
+    }
+
+    private static final class Column<E, T> {
+
+        private final String suffix;
+        private final Class<T> type;
+        private final BiConsumer<E, ? super T> setter;
+
+        Column(String suffix, Class<T> type, BiConsumer<E, ? super T> setter) {
+            this.suffix = suffix;
+            this.type = type;
+            this.setter = setter;
+        }
+
+        ResolvedColumn<E, T> resolve(int index, Class<?> javaType, ColumnConverter converter) {
+            boolean direct = javaType != null && type.isAssignableFrom(javaType);
+            return new ResolvedColumn<>(index, type, direct ? null : converter, setter);
+        }
+    }
+
+    private static final class ResolvedColumn<E, T> {
+
+        private final int index;
+        private final Class<T> type;
+        // null, if the driver returns the type of the property
+        private final ColumnConverter converter;
+        private final BiConsumer<E, ? super T> setter;
+
+        ResolvedColumn(int index, Class<T> type, ColumnConverter converter, BiConsumer<E, ? super T> setter) {
+            this.index = index;
+            this.type = type;
+            this.converter = converter;
+            this.setter = setter;
+        }
+
+        void read(Row row, E entity) {
+            T value = converter == null ? row.get(index, type) : converter.convert(row.get(index), type);
+            setter.accept(entity, value);
+        }
+    }
+
+    private static final class Plan<E> {
+
+        private final RowMetadata metadata;
+        private final String prefix;
+        private final List<ResolvedColumn<E, ?>> columns;
+
+        Plan(RowMetadata metadata, String prefix, List<ResolvedColumn<E, ?>> columns) {
+            this.metadata = metadata;
+            this.prefix = prefix;
+            this.columns = columns;
+        }
+    }
+}
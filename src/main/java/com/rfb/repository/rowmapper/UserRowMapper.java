@@ -3,41 +3,40 @@ package com.rfb.repository.rowmapper;
 import com.rfb.domain.User;
 import com.rfb.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.time.Instant;
-import java.util.function.BiFunction;
 import org.springframework.stereotype.Service;
 
 /**
  * Converter between {@link Row} to {@link User}, with proper type conversions.
  */
 @Service
-public class UserRowMapper implements BiFunction<Row, String, User> {
+public class UserRowMapper {
 
-    private final ColumnConverter converter;
+    private final RowMapping<User> mapping;
 
     public UserRowMapper(ColumnConverter converter) {
-        this.converter = converter;
+        this.mapping =
+            new RowMapping<>(converter, User::new)
+                .column("_id", Long.class, User::setId)
+                .column("_login", String.class, User::setLogin)
+                .column("_password", String.class, User::setPassword)
+                .column("_first_name", String.class, User::setFirstName)
+                .column("_last_name", String.class, User::setLastName)
+                .column("_email", String.class, User::setEmail)
+                .column("_activated", Boolean.class, (entity, value) -> entity.setActivated(Boolean.TRUE.equals(value)))
+                .column("_lang_key", String.class, User::setLangKey)
+                .column("_image_url", String.class, User::setImageUrl)
+                .column("_activation_key", String.class, User::setActivationKey)
+                .column("_reset_key", String.class, User::setResetKey)
+                .column("_reset_date", Instant.class, User::setResetDate);
     }
 
     /**
      * Take a {@link Row} and a column prefix, and extract all the fields.
      * @return the {@link User} stored in the database.
      */
-    @Override
-    public User apply(Row row, String prefix) {
-        User entity = new User();
-        entity.setId(row.get(prefix + "_id", Long.class));
-        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
-        entity.setPassword(converter.fromRow(row, prefix + "_password", String.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
-        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
-        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
-        entity.setActivationKey(converter.fromRow(row, prefix + "_activation_key", String.class));
-        entity.setResetKey(converter.fromRow(row, prefix + "_reset_key", String.class));
-        entity.setResetDate(converter.fromRow(row, prefix + "_reset_date", Instant.class));
-        return entity;
+    public User apply(Row row, RowMetadata metadata, String prefix) {
+        return mapping.apply(row, metadata, prefix);
     }
 }
@@ -1,8 +1,13 @@
 package com.rfb.security;
 
+import com.rfb.domain.Authority;
 import com.rfb.domain.User;
 import com.rfb.repository.UserRepository;
+import com.rfb.service.LookupCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.hibernate.validator.internal.constraintvalidators.hv.EmailValidator;
 import org.slf4j.Logger;
@@ -13,51 +18,94 @@ import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Mono;
 
 /**
  * Authenticate a user from the database.
+ * <p>
+ * The details of the users who logged in recently are cached for a short time, so a burst of logins doesn't query the users and their
+ * authorities every time. The {@link com.rfb.service.UserService} evicts a user when it's saved or deleted; as the other instances of
+ * the application don't evict it, a change is seen by all of them after the time to live.
  */
 @Component("userDetailsService")
 public class DomainUserDetailsService implements ReactiveUserDetailsService {
 
+    public static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+
+    public static final int MAX_SIZE = 10000;
+
+    public static final String CACHE_NAME = "userDetails";
+
+    /**
+     * The details of a user needed to authenticate, as they were read.
+     */
+    private static final class Snapshot {
+
+        private final Long id;
+
+        private final String login;
+
+        private final String password;
+
+        private final boolean activated;
+
+        private final List<String> authorities;
+
+        private Snapshot(User user) {
+            this.id = user.getId();
+            this.login = user.getLogin();
+            this.password = user.getPassword();
+            this.activated = user.isActivated();
+            this.authorities = user.getAuthorities().stream().map(Authority::getName).collect(Collectors.toUnmodifiableList());
+        }
+    }
+
     private final Logger log = LoggerFactory.getLogger(DomainUserDetailsService.class);
 
     private final UserRepository userRepository;
 
-    public DomainUserDetailsService(UserRepository userRepository) {
+    // the snapshots by login or email
+    private final LookupCache<String, Snapshot> snapshots = new LookupCache<>(MAX_SIZE, TIME_TO_LIVE);
+
+    public DomainUserDetailsService(UserRepository userRepository, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        snapshots.bindTo(meterRegistry, CACHE_NAME);
     }
 
+    // not transactional, a cached user doesn't need a connection
     @Override
-    @Transactional
     public Mono<UserDetails> findByUsername(final String login) {
         log.debug("Authenticating {}", login);
 
         if (new EmailValidator().isValid(login, null)) {
-            return userRepository
-                .findOneWithAuthoritiesByEmailIgnoreCase(login)
+            return findSnapshot(login.toLowerCase(Locale.ENGLISH), userRepository::findOneWithAuthoritiesByEmailIgnoreCase)
                 .switchIfEmpty(Mono.error(new UsernameNotFoundException("User with email " + login + " was not found in the database")))
                 .map(user -> createSpringSecurityUser(login, user));
         }
 
         String lowercaseLogin = login.toLowerCase(Locale.ENGLISH);
-        return userRepository
-            .findOneWithAuthoritiesByLogin(lowercaseLogin)
+        return findSnapshot(lowercaseLogin, userRepository::findOneWithAuthoritiesByLogin)
             .switchIfEmpty(Mono.error(new UsernameNotFoundException("User " + lowercaseLogin + " was not found in the database")))
             .map(user -> createSpringSecurityUser(lowercaseLogin, user));
     }
 
-    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, User user) {
-        if (!user.isActivated()) {
+    /**
+     * Evicts the cached details of a user, so they are read again by the next login.
+     * @param user the saved or deleted user, which may have had another login or email.
+     */
+    public void evict(User user) {
+        snapshots.invalidate(snapshot -> Objects.equals(snapshot.id, user.getId()) || Objects.equals(snapshot.login, user.getLogin()));
+    }
+
+    private Mono<Snapshot> findSnapshot(String key, Function<String, Mono<User>> loader) {
+        return snapshots.get(key, login -> loader.apply(login).map(Snapshot::new));
+    }
+
+    private org.springframework.security.core.userdetails.User createSpringSecurityUser(String lowercaseLogin, Snapshot user) {
+        if (!user.activated) {
             throw new UserNotActivatedException("User " + lowercaseLogin + " was not activated");
         }
-        List<GrantedAuthority> grantedAuthorities = user
-            .getAuthorities()
-            .stream()
-            .map(authority -> new SimpleGrantedAuthority(authority.getName()))
-            .collect(Collectors.toList());
-        return new org.springframework.security.core.userdetails.User(user.getLogin(), user.getPassword(), grantedAuthorities);
+        List<GrantedAuthority> grantedAuthorities = user.authorities.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return new org.springframework.security.core.userdetails.User(user.login, user.password, grantedAuthorities);
     }
 }
@@ -0,0 +1,28 @@
+package com.rfb.service;
+
+import com.rfb.service.dto.RfbEventAttendanceDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Interface for archiving the old rfbEventAttendances to {@link AttendanceSegment} files.
+ */
+public interface AttendanceArchiveService {
+    /**
+     * Move the rfbEventAttendances older than the configured horizon from the database to segment files. Every segment file is
+     * written before its rfbEventAttendances are deleted, so an interrupted run is completed by the next one. The archived
+     * rfbEventAttendances are removed from the counters, leaderboards, streaks and attendee bitmaps, like deleted ones: they are only
+     * found by {@link #findAllByRfbUserId(Long)} afterwards.
+     *
+     * @return the number of archived rfbEventAttendances, 0 if an archival is already running.
+     */
+    Mono<Long> archive();
+
+    /**
+     * Get the archived rfbEventAttendances of a rfbUser.
+     *
+     * @param rfbUserId the id of the rfbUser.
+     * @return the list of archived rfbEventAttendances, sorted by id.
+     */
+    Flux<RfbEventAttendanceDTO> findAllByRfbUserId(Long rfbUserId);
+}
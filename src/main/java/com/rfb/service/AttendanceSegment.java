@@ -0,0 +1,254 @@
+package com.rfb.service;
+
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbUser;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A segment file of archived attendances, which is read through a memory mapping.
+ * <p>
+ * The file starts with a header, followed by an index of the users and the attendances compressed with deflate. The attendances are
+ * sorted by user, so the index tells which rows of the uncompressed data belong to a user; a segment without the user is skipped
+ * after a binary search of the index, without decompressing anything. The CRC32 of the index and the compressed data is checked
+ * when the segment is opened.
+ *
+ * <pre>
+ * header: magic (int), version (int), rows (int), users (int), compressed length (int), crc32 (long)
+ * index:  users x (user id (long), first row (int), rows (int)), sorted by user id
+ * data:   deflate(rows x (id (long), event id (long), attendance date as epoch day (long)))
+ * </pre>
+ *
+ * The attendances without a user are stored with the user id 0, and a missing event or date as {@link Long#MIN_VALUE}.
+ */
+public final class AttendanceSegment {
+
+    public static final String FILE_SUFFIX = ".seg";
+
+    private static final int MAGIC = 0x52464241; // "RFBA"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final int INDEX_ENTRY_BYTES = Long.BYTES + 2 * Integer.BYTES;
+
+    private static final int ROW_BYTES = 3 * Long.BYTES;
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final MappedByteBuffer buffer;
+
+    private final int rows;
+
+    private final int users;
+
+    private final int compressedLength;
+
+    private AttendanceSegment(MappedByteBuffer buffer, int rows, int users, int compressedLength) {
+        this.buffer = buffer;
+        this.rows = rows;
+        this.users = users;
+        this.compressedLength = compressedLength;
+    }
+
+    /**
+     * Writes the attendances to a segment file. The file is written next to its final path, forced to the disk and then moved to its
+     * final path, so a segment file is always complete.
+     * @param path the path of the segment file.
+     * @param attendances the attendances.
+     * @throws IOException if the file can't be written.
+     */
+    public static void write(Path path, List<RfbEventAttendance> attendances) throws IOException {
+        List<RfbEventAttendance> sorted = new ArrayList<>(attendances);
+        sorted.sort(Comparator.comparingLong(AttendanceSegment::userIdOf).thenComparing(RfbEventAttendance::getId));
+
+        ByteBuffer data = ByteBuffer.allocate(sorted.size() * ROW_BYTES);
+        ByteBuffer index = ByteBuffer.allocate(sorted.size() * INDEX_ENTRY_BYTES);
+        int users = 0;
+        for (int row = 0; row < sorted.size(); row++) {
+            RfbEventAttendance attendance = sorted.get(row);
+            long userId = userIdOf(attendance);
+            if (row == 0 || userIdOf(sorted.get(row - 1)) != userId) {
+                index.putLong(userId).putInt(row).putInt(0);
+                users++;
+            }
+            int rowsOfUser = users * INDEX_ENTRY_BYTES - Integer.BYTES;
+            index.putInt(rowsOfUser, index.getInt(rowsOfUser) + 1);
+            data.putLong(attendance.getId());
+            data.putLong(attendance.getRfbEventId() != null ? attendance.getRfbEventId() : NONE);
+            data.putLong(attendance.getAttendanceDate() != null ? attendance.getAttendanceDate().toEpochDay() : NONE);
+        }
+        byte[] compressed = deflate(data.array());
+        index.flip();
+
+        CRC32 crc = new CRC32();
+        crc.update(index.duplicate());
+        crc.update(compressed);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(sorted.size()).putInt(users).putInt(compressed.length).putLong(crc.getValue());
+        header.flip();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (
+            FileChannel channel = FileChannel.open(
+                temporary,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+            )
+        ) {
+            ByteBuffer[] buffers = { header, index, ByteBuffer.wrap(compressed) };
+            while (buffers[2].hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Maps a segment file, and checks its checksum.
+     * @param path the path of the segment file.
+     * @return the segment.
+     * @throws IOException if the file can't be read, or is corrupt.
+     */
+    public static AttendanceSegment open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Not an attendance segment: " + path);
+        }
+        int rows = buffer.getInt(2 * Integer.BYTES);
+        int users = buffer.getInt(3 * Integer.BYTES);
+        int compressedLength = buffer.getInt(4 * Integer.BYTES);
+        long checksum = buffer.getLong(5 * Integer.BYTES);
+        if ((long) HEADER_BYTES + (long) users * INDEX_ENTRY_BYTES + compressedLength != buffer.capacity()) {
+            throw new IOException("Truncated attendance segment: " + path);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(HEADER_BYTES));
+        if (crc.getValue() != checksum) {
+            throw new IOException("Corrupt attendance segment: " + path);
+        }
+        return new AttendanceSegment(buffer, rows, users, compressedLength);
+    }
+
+    /**
+     * @return the number of attendances in the segment.
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Reads the attendances of a user.
+     * @param userId the id of the user.
+     * @return the attendances, sorted by id; their event and user only have an id.
+     * @throws IOException if the data can't be decompressed.
+     */
+    public List<RfbEventAttendance> findAllByUserId(long userId) throws IOException {
+        int entry = findIndexEntry(userId);
+        if (entry < 0) {
+            return List.of();
+        }
+        int position = HEADER_BYTES + entry * INDEX_ENTRY_BYTES;
+        int firstRow = buffer.getInt(position + Long.BYTES);
+        int rowsOfUser = buffer.getInt(position + Long.BYTES + Integer.BYTES);
+
+        // only the data up to the last row of the user is decompressed
+        ByteBuffer data = inflate((firstRow + rowsOfUser) * ROW_BYTES);
+        data.position(firstRow * ROW_BYTES);
+        List<RfbEventAttendance> attendances = new ArrayList<>(rowsOfUser);
+        for (int row = 0; row < rowsOfUser; row++) {
+            RfbEventAttendance attendance = new RfbEventAttendance();
+            attendance.setId(data.getLong());
+            long eventId = data.getLong();
+            long epochDay = data.getLong();
+            attendance.setRfbEvent(eventId != NONE ? new RfbEvent().id(eventId) : null);
+            attendance.setAttendanceDate(epochDay != NONE ? LocalDate.ofEpochDay(epochDay) : null);
+            attendance.setRfbUser(userId != 0 ? new RfbUser().id(userId) : null);
+            attendances.add(attendance);
+        }
+        return attendances;
+    }
+
+    private int findIndexEntry(long userId) {
+        int low = 0;
+        int high = users - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long middleUserId = buffer.getLong(HEADER_BYTES + middle * INDEX_ENTRY_BYTES);
+            if (middleUserId < userId) {
+                low = middle + 1;
+            } else if (middleUserId > userId) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private ByteBuffer inflate(int length) throws IOException {
+        ByteBuffer compressed = buffer.duplicate();
+        compressed.position(HEADER_BYTES + users * INDEX_ENTRY_BYTES).limit(compressed.position() + compressedLength);
+        ByteBuffer data = ByteBuffer.allocate(length);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            while (data.hasRemaining() && !inflater.finished()) {
+                if (inflater.inflate(data) == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated attendance segment data");
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt attendance segment data", e);
+        } finally {
+            inflater.end();
+        }
+        return data.flip();
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteBuffer compressed = ByteBuffer.allocate(data.length / 2 + 64);
+            while (!deflater.finished()) {
+                if (!compressed.hasRemaining()) {
+                    compressed = ByteBuffer.allocate(compressed.capacity() * 2).put(compressed.flip());
+                }
+                deflater.deflate(compressed);
+            }
+            byte[] result = new byte[compressed.position()];
+            compressed.flip().get(result);
+            return result;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static long userIdOf(RfbEventAttendance attendance) {
+        return Objects.requireNonNullElse(attendance.getRfbUserId(), 0L);
+    }
+}
@@ -0,0 +1,153 @@
+package com.rfb.service;
+
+import com.carrotsearch.hppc.LongIntHashMap;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Counts attendances per user, per location and per day of the week, without an object per attendance: the counts are kept in
+ * primitive {@code long -> int} maps, and read as sorted {@code long[]} of ids with the parallel {@code int[]} of counts.
+ * <p>
+ * It isn't thread-safe: the attendances are added by a single stream of rows.
+ */
+public final class AttendanceStats {
+
+    /**
+     * Stands for a missing user or location, as the generated ids start at 1.
+     */
+    public static final long NONE = 0L;
+
+    private final LongIntHashMap userCounts = new LongIntHashMap();
+
+    private final LongIntHashMap locationCounts = new LongIntHashMap();
+
+    private final int[] dayOfWeekCounts = new int[DayOfWeek.values().length];
+
+    private long attendanceCount;
+
+    /**
+     * Counts an attendance.
+     * @param rfbUserId the id of the user, or {@link #NONE}.
+     * @param rfbLocationId the id of the location of the event, or {@link #NONE}.
+     * @param attendanceDate the date, or {@code null}.
+     */
+    public void add(long rfbUserId, long rfbLocationId, LocalDate attendanceDate) {
+        attendanceCount++;
+        if (rfbUserId != NONE) {
+            userCounts.addTo(rfbUserId, 1);
+        }
+        if (rfbLocationId != NONE) {
+            locationCounts.addTo(rfbLocationId, 1);
+        }
+        if (attendanceDate != null) {
+            dayOfWeekCounts[attendanceDate.getDayOfWeek().ordinal()]++;
+        }
+    }
+
+    /**
+     * @return the number of attendances.
+     */
+    public long getAttendanceCount() {
+        return attendanceCount;
+    }
+
+    /**
+     * @param dayOfWeek the day of the week.
+     * @return the number of attendances on the day of the week.
+     */
+    public int getDayOfWeekCount(DayOfWeek dayOfWeek) {
+        return dayOfWeekCounts[dayOfWeek.ordinal()];
+    }
+
+    /**
+     * @return the number of attendances per user.
+     */
+    public Counts getUserCounts() {
+        return Counts.of(userCounts);
+    }
+
+    /**
+     * @return the number of attendances per location.
+     */
+    public Counts getLocationCounts() {
+        return Counts.of(locationCounts);
+    }
+
+    /**
+     * The counts of ids, as a sorted array of the ids and the parallel array of their counts.
+     */
+    public static final class Counts {
+
+        private final long[] ids;
+
+        private final int[] counts;
+
+        private Counts(long[] ids, int[] counts) {
+            this.ids = ids;
+            this.counts = counts;
+        }
+
+        private static Counts of(LongIntHashMap map) {
+            long[] ids = map.keys().toArray();
+            Arrays.sort(ids);
+            int[] counts = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                counts[i] = map.get(ids[i]);
+            }
+            return new Counts(ids, counts);
+        }
+
+        /**
+         * @return the number of ids.
+         */
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * @param index the index, in ascending order of the ids.
+         * @return the id.
+         */
+        public long getId(int index) {
+            return ids[index];
+        }
+
+        /**
+         * @param index the index, in ascending order of the ids.
+         * @return the count of the id.
+         */
+        public int getCount(int index) {
+            return counts[index];
+        }
+
+        /**
+         * Gets the count of an id, with a binary search.
+         * @param id the id.
+         * @return the count, 0 if the id wasn't counted.
+         */
+        public int get(long id) {
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? counts[index] : 0;
+        }
+
+        /**
+         * Gets the ids with the highest counts. The count and the index of every id are packed in a long, so they're sorted as
+         * primitives.
+         * @param size the maximum number of ids.
+         * @return the indexes of the ids, highest count first, and lowest id first for the same count.
+         */
+        public int[] top(int size) {
+            long[] packed = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                packed[i] = ((long) (Integer.MAX_VALUE - counts[i]) << Integer.SIZE) | i;
+            }
+            Arrays.sort(packed);
+            int[] top = new int[Math.min(size, ids.length)];
+            for (int i = 0; i < top.length; i++) {
+                top[i] = (int) packed[i];
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.rfb.service;
+
+import com.rfb.service.dto.AttendanceStatsDTO;
+import java.time.LocalDate;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Interface for the attendance statistics of a period, which are counted in {@link AttendanceStats}.
+ */
+public interface AttendanceStatsService {
+    /**
+     * Count the rfbEventAttendances of a period per rfbUser, rfbLocation and day of the week.
+     *
+     * @param from the first day of the period.
+     * @param to the first day after the period.
+     * @param topSize the maximum number of top rfbUsers.
+     * @return the statistics.
+     */
+    Mono<AttendanceStatsDTO> getStats(LocalDate from, LocalDate to, int topSize);
+}
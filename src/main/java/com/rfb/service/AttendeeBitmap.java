@@ -0,0 +1,478 @@
+package com.rfb.service;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * A compressed set of user ids, in the manner of a roaring bitmap, so the attendees of events are intersected, merged and counted in
+ * memory rather than with joins.
+ * <p>
+ * The ids are split in chunks of 65536 by their high bits, and the low 16 bits of the ids of a chunk are kept in a container: a sorted
+ * {@code char[]} up to {@link #ARRAY_MAX} ids, otherwise a bitset of 1024 longs. So a sparse chunk takes 2 bytes per id and a dense one
+ * at most 8 KB, and the set operations work a chunk at a time, with word operations between the dense ones.
+ * <p>
+ * It isn't thread-safe.
+ */
+public final class AttendeeBitmap {
+
+    /**
+     * The largest number of ids of an array container; a bitset of 1024 longs takes as much memory.
+     */
+    static final int ARRAY_MAX = 4096;
+
+    private static final int WORDS = (1 << Character.SIZE) / Long.SIZE;
+
+    // the high bits of the ids of the containers, sorted
+    private long[] keys = new long[0];
+
+    private Container[] containers = new Container[0];
+
+    private int size;
+
+    /**
+     * Adds an id.
+     * @param id the id.
+     * @return {@code true} if the id wasn't in the set yet.
+     */
+    public boolean add(long id) {
+        long key = id >>> Character.SIZE;
+        int index = indexOf(key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key, new ArrayContainer(new char[4], 0));
+        }
+        Container container = containers[index];
+        int cardinality = container.cardinality;
+        containers[index] = container.add((char) id);
+        return containers[index].cardinality != cardinality;
+    }
+
+    /**
+     * Removes an id.
+     * @param id the id.
+     * @return {@code true} if the id was in the set.
+     */
+    public boolean remove(long id) {
+        int index = indexOf(id >>> Character.SIZE);
+        if (index < 0) {
+            return false;
+        }
+        Container container = containers[index];
+        int cardinality = container.cardinality;
+        Container removed = container.remove((char) id);
+        if (removed.cardinality == cardinality) {
+            return false;
+        }
+        if (removed.cardinality == 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+            containers[--size] = null;
+        } else {
+            containers[index] = removed;
+        }
+        return true;
+    }
+
+    /**
+     * @param id the id.
+     * @return {@code true} if the id is in the set.
+     */
+    public boolean contains(long id) {
+        int index = indexOf(id >>> Character.SIZE);
+        return index >= 0 && containers[index].contains((char) id);
+    }
+
+    /**
+     * @return the number of ids, in {@code O(containers)}.
+     */
+    public long getCardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return {@code true} if there are no ids.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Performs the action for every id, in ascending order.
+     * @param action the action.
+     */
+    public void forEach(LongConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << Character.SIZE, action);
+        }
+    }
+
+    /**
+     * @return the ids, in ascending order.
+     */
+    public long[] toArray() {
+        long[] ids = new long[Math.toIntExact(getCardinality())];
+        int[] index = new int[1];
+        forEach(id -> ids[index[0]++] = id);
+        return ids;
+    }
+
+    /**
+     * @param a a set.
+     * @param b another set.
+     * @return a new set of the ids in both sets.
+     */
+    public static AttendeeBitmap and(AttendeeBitmap a, AttendeeBitmap b) {
+        AttendeeBitmap result = new AttendeeBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            int comparison = Long.compare(a.keys[i], b.keys[j]);
+            if (comparison < 0) {
+                i++;
+            } else if (comparison > 0) {
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i++].and(b.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param a a set.
+     * @param b another set.
+     * @return a new set of the ids in either set.
+     */
+    public static AttendeeBitmap or(AttendeeBitmap a, AttendeeBitmap b) {
+        AttendeeBitmap result = new AttendeeBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < a.size || j < b.size) {
+            int comparison = i == a.size ? 1 : j == b.size ? -1 : Long.compare(a.keys[i], b.keys[j]);
+            if (comparison < 0) {
+                result.append(a.keys[i], a.containers[i++].copy());
+            } else if (comparison > 0) {
+                result.append(b.keys[j], b.containers[j++].copy());
+            } else {
+                result.append(a.keys[i], a.containers[i++].or(b.containers[j++]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param a a set.
+     * @param b another set.
+     * @return a new set of the ids in {@code a}, but not in {@code b}.
+     */
+    public static AttendeeBitmap andNot(AttendeeBitmap a, AttendeeBitmap b) {
+        AttendeeBitmap result = new AttendeeBitmap();
+        int j = 0;
+        for (int i = 0; i < a.size; i++) {
+            while (j < b.size && b.keys[j] < a.keys[i]) {
+                j++;
+            }
+            boolean both = j < b.size && b.keys[j] == a.keys[i];
+            result.append(a.keys[i], both ? a.containers[i].andNot(b.containers[j]) : a.containers[i].copy());
+        }
+        return result;
+    }
+
+    private int indexOf(long key) {
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, long key, Container container) {
+        if (size == keys.length) {
+            int capacity = Math.max(4, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    /**
+     * Adds a container after the last one, unless it's empty.
+     */
+    private void append(long key, Container container) {
+        if (container.cardinality > 0) {
+            insert(size, key, container);
+        }
+    }
+
+    /**
+     * The low 16 bits of the ids of a chunk. The updates return the container, which replaces this one when it's converted.
+     */
+    private abstract static class Container {
+
+        int cardinality;
+
+        abstract boolean contains(char low);
+
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container copy();
+
+        abstract void forEach(long high, LongConsumer action);
+    }
+
+    private static final class ArrayContainer extends Container {
+
+        private char[] values;
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                return toBitmap().add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[Math.min(cardinality, other.cardinality)];
+            int count = 0;
+            if (other instanceof ArrayContainer) {
+                char[] otherValues = ((ArrayContainer) other).values;
+                int i = 0;
+                int j = 0;
+                while (i < cardinality && j < other.cardinality) {
+                    if (values[i] < otherValues[j]) {
+                        i++;
+                    } else if (values[i] > otherValues[j]) {
+                        j++;
+                    } else {
+                        result[count++] = values[i++];
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i])) {
+                        result[count++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (!(other instanceof ArrayContainer)) {
+                return other.or(this);
+            }
+            char[] otherValues = ((ArrayContainer) other).values;
+            char[] result = new char[cardinality + other.cardinality];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < cardinality || j < other.cardinality) {
+                if (j == other.cardinality || (i < cardinality && values[i] < otherValues[j])) {
+                    result[count++] = values[i++];
+                } else if (i == cardinality || values[i] > otherValues[j]) {
+                    result[count++] = otherValues[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer union = new ArrayContainer(result, count);
+            return count > ARRAY_MAX ? union.toBitmap() : union;
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < cardinality; i++) {
+                if (!other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        void forEach(long high, LongConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+
+        private final long[] words;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * Creates the container of the bits, which is an array container if there are few.
+         */
+        private static Container of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > ARRAY_MAX) {
+                return new BitmapContainer(words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < words.length; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    values[count++] = (char) (i * Long.SIZE + Long.numberOfTrailingZeros(word));
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            if (!contains(low)) {
+                words[low >>> 6] |= 1L << low;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            if (!contains(low)) {
+                return this;
+            }
+            words[low >>> 6] &= ~(1L << low);
+            cardinality--;
+            return cardinality <= ARRAY_MAX ? of(words) : this;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[WORDS];
+            for (int i = 0; i < WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+            }
+            return of(result);
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result[array.values[i] >>> 6] |= 1L << array.values[i];
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] |= otherWords[i];
+                }
+            }
+            return of(result);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = words.clone();
+            if (other instanceof ArrayContainer) {
+                ArrayContainer array = (ArrayContainer) other;
+                for (int i = 0; i < array.cardinality; i++) {
+                    result[array.values[i] >>> 6] &= ~(1L << array.values[i]);
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int i = 0; i < WORDS; i++) {
+                    result[i] &= ~otherWords[i];
+                }
+            }
+            return of(result);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        void forEach(long high, LongConsumer action) {
+            for (int i = 0; i < WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    action.accept(high | (i * Long.SIZE + Long.numberOfTrailingZeros(word)));
+                }
+            }
+        }
+    }
+}
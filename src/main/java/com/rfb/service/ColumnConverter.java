@@ -48,6 +48,9 @@ public class ColumnConverter {
 
     /**
      * Convert a value from the {@link Row} to a type - throws an exception, it it's impossible.
+     * <p>
+     * The column is looked up by name for every call, the row mappers use a {@link com.rfb.repository.rowmapper.RowMapping} instead,
+     * which resolves the columns once per result shape.
      * @param row which contains the column values.
      * @param target class.
      * @param columnName the name of the column which to convert.
@@ -55,12 +58,7 @@ public class ColumnConverter {
      * @return the value which can be constructed from the input.
      */
     public <T> T fromRow(Row row, String columnName, Class<T> target) {
-        try {
-            // try, directly the driver
-            return row.get(columnName, target);
-        } catch (Exception e) {
-            Object obj = row.get(columnName);
-            return convert(obj, target);
-        }
+        // the driver returns its own type, which is converted only if it isn't the target already
+        return convert(row.get(columnName), target);
     }
 }
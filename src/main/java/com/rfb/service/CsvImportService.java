@@ -0,0 +1,39 @@
+package com.rfb.service;
+
+import com.rfb.service.dto.ImportProgressDTO;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+/**
+ * Service Interface for importing the rfbLocations, rfbEvents, rfbUsers and rfbEventAttendances from CSV content, e.g. when migrating
+ * the data of another club.
+ */
+public interface CsvImportService {
+    /**
+     * The imported entity, with the columns of its CSV content; the required columns are marked with {@code *}, and the other columns,
+     * like {@code id}, are ignored.
+     */
+    enum Type {
+        /** {@code location_name*, run_day_of_week} */
+        LOCATIONS,
+        /** {@code event_code*, event_date, location_name} */
+        EVENTS,
+        /** {@code username*, home_location_name} */
+        USERS,
+        /** {@code event_code*, username*, attendance_date} */
+        ATTENDANCES,
+    }
+
+    /**
+     * Import the rows of CSV content, which starts with a header of the column names. The content is read as it arrives, and the rows
+     * are created in batches of {@code application.batch.chunk-size}, every batch in its own transaction. The rfbLocations, rfbEvents
+     * and rfbUsers are referenced by their name, code and username, which are looked up with a single query per batch.
+     *
+     * @param type the imported entity.
+     * @param content the CSV content.
+     * @param delimiter the delimiter of the values.
+     * @return the progress after every batch, and finally the done progress; an {@link IllegalArgumentException} if a required column
+     * is missing or the content is not valid CSV.
+     */
+    Flux<ImportProgressDTO> importCsv(Type type, Flux<DataBuffer> content, char delimiter);
+}
@@ -0,0 +1,194 @@
+package com.rfb.service;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An incremental reader of UTF-8 CSV content, which is fed with the chunks of the content as they arrive, so a large file is never held
+ * in memory.
+ * <p>
+ * A chunk may end anywhere, even within a multi-byte character or a quoted value. The values may be quoted with {@code "}, and a quote
+ * is escaped by doubling it; a quoted value may contain the delimiter and line breaks. Empty lines are skipped, and a record is limited
+ * to {@link #MAX_RECORD_LENGTH} characters, so an unbalanced quote fails instead of reading the rest of the file into one value.
+ */
+public final class CsvReader {
+
+    public static final int MAX_RECORD_LENGTH = 64 * 1024;
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /**
+     * A record, with the number of the line it starts on.
+     */
+    public static final class Row {
+
+        private final int line;
+
+        private final List<String> values;
+
+        Row(int line, List<String> values) {
+            this.line = line;
+            this.values = Collections.unmodifiableList(values);
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public List<String> getValues() {
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            return "Row{line=" + line + ", values=" + values + "}";
+        }
+    }
+
+    private final char delimiter;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8
+        .newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    // the bytes of a character, which is split across chunks
+    private ByteBuffer pending = ByteBuffer.allocate(0);
+
+    private final CharBuffer chars = CharBuffer.allocate(8192);
+
+    private final StringBuilder value = new StringBuilder();
+
+    private List<String> values = new ArrayList<>();
+
+    private int recordLength;
+
+    private boolean quoted;
+
+    // a quote was read in a quoted value: it either ends the value, or is the first quote of an escaped one
+    private boolean quoteInQuoted;
+
+    private boolean firstChar = true;
+
+    private int line = 1;
+
+    private int recordLine = 1;
+
+    public CsvReader(char delimiter) {
+        if (delimiter == '"' || delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("Invalid delimiter: " + delimiter);
+        }
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Reads the next chunk of the content.
+     * @param bytes the chunk, which is consumed.
+     * @return the records completed by the chunk.
+     * @throws IllegalArgumentException if a record is too long.
+     */
+    public List<Row> read(ByteBuffer bytes) {
+        ByteBuffer input = bytes;
+        if (pending.hasRemaining()) {
+            input = ByteBuffer.allocate(pending.remaining() + bytes.remaining()).put(pending).put(bytes).flip();
+        }
+        List<Row> rows = new ArrayList<>();
+        decode(input, false, rows);
+        pending = input.hasRemaining() ? ByteBuffer.allocate(input.remaining()).put(input).flip() : ByteBuffer.allocate(0);
+        return rows;
+    }
+
+    /**
+     * Reads the end of the content.
+     * @return the last record, if the content doesn't end with a line break.
+     * @throws IllegalArgumentException if the last value is still quoted.
+     */
+    public List<Row> finish() {
+        List<Row> rows = new ArrayList<>();
+        decode(pending, true, rows);
+        chars.clear();
+        decoder.flush(chars);
+        process(chars.flip(), rows);
+        if (quoted && !quoteInQuoted) {
+            throw new IllegalArgumentException("Unterminated quoted value on line " + recordLine);
+        }
+        endRecord(rows);
+        return rows;
+    }
+
+    private void decode(ByteBuffer input, boolean endOfInput, List<Row> rows) {
+        while (true) {
+            chars.clear();
+            CoderResult result = decoder.decode(input, chars, endOfInput);
+            process(chars.flip(), rows);
+            if (!result.isOverflow()) {
+                return;
+            }
+        }
+    }
+
+    private void process(CharBuffer buffer, List<Row> rows) {
+        while (buffer.hasRemaining()) {
+            char c = buffer.get();
+            if (firstChar) {
+                firstChar = false;
+                if (c == BYTE_ORDER_MARK) {
+                    continue;
+                }
+            }
+            if (c == '\n') {
+                line++;
+            }
+            if (quoteInQuoted) {
+                quoteInQuoted = false;
+                if (c == '"') {
+                    append(c);
+                    continue;
+                }
+                quoted = false;
+            } else if (quoted) {
+                if (c == '"') {
+                    quoteInQuoted = true;
+                } else {
+                    append(c);
+                }
+                continue;
+            }
+            if (c == delimiter) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\n') {
+                endRecord(rows);
+                recordLine = line;
+            } else if (c == '"' && value.length() == 0) {
+                quoted = true;
+            } else if (c != '\r') {
+                append(c);
+            }
+        }
+    }
+
+    private void append(char c) {
+        if (++recordLength > MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("Record too long on line " + recordLine);
+        }
+        value.append(c);
+    }
+
+    private void endRecord(List<Row> rows) {
+        if (!values.isEmpty() || value.length() > 0) {
+            values.add(value.toString());
+            rows.add(new Row(recordLine, values));
+            values = new ArrayList<>();
+        }
+        value.setLength(0);
+        recordLength = 0;
+    }
+}
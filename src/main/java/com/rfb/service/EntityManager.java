@@ -1,30 +1,51 @@
 package com.rfb.service;
 
+import com.rfb.config.ApplicationProperties;
+import io.r2dbc.spi.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PersistentPropertyAccessor;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.query.BoundCondition;
 import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
-import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.query.CriteriaDefinition;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
 import org.springframework.data.relational.core.sql.OrderByField;
 import org.springframework.data.relational.core.sql.Select;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
-import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectWhere;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.PreparedOperation;
+import org.springframework.r2dbc.core.binding.BindMarker;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindTarget;
+import org.springframework.r2dbc.core.binding.Bindings;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
@@ -40,6 +61,11 @@ public class EntityManager {
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
 
+    /**
+     * The property of the optimistic locking version of the entities, it's incremented by every update.
+     */
+    public static final String VERSION_PROPERTY = "version";
+
     public static class LinkTable {
 
         final String tableName;
@@ -56,90 +82,173 @@ public class EntityManager {
         }
     }
 
+    /**
+     * A select statement, together with the bindings of its criteria values.
+     */
+    static class BoundSelect implements PreparedOperation<String> {
+
+        private final String sql;
+        private final Bindings bindings;
+
+        BoundSelect(String sql, Bindings bindings) {
+            this.sql = sql;
+            this.bindings = bindings;
+        }
+
+        @Override
+        public String getSource() {
+            return sql;
+        }
+
+        @Override
+        public void bindTo(BindTarget target) {
+            if (bindings != null) {
+                bindings.apply(target);
+            }
+        }
+
+        @Override
+        public String toQuery() {
+            return sql;
+        }
+    }
+
+    /**
+     * Exposes a {@link Statement} as {@link BindTarget}, so the bind markers can bind their values to it.
+     */
+    private static class StatementBindTarget implements BindTarget {
+
+        private final Statement statement;
+
+        StatementBindTarget(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public void bind(String identifier, Object value) {
+            statement.bind(identifier, value);
+        }
+
+        @Override
+        public void bind(int index, Object value) {
+            statement.bind(index, value);
+        }
+
+        @Override
+        public void bindNull(String identifier, Class<?> type) {
+            statement.bindNull(identifier, type);
+        }
+
+        @Override
+        public void bindNull(int index, Class<?> type) {
+            statement.bindNull(index, type);
+        }
+    }
+
+    // upper bound for the cached select statements, as the sort parameters are coming from the client
+    private static final int MAX_SELECT_PLANS = 512;
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final R2dbcDialect dialect;
+    private final ApplicationProperties applicationProperties;
+    private final Map<String, String> selectPlans = new ConcurrentHashMap<>();
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcDialect dialect,
+        ApplicationProperties applicationProperties
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.dialect = dialect;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
+     * Creates a parameterized SQL select statement from the given fragment, pagination parameters and criteria.
+     * <p>
+     * The rendered SQL is cached per entity, select shape, criteria shape and sort, so the {@link SqlRenderer} runs only once for
+     * each distinct query. The criteria values are bound as parameters, so calls which only differ in those values share the same
+     * SQL text, and the driver can reuse it as a prepared statement.
      * @param entityType the entity type which holds the table name.
+     * @param selectShape identifies the columns and joins of the fragment, it is part of the cache key.
+     * @param selectFrom supplies a new representation of a select statement, only called if the SQL is not cached yet.
      * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
+     * @param criteria the filter criteria, or null, if everything needs to be returned
+     * @return sql select statement, with the bindings of the criteria values
      */
-    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+    public PreparedOperation<String> createSelect(
+        Class<?> entityType,
+        String selectShape,
+        Supplier<? extends SelectWhere> selectFrom,
+        Pageable pageable,
+        Criteria criteria
+    ) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Table table = Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS);
+        Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+
+        BoundCondition condition = null;
+        StringBuilder key = new StringBuilder(entityType.getName()).append('|').append(selectShape).append('|');
+        if (criteria != null && !criteria.isEmpty()) {
+            BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+            condition = updateMapper.getMappedObject(bindMarkers, criteria, table, entity);
+            appendCriteriaShape(key, criteria);
+        }
+        key.append('|').append(sort);
+
+        String sql = selectPlans.get(key.toString());
+        if (sql == null) {
+            SelectOrdered select = condition != null ? selectFrom.get().where(condition.getCondition()) : selectFrom.get();
+            if (sort.isSorted()) {
+                select = select.orderBy(createOrderByFields(table, updateMapper.getMappedObject(sort, entity)));
             }
-        } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+            sql = createSelect(select.build());
+            if (selectPlans.size() < MAX_SELECT_PLANS) {
+                selectPlans.putIfAbsent(key.toString(), sql);
             }
         }
+
+        if (pageable != null && pageable.isPaged()) {
+            // both H2 and MySQL expect the limit clause after the ORDER BY, so it can be appended to the cached SQL
+            sql = sql + " " + dialect.limit().getLimitOffset(pageable.getPageSize(), pageable.getOffset());
+        }
+        return new BoundSelect(sql, condition != null ? condition.getBindings() : null);
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
-     * @param entityType the entity type which holds the table name.
-     * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
+     * Appends the columns, comparators and combinators of the criteria to the given builder, without the values - so every criteria
+     * which renders to the same SQL has the same shape.
      */
-    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+    private static void appendCriteriaShape(StringBuilder shape, CriteriaDefinition criteria) {
+        if (criteria.hasPrevious()) {
+            appendCriteriaShape(shape, criteria.getPrevious());
+            shape.append(' ').append(criteria.getCombinator()).append(' ');
+        }
+        if (criteria.isGroup()) {
+            shape.append('(');
+            for (CriteriaDefinition nested : criteria.getGroup()) {
+                shape.append(nested.getCombinator()).append(' ');
+                appendCriteriaShape(shape, nested);
             }
-        } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+            shape.append(')');
+        } else if (!criteria.isEmpty()) {
+            shape.append(criteria.getColumn()).append(' ').append(criteria.getComparator());
+            if (criteria.isIgnoreCase()) {
+                shape.append(" IGNORE CASE");
             }
-        }
-    }
-
-    private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
-        if (sortParameter != null && sortParameter.isSorted()) {
-            RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
-            if (entity != null) {
-                Sort sort = updateMapper.getMappedObject(sortParameter, entity);
-                selectFrom =
-                    selectFrom.orderBy(createOrderByFields(Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS), sort));
+            if (criteria.getValue() instanceof Collection) {
+                // every element of the collection gets its own bind marker
+                shape.append(" [").append(((Collection<?>) criteria.getValue()).size()).append(']');
             }
         }
-        return createSelect(selectFrom.build());
     }
 
     private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
@@ -181,43 +290,358 @@ public class EntityManager {
      * @return the persisted entity.
      */
     public <S> Mono<S> insert(S entity) {
+        initVersion(entity);
         return r2dbcEntityTemplate.insert(entity);
     }
 
+    /**
+     * Inserts the given entities into the database with a single batched statement - and sets the ids, if it's an autoincrement field.
+     * The entities must be of the same type, and they must not have an id yet.
+     * @param <S> the type of the persisted entities.
+     * @param entities the entities to be inserted into the database.
+     * @return the persisted entities.
+     */
+    @SuppressWarnings("unchecked")
+    public <S> Flux<S> insertAll(List<S> entities) {
+        if (entities.isEmpty()) {
+            return Flux.empty();
+        }
+        RelationalPersistentEntity<S> entity = (RelationalPersistentEntity<S>) getPersistentEntity(entities.get(0).getClass());
+        RelationalPersistentProperty idProperty = entity.getRequiredIdProperty();
+        List<OutboundRow> rows = new ArrayList<>(entities.size());
+        for (S entityToInsert : entities) {
+            initVersion(entityToInsert);
+            OutboundRow row = toOutboundRow(entityToInsert);
+            row.remove(idProperty.getColumnName());
+            rows.add(row);
+        }
+        List<SqlIdentifier> columns = new ArrayList<>(rows.get(0).keySet());
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<BindMarker> markers = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            markers.add(bindMarkers.next());
+        }
+
+        IdentifierProcessing identifierProcessing = dialect.getIdentifierProcessing();
+        String sql =
+            "INSERT INTO " +
+            entity.getTableName().toSql(identifierProcessing) +
+            columns.stream().map(column -> column.toSql(identifierProcessing)).collect(Collectors.joining(", ", " (", ")")) +
+            markers.stream().map(BindMarker::getPlaceholder).collect(Collectors.joining(", ", " VALUES (", ")"));
+        String idColumn = idProperty.getColumnName().toSql(identifierProcessing);
+
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(
+                connection -> {
+                    Statement statement = connection.createStatement(sql).returnGeneratedValues(idColumn);
+                    BindTarget bindTarget = new StatementBindTarget(statement);
+                    for (int i = 0; i < rows.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        for (int column = 0; column < columns.size(); column++) {
+                            Parameter parameter = rows.get(i).get(columns.get(column));
+                            if (parameter.hasValue()) {
+                                markers.get(column).bind(bindTarget, parameter.getValue());
+                            } else {
+                                markers.get(column).bindNull(bindTarget, parameter.getType());
+                            }
+                        }
+                    }
+                    return Flux
+                        .from(statement.execute())
+                        .concatMap(result -> result.map((row, metadata) -> row.get(0, idProperty.getType())));
+                }
+            )
+            .zipWithIterable(
+                entities,
+                (id, insertedEntity) -> {
+                    entity.getPropertyAccessor(insertedEntity).setProperty(idProperty, id);
+                    return insertedEntity;
+                }
+            );
+    }
+
+    /**
+     * Inserts the given entity into the database, unless a row with the same values of the key columns exists already - and sets the id,
+     * if it's an autoincrement field.
+     * <p>
+     * The key columns must be covered by a unique constraint: on MySQL the insert is an {@code INSERT ... ON DUPLICATE KEY UPDATE} which
+     * leaves the existing row unchanged, otherwise it's a {@code MERGE ... WHEN NOT MATCHED THEN INSERT}. Either way a duplicate is
+     * detected by the unique index with a single statement, without reading or locking the existing row first; a duplicate key error
+     * of a concurrent insert of the same key is treated as a duplicate too.
+     * @param <S> the type of the entity.
+     * @param entity the entity to be inserted into the database, without an id.
+     * @param keyColumns the columns of the unique constraint.
+     * @return the persisted entity, or an empty {@link Mono} if a row with the same key exists already.
+     */
+    @SuppressWarnings("unchecked")
+    public <S> Mono<S> insertIfAbsent(S entity, String... keyColumns) {
+        RelationalPersistentEntity<S> persistentEntity = (RelationalPersistentEntity<S>) getPersistentEntity(entity.getClass());
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        initVersion(entity);
+        OutboundRow row = toOutboundRow(entity);
+        row.remove(idProperty.getColumnName());
+
+        IdentifierProcessing identifierProcessing = dialect.getIdentifierProcessing();
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        String tableName = persistentEntity.getTableName().toSql(identifierProcessing);
+        String idColumn = idProperty.getColumnName().toSql(identifierProcessing);
+        Map<BindMarker, Parameter> values = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder();
+        if (dialect instanceof MySqlDialect) {
+            sql.append("INSERT INTO ").append(tableName);
+        } else {
+            sql.append("MERGE INTO ").append(tableName).append(" target USING DUAL ON (");
+            for (int i = 0; i < keyColumns.length; i++) {
+                SqlIdentifier keyColumn = SqlIdentifier.unquoted(keyColumns[i]);
+                Assert.isTrue(row.containsKey(keyColumn), () -> "Unknown key column: " + keyColumn);
+                sql.append(i > 0 ? " AND target." : "target.").append(keyColumn.toSql(identifierProcessing));
+                BindMarker marker = bindMarkers.next();
+                sql.append(" = ").append(marker.getPlaceholder());
+                values.put(marker, row.get(keyColumn));
+            }
+            sql.append(") WHEN NOT MATCHED THEN INSERT");
+        }
+        sql.append(row.keySet().stream().map(column -> column.toSql(identifierProcessing)).collect(Collectors.joining(", ", " (", ")")));
+        StringJoiner placeholders = new StringJoiner(", ", " VALUES (", ")");
+        for (Parameter value : row.values()) {
+            BindMarker marker = bindMarkers.next();
+            placeholders.add(marker.getPlaceholder());
+            values.put(marker, value);
+        }
+        sql.append(placeholders);
+        if (dialect instanceof MySqlDialect) {
+            // a no-op update: the existing row isn't changed, and no insert id is reported
+            sql.append(" ON DUPLICATE KEY UPDATE ").append(idColumn).append(" = ").append(idColumn);
+        }
+
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnection(
+                connection -> {
+                    Statement statement = connection.createStatement(sql.toString()).returnGeneratedValues(idColumn);
+                    BindTarget bindTarget = new StatementBindTarget(statement);
+                    values.forEach(
+                        (marker, value) -> {
+                            if (value.hasValue()) {
+                                marker.bind(bindTarget, value.getValue());
+                            } else {
+                                marker.bindNull(bindTarget, value.getType());
+                            }
+                        }
+                    );
+                    return Flux
+                        .from(statement.execute())
+                        .concatMap(result -> result.map((generated, metadata) -> generated.get(0, idProperty.getType())))
+                        .next();
+                }
+            )
+            .filter(id -> !(id instanceof Number) || ((Number) id).longValue() > 0)
+            .map(
+                id -> {
+                    persistentEntity.getPropertyAccessor(entity).setProperty(idProperty, id);
+                    return entity;
+                }
+            )
+            .onErrorResume(DuplicateKeyException.class, e -> Mono.empty());
+    }
+
+    /**
+     * Updates all columns of the given entity with a single statement, and increments its version.
+     * <p>
+     * If the entity has a version, the row is only updated if it still has this version (optimistic locking); the version of the
+     * entity is then incremented too.
+     * @param <S> the type of the entity.
+     * @param entity the entity to be updated, with its id.
+     * @return the number of updated rows: 0 if the entity doesn't exist, or it has another version.
+     */
+    public <S> Mono<Integer> update(S entity) {
+        return update(entity, false);
+    }
+
+    /**
+     * Updates the non-null columns of the given entity with a single statement, without reading it first (merge patch semantics),
+     * and increments its version.
+     * <p>
+     * If the entity has a version, the row is only updated if it still has this version (optimistic locking).
+     * @param <S> the type of the entity.
+     * @param entity the entity holding the id and the values to be written.
+     * @return the number of updated rows: 0 if the entity doesn't exist, or it has another version.
+     */
+    public <S> Mono<Integer> patch(S entity) {
+        return update(entity, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <S> Mono<Integer> update(S entity, boolean onlyNonNullValues) {
+        RelationalPersistentEntity<S> persistentEntity = (RelationalPersistentEntity<S>) getPersistentEntity(entity.getClass());
+        RelationalPersistentProperty idProperty = persistentEntity.getRequiredIdProperty();
+        RelationalPersistentProperty versionProperty = persistentEntity.getRequiredPersistentProperty(VERSION_PROPERTY);
+        PersistentPropertyAccessor<S> accessor = persistentEntity.getPropertyAccessor(entity);
+        Object id = accessor.getProperty(idProperty);
+        Long version = (Long) accessor.getProperty(versionProperty);
+        Assert.notNull(id, "id is null");
+
+        OutboundRow row = toOutboundRow(entity);
+        row.remove(idProperty.getColumnName());
+        row.remove(versionProperty.getColumnName());
+        IdentifierProcessing identifierProcessing = dialect.getIdentifierProcessing();
+        String versionColumn = versionProperty.getColumnName().toSql(identifierProcessing);
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        String tableName = persistentEntity.getTableName().toSql(identifierProcessing);
+        StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
+        List<Object> values = new ArrayList<>(row.size() + 2);
+        for (Entry<SqlIdentifier, Parameter> column : row.entrySet()) {
+            if (onlyNonNullValues && !column.getValue().hasValue()) {
+                continue;
+            }
+            sql.append(column.getKey().toSql(identifierProcessing)).append(" = ").append(bindMarkers.next().getPlaceholder()).append(", ");
+            values.add(column.getValue());
+        }
+        sql
+            .append(versionColumn)
+            .append(" = ")
+            .append(versionColumn)
+            .append(" + 1 WHERE ")
+            .append(idProperty.getColumnName().toSql(identifierProcessing))
+            .append(" = ")
+            .append(bindMarkers.next().getPlaceholder());
+        values.add(id);
+        if (version != null) {
+            sql.append(" AND ").append(versionColumn).append(" = ").append(bindMarkers.next().getPlaceholder());
+            values.add(version);
+        }
+        return executeUpdate(sql.toString(), values)
+            .doOnNext(
+                updated -> {
+                    if (updated > 0 && version != null) {
+                        accessor.setProperty(versionProperty, version + 1);
+                    }
+                }
+            );
+    }
+
+    private OutboundRow toOutboundRow(Object entity) {
+        OutboundRow row = new OutboundRow();
+        r2dbcEntityTemplate.getConverter().write(entity, row);
+        return row;
+    }
+
+    private <S> void initVersion(S entity) {
+        RelationalPersistentEntity<?> persistentEntity = getPersistentEntity(entity.getClass());
+        RelationalPersistentProperty versionProperty = persistentEntity.getPersistentProperty(VERSION_PROPERTY);
+        if (versionProperty != null) {
+            PersistentPropertyAccessor<?> accessor = persistentEntity.getPropertyAccessor(entity);
+            if (accessor.getProperty(versionProperty) == null) {
+                accessor.setProperty(versionProperty, 0L);
+            }
+        }
+    }
+
     /**
      * Updates the table, which links the entity with the referred entities.
+     * <p>
+     * Only the difference to the existing links is written: the links which are no longer referred are deleted, and the new ones are
+     * inserted, both with multi-row statements of at most {@code application.batch.chunk-size} rows. The unchanged links are kept.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
      * @param entityId the id of the entity, for which the links are created.
+     * @param referenceType the type of the ids of the referred entities, as the existing links are read to be compared with them.
      * @param referencedIds the id of the referred entities.
-     * @return the number of inserted rows.
+     * @param <T> the type of the ids of the referred entities.
+     * @return the number of deleted and inserted rows.
      */
-    public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<Long> referencedIds) {
-        return deleteFromLinkTable(table, entityId)
-            .then(
-                Flux
-                    .fromStream(referencedIds)
-                    .flatMap(
-                        (Long referenceId) -> {
-                            StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                                .getDataAccessStrategy()
-                                .getStatementMapper()
-                                .createInsert(table.tableName)
-                                .withColumn(table.idColumn, Parameter.from(entityId))
-                                .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                            return r2dbcEntityTemplate
-                                .getDatabaseClient()
-                                .sql(statementMapper.getMappedObject(insert))
-                                .fetch()
-                                .rowsUpdated();
-                        }
-                    )
-                    .collectList()
-                    .map((List<Integer> updates) -> updates.stream().reduce(Integer::sum).orElse(0))
-            );
+    public <T> Mono<Integer> updateLinkTable(LinkTable table, Object entityId, Class<T> referenceType, Stream<T> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        Set<Object> linksToInsert = referencedIds.collect(Collectors.toCollection(LinkedHashSet::new));
+        int chunkSize = applicationProperties.getBatch().getChunkSize();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(
+                "SELECT " +
+                table.referenceColumn +
+                " FROM " +
+                table.tableName +
+                " WHERE " +
+                table.idColumn +
+                " = " +
+                dialect.getBindMarkersFactory().create().next().getPlaceholder()
+            )
+            .bind(0, entityId)
+            .map((row, metadata) -> (Object) row.get(0, referenceType))
+            .all()
+            .filter(referenceId -> !linksToInsert.remove(referenceId))
+            .collectList()
+            .flatMapMany(
+                linksToDelete ->
+                    Flux
+                        .fromIterable(linksToDelete)
+                        .buffer(chunkSize)
+                        .concatMap(links -> deleteFromLinkTable(table, entityId, links))
+                        .concatWith(
+                            Flux
+                                .fromIterable(linksToInsert)
+                                .buffer(chunkSize)
+                                .concatMap(links -> insertIntoLinkTable(table, entityId, links))
+                        )
+            )
+            .reduce(0, Integer::sum);
+    }
+
+    private Mono<Integer> deleteFromLinkTable(LinkTable table, Object entityId, List<Object> referencedIds) {
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        StringBuilder sql = new StringBuilder("DELETE FROM ")
+            .append(table.tableName)
+            .append(" WHERE ")
+            .append(table.idColumn)
+            .append(" = ")
+            .append(bindMarkers.next().getPlaceholder())
+            .append(" AND ")
+            .append(table.referenceColumn)
+            .append(" IN (");
+        List<Object> values = new ArrayList<>(referencedIds.size() + 1);
+        values.add(entityId);
+        for (Object referenceId : referencedIds) {
+            sql.append(values.size() > 1 ? ", " : "").append(bindMarkers.next().getPlaceholder());
+            values.add(referenceId);
+        }
+        return executeUpdate(sql.append(')').toString(), values);
+    }
+
+    private Mono<Integer> insertIntoLinkTable(LinkTable table, Object entityId, List<Object> referencedIds) {
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+            .append(table.tableName)
+            .append(" (")
+            .append(table.idColumn)
+            .append(", ")
+            .append(table.referenceColumn)
+            .append(") VALUES ");
+        List<Object> values = new ArrayList<>(referencedIds.size() * 2);
+        for (Object referenceId : referencedIds) {
+            sql
+                .append(values.isEmpty() ? "" : ", ")
+                .append('(')
+                .append(bindMarkers.next().getPlaceholder())
+                .append(", ")
+                .append(bindMarkers.next().getPlaceholder())
+                .append(')');
+            values.add(entityId);
+            values.add(referenceId);
+        }
+        return executeUpdate(sql.toString(), values);
+    }
+
+    private Mono<Integer> executeUpdate(String sql, List<Object> values) {
+        DatabaseClient.GenericExecuteSpec spec = r2dbcEntityTemplate.getDatabaseClient().sql(sql);
+        for (int i = 0; i < values.size(); i++) {
+            spec = spec.bind(i, values.get(i));
+        }
+        return spec.fetch().rowsUpdated();
     }
 
-    public Mono<Void> deleteFromLinkTable(LinkTable table, Long entityId) {
+    public Mono<Void> deleteFromLinkTable(LinkTable table, Object entityId) {
         Assert.notNull(entityId, "entityId is null");
         StatementMapper.DeleteSpec deleteSpec = r2dbcEntityTemplate
             .getDataAccessStrategy()
@@ -0,0 +1,62 @@
+package com.rfb.service;
+
+import com.rfb.domain.RfbEventAttendance;
+import java.util.Collection;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Interface for the set queries over the attendees of the rfbEvents, e.g. who attended both A and B, which are answered from
+ * an {@link AttendeeBitmap} of the rfbUser ids per rfbEvent.
+ * <p>
+ * Only the attendees in the database are in the bitmaps: a rfbUser whose rfbEventAttendance was archived by the
+ * {@link AttendanceArchiveService} no longer attended the rfbEvent for these queries.
+ */
+public interface EventAttendeeService {
+    /**
+     * The set operation across the attendees of the rfbEvents.
+     */
+    enum Operation {
+        /** the rfbUsers who attended all the rfbEvents */
+        AND,
+        /** the rfbUsers who attended any of the rfbEvents */
+        OR,
+        /** the rfbUsers who attended the first rfbEvent, but none of the others */
+        ANDNOT,
+    }
+
+    /**
+     * Update the bitmaps with the changed rfbEventAttendances, once the current transaction is committed.
+     *
+     * @param removed the rfbEventAttendances which were deleted, or the previous state of the updated ones.
+     * @param added the rfbEventAttendances which were created, or the new state of the updated ones.
+     * @return a Mono to signal the update was registered.
+     */
+    Mono<Void> update(Collection<RfbEventAttendance> removed, Collection<RfbEventAttendance> added);
+
+    /**
+     * Get the attendees of a set operation across rfbEvents.
+     *
+     * @param operation the set operation.
+     * @param rfbEventIds the ids of the rfbEvents, in order, as the first one of {@link Operation#ANDNOT} is special.
+     * @return the ids of the rfbUsers, in ascending order.
+     */
+    Mono<List<Long>> findAttendees(Operation operation, List<Long> rfbEventIds);
+
+    /**
+     * Count the attendees of a set operation across rfbEvents, without listing them.
+     *
+     * @param operation the set operation.
+     * @param rfbEventIds the ids of the rfbEvents, in order.
+     * @return the number of rfbUsers.
+     */
+    Mono<Long> countAttendees(Operation operation, List<Long> rfbEventIds);
+
+    /**
+     * Load the bitmaps from the rfbEventAttendances again. The archived rfbEventAttendances aren't read, as their archival removed
+     * them from the bitmaps.
+     *
+     * @return a Mono to signal the bitmaps were replaced.
+     */
+    Mono<Void> rebuild();
+}
@@ -0,0 +1,169 @@
+package com.rfb.service;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Base64;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.util.Assert;
+
+/**
+ * The position of a keyset (seek) page: the sort key and the id of the last row of the previous page.
+ * <p>
+ * Instead of skipping {@code offset} rows, the next page is selected with {@code WHERE (sort_key, id) > (?, ?)}, so the cost of a page
+ * doesn't depend on its depth. The keyset is exchanged with the clients as an opaque cursor, see {@link #encode()}.
+ */
+public final class Keyset {
+
+    public static final String ID = "id";
+    private static final String SEPARATOR = "|";
+
+    private final String property;
+    private final Sort.Direction direction;
+    private final Object value;
+    private final Long id;
+
+    private Keyset(String property, Sort.Direction direction, Object value, Long id) {
+        Assert.hasText(property, "property is empty");
+        Assert.notNull(direction, "direction is null");
+        this.property = property;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    /**
+     * Creates the keyset of the first page, with the first order of the given sort, or by ascending id if it's unsorted.
+     * @param sort the requested sort.
+     * @return the keyset of the first page.
+     */
+    public static Keyset first(Sort sort) {
+        Sort.Order order = sort != null ? sort.stream().findFirst().orElse(null) : null;
+        if (order == null) {
+            return new Keyset(ID, Sort.Direction.ASC, null, null);
+        }
+        return new Keyset(order.getProperty(), order.getDirection(), null, null);
+    }
+
+    /**
+     * Decodes a cursor, which was created by {@link #encode()}.
+     * @param cursor the cursor received from a client.
+     * @return the keyset of the page after the cursor.
+     * @throws IllegalArgumentException if the cursor is invalid.
+     */
+    public static Keyset decode(String cursor) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String[] parts = decoded.split("\\" + SEPARATOR, 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        try {
+            return new Keyset(parts[0], Sort.Direction.fromString(parts[1]), decodeValue(parts[3]), Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    /**
+     * Creates the keyset of the page after the given row.
+     * @param value the sort key of the last row of the current page, ignored if the keyset is sorted by id.
+     * @param id the id of the last row of the current page.
+     * @return the keyset of the next page.
+     */
+    public Keyset next(Object value, Long id) {
+        Assert.notNull(id, "id is null");
+        return new Keyset(property, direction, isSortedById() ? null : value, id);
+    }
+
+    /**
+     * @return the opaque cursor representation of this keyset.
+     */
+    public String encode() {
+        Assert.state(id != null, "The first page has no cursor");
+        String raw = property + SEPARATOR + direction + SEPARATOR + id + SEPARATOR + encodeValue(value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * @return the sort of the page: the sort key, with the id as tie-breaker.
+     */
+    public Sort getSort() {
+        if (isSortedById()) {
+            return Sort.by(direction, ID);
+        }
+        return Sort.by(direction, property).and(Sort.by(direction, ID));
+    }
+
+    /**
+     * Creates the criteria, which selects the rows after this keyset. Both H2 and MySQL sort the {@code null} values first in ascending,
+     * and last in descending order, which is reflected by the criteria.
+     * @return the criteria, or {@code null} for the first page.
+     */
+    public Criteria toCriteria() {
+        if (id == null) {
+            return null;
+        }
+        boolean ascending = direction.isAscending();
+        Criteria afterId = ascending ? where(ID).greaterThan(id) : where(ID).lessThan(id);
+        if (isSortedById()) {
+            return afterId;
+        }
+        Criteria afterIdWithSameValue = (value == null ? where(property).isNull() : where(property).is(value)).and(afterId);
+        if (ascending) {
+            return value == null
+                ? where(property).isNotNull().or(afterIdWithSameValue)
+                : where(property).greaterThan(value).or(afterIdWithSameValue);
+        }
+        return value == null
+            ? afterIdWithSameValue
+            : where(property).lessThan(value).or(afterIdWithSameValue).or(where(property).isNull());
+    }
+
+    private boolean isSortedById() {
+        return ID.equals(property);
+    }
+
+    private static String encodeValue(Object value) {
+        if (value == null) {
+            return "n:";
+        } else if (value instanceof String) {
+            return "s:" + value;
+        } else if (value instanceof Integer) {
+            return "i:" + value;
+        } else if (value instanceof Long) {
+            return "l:" + value;
+        } else if (value instanceof LocalDate) {
+            return "d:" + value;
+        } else if (value instanceof Instant) {
+            return "t:" + value;
+        }
+        throw new IllegalArgumentException("Unsupported keyset value type: " + value.getClass());
+    }
+
+    private static Object decodeValue(String encoded) {
+        String raw = encoded.substring(2);
+        switch (encoded.substring(0, 2)) {
+            case "n:":
+                return null;
+            case "s:":
+                return raw;
+            case "i:":
+                return Integer.valueOf(raw);
+            case "l:":
+                return Long.valueOf(raw);
+            case "d:":
+                return LocalDate.parse(raw);
+            case "t:":
+                return Instant.parse(raw);
+            default:
+                throw new IllegalArgumentException("Unsupported keyset value: " + encoded);
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.rfb.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+/**
+ * The users ranked by their number of attendances, in memory, so the top of the leaderboard and the rank of a user are read without
+ * a {@code GROUP BY} over the attendances.
+ * <p>
+ * The users are kept in a treap, ordered by their count descending and then by their id, whose nodes know the size of their
+ * subtree: adding to the count of a user, and finding the rank of a user or the user at a rank are {@code O(log n)}, and reading
+ * {@code k} consecutive users is {@code O(log n + k)}. Users with the same count share the same rank, e.g. {@code 1, 2, 2, 4}.
+ */
+public final class Leaderboard {
+
+    /**
+     * The periods the attendances are ranked in. A leaderboard only counts the attendances of the current period, e.g. of the
+     * current year.
+     */
+    public enum Window {
+        WEEK,
+        MONTH,
+        YEAR,
+        ALL_TIME;
+
+        /**
+         * Gets the first day of the period, which contains the date.
+         * @param date the date.
+         * @return the first day of the period; {@link LocalDate#MIN} for {@link #ALL_TIME}.
+         */
+        public LocalDate start(LocalDate date) {
+            switch (this) {
+                case WEEK:
+                    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH:
+                    return date.withDayOfMonth(1);
+                case YEAR:
+                    return date.withDayOfYear(1);
+                default:
+                    return LocalDate.MIN;
+            }
+        }
+
+        /**
+         * Gets the first day after the period, which contains the date.
+         * @param date the date.
+         * @return the first day of the next period; {@link LocalDate#MAX} for {@link #ALL_TIME}.
+         */
+        public LocalDate end(LocalDate date) {
+            switch (this) {
+                case WEEK:
+                    return start(date).plusWeeks(1);
+                case MONTH:
+                    return start(date).plusMonths(1);
+                case YEAR:
+                    return start(date).plusYears(1);
+                default:
+                    return LocalDate.MAX;
+            }
+        }
+    }
+
+    /**
+     * A user on the leaderboard.
+     */
+    public static final class Entry {
+
+        private final long userId;
+
+        private final long count;
+
+        private final int rank;
+
+        Entry(long userId, long count, int rank) {
+            this.userId = userId;
+            this.count = count;
+            this.rank = rank;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return the rank, starting at 1: one more than the number of users with a higher count.
+         */
+        public int getRank() {
+            return rank;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Entry{" +
+                "userId=" + getUserId() +
+                ", count=" + getCount() +
+                ", rank=" + getRank() +
+                "}";
+        }
+    }
+
+    private static final class Node {
+
+        final long userId;
+
+        final long count;
+
+        final int priority;
+
+        int size = 1;
+
+        Node left;
+
+        Node right;
+
+        Node(long userId, long count, int priority) {
+            this.userId = userId;
+            this.count = count;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<Long, Long> counts = new HashMap<>();
+
+    private final SplittableRandom random = new SplittableRandom();
+
+    private Node root;
+
+    /**
+     * Adds to the count of a user; the user leaves the leaderboard when the count drops to 0.
+     * @param userId the id of the user.
+     * @param delta the number to add, negative to subtract.
+     * @return the new count of the user.
+     */
+    public synchronized long add(long userId, long delta) {
+        if (delta == 0) {
+            return counts.getOrDefault(userId, 0L);
+        }
+        Long previous = counts.get(userId);
+        if (previous != null) {
+            root = remove(root, previous, userId);
+        }
+        long count = (previous != null ? previous : 0L) + delta;
+        if (count > 0) {
+            counts.put(userId, count);
+            Node[] split = split(root, count, userId);
+            root = merge(merge(split[0], new Node(userId, count, random.nextInt())), split[1]);
+        } else {
+            counts.remove(userId);
+        }
+        return Math.max(count, 0L);
+    }
+
+    /**
+     * @return the number of users on the leaderboard.
+     */
+    public synchronized int size() {
+        return size(root);
+    }
+
+    /**
+     * Gets a user with its rank.
+     * @param userId the id of the user.
+     * @return the user, or empty if it has no attendances.
+     */
+    public synchronized Optional<Entry> find(long userId) {
+        Long count = counts.get(userId);
+        if (count == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Entry(userId, count, countBefore(count, Long.MIN_VALUE) + 1));
+    }
+
+    /**
+     * Gets the first users of the leaderboard.
+     * @param size the maximum number of users.
+     * @return the users, highest count first.
+     */
+    public synchronized List<Entry> top(int size) {
+        return range(0, size);
+    }
+
+    /**
+     * Gets a user with the users ranked just before and after it.
+     * @param userId the id of the user.
+     * @param size the maximum number of users on each side of the user.
+     * @return the users, highest count first, or an empty list if the user has no attendances.
+     */
+    public synchronized List<Entry> neighbours(long userId, int size) {
+        Long count = counts.get(userId);
+        if (count == null) {
+            return List.of();
+        }
+        int index = countBefore(count, userId);
+        int from = Math.max(index - size, 0);
+        return range(from, index + size + 1 - from);
+    }
+
+    private List<Entry> range(int from, int size) {
+        List<Entry> entries = new ArrayList<>(Math.max(Math.min(size, size(root) - from), 0));
+        collect(root, from, from + size, 0, entries);
+        // users with the same count share the rank of the first of them
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            int rank = i > 0 && entries.get(i - 1).count == entry.count
+                ? entries.get(i - 1).rank
+                : (i > 0 ? from + i + 1 : countBefore(entry.count, Long.MIN_VALUE) + 1);
+            entries.set(i, new Entry(entry.userId, entry.count, rank));
+        }
+        return entries;
+    }
+
+    /**
+     * Collects the nodes at the indexes {@code [from, to)} in order; {@code offset} is the index of the first node of the subtree.
+     */
+    private static void collect(Node node, int from, int to, int offset, List<Entry> entries) {
+        if (node == null || from >= to || offset >= to || offset + node.size <= from) {
+            return;
+        }
+        collect(node.left, from, to, offset, entries);
+        int index = offset + size(node.left);
+        if (index >= from && index < to) {
+            entries.add(new Entry(node.userId, node.count, 0));
+        }
+        collect(node.right, from, to, index + 1, entries);
+    }
+
+    /**
+     * Counts the nodes ordered before the key {@code (count, userId)}.
+     */
+    private int countBefore(long count, long userId) {
+        int before = 0;
+        Node node = root;
+        while (node != null) {
+            if (compare(node.count, node.userId, count, userId) < 0) {
+                before += size(node.left) + 1;
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return before;
+    }
+
+    /**
+     * Orders by count descending, then by user id.
+     */
+    private static int compare(long count, long userId, long otherCount, long otherUserId) {
+        int byCount = Long.compare(otherCount, count);
+        return byCount != 0 ? byCount : Long.compare(userId, otherUserId);
+    }
+
+    /**
+     * Splits the tree into the nodes ordered before the key, and the others.
+     */
+    private static Node[] split(Node node, long count, long userId) {
+        if (node == null) {
+            return new Node[2];
+        }
+        if (compare(node.count, node.userId, count, userId) < 0) {
+            Node[] split = split(node.right, count, userId);
+            node.right = split[0];
+            split[0] = update(node);
+            return split;
+        }
+        Node[] split = split(node.left, count, userId);
+        node.left = split[1];
+        split[1] = update(node);
+        return split;
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static Node remove(Node node, long count, long userId) {
+        if (node == null) {
+            return null;
+        }
+        int comparison = compare(count, userId, node.count, node.userId);
+        if (comparison == 0) {
+            return merge(node.left, node.right);
+        }
+        if (comparison < 0) {
+            node.left = remove(node.left, count, userId);
+        } else {
+            node.right = remove(node.right, count, userId);
+        }
+        return update(node);
+    }
+
+    private static Node update(Node node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+}
@@ -0,0 +1,72 @@
+package com.rfb.service;
+
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.service.dto.LeaderboardEntryDTO;
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Interface for the {@link Leaderboard}s of the rfbUsers, globally and per rfbLocation, in every {@link Leaderboard.Window}.
+ * <p>
+ * The leaderboards count the rfbEventAttendances in the database, like the attendance counters: the ones archived by the
+ * {@link AttendanceArchiveService} are no longer counted, not even in {@link Leaderboard.Window#ALL_TIME}.
+ */
+public interface LeaderboardService {
+    /**
+     * Update the leaderboards with the changed rfbEventAttendances, once the current transaction is committed.
+     *
+     * @param removed the rfbEventAttendances which were deleted, or the previous state of the updated ones.
+     * @param added the rfbEventAttendances which were created, or the new state of the updated ones.
+     * @return a Mono to signal the update was registered.
+     */
+    Mono<Void> update(Collection<RfbEventAttendance> removed, Collection<RfbEventAttendance> added);
+
+    /**
+     * Move the rfbEventAttendances of a rfbEvent to the leaderboards of its new rfbLocation, once the current transaction is committed.
+     *
+     * @param rfbEventId the id of the moved rfbEvent.
+     * @param previousRfbLocationId the id of the previous rfbLocation of the rfbEvent, or {@code null} if it had none.
+     * @param rfbLocationId the id of the new rfbLocation of the rfbEvent, or {@code null} if it has none.
+     * @return a Mono to signal the move was registered.
+     */
+    Mono<Void> moveEvent(Long rfbEventId, Long previousRfbLocationId, Long rfbLocationId);
+
+    /**
+     * Get the top of a leaderboard.
+     *
+     * @param rfbLocationId the id of the rfbLocation, or {@code null} for the global leaderboard.
+     * @param window the period of the leaderboard.
+     * @param size the maximum number of rfbUsers.
+     * @return the rfbUsers, highest attendance count first.
+     */
+    Flux<LeaderboardEntryDTO> findTop(Long rfbLocationId, Leaderboard.Window window, int size);
+
+    /**
+     * Get the rank of a rfbUser.
+     *
+     * @param rfbLocationId the id of the rfbLocation, or {@code null} for the global leaderboard.
+     * @param window the period of the leaderboard.
+     * @param rfbUserId the id of the rfbUser.
+     * @return the rfbUser, or empty if the rfbUser has no attendances in the period.
+     */
+    Mono<LeaderboardEntryDTO> findOne(Long rfbLocationId, Leaderboard.Window window, Long rfbUserId);
+
+    /**
+     * Get a rfbUser with the rfbUsers ranked just before and after.
+     *
+     * @param rfbLocationId the id of the rfbLocation, or {@code null} for the global leaderboard.
+     * @param window the period of the leaderboard.
+     * @param rfbUserId the id of the rfbUser.
+     * @param size the maximum number of rfbUsers on each side.
+     * @return the rfbUsers, highest attendance count first, or none if the rfbUser has no attendances in the period.
+     */
+    Flux<LeaderboardEntryDTO> findNeighbours(Long rfbLocationId, Leaderboard.Window window, Long rfbUserId, int size);
+
+    /**
+     * Load all the leaderboards again from the database, without the archived rfbEventAttendances.
+     *
+     * @return a Mono to signal the rebuild.
+     */
+    Mono<Void> rebuild();
+}
@@ -0,0 +1,162 @@
+package com.rfb.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.UnaryOperator;
+import reactor.core.publisher.Mono;
+
+/**
+ * The values loaded from the database by a key, e.g. the ids of the events by their code, so they don't need a query every time.
+ * <p>
+ * The cache holds at most a given number of keys, and evicts the least recently used one when it's full. Only the keys which have a
+ * value are cached, so an entity created since is found by the next lookup, and the concurrent lookups of a key share the same load. The
+ * cache is updated or invalidated by the service of the entities when they change; a load which is running then isn't cached. As the
+ * other instances of the application don't invalidate it, the values are also loaded again after their time to live.
+ * @param <K> the type of the key.
+ * @param <V> the type of the value.
+ */
+public final class LookupCache<K, V> {
+
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    public static final int DEFAULT_MAX_SIZE = 10000;
+
+    public static final String CACHE_GETS = "cache.gets";
+
+    private final class Entry {
+
+        private final long expiresAt;
+
+        private Mono<V> load;
+
+        // null while it's loading
+        private V value;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final long timeToLiveNanos;
+
+    private final Map<K, Entry> entries;
+
+    private long hits;
+
+    private long misses;
+
+    public LookupCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TIME_TO_LIVE);
+    }
+
+    public LookupCache(int maxSize, Duration timeToLive) {
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.entries =
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                    return size() > maxSize;
+                }
+            };
+    }
+
+    /**
+     * Registers the number of hits and misses of the cache, as the {@value #CACHE_GETS} counters.
+     * @param meterRegistry the registry of the counters.
+     * @param name the name of the cache, used as the {@code cache} tag.
+     */
+    public void bindTo(MeterRegistry meterRegistry, String name) {
+        cacheGets(meterRegistry, name, "hit", LookupCache::hits);
+        cacheGets(meterRegistry, name, "miss", LookupCache::misses);
+    }
+
+    private void cacheGets(MeterRegistry meterRegistry, String name, String result, ToDoubleFunction<LookupCache<K, V>> count) {
+        FunctionCounter
+            .builder(CACHE_GETS, this, count)
+            .description("Number of lookups of the " + name + " cache")
+            .tag("cache", name)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached value of the key, or loads it if it's unknown or expired.
+     * @param key the key of the value.
+     * @param loader loads the value from the database.
+     * @return the value, or an empty {@link Mono} if there is none.
+     */
+    public synchronized Mono<V> get(K key, Function<K, Mono<V>> loader) {
+        Entry entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.expiresAt < 0) {
+            hits++;
+            return entry.load;
+        }
+        misses++;
+        Entry loading = new Entry(System.nanoTime() + timeToLiveNanos);
+        loading.load =
+            Mono
+                .defer(() -> loader.apply(key))
+                .doOnSuccess(value -> loaded(key, loading, value))
+                .doOnError(error -> loaded(key, loading, null))
+                .cache();
+        entries.put(key, loading);
+        return loading.load;
+    }
+
+    /**
+     * Replaces the cached value of a key, e.g. to count the created entities, and drops it if it's loading.
+     * @param key the key of the value.
+     * @param function computes the new value from the cached one.
+     */
+    public synchronized void update(K key, UnaryOperator<V> function) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return;
+        }
+        if (entry.value == null) {
+            entries.remove(key);
+            return;
+        }
+        Entry updated = new Entry(entry.expiresAt);
+        updated.value = function.apply(entry.value);
+        updated.load = Mono.just(updated.value);
+        entries.put(key, updated);
+    }
+
+    /**
+     * Drops all the values, so they are loaded again by the next {@link #get(Object, Function)}.
+     */
+    public synchronized void invalidate() {
+        entries.clear();
+    }
+
+    /**
+     * Drops the values which match a predicate, and the ones which are loading.
+     * @param predicate the values to drop.
+     */
+    public synchronized void invalidate(Predicate<? super V> predicate) {
+        entries.values().removeIf(entry -> entry.value == null || predicate.test(entry.value));
+    }
+
+    private synchronized void loaded(K key, Entry entry, V value) {
+        if (value == null) {
+            entries.remove(key, entry);
+        } else {
+            entry.value = value;
+        }
+    }
+
+    private synchronized long hits() {
+        return hits;
+    }
+
+    private synchronized long misses() {
+        return misses;
+    }
+}
@@ -0,0 +1,51 @@
+package com.rfb.service;
+
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.service.dto.RfbAttendanceCounterDTO;
+import java.util.Collection;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Interface for managing {@link com.rfb.domain.RfbAttendanceCounter}.
+ * <p>
+ * The counters count the rfbEventAttendances in the database: an archived rfbEventAttendance is removed from them, as the
+ * {@link AttendanceArchiveService} deletes it.
+ */
+public interface RfbAttendanceCounterService {
+    /**
+     * Update the counters of the changed rfbEventAttendances, in the current transaction.
+     *
+     * @param removed the rfbEventAttendances which were deleted, or the previous state of the updated ones.
+     * @param added the rfbEventAttendances which were created, or the new state of the updated ones.
+     * @return a Mono to signal the update.
+     */
+    Mono<Void> update(Collection<RfbEventAttendance> removed, Collection<RfbEventAttendance> added);
+
+    /**
+     * Move the counted attendances of a rfbEvent from its previous rfbLocation to its new one, in the current transaction.
+     *
+     * @param rfbEventId the id of the rfbEvent.
+     * @param previousRfbLocationId the id of the previous rfbLocation, or {@code null} if it had none.
+     * @param rfbLocationId the id of the new rfbLocation, or {@code null} if it has none.
+     * @return a Mono to signal the update.
+     */
+    Mono<Void> moveEvent(Long rfbEventId, Long previousRfbLocationId, Long rfbLocationId);
+
+    /**
+     * Get the number of attendances of a rfbUser at a rfbLocation.
+     *
+     * @param rfbUserId the id of the rfbUser, or {@code null} for all the rfbUsers.
+     * @param rfbLocationId the id of the rfbLocation, or {@code null} for all the rfbLocations.
+     * @return the counter, with a count of 0 if there are no attendances.
+     */
+    Mono<RfbAttendanceCounterDTO> findOne(Long rfbUserId, Long rfbLocationId);
+
+    /**
+     * Count all the attendances again, in parallel partitions of the rfbUsers, every partition in its own transaction.
+     * It is meant for the backfill and the repair of the counters: the attendances changed while it's running might not be counted.
+     * The archived attendances aren't counted.
+     *
+     * @return the number of counters written.
+     */
+    Mono<Integer> rebuild();
+}
@@ -1,7 +1,12 @@
 package com.rfb.service;
 
+import com.rfb.service.dto.BatchItemResultDTO;
 import com.rfb.service.dto.RfbEventAttendanceDTO;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -11,6 +16,9 @@ import reactor.core.publisher.Mono;
 public interface RfbEventAttendanceService {
     /**
      * Save a rfbEventAttendance.
+     * <p>
+     * Saving a new rfbEventAttendance of an rfbEvent and an rfbUser is idempotent: if the rfbUser attended the rfbEvent already, the
+     * existing rfbEventAttendance is returned.
      *
      * @param rfbEventAttendanceDTO the entity to save.
      * @return the persisted entity.
@@ -18,13 +26,29 @@ public interface RfbEventAttendanceService {
     Mono<RfbEventAttendanceDTO> save(RfbEventAttendanceDTO rfbEventAttendanceDTO);
 
     /**
-     * Partially updates a rfbEventAttendance.
+     * Save a batch of rfbEventAttendances, with a batched statement and a transaction per chunk.
+     *
+     * @param rfbEventAttendanceDTOs the entities to save.
+     * @return the result of every entity, in the order of the batch.
+     */
+    Flux<BatchItemResultDTO> saveAll(List<RfbEventAttendanceDTO> rfbEventAttendanceDTOs);
+
+    /**
+     * Partially updates a rfbEventAttendance with a single statement, which writes only the non-null fields. If the DTO has a version, the
+     * update fails with an {@link org.springframework.dao.OptimisticLockingFailureException} if the entity has another version.
      *
      * @param rfbEventAttendanceDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<RfbEventAttendanceDTO> partialUpdate(RfbEventAttendanceDTO rfbEventAttendanceDTO);
 
+    /**
+     * Get all the rfbEventAttendances.
+     *
+     * @return the list of entities.
+     */
+    Flux<RfbEventAttendanceDTO> findAll();
+
     /**
      * Get all the rfbEventAttendances.
      *
@@ -33,6 +57,15 @@ public interface RfbEventAttendanceService {
      */
     Flux<RfbEventAttendanceDTO> findAll(Pageable pageable);
 
+    /**
+     * Get the page of rfbEventAttendances after the given keyset.
+     *
+     * @param keyset the position of the page.
+     * @param size the size of the page.
+     * @return the list of entities.
+     */
+    Flux<RfbEventAttendanceDTO> findAllAfter(Keyset keyset, int size);
+
     /**
      * Returns the number of rfbEventAttendances available.
      * @return the number of entities in the database.
@@ -40,6 +73,38 @@ public interface RfbEventAttendanceService {
      */
     Mono<Long> countAll();
 
+    /**
+     * Returns the cached number of rfbEventAttendances, which is maintained on save and delete, and counted again when it expires.
+     * @return the approximate number of entities in the database.
+     */
+    Mono<Long> countAllCached();
+
+    /**
+     * Get a slice of the rfbEventAttendances, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    Mono<Slice<RfbEventAttendanceDTO>> findSlice(Pageable pageable);
+
+    /**
+     * Get a slice of the rfbEventAttendances of a period, reading only the rows of the period through the attendance date index.
+     *
+     * @param from the first attendance date.
+     * @param to the first attendance date after the period, or {@code null} for no end.
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    Mono<Slice<RfbEventAttendanceDTO>> findSliceByAttendanceDate(LocalDate from, LocalDate to, Pageable pageable);
+
+    /**
+     * Get the rfbEventAttendances with the given ids, with a single query.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities which exist, in any order.
+     */
+    Flux<RfbEventAttendanceDTO> findAllById(Collection<Long> ids);
+
     /**
      * Get the "id" rfbEventAttendance.
      *
@@ -1,7 +1,10 @@
 package com.rfb.service;
 
 import com.rfb.service.dto.RfbEventDTO;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -18,13 +21,29 @@ public interface RfbEventService {
     Mono<RfbEventDTO> save(RfbEventDTO rfbEventDTO);
 
     /**
-     * Partially updates a rfbEvent.
+     * Create many rfbEvents with a single batched insert.
+     *
+     * @param rfbEventDTOs the entities to create, without id.
+     * @return the persisted entities, in the given order.
+     */
+    Flux<RfbEventDTO> createAll(List<RfbEventDTO> rfbEventDTOs);
+
+    /**
+     * Partially updates a rfbEvent with a single statement, which writes only the non-null fields. If the DTO has a version, the
+     * update fails with an {@link org.springframework.dao.OptimisticLockingFailureException} if the entity has another version.
      *
      * @param rfbEventDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<RfbEventDTO> partialUpdate(RfbEventDTO rfbEventDTO);
 
+    /**
+     * Get all the rfbEvents.
+     *
+     * @return the list of entities.
+     */
+    Flux<RfbEventDTO> findAll();
+
     /**
      * Get all the rfbEvents.
      *
@@ -33,6 +52,15 @@ public interface RfbEventService {
      */
     Flux<RfbEventDTO> findAll(Pageable pageable);
 
+    /**
+     * Get the page of rfbEvents after the given keyset.
+     *
+     * @param keyset the position of the page.
+     * @param size the size of the page.
+     * @return the list of entities.
+     */
+    Flux<RfbEventDTO> findAllAfter(Keyset keyset, int size);
+
     /**
      * Returns the number of rfbEvents available.
      * @return the number of entities in the database.
@@ -40,6 +68,28 @@ public interface RfbEventService {
      */
     Mono<Long> countAll();
 
+    /**
+     * Returns the cached number of rfbEvents, which is maintained on save and delete, and counted again when it expires.
+     * @return the approximate number of entities in the database.
+     */
+    Mono<Long> countAllCached();
+
+    /**
+     * Get a slice of the rfbEvents, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    Mono<Slice<RfbEventDTO>> findSlice(Pageable pageable);
+
+    /**
+     * Get the rfbEvents with the given ids, with a single query.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities which exist, in any order.
+     */
+    Flux<RfbEventDTO> findAllById(Collection<Long> ids);
+
     /**
      * Get the "id" rfbEvent.
      *
@@ -48,6 +98,15 @@ public interface RfbEventService {
      */
     Mono<RfbEventDTO> findOne(Long id);
 
+    /**
+     * Get the id of the rfbEvent with the given code, or of the most recent one if several have it, from a bounded cache which is
+     * invalidated on create, update and delete.
+     *
+     * @param eventCode the code of the entity.
+     * @return the id of the entity, or empty if there is none.
+     */
+    Mono<Long> findIdByEventCode(String eventCode);
+
     /**
      * Delete the "id" rfbEvent.
      *
@@ -1,7 +1,10 @@
 package com.rfb.service;
 
 import com.rfb.service.dto.RfbLocationDTO;
+import java.util.Collection;
+import java.util.List;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -18,13 +21,29 @@ public interface RfbLocationService {
     Mono<RfbLocationDTO> save(RfbLocationDTO rfbLocationDTO);
 
     /**
-     * Partially updates a rfbLocation.
+     * Create many rfbLocations with a single batched insert.
+     *
+     * @param rfbLocationDTOs the entities to create, without id.
+     * @return the persisted entities, in the given order.
+     */
+    Flux<RfbLocationDTO> createAll(List<RfbLocationDTO> rfbLocationDTOs);
+
+    /**
+     * Partially updates a rfbLocation with a single statement, which writes only the non-null fields. If the DTO has a version, the
+     * update fails with an {@link org.springframework.dao.OptimisticLockingFailureException} if the entity has another version.
      *
      * @param rfbLocationDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<RfbLocationDTO> partialUpdate(RfbLocationDTO rfbLocationDTO);
 
+    /**
+     * Get all the rfbLocations.
+     *
+     * @return the list of entities.
+     */
+    Flux<RfbLocationDTO> findAll();
+
     /**
      * Get all the rfbLocations.
      *
@@ -33,6 +52,15 @@ public interface RfbLocationService {
      */
     Flux<RfbLocationDTO> findAll(Pageable pageable);
 
+    /**
+     * Get the page of rfbLocations after the given keyset.
+     *
+     * @param keyset the position of the page.
+     * @param size the size of the page.
+     * @return the list of entities.
+     */
+    Flux<RfbLocationDTO> findAllAfter(Keyset keyset, int size);
+
     /**
      * Returns the number of rfbLocations available.
      * @return the number of entities in the database.
@@ -40,6 +68,28 @@ public interface RfbLocationService {
      */
     Mono<Long> countAll();
 
+    /**
+     * Returns the cached number of rfbLocations, which is maintained on save and delete, and counted again when it expires.
+     * @return the approximate number of entities in the database.
+     */
+    Mono<Long> countAllCached();
+
+    /**
+     * Get a slice of the rfbLocations, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities.
+     */
+    Mono<Slice<RfbLocationDTO>> findSlice(Pageable pageable);
+
+    /**
+     * Get the rfbLocations with the given ids, with a single query.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities which exist, in any order.
+     */
+    Flux<RfbLocationDTO> findAllById(Collection<Long> ids);
+
     /**
      * Get the "id" rfbLocation.
      *
@@ -48,6 +98,14 @@ public interface RfbLocationService {
      */
     Mono<RfbLocationDTO> findOne(Long id);
 
+    /**
+     * Load the rvbEvents of the given rfbLocations, with one query for every batch of rfbLocations.
+     *
+     * @param rfbLocationDTOs the entities.
+     * @return the entities, with their rvbEvents.
+     */
+    Flux<RfbLocationDTO> loadRvbEvents(Flux<RfbLocationDTO> rfbLocationDTOs);
+
     /**
      * Delete the "id" rfbLocation.
      *
@@ -1,6 +1,7 @@
 package com.rfb.service;
 
 import com.rfb.service.dto.RfbUserDTO;
+import java.util.Collection;
 import java.util.List;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,10 +19,19 @@ public interface RfbUserService {
     Mono<RfbUserDTO> save(RfbUserDTO rfbUserDTO);
 
     /**
-     * Partially updates a rfbUser.
+     * Create many rfbUsers with a single batched insert.
+     *
+     * @param rfbUserDTOs the entities to create, without id.
+     * @return the persisted entities, in the given order.
+     */
+    Flux<RfbUserDTO> createAll(List<RfbUserDTO> rfbUserDTOs);
+
+    /**
+     * Partially updates a rfbUser with a single statement, which writes only the non-null fields. If the DTO has a version, the
+     * update fails with an {@link org.springframework.dao.OptimisticLockingFailureException} if the entity has another version.
      *
      * @param rfbUserDTO the entity to update partially.
-     * @return the persisted entity.
+     * @return the persisted entity, or empty if it doesn't exist.
      */
     Mono<RfbUserDTO> partialUpdate(RfbUserDTO rfbUserDTO);
 
@@ -32,6 +42,15 @@ public interface RfbUserService {
      */
     Flux<RfbUserDTO> findAll();
 
+    /**
+     * Get the page of rfbUsers after the given keyset.
+     *
+     * @param keyset the position of the page.
+     * @param size the size of the page.
+     * @return the list of entities.
+     */
+    Flux<RfbUserDTO> findAllAfter(Keyset keyset, int size);
+
     /**
      * Returns the number of rfbUsers available.
      * @return the number of entities in the database.
@@ -39,6 +58,14 @@ public interface RfbUserService {
      */
     Mono<Long> countAll();
 
+    /**
+     * Get the rfbUsers with the given ids, with a single query.
+     *
+     * @param ids the ids of the entities.
+     * @return the entities which exist, in any order.
+     */
+    Flux<RfbUserDTO> findAllById(Collection<Long> ids);
+
     /**
      * Get the "id" rfbUser.
      *
@@ -47,6 +74,23 @@ public interface RfbUserService {
      */
     Mono<RfbUserDTO> findOne(Long id);
 
+    /**
+     * Get the id of the rfbUser with the given username, or of the most recent one if several have it, from a bounded cache which is
+     * invalidated on create, update and delete.
+     *
+     * @param username the username of the entity.
+     * @return the id of the entity, or empty if there is none.
+     */
+    Mono<Long> findIdByUsername(String username);
+
+    /**
+     * Load the rfbEventAttendances of the given rfbUsers, with one query for every batch of rfbUsers.
+     *
+     * @param rfbUserDTOs the entities.
+     * @return the entities, with their rfbEventAttendances.
+     */
+    Flux<RfbUserDTO> loadRfbEventAttendances(Flux<RfbUserDTO> rfbUserDTOs);
+
     /**
      * Delete the "id" rfbUser.
      *
@@ -0,0 +1,55 @@
+package com.rfb.service;
+
+import java.util.List;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+/**
+ * Utility class for count-free pagination: a page is selected with one more row than its size, and that extra row tells whether
+ * there is a next page - so the total number of rows is never counted.
+ */
+public final class Slices {
+
+    private Slices() {}
+
+    /**
+     * Creates the pageable, which selects the rows of the given page, and the first row of the next page.
+     * @param pageable the requested page.
+     * @return the pageable with the same offset and sort, and one more row.
+     */
+    public static Pageable withLookahead(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        return new LookaheadPageRequest(pageable);
+    }
+
+    /**
+     * Creates the slice from the rows, which were selected by {@link #withLookahead(Pageable)}.
+     * @param rows the selected rows.
+     * @param pageable the requested page.
+     * @param <T> the type of the rows.
+     * @return the slice, without the lookahead row.
+     */
+    public static <T> Slice<T> toSlice(List<T> rows, Pageable pageable) {
+        boolean hasNext = pageable.isPaged() && rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private static class LookaheadPageRequest extends PageRequest {
+
+        private final long offset;
+
+        LookaheadPageRequest(Pageable pageable) {
+            super(pageable.getPageNumber(), pageable.getPageSize() + 1, pageable.getSort());
+            this.offset = pageable.getOffset();
+        }
+
+        @Override
+        public long getOffset() {
+            return offset;
+        }
+    }
+}
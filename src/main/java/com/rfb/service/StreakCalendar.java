@@ -0,0 +1,159 @@
+package com.rfb.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+
+/**
+ * The weeks a user attended a run, as a bitset with one bit per week, so the streaks are computed without sorting the attendances.
+ * <p>
+ * The weeks are numbered from the week of {@link #EPOCH_WEEK}, and only the words between the first and the last attended week are
+ * stored, e.g. 2 longs for a year of runs. The longest streak is maintained when a week is added; the current streak and the number
+ * of attended weeks in a period are {@code O(words)}.
+ */
+public final class StreakCalendar {
+
+    /**
+     * The Monday of the week 0.
+     */
+    public static final LocalDate EPOCH_WEEK = LocalDate.of(1970, 1, 5);
+
+    private static final long[] NO_WORDS = new long[0];
+
+    // the index of the word of words[0]
+    private long firstWord;
+
+    private long[] words = NO_WORDS;
+
+    private int longestStreak;
+
+    /**
+     * Gets the number of the week, which contains the date; the weeks start on Monday.
+     * @param date the date.
+     * @return the number of the week, negative before {@link #EPOCH_WEEK}.
+     */
+    public static long weekOf(LocalDate date) {
+        return Math.floorDiv(ChronoUnit.DAYS.between(EPOCH_WEEK, date), DayOfWeek.values().length);
+    }
+
+    /**
+     * Marks a week as attended.
+     * @param week the number of the week.
+     * @return {@code true} if the week wasn't attended yet.
+     */
+    public synchronized boolean add(long week) {
+        if (get(week)) {
+            return false;
+        }
+        int index = ensureCapacity(Math.floorDiv(week, Long.SIZE));
+        words[index] |= 1L << Math.floorMod(week, Long.SIZE);
+        longestStreak = (int) Math.max(longestStreak, runEnd(week) - runStart(week) + 1);
+        return true;
+    }
+
+    /**
+     * @param week the number of the week.
+     * @return {@code true} if the week was attended.
+     */
+    public synchronized boolean contains(long week) {
+        return get(week);
+    }
+
+    /**
+     * Gets the number of consecutive attended weeks up to the current week. A streak is still current if only the current week wasn't
+     * attended yet.
+     * @param currentWeek the number of the current week.
+     * @return the number of weeks, or 0 if neither the current nor the previous week were attended.
+     */
+    public synchronized int getCurrentStreak(long currentWeek) {
+        long last = get(currentWeek) ? currentWeek : currentWeek - 1;
+        return get(last) ? (int) (last - runStart(last) + 1) : 0;
+    }
+
+    /**
+     * @return the largest number of consecutive attended weeks.
+     */
+    public synchronized int getLongestStreak() {
+        return longestStreak;
+    }
+
+    /**
+     * Counts the attended weeks in a period.
+     * @param fromWeek the number of the first week.
+     * @param toWeek the number of the week after the period.
+     * @return the number of attended weeks.
+     */
+    public synchronized int countWeeks(long fromWeek, long toWeek) {
+        int count = 0;
+        for (long week = fromWeek; week < toWeek; ) {
+            long word = Math.floorDiv(week, Long.SIZE);
+            int from = Math.floorMod(week, Long.SIZE);
+            int to = (int) Math.min(toWeek - word * Long.SIZE, Long.SIZE);
+            long mask = (-1L << from) & (to == Long.SIZE ? -1L : (1L << to) - 1);
+            count += Long.bitCount(word(word) & mask);
+            week = (word + 1) * Long.SIZE;
+        }
+        return count;
+    }
+
+    private boolean get(long week) {
+        return (word(Math.floorDiv(week, Long.SIZE)) & (1L << Math.floorMod(week, Long.SIZE))) != 0;
+    }
+
+    private long word(long word) {
+        long index = word - firstWord;
+        return index >= 0 && index < words.length ? words[(int) index] : 0L;
+    }
+
+    /**
+     * Finds the first week of the run of attended weeks, which ends with the given attended week.
+     */
+    private long runStart(long week) {
+        long word = Math.floorDiv(week, Long.SIZE);
+        int bit = Math.floorMod(week, Long.SIZE);
+        while (true) {
+            long clear = ~word(word) & (bit == Long.SIZE - 1 ? -1L : (1L << (bit + 1)) - 1);
+            if (clear != 0) {
+                return word * Long.SIZE + (Long.SIZE - Long.numberOfLeadingZeros(clear));
+            }
+            word--;
+            bit = Long.SIZE - 1;
+        }
+    }
+
+    /**
+     * Finds the last week of the run of attended weeks, which starts with the given attended week.
+     */
+    private long runEnd(long week) {
+        long word = Math.floorDiv(week, Long.SIZE);
+        int bit = Math.floorMod(week, Long.SIZE);
+        while (true) {
+            long clear = ~word(word) & (-1L << bit);
+            if (clear != 0) {
+                return word * Long.SIZE + Long.numberOfTrailingZeros(clear) - 1;
+            }
+            word++;
+            bit = 0;
+        }
+    }
+
+    /**
+     * Grows the words to contain the given word.
+     * @return the index of the word.
+     */
+    private int ensureCapacity(long word) {
+        if (words.length == 0) {
+            firstWord = word;
+            words = new long[1];
+        } else if (word < firstWord) {
+            long[] grown = new long[(int) (firstWord - word) + words.length];
+            System.arraycopy(words, 0, grown, (int) (firstWord - word), words.length);
+            words = grown;
+            firstWord = word;
+        } else if (word - firstWord >= words.length) {
+            words = Arrays.copyOf(words, (int) (word - firstWord) + 1);
+        }
+        return (int) (word - firstWord);
+    }
+}
@@ -0,0 +1,43 @@
+package com.rfb.service;
+
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.service.dto.StreakDTO;
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Interface for the weekly streaks of the rfbUsers, kept in a {@link StreakCalendar} per rfbUser.
+ * <p>
+ * The calendars are loaded from the rfbEventAttendances in the database only: the weeks which were archived by the
+ * {@link AttendanceArchiveService} don't count towards the streaks.
+ */
+public interface StreakService {
+    /**
+     * Update the calendars with the changed rfbEventAttendances, once the current transaction is committed.
+     *
+     * @param removed the rfbEventAttendances which were deleted, or the previous state of the updated ones.
+     * @param added the rfbEventAttendances which were created, or the new state of the updated ones.
+     * @return a Mono to signal the update was registered.
+     */
+    Mono<Void> update(Collection<RfbEventAttendance> removed, Collection<RfbEventAttendance> added);
+
+    /**
+     * Get the streaks of a rfbUser.
+     *
+     * @param rfbUserId the id of the rfbUser.
+     * @param lastWeeks the number of weeks, up to the current one, whose attended weeks are counted.
+     * @return the streaks, which are 0 for a rfbUser without attendances.
+     */
+    Mono<StreakDTO> findOne(Long rfbUserId, int lastWeeks);
+
+    /**
+     * Get the streaks of many rfbUsers, e.g. of the rfbUsers on a leaderboard; the calendars which aren't loaded yet are loaded
+     * together.
+     *
+     * @param rfbUserIds the ids of the rfbUsers.
+     * @param lastWeeks the number of weeks, up to the current one, whose attended weeks are counted.
+     * @return the streaks, in the order of the ids.
+     */
+    Flux<StreakDTO> findAll(Collection<Long> rfbUserIds, int lastWeeks);
+}
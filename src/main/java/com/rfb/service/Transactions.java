@@ -0,0 +1,43 @@
+package com.rfb.service;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for the in-memory state, which is updated together with the database.
+ */
+public final class Transactions {
+
+    private Transactions() {}
+
+    /**
+     * Runs the action once the current transaction is committed, so the in-memory state never sees a rolled back change; it's run
+     * immediately if there is no transaction.
+     * @param action the update of the in-memory state.
+     * @return a {@link Mono} signaling the action was registered.
+     */
+    public static Mono<Void> afterCommit(Runnable action) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .flatMap(
+                synchronizationManager -> {
+                    if (!synchronizationManager.isSynchronizationActive()) {
+                        return Mono.fromRunnable(action);
+                    }
+                    synchronizationManager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCommit() {
+                                return Mono.fromRunnable(action);
+                            }
+                        }
+                    );
+                    return Mono.empty();
+                }
+            )
+            .onErrorResume(NoTransactionException.class, e -> Mono.fromRunnable(action))
+            .then();
+    }
+}
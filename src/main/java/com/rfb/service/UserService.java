@@ -6,6 +6,7 @@ import com.rfb.domain.User;
 import com.rfb.repository.AuthorityRepository;
 import com.rfb.repository.UserRepository;
 import com.rfb.security.AuthoritiesConstants;
+import com.rfb.security.DomainUserDetailsService;
 import com.rfb.security.SecurityUtils;
 import com.rfb.service.dto.AdminUserDTO;
 import com.rfb.service.dto.UserDTO;
@@ -34,16 +35,34 @@ public class UserService {
 
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
+    private static final EntityManager.LinkTable USER_AUTHORITY_LINK = new EntityManager.LinkTable(
+        "jhi_user_authority",
+        "user_id",
+        "authority_name"
+    );
+
     private final UserRepository userRepository;
 
     private final PasswordEncoder passwordEncoder;
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, AuthorityRepository authorityRepository) {
+    private final EntityManager entityManager;
+
+    private final DomainUserDetailsService userDetailsService;
+
+    public UserService(
+        UserRepository userRepository,
+        PasswordEncoder passwordEncoder,
+        AuthorityRepository authorityRepository,
+        EntityManager entityManager,
+        DomainUserDetailsService userDetailsService
+    ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authorityRepository = authorityRepository;
+        this.entityManager = entityManager;
+        this.userDetailsService = userDetailsService;
     }
 
     @Transactional
@@ -103,7 +122,7 @@ public class UserService {
             .flatMap(
                 existingUser -> {
                     if (!existingUser.isActivated()) {
-                        return userRepository.delete(existingUser);
+                        return delete(existingUser);
                     } else {
                         return Mono.error(new UsernameAlreadyUsedException());
                     }
@@ -113,7 +132,7 @@ public class UserService {
             .flatMap(
                 existingUser -> {
                     if (!existingUser.isActivated()) {
-                        return userRepository.delete(existingUser);
+                        return delete(existingUser);
                     } else {
                         return Mono.error(new EmailAlreadyUsedException());
                     }
@@ -151,7 +170,7 @@ public class UserService {
                         .map(authorities::add)
                         .thenReturn(newUser)
                         .doOnNext(user -> user.setAuthorities(authorities))
-                        .flatMap(this::saveUser)
+                        .flatMap(this::saveUserWithAuthorities)
                         .doOnNext(user -> log.debug("Created Information for User: {}", user));
                 }
             );
@@ -188,7 +207,7 @@ public class UserService {
                     return newUser;
                 }
             )
-            .flatMap(this::saveUser)
+            .flatMap(this::saveUserWithAuthorities)
             .doOnNext(user1 -> log.debug("Created Information for User: {}", user1));
     }
 
@@ -222,7 +241,7 @@ public class UserService {
                         .then(Mono.just(user));
                 }
             )
-            .flatMap(this::saveUser)
+            .flatMap(this::saveUserWithAuthorities)
             .doOnNext(user -> log.debug("Changed Information for User: {}", user))
             .map(AdminUserDTO::new);
     }
@@ -231,7 +250,7 @@ public class UserService {
     public Mono<Void> deleteUser(String login) {
         return userRepository
             .findOneByLogin(login)
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
+            .flatMap(user -> delete(user).thenReturn(user))
             .doOnNext(user -> log.debug("Deleted User: {}", user))
             .then();
     }
@@ -278,21 +297,45 @@ public class UserService {
                         user.setCreatedBy(login);
                     }
                     user.setLastModifiedBy(login);
-                    // Saving the relationship can be done in an entity callback
-                    // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
-                    return userRepository
-                        .save(user)
-                        .flatMap(
-                            savedUser ->
-                                Flux
-                                    .fromIterable(user.getAuthorities())
-                                    .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                                    .then(Mono.just(savedUser))
-                        );
+                    return userRepository.save(user).flatMap(savedUser -> evictUserDetails(savedUser).thenReturn(savedUser));
                 }
             );
     }
 
+    /**
+     * Saves the user together with its authorities: the links to the authorities which the user no longer has are deleted, so it must
+     * only be used with a user whose authorities were all set, as {@link User#getAuthorities()} is empty when the user was read without
+     * them.
+     */
+    private Mono<User> saveUserWithAuthorities(User user) {
+        // Saving the relationship can be done in an entity callback
+        // once https://github.com/spring-projects/spring-data-r2dbc/issues/215 is done
+        return saveUser(user)
+            .flatMap(
+                savedUser ->
+                    entityManager
+                        .updateLinkTable(
+                            USER_AUTHORITY_LINK,
+                            savedUser.getId(),
+                            String.class,
+                            user.getAuthorities().stream().map(Authority::getName)
+                        )
+                        .thenReturn(savedUser)
+            );
+    }
+
+    private Mono<Void> delete(User user) {
+        return userRepository.delete(user).then(evictUserDetails(user));
+    }
+
+    /**
+     * Evicts the cached details of a saved or deleted user once the change is committed, so the next login sees its password, activation
+     * and authorities.
+     */
+    private Mono<Void> evictUserDetails(User user) {
+        return Transactions.afterCommit(() -> userDetailsService.evict(user));
+    }
+
     @Transactional
     public Mono<Void> changePassword(String currentClearTextPassword, String newPassword) {
         return SecurityUtils
@@ -356,7 +399,7 @@ public class UserService {
             .findAllByActivatedIsFalseAndActivationKeyIsNotNullAndCreatedDateBefore(
                 LocalDateTime.ofInstant(Instant.now().minus(3, ChronoUnit.DAYS), ZoneOffset.UTC)
             )
-            .flatMap(user -> userRepository.delete(user).thenReturn(user))
+            .flatMap(user -> delete(user).thenReturn(user))
             .doOnNext(user -> log.debug("Deleted User: {}", user));
     }
 
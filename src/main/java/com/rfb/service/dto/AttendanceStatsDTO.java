@@ -0,0 +1,111 @@
+package com.rfb.service.dto;
+
+import java.io.Serializable;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO for the attendance statistics of a period.
+ */
+public class AttendanceStatsDTO implements Serializable {
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private long attendanceCount;
+
+    private int userCount;
+
+    private Map<DayOfWeek, Integer> dayOfWeekCounts = new EnumMap<>(DayOfWeek.class);
+
+    private Map<Long, Integer> locationCounts = new LinkedHashMap<>();
+
+    private List<LeaderboardEntryDTO> topUsers = new ArrayList<>();
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    /**
+     * @return the first day after the period.
+     */
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public long getAttendanceCount() {
+        return attendanceCount;
+    }
+
+    public void setAttendanceCount(long attendanceCount) {
+        this.attendanceCount = attendanceCount;
+    }
+
+    /**
+     * @return the number of distinct users, who attended in the period.
+     */
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public void setUserCount(int userCount) {
+        this.userCount = userCount;
+    }
+
+    public Map<DayOfWeek, Integer> getDayOfWeekCounts() {
+        return dayOfWeekCounts;
+    }
+
+    public void setDayOfWeekCounts(Map<DayOfWeek, Integer> dayOfWeekCounts) {
+        this.dayOfWeekCounts = dayOfWeekCounts;
+    }
+
+    /**
+     * @return the number of attendances by location id, in ascending order of the ids.
+     */
+    public Map<Long, Integer> getLocationCounts() {
+        return locationCounts;
+    }
+
+    public void setLocationCounts(Map<Long, Integer> locationCounts) {
+        this.locationCounts = locationCounts;
+    }
+
+    /**
+     * @return the users with the most attendances in the period, ranked like on a leaderboard.
+     */
+    public List<LeaderboardEntryDTO> getTopUsers() {
+        return topUsers;
+    }
+
+    public void setTopUsers(List<LeaderboardEntryDTO> topUsers) {
+        this.topUsers = topUsers;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AttendanceStatsDTO{" +
+            "from='" + getFrom() + "'" +
+            ", to='" + getTo() + "'" +
+            ", attendanceCount=" + getAttendanceCount() +
+            ", userCount=" + getUserCount() +
+            ", dayOfWeekCounts=" + getDayOfWeekCounts() +
+            ", locationCounts=" + getLocationCounts() +
+            "}";
+    }
+}
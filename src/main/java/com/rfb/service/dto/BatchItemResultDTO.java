@@ -0,0 +1,89 @@
+package com.rfb.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A DTO for the result of a single item of a batch upload.
+ */
+public class BatchItemResultDTO implements Serializable {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+    }
+
+    private int index;
+
+    private Status status;
+
+    private Long id;
+
+    private String message;
+
+    public static BatchItemResultDTO created(int index, Long id) {
+        return new BatchItemResultDTO(index, Status.CREATED, id, null);
+    }
+
+    public static BatchItemResultDTO duplicate(int index) {
+        return new BatchItemResultDTO(index, Status.DUPLICATE, null, null);
+    }
+
+    public static BatchItemResultDTO invalid(int index, String message) {
+        return new BatchItemResultDTO(index, Status.INVALID, null, message);
+    }
+
+    public BatchItemResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BatchItemResultDTO(int index, Status status, Long id, String message) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BatchItemResultDTO{" +
+            "index=" + getIndex() +
+            ", status='" + getStatus() + "'" +
+            ", id=" + getId() +
+            ", message='" + getMessage() + "'" +
+            "}";
+    }
+}
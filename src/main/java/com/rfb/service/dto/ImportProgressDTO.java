@@ -0,0 +1,86 @@
+package com.rfb.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A DTO for the progress of a CSV import, reported after every imported batch of rows.
+ */
+public class ImportProgressDTO implements Serializable {
+
+    private long rows;
+
+    private long created;
+
+    private long duplicates;
+
+    private long invalid;
+
+    private boolean done;
+
+    private List<BatchItemResultDTO> rejected = new ArrayList<>();
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void setRows(long rows) {
+        this.rows = rows;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public void setCreated(long created) {
+        this.created = created;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(long duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public void setInvalid(long invalid) {
+        this.invalid = invalid;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public void setDone(boolean done) {
+        this.done = done;
+    }
+
+    /**
+     * @return the rows of the last batch, which were not created; their index is their line in the CSV content.
+     */
+    public List<BatchItemResultDTO> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<BatchItemResultDTO> rejected) {
+        this.rejected = rejected;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportProgressDTO{" +
+            "rows=" + getRows() +
+            ", created=" + getCreated() +
+            ", duplicates=" + getDuplicates() +
+            ", invalid=" + getInvalid() +
+            ", done='" + isDone() + "'" +
+            "}";
+    }
+}
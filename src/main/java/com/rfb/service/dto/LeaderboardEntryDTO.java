@@ -0,0 +1,72 @@
+package com.rfb.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for a user on a {@link com.rfb.service.Leaderboard}.
+ */
+public class LeaderboardEntryDTO implements Serializable {
+
+    private Long rfbUserId;
+
+    private Long attendanceCount;
+
+    private Integer rank;
+
+    public Long getRfbUserId() {
+        return rfbUserId;
+    }
+
+    public void setRfbUserId(Long rfbUserId) {
+        this.rfbUserId = rfbUserId;
+    }
+
+    public Long getAttendanceCount() {
+        return attendanceCount;
+    }
+
+    public void setAttendanceCount(Long attendanceCount) {
+        this.attendanceCount = attendanceCount;
+    }
+
+    public Integer getRank() {
+        return rank;
+    }
+
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LeaderboardEntryDTO)) {
+            return false;
+        }
+
+        LeaderboardEntryDTO leaderboardEntryDTO = (LeaderboardEntryDTO) o;
+        return (
+            Objects.equals(this.rfbUserId, leaderboardEntryDTO.rfbUserId) &&
+            Objects.equals(this.attendanceCount, leaderboardEntryDTO.attendanceCount) &&
+            Objects.equals(this.rank, leaderboardEntryDTO.rank)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.rfbUserId, this.attendanceCount, this.rank);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "LeaderboardEntryDTO{" +
+            "rfbUserId=" + getRfbUserId() +
+            ", attendanceCount=" + getAttendanceCount() +
+            ", rank=" + getRank() +
+            "}";
+    }
+}
@@ -0,0 +1,71 @@
+package com.rfb.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the {@link com.rfb.domain.RfbAttendanceCounter} entity.
+ */
+public class RfbAttendanceCounterDTO implements Serializable {
+
+    private Long rfbUserId;
+
+    private Long rfbLocationId;
+
+    private Long attendanceCount;
+
+    public Long getRfbUserId() {
+        return rfbUserId;
+    }
+
+    public void setRfbUserId(Long rfbUserId) {
+        this.rfbUserId = rfbUserId;
+    }
+
+    public Long getRfbLocationId() {
+        return rfbLocationId;
+    }
+
+    public void setRfbLocationId(Long rfbLocationId) {
+        this.rfbLocationId = rfbLocationId;
+    }
+
+    public Long getAttendanceCount() {
+        return attendanceCount;
+    }
+
+    public void setAttendanceCount(Long attendanceCount) {
+        this.attendanceCount = attendanceCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RfbAttendanceCounterDTO)) {
+            return false;
+        }
+
+        RfbAttendanceCounterDTO rfbAttendanceCounterDTO = (RfbAttendanceCounterDTO) o;
+        return (
+            Objects.equals(this.rfbUserId, rfbAttendanceCounterDTO.rfbUserId) &&
+            Objects.equals(this.rfbLocationId, rfbAttendanceCounterDTO.rfbLocationId)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.rfbUserId, this.rfbLocationId);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "RfbAttendanceCounterDTO{" +
+            "rfbUserId=" + getRfbUserId() +
+            ", rfbLocationId=" + getRfbLocationId() +
+            ", attendanceCount=" + getAttendanceCount() +
+            "}";
+    }
+}
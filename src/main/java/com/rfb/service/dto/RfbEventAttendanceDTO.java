@@ -17,6 +17,8 @@ public class RfbEventAttendanceDTO implements Serializable {
 
     private RfbUserDTO rfbUser;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -49,6 +51,14 @@ public class RfbEventAttendanceDTO implements Serializable {
         this.rfbUser = rfbUser;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -78,6 +88,7 @@ public class RfbEventAttendanceDTO implements Serializable {
             ", attendanceDate='" + getAttendanceDate() + "'" +
             ", rfbEvent=" + getRfbEvent() +
             ", rfbUser=" + getRfbUser() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -17,6 +17,8 @@ public class RfbEventDTO implements Serializable {
 
     private RfbLocationDTO rfbLocation;
 
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -49,6 +51,14 @@ public class RfbEventDTO implements Serializable {
         this.rfbLocation = rfbLocation;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -78,6 +88,7 @@ public class RfbEventDTO implements Serializable {
             ", eventDate='" + getEventDate() + "'" +
             ", eventCode='" + getEventCode() + "'" +
             ", rfbLocation=" + getRfbLocation() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -1,6 +1,8 @@
 package com.rfb.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -14,6 +16,12 @@ public class RfbLocationDTO implements Serializable {
 
     private Integer runDayOfWeek;
 
+    private Long version;
+
+    // only loaded on request, see RfbLocationService#loadRvbEvents
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<RfbEventDTO> rvbEvents;
+
     public Long getId() {
         return id;
     }
@@ -38,6 +46,22 @@ public class RfbLocationDTO implements Serializable {
         this.runDayOfWeek = runDayOfWeek;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public List<RfbEventDTO> getRvbEvents() {
+        return rvbEvents;
+    }
+
+    public void setRvbEvents(List<RfbEventDTO> rvbEvents) {
+        this.rvbEvents = rvbEvents;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -66,6 +90,7 @@ public class RfbLocationDTO implements Serializable {
             "id=" + getId() +
             ", locationName='" + getLocationName() + "'" +
             ", runDayOfWeek=" + getRunDayOfWeek() +
+            ", version=" + getVersion() +
             "}";
     }
 }
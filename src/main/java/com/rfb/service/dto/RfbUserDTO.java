@@ -1,6 +1,8 @@
 package com.rfb.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -14,6 +16,12 @@ public class RfbUserDTO implements Serializable {
 
     private RfbLocationDTO homeLocation;
 
+    private Long version;
+
+    // only loaded on request, see RfbUserService#loadRfbEventAttendances
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<RfbEventAttendanceDTO> rfbEventAttendances;
+
     public Long getId() {
         return id;
     }
@@ -38,6 +46,22 @@ public class RfbUserDTO implements Serializable {
         this.homeLocation = homeLocation;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public List<RfbEventAttendanceDTO> getRfbEventAttendances() {
+        return rfbEventAttendances;
+    }
+
+    public void setRfbEventAttendances(List<RfbEventAttendanceDTO> rfbEventAttendances) {
+        this.rfbEventAttendances = rfbEventAttendances;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -66,6 +90,7 @@ public class RfbUserDTO implements Serializable {
             "id=" + getId() +
             ", username='" + getUsername() + "'" +
             ", homeLocation=" + getHomeLocation() +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,96 @@
+package com.rfb.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A DTO for the weekly streaks of a rfbUser, computed from its {@link com.rfb.service.StreakCalendar}.
+ */
+public class StreakDTO implements Serializable {
+
+    private Long rfbUserId;
+
+    private Integer currentStreak;
+
+    private Integer longestStreak;
+
+    private Integer lastWeeks;
+
+    private Integer attendedWeeks;
+
+    public Long getRfbUserId() {
+        return rfbUserId;
+    }
+
+    public void setRfbUserId(Long rfbUserId) {
+        this.rfbUserId = rfbUserId;
+    }
+
+    public Integer getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(Integer currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public Integer getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(Integer longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public Integer getLastWeeks() {
+        return lastWeeks;
+    }
+
+    public void setLastWeeks(Integer lastWeeks) {
+        this.lastWeeks = lastWeeks;
+    }
+
+    public Integer getAttendedWeeks() {
+        return attendedWeeks;
+    }
+
+    public void setAttendedWeeks(Integer attendedWeeks) {
+        this.attendedWeeks = attendedWeeks;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StreakDTO)) {
+            return false;
+        }
+
+        StreakDTO streakDTO = (StreakDTO) o;
+        return (
+            Objects.equals(this.rfbUserId, streakDTO.rfbUserId) &&
+            Objects.equals(this.currentStreak, streakDTO.currentStreak) &&
+            Objects.equals(this.longestStreak, streakDTO.longestStreak) &&
+            Objects.equals(this.lastWeeks, streakDTO.lastWeeks) &&
+            Objects.equals(this.attendedWeeks, streakDTO.attendedWeeks)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.rfbUserId, this.currentStreak, this.longestStreak, this.lastWeeks, this.attendedWeeks);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "StreakDTO{" +
+            "rfbUserId=" + getRfbUserId() +
+            ", currentStreak=" + getCurrentStreak() +
+            ", longestStreak=" + getLongestStreak() +
+            ", lastWeeks=" + getLastWeeks() +
+            ", attendedWeeks=" + getAttendedWeeks() +
+            "}";
+    }
+}
@@ -0,0 +1,271 @@
+package com.rfb.service.impl;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.repository.RfbEventAttendanceRepository;
+import com.rfb.service.AttendanceArchiveService;
+import com.rfb.service.AttendanceSegment;
+import com.rfb.service.EventAttendeeService;
+import com.rfb.service.Keyset;
+import com.rfb.service.LeaderboardService;
+import com.rfb.service.RfbAttendanceCounterService;
+import com.rfb.service.StreakService;
+import com.rfb.service.dto.RfbEventAttendanceDTO;
+import com.rfb.service.mapper.RfbEventAttendanceMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Service Implementation for archiving the old rfbEventAttendances.
+ * <p>
+ * The old rfbEventAttendances are read by ascending id, one keyset chunk at a time, until a segment is full. The segment is written
+ * to a file, and only then its rfbEventAttendances are deleted, one chunk per transaction. The deleted rfbEventAttendances are removed
+ * from the counters, the leaderboards, the streaks and the attendee bitmaps like any other deleted ones, so they agree with their next
+ * rebuild, which only reads the database.
+ */
+@Service
+public class AttendanceArchiveServiceImpl implements AttendanceArchiveService {
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceArchiveServiceImpl.class);
+
+    private static final String FILE_PREFIX = "attendance-";
+
+    private static final Keyset FIRST = Keyset.first(Sort.unsorted());
+
+    private final RfbEventAttendanceRepository rfbEventAttendanceRepository;
+
+    private final RfbEventAttendanceMapper rfbEventAttendanceMapper;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final RfbAttendanceCounterService rfbAttendanceCounterService;
+
+    private final LeaderboardService leaderboardService;
+
+    private final StreakService streakService;
+
+    private final EventAttendeeService eventAttendeeService;
+
+    private final Clock clock = Clock.systemDefaultZone();
+
+    private final AtomicBoolean archiving = new AtomicBoolean();
+
+    // the mapped segments, whose checksum was verified once
+    private final ConcurrentMap<Path, AttendanceSegment> segments = new ConcurrentHashMap<>();
+
+    public AttendanceArchiveServiceImpl(
+        RfbEventAttendanceRepository rfbEventAttendanceRepository,
+        RfbEventAttendanceMapper rfbEventAttendanceMapper,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties,
+        RfbAttendanceCounterService rfbAttendanceCounterService,
+        LeaderboardService leaderboardService,
+        StreakService streakService,
+        EventAttendeeService eventAttendeeService
+    ) {
+        this.rfbEventAttendanceRepository = rfbEventAttendanceRepository;
+        this.rfbEventAttendanceMapper = rfbEventAttendanceMapper;
+        this.transactionalOperator = transactionalOperator;
+        this.applicationProperties = applicationProperties;
+        this.rfbAttendanceCounterService = rfbAttendanceCounterService;
+        this.leaderboardService = leaderboardService;
+        this.streakService = streakService;
+        this.eventAttendeeService = eventAttendeeService;
+    }
+
+    /**
+     * Archives the old rfbEventAttendances, if the archival is enabled.
+     * <p>
+     * This is scheduled to get fired everyday, at 02:30 (am) by default.
+     */
+    @Scheduled(cron = "${application.archive.cron:0 30 2 * * ?}")
+    public void archiveOldAttendances() {
+        if (applicationProperties.getArchive().isEnabled()) {
+            archive().block();
+        }
+    }
+
+    @Override
+    public Mono<Long> archive() {
+        return Mono.defer(
+            () -> {
+                if (!archiving.compareAndSet(false, true)) {
+                    log.debug("The RfbEventAttendances are already being archived");
+                    return Mono.just(0L);
+                }
+                LocalDate cutoff = LocalDate.now(clock).minus(applicationProperties.getArchive().getHorizon());
+                log.debug("Request to archive the RfbEventAttendances before {}", cutoff);
+                return Mono
+                    .fromCallable(() -> Files.createDirectories(getDirectory()))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .then(archiveSegments(where("attendanceDate").lessThan(cutoff), null, 0L))
+                    .doOnNext(archived -> log.info("Archived {} RfbEventAttendances before {}", archived, cutoff))
+                    .doFinally(signal -> archiving.set(false));
+            }
+        );
+    }
+
+    private Mono<Long> archiveSegments(Criteria old, Long afterId, long archived) {
+        int segmentSize = applicationProperties.getArchive().getSegmentSize();
+        return readSegment(old, afterId, new ArrayList<>(segmentSize))
+            .flatMap(
+                segment -> {
+                    if (segment.isEmpty()) {
+                        return Mono.just(archived);
+                    }
+                    Mono<Long> next = segment.size() < segmentSize
+                        ? Mono.just(archived + segment.size())
+                        : Mono.defer(() -> archiveSegments(old, segment.get(segment.size() - 1).getId(), archived + segment.size()));
+                    return writeSegment(segment).then(deleteSegment(segment)).then(next);
+                }
+            );
+    }
+
+    /**
+     * Reads the next old rfbEventAttendances, by ascending id, in chunks until the segment is full or there are no more.
+     */
+    private Mono<List<RfbEventAttendance>> readSegment(Criteria old, Long afterId, List<RfbEventAttendance> segment) {
+        int segmentSize = applicationProperties.getArchive().getSegmentSize();
+        int size = Math.min(applicationProperties.getBatch().getChunkSize(), segmentSize - segment.size());
+        Keyset keyset = afterId != null ? FIRST.next(null, afterId) : FIRST;
+        Criteria criteria = afterId != null ? old.and(keyset.toCriteria()) : old;
+        return rfbEventAttendanceRepository
+            .findAllBy(PageRequest.of(0, size, keyset.getSort()), criteria)
+            .collectList()
+            .flatMap(
+                chunk -> {
+                    segment.addAll(chunk);
+                    if (chunk.size() < size || segment.size() >= segmentSize) {
+                        return Mono.just(segment);
+                    }
+                    return readSegment(old, chunk.get(chunk.size() - 1).getId(), segment);
+                }
+            );
+    }
+
+    private Mono<Void> writeSegment(List<RfbEventAttendance> segment) {
+        return Mono
+            .fromRunnable(
+                () -> {
+                    // zero-padded, so the files are listed in the order of the ids
+                    String name = String.format(
+                        "%s%019d-%019d%s",
+                        FILE_PREFIX,
+                        segment.get(0).getId(),
+                        segment.get(segment.size() - 1).getId(),
+                        AttendanceSegment.FILE_SUFFIX
+                    );
+                    Path path = getDirectory().resolve(name);
+                    try {
+                        AttendanceSegment.write(path, segment);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    segments.remove(path);
+                    log.debug("Wrote {} RfbEventAttendances to {}", segment.size(), path);
+                }
+            )
+            .subscribeOn(Schedulers.boundedElastic())
+            .then();
+    }
+
+    private Mono<Void> deleteSegment(List<RfbEventAttendance> segment) {
+        return Flux
+            .fromIterable(segment)
+            .map(RfbEventAttendance::getId)
+            .buffer(applicationProperties.getBatch().getChunkSize())
+            .concatMap(ids -> transactionalOperator.transactional(deleteChunk(ids)))
+            .then();
+    }
+
+    /**
+     * Deletes the rfbEventAttendances which still exist, and removes them from the counters, leaderboards, streaks and bitmaps.
+     */
+    private Mono<Void> deleteChunk(List<Long> ids) {
+        return rfbEventAttendanceRepository
+            .findAllById(ids)
+            .collectList()
+            .filter(existing -> !existing.isEmpty())
+            .flatMap(
+                existing ->
+                    rfbEventAttendanceRepository
+                        .removeAllByIdIn(existing.stream().map(RfbEventAttendance::getId).collect(Collectors.toList()))
+                        .then(rfbAttendanceCounterService.update(existing, List.of()))
+                        .then(leaderboardService.update(existing, List.of()))
+                        .then(streakService.update(existing, List.of()))
+                        .then(eventAttendeeService.update(existing, List.of()))
+            );
+    }
+
+    @Override
+    public Flux<RfbEventAttendanceDTO> findAllByRfbUserId(Long rfbUserId) {
+        log.debug("Request to get the archived RfbEventAttendances of RfbUser : {}", rfbUserId);
+        return Mono
+            .fromCallable(() -> readAll(rfbUserId))
+            .subscribeOn(Schedulers.boundedElastic())
+            .flatMapIterable(attendances -> attendances)
+            .map(rfbEventAttendanceMapper::toDto);
+    }
+
+    private List<RfbEventAttendance> readAll(long rfbUserId) throws IOException {
+        List<RfbEventAttendance> attendances = new ArrayList<>();
+        Set<Path> paths = new HashSet<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(getDirectory(), FILE_PREFIX + "*" + AttendanceSegment.FILE_SUFFIX)) {
+            for (Path path : files) {
+                paths.add(path);
+                AttendanceSegment segment = segments.get(path);
+                if (segment == null) {
+                    segment = AttendanceSegment.open(path);
+                    segments.put(path, segment);
+                }
+                attendances.addAll(segment.findAllByUserId(rfbUserId));
+            }
+        } catch (NoSuchFileException e) {
+            // nothing was archived yet
+        }
+        segments.keySet().retainAll(paths);
+        // a segment written again by an interrupted archival may overlap another one
+        return attendances
+            .stream()
+            .collect(Collectors.toMap(RfbEventAttendance::getId, attendance -> attendance, (first, second) -> first))
+            .values()
+            .stream()
+            .sorted(Comparator.comparing(RfbEventAttendance::getId))
+            .collect(Collectors.toList());
+    }
+
+    private Path getDirectory() {
+        return Paths.get(applicationProperties.getArchive().getDirectory());
+    }
+}
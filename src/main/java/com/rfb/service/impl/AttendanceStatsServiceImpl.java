@@ -0,0 +1,66 @@
+package com.rfb.service.impl;
+
+import com.rfb.repository.AttendanceStatsRepository;
+import com.rfb.service.AttendanceStats;
+import com.rfb.service.AttendanceStatsService;
+import com.rfb.service.dto.AttendanceStatsDTO;
+import com.rfb.service.dto.LeaderboardEntryDTO;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Implementation for the attendance statistics.
+ */
+@Service
+@Transactional(readOnly = true)
+public class AttendanceStatsServiceImpl implements AttendanceStatsService {
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceStatsServiceImpl.class);
+
+    private final AttendanceStatsRepository attendanceStatsRepository;
+
+    public AttendanceStatsServiceImpl(AttendanceStatsRepository attendanceStatsRepository) {
+        this.attendanceStatsRepository = attendanceStatsRepository;
+    }
+
+    @Override
+    public Mono<AttendanceStatsDTO> getStats(LocalDate from, LocalDate to, int topSize) {
+        log.debug("Request to get the attendance statistics from {} to {}", from, to);
+        return attendanceStatsRepository.countAttendances(from, to).map(stats -> toDto(stats, from, to, topSize));
+    }
+
+    private static AttendanceStatsDTO toDto(AttendanceStats stats, LocalDate from, LocalDate to, int topSize) {
+        AttendanceStatsDTO attendanceStatsDTO = new AttendanceStatsDTO();
+        attendanceStatsDTO.setFrom(from);
+        attendanceStatsDTO.setTo(to);
+        attendanceStatsDTO.setAttendanceCount(stats.getAttendanceCount());
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            attendanceStatsDTO.getDayOfWeekCounts().put(dayOfWeek, stats.getDayOfWeekCount(dayOfWeek));
+        }
+        AttendanceStats.Counts locationCounts = stats.getLocationCounts();
+        for (int i = 0; i < locationCounts.size(); i++) {
+            attendanceStatsDTO.getLocationCounts().put(locationCounts.getId(i), locationCounts.getCount(i));
+        }
+        AttendanceStats.Counts userCounts = stats.getUserCounts();
+        attendanceStatsDTO.setUserCount(userCounts.size());
+        int rank = 0;
+        int[] top = userCounts.top(topSize);
+        for (int i = 0; i < top.length; i++) {
+            // users with the same count share a rank, like on a leaderboard
+            if (i == 0 || userCounts.getCount(top[i]) != userCounts.getCount(top[i - 1])) {
+                rank = i + 1;
+            }
+            LeaderboardEntryDTO leaderboardEntryDTO = new LeaderboardEntryDTO();
+            leaderboardEntryDTO.setRfbUserId(userCounts.getId(top[i]));
+            leaderboardEntryDTO.setAttendanceCount((long) userCounts.getCount(top[i]));
+            leaderboardEntryDTO.setRank(rank);
+            attendanceStatsDTO.getTopUsers().add(leaderboardEntryDTO);
+        }
+        return attendanceStatsDTO;
+    }
+}
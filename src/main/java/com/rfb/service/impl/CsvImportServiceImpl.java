@@ -0,0 +1,414 @@
+package com.rfb.service.impl;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbLocation;
+import com.rfb.domain.RfbUser;
+import com.rfb.repository.RfbEventRepository;
+import com.rfb.repository.RfbLocationRepository;
+import com.rfb.repository.RfbUserRepository;
+import com.rfb.service.CsvImportService;
+import com.rfb.service.CsvReader;
+import com.rfb.service.RfbEventAttendanceService;
+import com.rfb.service.RfbEventService;
+import com.rfb.service.RfbLocationService;
+import com.rfb.service.RfbUserService;
+import com.rfb.service.dto.BatchItemResultDTO;
+import com.rfb.service.dto.ImportProgressDTO;
+import com.rfb.service.dto.RfbEventAttendanceDTO;
+import com.rfb.service.dto.RfbEventDTO;
+import com.rfb.service.dto.RfbLocationDTO;
+import com.rfb.service.dto.RfbUserDTO;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Implementation for importing CSV content.
+ * <p>
+ * The content is parsed chunk by chunk with a {@link CsvReader}, and every operator requests a single chunk or batch ahead, so at most
+ * a batch of rows is held in memory, and a slow database slows down the upload instead of buffering it. The entities are created with
+ * the batched inserts of their services, so the counts and the attendance counters are maintained as for any other write.
+ */
+@Service
+public class CsvImportServiceImpl implements CsvImportService {
+
+    private final Logger log = LoggerFactory.getLogger(CsvImportServiceImpl.class);
+
+    private static final Map<Type, List<String>> REQUIRED_COLUMNS = new EnumMap<>(
+        Map.of(
+            Type.LOCATIONS,
+            List.of("location_name"),
+            Type.EVENTS,
+            List.of("event_code"),
+            Type.USERS,
+            List.of("username"),
+            Type.ATTENDANCES,
+            List.of("event_code", "username")
+        )
+    );
+
+    private final RfbLocationService rfbLocationService;
+
+    private final RfbEventService rfbEventService;
+
+    private final RfbUserService rfbUserService;
+
+    private final RfbEventAttendanceService rfbEventAttendanceService;
+
+    private final RfbLocationRepository rfbLocationRepository;
+
+    private final RfbEventRepository rfbEventRepository;
+
+    private final RfbUserRepository rfbUserRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    public CsvImportServiceImpl(
+        RfbLocationService rfbLocationService,
+        RfbEventService rfbEventService,
+        RfbUserService rfbUserService,
+        RfbEventAttendanceService rfbEventAttendanceService,
+        RfbLocationRepository rfbLocationRepository,
+        RfbEventRepository rfbEventRepository,
+        RfbUserRepository rfbUserRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.rfbLocationService = rfbLocationService;
+        this.rfbEventService = rfbEventService;
+        this.rfbUserService = rfbUserService;
+        this.rfbEventAttendanceService = rfbEventAttendanceService;
+        this.rfbLocationRepository = rfbLocationRepository;
+        this.rfbEventRepository = rfbEventRepository;
+        this.rfbUserRepository = rfbUserRepository;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    public Flux<ImportProgressDTO> importCsv(Type type, Flux<DataBuffer> content, char delimiter) {
+        log.debug("Request to import the {} of CSV content", type);
+        return Flux.defer(
+            () -> {
+                CsvReader reader = new CsvReader(delimiter);
+                Map<String, Integer> columns = new HashMap<>();
+                ImportProgressDTO total = new ImportProgressDTO();
+                return content
+                    .concatMapIterable(
+                        buffer -> {
+                            try {
+                                return reader.read(buffer.asByteBuffer());
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                        },
+                        1
+                    )
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .concatWith(Flux.defer(() -> Flux.fromIterable(reader.finish())))
+                    .filter(
+                        row -> {
+                            if (!columns.isEmpty()) {
+                                return true;
+                            }
+                            readHeader(type, row, columns);
+                            return false;
+                        }
+                    )
+                    .buffer(applicationProperties.getBatch().getChunkSize())
+                    .concatMap(rows -> importBatch(type, columns, rows).collectList(), 1)
+                    .map(results -> addProgress(total, results))
+                    .concatWith(
+                        Mono.fromSupplier(
+                            () -> {
+                                log.info("Imported the {} of CSV content: {}", type, total);
+                                ImportProgressDTO done = addProgress(total, List.of());
+                                done.setDone(true);
+                                return done;
+                            }
+                        )
+                    );
+            }
+        );
+    }
+
+    private static void readHeader(Type type, CsvReader.Row header, Map<String, Integer> columns) {
+        List<String> names = header.getValues();
+        for (int i = 0; i < names.size(); i++) {
+            columns.putIfAbsent(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : REQUIRED_COLUMNS.get(type)) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Missing column: " + required);
+            }
+        }
+    }
+
+    /**
+     * Adds the results of a batch to the total progress.
+     * @return a copy of the total progress, with the rejected rows of the batch.
+     */
+    private static ImportProgressDTO addProgress(ImportProgressDTO total, List<BatchItemResultDTO> results) {
+        List<BatchItemResultDTO> rejected = new ArrayList<>();
+        for (BatchItemResultDTO result : results) {
+            if (result.getStatus() == BatchItemResultDTO.Status.CREATED) {
+                total.setCreated(total.getCreated() + 1);
+                continue;
+            }
+            if (result.getStatus() == BatchItemResultDTO.Status.DUPLICATE) {
+                total.setDuplicates(total.getDuplicates() + 1);
+            } else {
+                total.setInvalid(total.getInvalid() + 1);
+            }
+            rejected.add(result);
+        }
+        total.setRows(total.getRows() + results.size());
+        ImportProgressDTO progress = new ImportProgressDTO();
+        progress.setRows(total.getRows());
+        progress.setCreated(total.getCreated());
+        progress.setDuplicates(total.getDuplicates());
+        progress.setInvalid(total.getInvalid());
+        progress.setRejected(rejected);
+        return progress;
+    }
+
+    private Flux<BatchItemResultDTO> importBatch(Type type, Map<String, Integer> columns, List<CsvReader.Row> rows) {
+        switch (type) {
+            case LOCATIONS:
+                return createAll(rows, row -> toRfbLocation(columns, row), rfbLocationService::createAll, RfbLocationDTO::getId);
+            case EVENTS:
+                return findLocationIds(columns, rows, "location_name")
+                    .flatMapMany(
+                        locationIds ->
+                            createAll(rows, row -> toRfbEvent(columns, row, locationIds), rfbEventService::createAll, RfbEventDTO::getId)
+                    );
+            case USERS:
+                return findLocationIds(columns, rows, "home_location_name")
+                    .flatMapMany(
+                        locationIds ->
+                            createAll(rows, row -> toRfbUser(columns, row, locationIds), rfbUserService::createAll, RfbUserDTO::getId)
+                    );
+            case ATTENDANCES:
+                return importAttendances(columns, rows);
+            default:
+                throw new IllegalArgumentException("Unsupported import: " + type);
+        }
+    }
+
+    /**
+     * Creates the valid rows with a single batched insert.
+     */
+    private static <T> Flux<BatchItemResultDTO> createAll(
+        List<CsvReader.Row> rows,
+        Function<CsvReader.Row, T> parser,
+        Function<List<T>, Flux<T>> creator,
+        Function<T, Long> idGetter
+    ) {
+        BatchItemResultDTO[] results = new BatchItemResultDTO[rows.size()];
+        List<T> toCreate = new ArrayList<>();
+        List<Integer> toCreateIndexes = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                toCreate.add(parser.apply(rows.get(i)));
+                toCreateIndexes.add(i);
+            } catch (IllegalArgumentException e) {
+                results[i] = BatchItemResultDTO.invalid(rows.get(i).getLine(), e.getMessage());
+            }
+        }
+        Flux<T> created = toCreate.isEmpty() ? Flux.empty() : creator.apply(toCreate);
+        return created
+            .index()
+            .doOnNext(
+                inserted -> {
+                    int index = toCreateIndexes.get(inserted.getT1().intValue());
+                    results[index] = BatchItemResultDTO.created(rows.get(index).getLine(), idGetter.apply(inserted.getT2()));
+                }
+            )
+            .thenMany(Flux.defer(() -> Flux.fromArray(results)));
+    }
+
+    private Flux<BatchItemResultDTO> importAttendances(Map<String, Integer> columns, List<CsvReader.Row> rows) {
+        Mono<Map<String, List<Long>>> eventIds = findIds(
+            columns,
+            rows,
+            "event_code",
+            eventCodes -> rfbEventRepository.findAllBy(null, where("eventCode").in(eventCodes)),
+            RfbEvent::getEventCode,
+            RfbEvent::getId
+        );
+        Mono<Map<String, List<Long>>> userIds = findIds(
+            columns,
+            rows,
+            "username",
+            usernames -> rfbUserRepository.findAllBy(null, where("username").in(usernames)),
+            RfbUser::getUsername,
+            RfbUser::getId
+        );
+        return Mono
+            .zip(eventIds, userIds)
+            .flatMapMany(
+                ids -> {
+                    BatchItemResultDTO[] results = new BatchItemResultDTO[rows.size()];
+                    List<RfbEventAttendanceDTO> toSave = new ArrayList<>();
+                    List<Integer> toSaveIndexes = new ArrayList<>();
+                    for (int i = 0; i < rows.size(); i++) {
+                        CsvReader.Row row = rows.get(i);
+                        try {
+                            RfbEventAttendanceDTO rfbEventAttendanceDTO = new RfbEventAttendanceDTO();
+                            rfbEventAttendanceDTO.setAttendanceDate(toDate(columns, row, "attendance_date"));
+                            RfbEventDTO rfbEventDTO = new RfbEventDTO();
+                            rfbEventDTO.setId(resolve(ids.getT1(), required(columns, row, "event_code"), "event_code"));
+                            rfbEventAttendanceDTO.setRfbEvent(rfbEventDTO);
+                            RfbUserDTO rfbUserDTO = new RfbUserDTO();
+                            rfbUserDTO.setId(resolve(ids.getT2(), required(columns, row, "username"), "username"));
+                            rfbEventAttendanceDTO.setRfbUser(rfbUserDTO);
+                            toSave.add(rfbEventAttendanceDTO);
+                            toSaveIndexes.add(i);
+                        } catch (IllegalArgumentException e) {
+                            results[i] = BatchItemResultDTO.invalid(row.getLine(), e.getMessage());
+                        }
+                    }
+                    Flux<BatchItemResultDTO> saved = toSave.isEmpty() ? Flux.empty() : rfbEventAttendanceService.saveAll(toSave);
+                    return saved
+                        .doOnNext(
+                            result -> {
+                                int index = toSaveIndexes.get(result.getIndex());
+                                result.setIndex(rows.get(index).getLine());
+                                results[index] = result;
+                            }
+                        )
+                        .thenMany(Flux.defer(() -> Flux.fromArray(results)));
+                }
+            );
+    }
+
+    private Mono<Map<String, List<Long>>> findLocationIds(Map<String, Integer> columns, List<CsvReader.Row> rows, String column) {
+        return findIds(
+            columns,
+            rows,
+            column,
+            locationNames -> rfbLocationRepository.findAllBy(null, where("locationName").in(locationNames)),
+            RfbLocation::getLocationName,
+            RfbLocation::getId
+        );
+    }
+
+    /**
+     * Finds the ids of the entities referenced by a column of the rows, with a single query.
+     * @return the ids by the referenced value, which may be ambiguous.
+     */
+    private static <E> Mono<Map<String, List<Long>>> findIds(
+        Map<String, Integer> columns,
+        List<CsvReader.Row> rows,
+        String column,
+        Function<Collection<String>, Flux<E>> finder,
+        Function<E, String> keyGetter,
+        Function<E, Long> idGetter
+    ) {
+        Set<String> keys = rows.stream().map(row -> value(columns, row, column)).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (keys.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return finder.apply(keys).collect(Collectors.groupingBy(keyGetter, Collectors.mapping(idGetter, Collectors.toList())));
+    }
+
+    private static RfbLocationDTO toRfbLocation(Map<String, Integer> columns, CsvReader.Row row) {
+        RfbLocationDTO rfbLocationDTO = new RfbLocationDTO();
+        rfbLocationDTO.setLocationName(required(columns, row, "location_name"));
+        String runDayOfWeek = value(columns, row, "run_day_of_week");
+        try {
+            rfbLocationDTO.setRunDayOfWeek(runDayOfWeek != null ? Integer.valueOf(runDayOfWeek) : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid run_day_of_week: " + runDayOfWeek);
+        }
+        return rfbLocationDTO;
+    }
+
+    private static RfbEventDTO toRfbEvent(Map<String, Integer> columns, CsvReader.Row row, Map<String, List<Long>> locationIds) {
+        RfbEventDTO rfbEventDTO = new RfbEventDTO();
+        rfbEventDTO.setEventCode(required(columns, row, "event_code"));
+        rfbEventDTO.setEventDate(toDate(columns, row, "event_date"));
+        rfbEventDTO.setRfbLocation(toRfbLocationReference(columns, row, "location_name", locationIds));
+        return rfbEventDTO;
+    }
+
+    private static RfbUserDTO toRfbUser(Map<String, Integer> columns, CsvReader.Row row, Map<String, List<Long>> locationIds) {
+        RfbUserDTO rfbUserDTO = new RfbUserDTO();
+        rfbUserDTO.setUsername(required(columns, row, "username"));
+        rfbUserDTO.setHomeLocation(toRfbLocationReference(columns, row, "home_location_name", locationIds));
+        return rfbUserDTO;
+    }
+
+    private static RfbLocationDTO toRfbLocationReference(
+        Map<String, Integer> columns,
+        CsvReader.Row row,
+        String column,
+        Map<String, List<Long>> locationIds
+    ) {
+        String locationName = value(columns, row, column);
+        if (locationName == null) {
+            return null;
+        }
+        RfbLocationDTO rfbLocationDTO = new RfbLocationDTO();
+        rfbLocationDTO.setId(resolve(locationIds, locationName, column));
+        return rfbLocationDTO;
+    }
+
+    private static Long resolve(Map<String, List<Long>> ids, String key, String column) {
+        List<Long> found = ids.getOrDefault(key, List.of());
+        if (found.isEmpty()) {
+            throw new IllegalArgumentException("Unknown " + column + ": " + key);
+        }
+        if (found.size() > 1) {
+            throw new IllegalArgumentException("Ambiguous " + column + ": " + key);
+        }
+        return found.get(0);
+    }
+
+    private static LocalDate toDate(Map<String, Integer> columns, CsvReader.Row row, String column) {
+        String date = value(columns, row, column);
+        try {
+            return date != null ? LocalDate.parse(date) : null;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + date);
+        }
+    }
+
+    private static String required(Map<String, Integer> columns, CsvReader.Row row, String column) {
+        String value = value(columns, row, column);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing " + column);
+        }
+        return value;
+    }
+
+    /**
+     * @return the trimmed value of the column, or {@code null} if it's empty or missing.
+     */
+    private static String value(Map<String, Integer> columns, CsvReader.Row row, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= row.getValues().size()) {
+            return null;
+        }
+        String value = row.getValues().get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,195 @@
+package com.rfb.service.impl;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.repository.RfbEventAttendanceRepository;
+import com.rfb.service.AttendeeBitmap;
+import com.rfb.service.EventAttendeeService;
+import com.rfb.service.Keyset;
+import com.rfb.service.Transactions;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Service Implementation for the {@link AttendeeBitmap}s of the rfbEvents.
+ * <p>
+ * The bitmaps are loaded from the database when the application is ready, and then updated with the attendances changed by this
+ * instance of the application: the changes of the other instances are only seen after a {@link #rebuild()}. The queries run under a
+ * read lock, so a query never sees a half applied change.
+ * <p>
+ * It isn't transactional as a whole: the bitmaps are read from memory, and updated in the transaction of the caller.
+ */
+@Service
+public class EventAttendeeServiceImpl implements EventAttendeeService {
+
+    private final Logger log = LoggerFactory.getLogger(EventAttendeeServiceImpl.class);
+
+    private static final Keyset FIRST = Keyset.first(Sort.unsorted());
+
+    private static final AttendeeBitmap EMPTY = new AttendeeBitmap();
+
+    private final RfbEventAttendanceRepository rfbEventAttendanceRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // the bitmaps by event id, replaced as a whole by a rebuild
+    private Map<Long, AttendeeBitmap> bitmaps = new HashMap<>();
+
+    public EventAttendeeServiceImpl(
+        RfbEventAttendanceRepository rfbEventAttendanceRepository,
+        ApplicationProperties applicationProperties
+    ) {
+        this.rfbEventAttendanceRepository = rfbEventAttendanceRepository;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    public Mono<Void> update(Collection<RfbEventAttendance> removed, Collection<RfbEventAttendance> added) {
+        return Transactions.afterCommit(
+            () -> {
+                lock.writeLock().lock();
+                try {
+                    // an event has a single attendance per user, so an attendee is removed with its attendance
+                    removed.forEach(this::remove);
+                    added.forEach(attendance -> add(bitmaps, attendance));
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        );
+    }
+
+    private static void add(Map<Long, AttendeeBitmap> bitmaps, RfbEventAttendance attendance) {
+        if (attendance.getRfbEventId() != null && attendance.getRfbUserId() != null) {
+            bitmaps.computeIfAbsent(attendance.getRfbEventId(), id -> new AttendeeBitmap()).add(attendance.getRfbUserId());
+        }
+    }
+
+    private void remove(RfbEventAttendance attendance) {
+        AttendeeBitmap bitmap = attendance.getRfbEventId() != null ? bitmaps.get(attendance.getRfbEventId()) : null;
+        if (bitmap != null && attendance.getRfbUserId() != null && bitmap.remove(attendance.getRfbUserId()) && bitmap.isEmpty()) {
+            bitmaps.remove(attendance.getRfbEventId());
+        }
+    }
+
+    @Override
+    public Mono<List<Long>> findAttendees(Operation operation, List<Long> rfbEventIds) {
+        log.debug("Request to get the attendees of the {} of RfbEvents : {}", operation, rfbEventIds);
+        return query(operation, rfbEventIds, bitmap -> Arrays.stream(bitmap.toArray()).boxed().collect(Collectors.toList()));
+    }
+
+    @Override
+    public Mono<Long> countAttendees(Operation operation, List<Long> rfbEventIds) {
+        log.debug("Request to count the attendees of the {} of RfbEvents : {}", operation, rfbEventIds);
+        return query(operation, rfbEventIds, AttendeeBitmap::getCardinality);
+    }
+
+    private <T> Mono<T> query(Operation operation, List<Long> rfbEventIds, Function<AttendeeBitmap, T> result) {
+        return Mono.fromCallable(
+            () -> {
+                lock.readLock().lock();
+                try {
+                    return result.apply(combine(operation, rfbEventIds));
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        );
+    }
+
+    private AttendeeBitmap combine(Operation operation, List<Long> rfbEventIds) {
+        if (rfbEventIds.isEmpty()) {
+            return EMPTY;
+        }
+        // the operations return new bitmaps, which are only read under the lock, like the bitmaps of the events
+        AttendeeBitmap combined = bitmaps.getOrDefault(rfbEventIds.get(0), EMPTY);
+        for (Long rfbEventId : rfbEventIds.subList(1, rfbEventIds.size())) {
+            AttendeeBitmap bitmap = bitmaps.getOrDefault(rfbEventId, EMPTY);
+            switch (operation) {
+                case AND:
+                    combined = AttendeeBitmap.and(combined, bitmap);
+                    break;
+                case OR:
+                    combined = AttendeeBitmap.or(combined, bitmap);
+                    break;
+                default:
+                    combined = AttendeeBitmap.andNot(combined, bitmap);
+                    break;
+            }
+        }
+        return combined;
+    }
+
+    /**
+     * Loads the bitmaps when the application is ready, in the background so the startup isn't delayed; it's retried, as the database
+     * might not be migrated yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild()
+            .retryWhen(Retry.backoff(5, Duration.ofSeconds(1)))
+            .subscribe(null, error -> log.warn("Could not load the attendee bitmaps: {}", error.toString()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The attendances are read in chunks of {@code application.batch.chunk-size}, ordered by id. The attendances changed while it's
+     * running might not be seen.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Void> rebuild() {
+        return Mono.defer(
+            () -> {
+                Map<Long, AttendeeBitmap> rebuilt = new HashMap<>();
+                return load(rebuilt, FIRST)
+                    .then(
+                        Mono.fromRunnable(
+                            () -> {
+                                lock.writeLock().lock();
+                                try {
+                                    bitmaps = rebuilt;
+                                } finally {
+                                    lock.writeLock().unlock();
+                                }
+                                log.debug("Loaded the attendee bitmaps of {} events", rebuilt.size());
+                            }
+                        )
+                    );
+            }
+        );
+    }
+
+    private Mono<Void> load(Map<Long, AttendeeBitmap> rebuilt, Keyset keyset) {
+        int size = applicationProperties.getBatch().getChunkSize();
+        return rfbEventAttendanceRepository
+            .findAllAfter(keyset, size)
+            .collectList()
+            .flatMap(
+                chunk -> {
+                    chunk.forEach(attendance -> add(rebuilt, attendance));
+                    return chunk.size() < size ? Mono.empty() : load(rebuilt, FIRST.next(null, chunk.get(chunk.size() - 1).getId()));
+                }
+            );
+    }
+}
@@ -0,0 +1,294 @@
+package com.rfb.service.impl;
+
+import com.rfb.domain.RfbAttendanceCounter;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.repository.RfbAttendanceCounterRepository;
+import com.rfb.repository.RfbEventAttendanceRepository;
+import com.rfb.repository.RfbEventRepository;
+import com.rfb.service.Leaderboard;
+import com.rfb.service.LeaderboardService;
+import com.rfb.service.Transactions;
+import com.rfb.service.dto.LeaderboardEntryDTO;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Service Implementation for the {@link Leaderboard}s.
+ * <p>
+ * The leaderboards are loaded from the database when the application is ready, and then updated with the attendances changed by
+ * this instance of the application: the changes of the other instances are only seen after a {@link #rebuild()}. A leaderboard of a
+ * {@link Leaderboard.Window} only counts the attendances of the current period, and starts empty when the next period begins.
+ * <p>
+ * It isn't transactional as a whole: the leaderboards are read from memory, and updated in the transaction of the caller.
+ */
+@Service
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+    private final Logger log = LoggerFactory.getLogger(LeaderboardServiceImpl.class);
+
+    private static final long GLOBAL = RfbAttendanceCounter.ALL;
+
+    /**
+     * A leaderboard with the first day of its period.
+     */
+    private static final class Board {
+
+        private final LocalDate start;
+
+        private final Leaderboard leaderboard = new Leaderboard();
+
+        private Board(LocalDate start) {
+            this.start = start;
+        }
+    }
+
+    private final RfbAttendanceCounterRepository rfbAttendanceCounterRepository;
+
+    private final RfbEventRepository rfbEventRepository;
+
+    private final RfbEventAttendanceRepository rfbEventAttendanceRepository;
+
+    private final Clock clock = Clock.systemDefaultZone();
+
+    // the boards by window and location id, replaced as a whole by a rebuild
+    private volatile Map<Leaderboard.Window, ConcurrentMap<Long, Board>> boards = emptyBoards();
+
+    public LeaderboardServiceImpl(
+        RfbAttendanceCounterRepository rfbAttendanceCounterRepository,
+        RfbEventRepository rfbEventRepository,
+        RfbEventAttendanceRepository rfbEventAttendanceRepository
+    ) {
+        this.rfbAttendanceCounterRepository = rfbAttendanceCounterRepository;
+        this.rfbEventRepository = rfbEventRepository;
+        this.rfbEventAttendanceRepository = rfbEventAttendanceRepository;
+    }
+
+    @Override
+    public Mono<Void> update(Collection<RfbEventAttendance> removed, Collection<RfbEventAttendance> added) {
+        if (keysOf(removed).equals(keysOf(added))) {
+            return Mono.empty();
+        }
+        Set<Long> eventIds = Stream
+            .concat(removed.stream(), added.stream())
+            .map(RfbEventAttendance::getRfbEventId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Mono<Map<Long, Long>> locationIds = eventIds.isEmpty()
+            ? Mono.just(Map.of())
+            : rfbEventRepository
+                .findAllById(eventIds)
+                .filter(rfbEvent -> rfbEvent.getRfbLocationId() != null)
+                .collectMap(RfbEvent::getId, RfbEvent::getRfbLocationId);
+        return locationIds.flatMap(
+            locations ->
+                Transactions.afterCommit(
+                    () -> {
+                        LocalDate today = LocalDate.now(clock);
+                        removed.forEach(attendance -> add(attendance, locations, today, -1));
+                        added.forEach(attendance -> add(attendance, locations, today, 1));
+                    }
+                )
+        );
+    }
+
+    @Override
+    public Mono<Void> moveEvent(Long rfbEventId, Long previousRfbLocationId, Long rfbLocationId) {
+        if (Objects.equals(previousRfbLocationId, rfbLocationId)) {
+            return Mono.empty();
+        }
+        // the global leaderboards don't change
+        return rfbEventAttendanceRepository
+            .findByRfbEvent(rfbEventId)
+            .collectList()
+            .flatMap(
+                attendances ->
+                    Transactions.afterCommit(
+                        () -> {
+                            LocalDate today = LocalDate.now(clock);
+                            for (RfbEventAttendance attendance : attendances) {
+                                add(attendance, previousRfbLocationId, today, -1);
+                                add(attendance, rfbLocationId, today, 1);
+                            }
+                        }
+                    )
+            );
+    }
+
+    private static Map<List<Object>, Long> keysOf(Collection<RfbEventAttendance> attendances) {
+        return attendances
+            .stream()
+            .collect(
+                Collectors.groupingBy(
+                    attendance -> Arrays.asList(attendance.getRfbUserId(), attendance.getRfbEventId(), attendance.getAttendanceDate()),
+                    Collectors.counting()
+                )
+            );
+    }
+
+    private void add(RfbEventAttendance attendance, Map<Long, Long> locations, LocalDate today, long delta) {
+        add(attendance, GLOBAL, today, delta);
+        add(attendance, attendance.getRfbEventId() != null ? locations.get(attendance.getRfbEventId()) : null, today, delta);
+    }
+
+    /**
+     * Adds an attendance to the leaderboards of a location, in the windows which count it.
+     */
+    private void add(RfbEventAttendance attendance, Long rfbLocationId, LocalDate today, long delta) {
+        if (attendance.getRfbUserId() == null || rfbLocationId == null) {
+            return;
+        }
+        for (Leaderboard.Window window : Leaderboard.Window.values()) {
+            LocalDate start = window.start(today);
+            if (window != Leaderboard.Window.ALL_TIME) {
+                // only the attendances of the current period are counted
+                if (attendance.getAttendanceDate() == null || !window.start(attendance.getAttendanceDate()).equals(start)) {
+                    continue;
+                }
+            }
+            current(boards, window, rfbLocationId, start).add(attendance.getRfbUserId(), delta);
+        }
+    }
+
+    /**
+     * Gets the leaderboard of the period, which starts at {@code start}, and replaces the leaderboard of a past period.
+     */
+    private static Leaderboard current(
+        Map<Leaderboard.Window, ConcurrentMap<Long, Board>> boards,
+        Leaderboard.Window window,
+        long rfbLocationId,
+        LocalDate start
+    ) {
+        return boards
+            .get(window)
+            .compute(rfbLocationId, (id, board) -> board != null && board.start.equals(start) ? board : new Board(start))
+            .leaderboard;
+    }
+
+    private Leaderboard find(Long rfbLocationId, Leaderboard.Window window) {
+        Board board = boards.get(window).get(rfbLocationId != null ? rfbLocationId : GLOBAL);
+        return board != null && board.start.equals(window.start(LocalDate.now(clock))) ? board.leaderboard : new Leaderboard();
+    }
+
+    @Override
+    public Flux<LeaderboardEntryDTO> findTop(Long rfbLocationId, Leaderboard.Window window, int size) {
+        log.debug("Request to get the top {} of the {} Leaderboard of RfbLocation : {}", size, window, rfbLocationId);
+        return Flux.defer(() -> Flux.fromIterable(find(rfbLocationId, window).top(size))).map(LeaderboardServiceImpl::toDto);
+    }
+
+    @Override
+    public Mono<LeaderboardEntryDTO> findOne(Long rfbLocationId, Leaderboard.Window window, Long rfbUserId) {
+        log.debug("Request to get RfbUser : {} on the {} Leaderboard of RfbLocation : {}", rfbUserId, window, rfbLocationId);
+        return Mono.defer(() -> Mono.justOrEmpty(find(rfbLocationId, window).find(rfbUserId))).map(LeaderboardServiceImpl::toDto);
+    }
+
+    @Override
+    public Flux<LeaderboardEntryDTO> findNeighbours(Long rfbLocationId, Leaderboard.Window window, Long rfbUserId, int size) {
+        log.debug("Request to get the neighbours of RfbUser : {} on the {} Leaderboard : {}", rfbUserId, window, rfbLocationId);
+        return Flux
+            .defer(() -> Flux.fromIterable(find(rfbLocationId, window).neighbours(rfbUserId, size)))
+            .map(LeaderboardServiceImpl::toDto);
+    }
+
+    private static LeaderboardEntryDTO toDto(Leaderboard.Entry entry) {
+        LeaderboardEntryDTO leaderboardEntryDTO = new LeaderboardEntryDTO();
+        leaderboardEntryDTO.setRfbUserId(entry.getUserId());
+        leaderboardEntryDTO.setAttendanceCount(entry.getCount());
+        leaderboardEntryDTO.setRank(entry.getRank());
+        return leaderboardEntryDTO;
+    }
+
+    /**
+     * Loads the leaderboards when the application is ready, in the background so the startup isn't delayed; it's retried, as the
+     * database might not be migrated yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild()
+            .retryWhen(Retry.backoff(5, Duration.ofSeconds(1)))
+            .subscribe(null, error -> log.warn("Could not load the leaderboards: {}", error.toString()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The all-time leaderboards are loaded from the attendance counters, the others are counted by a {@code GROUP BY} over the
+     * attendances of their period. The attendances changed while it's running might not be counted.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Void> rebuild() {
+        return Mono.defer(
+            () -> {
+                LocalDate today = LocalDate.now(clock);
+                Map<Leaderboard.Window, ConcurrentMap<Long, Board>> rebuilt = emptyBoards();
+                Mono<Void> allTime = rfbAttendanceCounterRepository
+                    .findAllUserCounters()
+                    .doOnNext(
+                        counter ->
+                            // the totals of the users are the counters of all the locations
+                            current(rebuilt, Leaderboard.Window.ALL_TIME, counter.getRfbLocationId(), LocalDate.MIN)
+                                .add(counter.getRfbUserId(), counter.getAttendanceCount())
+                    )
+                    .then();
+                Mono<Void> periods = Flux
+                    .just(Leaderboard.Window.WEEK, Leaderboard.Window.MONTH, Leaderboard.Window.YEAR)
+                    .concatMap(
+                        window ->
+                            rfbAttendanceCounterRepository
+                                .countUserAttendances(window.start(today), window.end(today))
+                                .doOnNext(
+                                    counter -> {
+                                        LocalDate start = window.start(today);
+                                        current(rebuilt, window, GLOBAL, start).add(counter.getRfbUserId(), counter.getAttendanceCount());
+                                        if (counter.getRfbLocationId() != GLOBAL) {
+                                            current(rebuilt, window, counter.getRfbLocationId(), start)
+                                                .add(counter.getRfbUserId(), counter.getAttendanceCount());
+                                        }
+                                    }
+                                )
+                    )
+                    .then();
+                return allTime
+                    .then(periods)
+                    .then(
+                        Mono.fromRunnable(
+                            () -> {
+                                boards = rebuilt;
+                                log.debug("Loaded the leaderboards of {} locations", rebuilt.get(Leaderboard.Window.ALL_TIME).size() - 1);
+                            }
+                        )
+                    );
+            }
+        );
+    }
+
+    private static Map<Leaderboard.Window, ConcurrentMap<Long, Board>> emptyBoards() {
+        Map<Leaderboard.Window, ConcurrentMap<Long, Board>> boards = new EnumMap<>(Leaderboard.Window.class);
+        for (Leaderboard.Window window : Leaderboard.Window.values()) {
+            boards.put(window, new ConcurrentHashMap<>());
+        }
+        return boards;
+    }
+}
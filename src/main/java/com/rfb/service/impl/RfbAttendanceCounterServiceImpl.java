@@ -0,0 +1,200 @@
+package com.rfb.service.impl;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbAttendanceCounter;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.repository.RfbAttendanceCounterRepository;
+import com.rfb.repository.RfbEventRepository;
+import com.rfb.service.RfbAttendanceCounterService;
+import com.rfb.service.dto.RfbAttendanceCounterDTO;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Implementation for managing {@link RfbAttendanceCounter}.
+ */
+@Service
+@Transactional
+public class RfbAttendanceCounterServiceImpl implements RfbAttendanceCounterService {
+
+    private final Logger log = LoggerFactory.getLogger(RfbAttendanceCounterServiceImpl.class);
+
+    private final RfbAttendanceCounterRepository rfbAttendanceCounterRepository;
+
+    private final RfbEventRepository rfbEventRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties applicationProperties;
+
+    public RfbAttendanceCounterServiceImpl(
+        RfbAttendanceCounterRepository rfbAttendanceCounterRepository,
+        RfbEventRepository rfbEventRepository,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties
+    ) {
+        this.rfbAttendanceCounterRepository = rfbAttendanceCounterRepository;
+        this.rfbEventRepository = rfbEventRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    public Mono<Void> update(Collection<RfbEventAttendance> removed, Collection<RfbEventAttendance> added) {
+        if (keysOf(removed).equals(keysOf(added))) {
+            return Mono.empty();
+        }
+        Set<Long> eventIds = Stream
+            .concat(removed.stream(), added.stream())
+            .map(RfbEventAttendance::getRfbEventId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Mono<Map<Long, Long>> locationIds = eventIds.isEmpty()
+            ? Mono.just(Map.of())
+            : rfbEventRepository
+                .findAllById(eventIds)
+                .filter(rfbEvent -> rfbEvent.getRfbLocationId() != null)
+                .collectMap(RfbEvent::getId, RfbEvent::getRfbLocationId);
+        return locationIds.flatMap(
+            locations -> {
+                // sorted by key, so concurrent transactions lock the counters in the same order
+                Map<RfbAttendanceCounter, Long> deltas = new TreeMap<>();
+                removed.forEach(attendance -> count(deltas, attendance, locations, -1));
+                added.forEach(attendance -> count(deltas, attendance, locations, 1));
+                List<RfbAttendanceCounter> counters = deltas
+                    .entrySet()
+                    .stream()
+                    .filter(delta -> delta.getValue() != 0)
+                    .map(
+                        delta -> {
+                            RfbAttendanceCounter key = delta.getKey();
+                            return new RfbAttendanceCounter(key.getRfbUserId(), key.getRfbLocationId(), delta.getValue());
+                        }
+                    )
+                    .collect(Collectors.toList());
+                return rfbAttendanceCounterRepository.add(counters);
+            }
+        );
+    }
+
+    @Override
+    public Mono<Void> moveEvent(Long rfbEventId, Long previousRfbLocationId, Long rfbLocationId) {
+        if (Objects.equals(previousRfbLocationId, rfbLocationId)) {
+            return Mono.empty();
+        }
+        return rfbAttendanceCounterRepository
+            .countEventAttendances(rfbEventId)
+            .collectList()
+            .flatMap(
+                userCounts -> {
+                    // sorted by key, so concurrent transactions lock the counters in the same order
+                    Map<RfbAttendanceCounter, Long> deltas = new TreeMap<>();
+                    for (RfbAttendanceCounter userCount : userCounts) {
+                        move(deltas, userCount.getRfbUserId(), previousRfbLocationId, rfbLocationId, userCount.getAttendanceCount());
+                        move(deltas, RfbAttendanceCounter.ALL, previousRfbLocationId, rfbLocationId, userCount.getAttendanceCount());
+                    }
+                    List<RfbAttendanceCounter> counters = deltas
+                        .entrySet()
+                        .stream()
+                        .map(
+                            delta -> {
+                                RfbAttendanceCounter key = delta.getKey();
+                                return new RfbAttendanceCounter(key.getRfbUserId(), key.getRfbLocationId(), delta.getValue());
+                            }
+                        )
+                        .collect(Collectors.toList());
+                    return rfbAttendanceCounterRepository.add(counters);
+                }
+            );
+    }
+
+    private static void move(Map<RfbAttendanceCounter, Long> deltas, long rfbUserId, Long from, Long to, long count) {
+        if (from != null) {
+            deltas.merge(new RfbAttendanceCounter(rfbUserId, from, 0), -count, Long::sum);
+        }
+        if (to != null) {
+            deltas.merge(new RfbAttendanceCounter(rfbUserId, to, 0), count, Long::sum);
+        }
+    }
+
+    private static Map<List<Long>, Long> keysOf(Collection<RfbEventAttendance> attendances) {
+        return attendances
+            .stream()
+            .collect(
+                Collectors.groupingBy(
+                    attendance -> Arrays.asList(attendance.getRfbUserId(), attendance.getRfbEventId()),
+                    Collectors.counting()
+                )
+            );
+    }
+
+    private static void count(
+        Map<RfbAttendanceCounter, Long> deltas,
+        RfbEventAttendance attendance,
+        Map<Long, Long> locations,
+        long delta
+    ) {
+        Long rfbUserId = attendance.getRfbUserId();
+        Long rfbLocationId = attendance.getRfbEventId() != null ? locations.get(attendance.getRfbEventId()) : null;
+        if (rfbUserId != null) {
+            deltas.merge(new RfbAttendanceCounter(rfbUserId, RfbAttendanceCounter.ALL, 0), delta, Long::sum);
+        }
+        if (rfbLocationId != null) {
+            deltas.merge(new RfbAttendanceCounter(RfbAttendanceCounter.ALL, rfbLocationId, 0), delta, Long::sum);
+        }
+        if (rfbUserId != null && rfbLocationId != null) {
+            deltas.merge(new RfbAttendanceCounter(rfbUserId, rfbLocationId, 0), delta, Long::sum);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<RfbAttendanceCounterDTO> findOne(Long rfbUserId, Long rfbLocationId) {
+        log.debug("Request to get RfbAttendanceCounter : {}, {}", rfbUserId, rfbLocationId);
+        return rfbAttendanceCounterRepository
+            .findAttendanceCount(
+                rfbUserId != null ? rfbUserId : RfbAttendanceCounter.ALL,
+                rfbLocationId != null ? rfbLocationId : RfbAttendanceCounter.ALL
+            )
+            .defaultIfEmpty(0L)
+            .map(
+                attendanceCount -> {
+                    RfbAttendanceCounterDTO rfbAttendanceCounterDTO = new RfbAttendanceCounterDTO();
+                    rfbAttendanceCounterDTO.setRfbUserId(rfbUserId);
+                    rfbAttendanceCounterDTO.setRfbLocationId(rfbLocationId);
+                    rfbAttendanceCounterDTO.setAttendanceCount(attendanceCount);
+                    return rfbAttendanceCounterDTO;
+                }
+            );
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // every partition is rebuilt in its own transaction
+    public Mono<Integer> rebuild() {
+        int partitions = applicationProperties.getCounters().getRebuildPartitions();
+        log.debug("Request to rebuild the RfbAttendanceCounters in {} partitions", partitions);
+        return Flux
+            .range(0, partitions)
+            .flatMap(
+                partition -> transactionalOperator.transactional(rfbAttendanceCounterRepository.rebuildUserCounters(partition, partitions))
+            )
+            .mergeWith(transactionalOperator.transactional(rfbAttendanceCounterRepository.rebuildLocationCounters()))
+            .reduce(0, Integer::sum);
+    }
+}
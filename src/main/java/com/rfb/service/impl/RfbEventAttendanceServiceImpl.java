@@ -1,15 +1,44 @@
 package com.rfb.service.impl;
 
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEvent;
 import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbUser;
 import com.rfb.repository.RfbEventAttendanceRepository;
+import com.rfb.repository.RfbEventRepository;
+import com.rfb.repository.RfbUserRepository;
+import com.rfb.service.EventAttendeeService;
+import com.rfb.service.Keyset;
+import com.rfb.service.LeaderboardService;
+import com.rfb.service.LookupCache;
+import com.rfb.service.RfbAttendanceCounterService;
 import com.rfb.service.RfbEventAttendanceService;
+import com.rfb.service.Slices;
+import com.rfb.service.StreakService;
+import com.rfb.service.Transactions;
+import com.rfb.service.dto.BatchItemResultDTO;
 import com.rfb.service.dto.RfbEventAttendanceDTO;
 import com.rfb.service.mapper.RfbEventAttendanceMapper;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -20,44 +49,251 @@ import reactor.core.publisher.Mono;
 @Transactional
 public class RfbEventAttendanceServiceImpl implements RfbEventAttendanceService {
 
+    private static final String ALL = "all";
+
     private final Logger log = LoggerFactory.getLogger(RfbEventAttendanceServiceImpl.class);
 
     private final RfbEventAttendanceRepository rfbEventAttendanceRepository;
 
     private final RfbEventAttendanceMapper rfbEventAttendanceMapper;
 
+    private final RfbEventRepository rfbEventRepository;
+
+    private final RfbUserRepository rfbUserRepository;
+
+    private final RfbAttendanceCounterService rfbAttendanceCounterService;
+
+    private final LeaderboardService leaderboardService;
+
+    private final StreakService streakService;
+
+    private final EventAttendeeService eventAttendeeService;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final LookupCache<String, Long> cachedCount = new LookupCache<>();
+
     public RfbEventAttendanceServiceImpl(
         RfbEventAttendanceRepository rfbEventAttendanceRepository,
-        RfbEventAttendanceMapper rfbEventAttendanceMapper
+        RfbEventAttendanceMapper rfbEventAttendanceMapper,
+        RfbEventRepository rfbEventRepository,
+        RfbUserRepository rfbUserRepository,
+        RfbAttendanceCounterService rfbAttendanceCounterService,
+        LeaderboardService leaderboardService,
+        StreakService streakService,
+        EventAttendeeService eventAttendeeService,
+        TransactionalOperator transactionalOperator,
+        ApplicationProperties applicationProperties
     ) {
         this.rfbEventAttendanceRepository = rfbEventAttendanceRepository;
         this.rfbEventAttendanceMapper = rfbEventAttendanceMapper;
+        this.rfbEventRepository = rfbEventRepository;
+        this.rfbUserRepository = rfbUserRepository;
+        this.rfbAttendanceCounterService = rfbAttendanceCounterService;
+        this.leaderboardService = leaderboardService;
+        this.streakService = streakService;
+        this.eventAttendeeService = eventAttendeeService;
+        this.transactionalOperator = transactionalOperator;
+        this.applicationProperties = applicationProperties;
     }
 
     @Override
     public Mono<RfbEventAttendanceDTO> save(RfbEventAttendanceDTO rfbEventAttendanceDTO) {
         log.debug("Request to save RfbEventAttendance : {}", rfbEventAttendanceDTO);
-        return rfbEventAttendanceRepository
-            .save(rfbEventAttendanceMapper.toEntity(rfbEventAttendanceDTO))
+        RfbEventAttendance rfbEventAttendance = rfbEventAttendanceMapper.toEntity(rfbEventAttendanceDTO);
+        if (rfbEventAttendance.getId() != null) {
+            return rfbEventAttendanceRepository
+                .findById(rfbEventAttendance.getId())
+                .flatMap(
+                    previous ->
+                        rfbEventAttendanceRepository
+                            .save(rfbEventAttendance)
+                            .flatMap(saved -> attendancesChanged(List.of(previous), List.of(saved)).thenReturn(saved))
+                )
+                .switchIfEmpty(Mono.defer(() -> rfbEventAttendanceRepository.save(rfbEventAttendance)))
+                .map(rfbEventAttendanceMapper::toDto);
+        }
+        Mono<RfbEventAttendance> saved = rfbEventAttendance.getRfbEventId() != null && rfbEventAttendance.getRfbUserId() != null
+            ? rfbEventAttendanceRepository.upsert(rfbEventAttendance)
+            : rfbEventAttendanceRepository.save(rfbEventAttendance);
+        return saved
+            .flatMap(
+                attendance -> {
+                    // a retried check-in returns the existing attendance, which isn't counted again
+                    if (attendance != rfbEventAttendance) {
+                        return Mono.just(attendance);
+                    }
+                    return Transactions
+                        .afterCommit(() -> cachedCount.update(ALL, count -> count + 1))
+                        .then(attendancesChanged(List.of(), List.of(attendance)))
+                        .thenReturn(attendance);
+                }
+            )
             .map(rfbEventAttendanceMapper::toDto);
     }
 
+    /**
+     * Updates the attendance counters, the leaderboards, the streaks and the attendee bitmaps with the changed attendances.
+     */
+    private Mono<Void> attendancesChanged(List<RfbEventAttendance> removed, List<RfbEventAttendance> added) {
+        return rfbAttendanceCounterService
+            .update(removed, added)
+            .then(leaderboardService.update(removed, added))
+            .then(streakService.update(removed, added))
+            .then(eventAttendeeService.update(removed, added));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // every chunk is saved in its own transaction
+    public Flux<BatchItemResultDTO> saveAll(List<RfbEventAttendanceDTO> rfbEventAttendanceDTOs) {
+        log.debug("Request to save a batch of {} RfbEventAttendances", rfbEventAttendanceDTOs.size());
+        int chunkSize = applicationProperties.getBatch().getChunkSize();
+        return Flux
+            .range(0, (rfbEventAttendanceDTOs.size() + chunkSize - 1) / chunkSize)
+            .concatMap(
+                chunk -> {
+                    int from = chunk * chunkSize;
+                    int to = Math.min(from + chunkSize, rfbEventAttendanceDTOs.size());
+                    return transactionalOperator.transactional(saveChunk(from, rfbEventAttendanceDTOs.subList(from, to)));
+                }
+            );
+    }
+
+    private Flux<BatchItemResultDTO> saveChunk(int offset, List<RfbEventAttendanceDTO> chunk) {
+        List<RfbEventAttendance> entities = chunk.stream().map(rfbEventAttendanceMapper::toEntity).collect(Collectors.toList());
+        Set<Long> eventIds = entities.stream().map(RfbEventAttendance::getRfbEventId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> userIds = entities.stream().map(RfbEventAttendance::getRfbUserId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Mono<Set<List<Long>>> existingAttendances = eventIds.isEmpty() || userIds.isEmpty()
+            ? Mono.just(new HashSet<>())
+            : rfbEventAttendanceRepository
+                .findAllByRfbEventIdInAndRfbUserIdIn(eventIds, userIds)
+                .map(attendance -> List.of(attendance.getRfbEventId(), attendance.getRfbUserId()))
+                .collect(Collectors.toSet());
+
+        return Mono
+            .zip(
+                rfbEventRepository.findAllById(eventIds).map(RfbEvent::getId).collect(Collectors.toSet()),
+                rfbUserRepository.findAllById(userIds).map(RfbUser::getId).collect(Collectors.toSet()),
+                existingAttendances
+            )
+            .flatMapMany(
+                existing -> {
+                    BatchItemResultDTO[] results = new BatchItemResultDTO[entities.size()];
+                    List<RfbEventAttendance> toInsert = new ArrayList<>();
+                    List<Integer> toInsertIndexes = new ArrayList<>();
+                    Set<List<Long>> attendances = existing.getT3();
+                    for (int i = 0; i < entities.size(); i++) {
+                        RfbEventAttendance entity = entities.get(i);
+                        if (entity.getId() != null) {
+                            results[i] = BatchItemResultDTO.invalid(offset + i, "A new rfbEventAttendance cannot already have an ID");
+                        } else if (!existing.getT1().contains(entity.getRfbEventId())) {
+                            results[i] = BatchItemResultDTO.invalid(offset + i, "Unknown rfbEvent");
+                        } else if (!existing.getT2().contains(entity.getRfbUserId())) {
+                            results[i] = BatchItemResultDTO.invalid(offset + i, "Unknown rfbUser");
+                        } else if (!attendances.add(List.of(entity.getRfbEventId(), entity.getRfbUserId()))) {
+                            results[i] = BatchItemResultDTO.duplicate(offset + i);
+                        } else {
+                            toInsert.add(entity);
+                            toInsertIndexes.add(i);
+                        }
+                    }
+                    return rfbEventAttendanceRepository
+                        .insertAll(toInsert)
+                        .index()
+                        .doOnNext(
+                            inserted -> {
+                                int index = toInsertIndexes.get(inserted.getT1().intValue());
+                                results[index] = BatchItemResultDTO.created(offset + index, inserted.getT2().getId());
+                            }
+                        )
+                        .then(Transactions.afterCommit(() -> cachedCount.update(ALL, count -> count + toInsert.size())))
+                        .then(attendancesChanged(List.of(), toInsert))
+                        // deferred, as Flux.fromArray reads a single element array right away, before the results are set
+                        .thenMany(Flux.defer(() -> Flux.fromArray(results)));
+                }
+            );
+    }
+
     @Override
     public Mono<RfbEventAttendanceDTO> partialUpdate(RfbEventAttendanceDTO rfbEventAttendanceDTO) {
         log.debug("Request to partially update RfbEventAttendance : {}", rfbEventAttendanceDTO);
+        RfbEventAttendance patch = rfbEventAttendanceMapper.toEntity(rfbEventAttendanceDTO);
+        if (patch.getAttendanceDate() == null && patch.getRfbEventId() == null && patch.getRfbUserId() == null) {
+            // nothing which is counted changes, so the row is only read back for the response
+            return rfbEventAttendanceRepository
+                .patch(patch)
+                .flatMap(
+                    updated -> {
+                        if (updated > 0) {
+                            return rfbEventAttendanceRepository.findById(patch.getId());
+                        }
+                        if (rfbEventAttendanceDTO.getVersion() == null) {
+                            return Mono.empty();
+                        }
+                        return rfbEventAttendanceRepository
+                            .existsById(patch.getId())
+                            .filter(Boolean::booleanValue)
+                            .flatMap(exists -> Mono.<RfbEventAttendance>error(concurrentUpdate(patch.getId())));
+                    }
+                )
+                .map(rfbEventAttendanceMapper::toDto);
+        }
 
+        // the patch is applied to the row which was read, so the patched attendance is known without reading it again
         return rfbEventAttendanceRepository
-            .findById(rfbEventAttendanceDTO.getId())
-            .map(
-                existingRfbEventAttendance -> {
-                    rfbEventAttendanceMapper.partialUpdate(existingRfbEventAttendance, rfbEventAttendanceDTO);
-                    return existingRfbEventAttendance;
+            .findById(patch.getId())
+            .flatMap(
+                previous -> {
+                    if (patch.getVersion() != null && !patch.getVersion().equals(previous.getVersion())) {
+                        return Mono.error(concurrentUpdate(patch.getId()));
+                    }
+                    patch.setVersion(previous.getVersion());
+                    return rfbEventAttendanceRepository
+                        .patch(patch)
+                        .flatMap(
+                            updated -> {
+                                if (updated == 0) {
+                                    return Mono.<RfbEventAttendance>error(concurrentUpdate(patch.getId()));
+                                }
+                                RfbEventAttendance patched = merge(previous, patch);
+                                return attendancesChanged(List.of(previous), List.of(patched)).thenReturn(patched);
+                            }
+                        );
                 }
             )
-            .flatMap(rfbEventAttendanceRepository::save)
             .map(rfbEventAttendanceMapper::toDto);
     }
 
+    /**
+     * Returns the attendance with the non-null values of the patch, and the version the patch was saved with.
+     */
+    private static RfbEventAttendance merge(RfbEventAttendance previous, RfbEventAttendance patch) {
+        RfbEventAttendance patched = new RfbEventAttendance();
+        patched.setId(previous.getId());
+        patched.setAttendanceDate(patch.getAttendanceDate() != null ? patch.getAttendanceDate() : previous.getAttendanceDate());
+        RfbEventAttendance event = patch.getRfbEventId() != null ? patch : previous;
+        patched.setRfbEvent(event.getRfbEvent());
+        patched.setRfbEventId(event.getRfbEventId());
+        RfbEventAttendance user = patch.getRfbUserId() != null ? patch : previous;
+        patched.setRfbUser(user.getRfbUser());
+        patched.setRfbUserId(user.getRfbUserId());
+        patched.setVersion(patch.getVersion());
+        return patched;
+    }
+
+    private static OptimisticLockingFailureException concurrentUpdate(Long id) {
+        return new OptimisticLockingFailureException("RfbEventAttendance with id = " + id + " was updated concurrently");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbEventAttendanceDTO> findAll() {
+        log.debug("Request to get all RfbEventAttendances");
+        return rfbEventAttendanceRepository.findAll().map(rfbEventAttendanceMapper::toDto);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Flux<RfbEventAttendanceDTO> findAll(Pageable pageable) {
@@ -65,10 +301,59 @@ public class RfbEventAttendanceServiceImpl implements RfbEventAttendanceService
         return rfbEventAttendanceRepository.findAllBy(pageable).map(rfbEventAttendanceMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbEventAttendanceDTO> findAllAfter(Keyset keyset, int size) {
+        log.debug("Request to get a keyset page of RfbEventAttendances");
+        return rfbEventAttendanceRepository.findAllAfter(keyset, size).map(rfbEventAttendanceMapper::toDto);
+    }
+
     public Mono<Long> countAll() {
         return rfbEventAttendanceRepository.count();
     }
 
+    @Override
+    public Mono<Long> countAllCached() {
+        return cachedCount.get(ALL, all -> rfbEventAttendanceRepository.count());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<RfbEventAttendanceDTO>> findSlice(Pageable pageable) {
+        log.debug("Request to get a slice of RfbEventAttendances");
+        return rfbEventAttendanceRepository
+            .findAllBy(Slices.withLookahead(pageable))
+            .map(rfbEventAttendanceMapper::toDto)
+            .collectList()
+            .map(rows -> Slices.toSlice(rows, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<RfbEventAttendanceDTO>> findSliceByAttendanceDate(LocalDate from, LocalDate to, Pageable pageable) {
+        log.debug("Request to get a slice of RfbEventAttendances from {} to {}", from, to);
+        // a half-open range on the indexed column, so only the index entries of the period are read
+        Criteria criteria = where("attendanceDate").greaterThanOrEquals(from);
+        if (to != null) {
+            criteria = criteria.and("attendanceDate").lessThan(to);
+        }
+        return rfbEventAttendanceRepository
+            .findAllBy(Slices.withLookahead(pageable), criteria)
+            .map(rfbEventAttendanceMapper::toDto)
+            .collectList()
+            .map(rows -> Slices.toSlice(rows, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbEventAttendanceDTO> findAllById(Collection<Long> ids) {
+        log.debug("Request to get RfbEventAttendances : {}", ids);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return rfbEventAttendanceRepository.findAllBy(null, where("id").in(ids)).map(rfbEventAttendanceMapper::toDto);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Mono<RfbEventAttendanceDTO> findOne(Long id) {
@@ -79,6 +364,16 @@ public class RfbEventAttendanceServiceImpl implements RfbEventAttendanceService
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete RfbEventAttendance : {}", id);
-        return rfbEventAttendanceRepository.deleteById(id);
+        return rfbEventAttendanceRepository
+            .findById(id)
+            .flatMap(
+                previous ->
+                    rfbEventAttendanceRepository
+                        .removeById(id)
+                        // a concurrent delete of the same attendance already uncounted it
+                        .filter(deleted -> deleted > 0)
+                        .flatMap(deleted -> attendancesChanged(List.of(previous), List.of()))
+            )
+            .then(Transactions.afterCommit(cachedCount::invalidate));
     }
 }
@@ -1,14 +1,28 @@
 package com.rfb.service.impl;
 
+import static org.springframework.data.relational.core.query.Criteria.where;
+
 import com.rfb.domain.RfbEvent;
 import com.rfb.repository.RfbEventRepository;
+import com.rfb.service.Keyset;
+import com.rfb.service.LeaderboardService;
+import com.rfb.service.LookupCache;
+import com.rfb.service.RfbAttendanceCounterService;
 import com.rfb.service.RfbEventService;
+import com.rfb.service.Slices;
+import com.rfb.service.Transactions;
 import com.rfb.service.dto.RfbEventDTO;
 import com.rfb.service.mapper.RfbEventMapper;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -20,37 +34,143 @@ import reactor.core.publisher.Mono;
 @Transactional
 public class RfbEventServiceImpl implements RfbEventService {
 
+    private static final String ALL = "all";
+
     private final Logger log = LoggerFactory.getLogger(RfbEventServiceImpl.class);
 
     private final RfbEventRepository rfbEventRepository;
 
     private final RfbEventMapper rfbEventMapper;
 
-    public RfbEventServiceImpl(RfbEventRepository rfbEventRepository, RfbEventMapper rfbEventMapper) {
+    private final RfbAttendanceCounterService rfbAttendanceCounterService;
+
+    private final LeaderboardService leaderboardService;
+
+    private final LookupCache<String, Long> cachedCount = new LookupCache<>();
+
+    private final LookupCache<String, Long> idsByEventCode = new LookupCache<>();
+
+    public RfbEventServiceImpl(
+        RfbEventRepository rfbEventRepository,
+        RfbEventMapper rfbEventMapper,
+        RfbAttendanceCounterService rfbAttendanceCounterService,
+        LeaderboardService leaderboardService
+    ) {
         this.rfbEventRepository = rfbEventRepository;
         this.rfbEventMapper = rfbEventMapper;
+        this.rfbAttendanceCounterService = rfbAttendanceCounterService;
+        this.leaderboardService = leaderboardService;
     }
 
     @Override
     public Mono<RfbEventDTO> save(RfbEventDTO rfbEventDTO) {
         log.debug("Request to save RfbEvent : {}", rfbEventDTO);
-        return rfbEventRepository.save(rfbEventMapper.toEntity(rfbEventDTO)).map(rfbEventMapper::toDto);
+        RfbEvent rfbEvent = rfbEventMapper.toEntity(rfbEventDTO);
+        if (rfbEvent.getId() != null) {
+            return rfbEventRepository
+                .findById(rfbEvent.getId())
+                .flatMap(
+                    previous ->
+                        rfbEventRepository
+                            .save(rfbEvent)
+                            .flatMap(saved -> eventMoved(previous, saved).thenReturn(saved))
+                )
+                .switchIfEmpty(Mono.defer(() -> rfbEventRepository.save(rfbEvent)))
+                .map(rfbEventMapper::toDto)
+                .flatMap(saved -> Transactions.afterCommit(idsByEventCode::invalidate).thenReturn(saved));
+        }
+        return rfbEventRepository
+            .save(rfbEvent)
+            .map(rfbEventMapper::toDto)
+            .flatMap(saved -> Transactions.afterCommit(() -> created(1)).thenReturn(saved));
+    }
+
+    /**
+     * Moves the counted and ranked attendances of the rfbEvent, if it was moved to another rfbLocation.
+     */
+    private Mono<Void> eventMoved(RfbEvent previous, RfbEvent updated) {
+        return rfbAttendanceCounterService
+            .moveEvent(updated.getId(), previous.getRfbLocationId(), updated.getRfbLocationId())
+            .then(leaderboardService.moveEvent(updated.getId(), previous.getRfbLocationId(), updated.getRfbLocationId()));
+    }
+
+    @Override
+    public Flux<RfbEventDTO> createAll(List<RfbEventDTO> rfbEventDTOs) {
+        log.debug("Request to create a batch of {} RfbEvents", rfbEventDTOs.size());
+        List<RfbEvent> entities = rfbEventDTOs.stream().map(rfbEventMapper::toEntity).collect(Collectors.toList());
+        return rfbEventRepository
+            .insertAll(entities)
+            .map(rfbEventMapper::toDto)
+            .concatWith(Transactions.afterCommit(() -> created(entities.size())).then(Mono.empty()));
+    }
+
+    /**
+     * Counts the created rfbEvents, and forgets the cached codes, as a created rfbEvent may reuse the code of an older one.
+     */
+    private void created(int created) {
+        cachedCount.update(ALL, count -> count + created);
+        idsByEventCode.invalidate();
     }
 
     @Override
     public Mono<RfbEventDTO> partialUpdate(RfbEventDTO rfbEventDTO) {
         log.debug("Request to partially update RfbEvent : {}", rfbEventDTO);
+        RfbEvent patch = rfbEventMapper.toEntity(rfbEventDTO);
+        if (patch.getRfbLocationId() == null) {
+            return rfbEventRepository
+                .patch(patch)
+                .flatMap(
+                    updated -> {
+                        if (updated > 0) {
+                            return rfbEventRepository.findById(rfbEventDTO.getId());
+                        }
+                        if (rfbEventDTO.getVersion() == null) {
+                            return Mono.empty();
+                        }
+                        return rfbEventRepository
+                            .existsById(rfbEventDTO.getId())
+                            .filter(Boolean::booleanValue)
+                            .flatMap(exists -> Mono.<RfbEvent>error(concurrentUpdate(rfbEventDTO.getId())));
+                    }
+                )
+                .map(rfbEventMapper::toDto)
+                .flatMap(updated -> Transactions.afterCommit(idsByEventCode::invalidate).thenReturn(updated));
+        }
 
+        // the location may change, so the patch is applied to the row which was read, to know where the attendances were counted
         return rfbEventRepository
-            .findById(rfbEventDTO.getId())
-            .map(
-                existingRfbEvent -> {
-                    rfbEventMapper.partialUpdate(existingRfbEvent, rfbEventDTO);
-                    return existingRfbEvent;
+            .findById(patch.getId())
+            .flatMap(
+                previous -> {
+                    if (patch.getVersion() != null && !patch.getVersion().equals(previous.getVersion())) {
+                        return Mono.error(concurrentUpdate(patch.getId()));
+                    }
+                    patch.setVersion(previous.getVersion());
+                    return rfbEventRepository
+                        .patch(patch)
+                        .flatMap(
+                            updated -> {
+                                if (updated == 0) {
+                                    return Mono.<RfbEvent>error(concurrentUpdate(patch.getId()));
+                                }
+                                return eventMoved(previous, patch).then(rfbEventRepository.findById(patch.getId()));
+                            }
+                        );
                 }
             )
-            .flatMap(rfbEventRepository::save)
-            .map(rfbEventMapper::toDto);
+            .map(rfbEventMapper::toDto)
+            .flatMap(updated -> Transactions.afterCommit(idsByEventCode::invalidate).thenReturn(updated));
+    }
+
+    private static OptimisticLockingFailureException concurrentUpdate(Long id) {
+        return new OptimisticLockingFailureException("RfbEvent with id = " + id + " was updated concurrently");
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbEventDTO> findAll() {
+        log.debug("Request to get all RfbEvents");
+        return rfbEventRepository.findAll().map(rfbEventMapper::toDto);
     }
 
     @Override
@@ -60,10 +180,43 @@ public class RfbEventServiceImpl implements RfbEventService {
         return rfbEventRepository.findAllBy(pageable).map(rfbEventMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbEventDTO> findAllAfter(Keyset keyset, int size) {
+        log.debug("Request to get a keyset page of RfbEvents");
+        return rfbEventRepository.findAllAfter(keyset, size).map(rfbEventMapper::toDto);
+    }
+
     public Mono<Long> countAll() {
         return rfbEventRepository.count();
     }
 
+    @Override
+    public Mono<Long> countAllCached() {
+        return cachedCount.get(ALL, all -> rfbEventRepository.count());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<RfbEventDTO>> findSlice(Pageable pageable) {
+        log.debug("Request to get a slice of RfbEvents");
+        return rfbEventRepository
+            .findAllBy(Slices.withLookahead(pageable))
+            .map(rfbEventMapper::toDto)
+            .collectList()
+            .map(rows -> Slices.toSlice(rows, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbEventDTO> findAllById(Collection<Long> ids) {
+        log.debug("Request to get RfbEvents : {}", ids);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return rfbEventRepository.findAllBy(null, where("id").in(ids)).map(rfbEventMapper::toDto);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Mono<RfbEventDTO> findOne(Long id) {
@@ -71,9 +224,25 @@ public class RfbEventServiceImpl implements RfbEventService {
         return rfbEventRepository.findById(id).map(rfbEventMapper::toDto);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS) // a cached id doesn't need a connection
+    public Mono<Long> findIdByEventCode(String eventCode) {
+        log.debug("Request to get the id of the RfbEvent with the code : {}", eventCode);
+        return idsByEventCode.get(eventCode, rfbEventRepository::findIdByEventCode);
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete RfbEvent : {}", id);
-        return rfbEventRepository.deleteById(id);
+        return rfbEventRepository
+            .deleteById(id)
+            .then(
+                Transactions.afterCommit(
+                    () -> {
+                        cachedCount.invalidate();
+                        idsByEventCode.invalidate();
+                    }
+                )
+            );
     }
 }
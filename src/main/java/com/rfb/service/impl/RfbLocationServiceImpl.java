@@ -1,13 +1,30 @@
 package com.rfb.service.impl;
 
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEvent;
 import com.rfb.domain.RfbLocation;
+import com.rfb.repository.BatchLoader;
+import com.rfb.repository.RfbEventRepository;
+import com.rfb.repository.RfbLocationCache;
 import com.rfb.repository.RfbLocationRepository;
+import com.rfb.service.Keyset;
+import com.rfb.service.LookupCache;
 import com.rfb.service.RfbLocationService;
+import com.rfb.service.Slices;
+import com.rfb.service.Transactions;
 import com.rfb.service.dto.RfbLocationDTO;
+import com.rfb.service.mapper.RfbEventMapper;
 import com.rfb.service.mapper.RfbLocationMapper;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
@@ -20,21 +37,66 @@ import reactor.core.publisher.Mono;
 @Transactional
 public class RfbLocationServiceImpl implements RfbLocationService {
 
+    private static final String ALL = "all";
+
     private final Logger log = LoggerFactory.getLogger(RfbLocationServiceImpl.class);
 
     private final RfbLocationRepository rfbLocationRepository;
 
     private final RfbLocationMapper rfbLocationMapper;
 
-    public RfbLocationServiceImpl(RfbLocationRepository rfbLocationRepository, RfbLocationMapper rfbLocationMapper) {
+    private final RfbEventMapper rfbEventMapper;
+
+    private final BatchLoader<RfbEvent> rvbEventsLoader;
+
+    private final RfbLocationCache rfbLocationCache;
+
+    private final LookupCache<String, Long> cachedCount = new LookupCache<>();
+
+    public RfbLocationServiceImpl(
+        RfbLocationRepository rfbLocationRepository,
+        RfbLocationMapper rfbLocationMapper,
+        RfbLocationCache rfbLocationCache,
+        RfbEventRepository rfbEventRepository,
+        RfbEventMapper rfbEventMapper,
+        ApplicationProperties applicationProperties
+    ) {
         this.rfbLocationRepository = rfbLocationRepository;
         this.rfbLocationMapper = rfbLocationMapper;
+        this.rfbLocationCache = rfbLocationCache;
+        this.rfbEventMapper = rfbEventMapper;
+        this.rvbEventsLoader =
+            new BatchLoader<>(
+                ids -> rfbEventRepository.findAllBy(null, where("rfbLocationId").in(ids)),
+                RfbEvent::getRfbLocationId,
+                applicationProperties.getBatch().getChunkSize()
+            );
     }
 
     @Override
     public Mono<RfbLocationDTO> save(RfbLocationDTO rfbLocationDTO) {
         log.debug("Request to save RfbLocation : {}", rfbLocationDTO);
-        return rfbLocationRepository.save(rfbLocationMapper.toEntity(rfbLocationDTO)).map(rfbLocationMapper::toDto);
+        boolean created = rfbLocationDTO.getId() == null;
+        return rfbLocationRepository
+            .save(rfbLocationMapper.toEntity(rfbLocationDTO))
+            .map(rfbLocationMapper::toDto)
+            // a created location is loaded by the rfbLocationCache once it's missing
+            .flatMap(
+                saved ->
+                    Transactions
+                        .afterCommit(created ? () -> cachedCount.update(ALL, count -> count + 1) : rfbLocationCache::invalidate)
+                        .thenReturn(saved)
+            );
+    }
+
+    @Override
+    public Flux<RfbLocationDTO> createAll(List<RfbLocationDTO> rfbLocationDTOs) {
+        log.debug("Request to create a batch of {} RfbLocations", rfbLocationDTOs.size());
+        List<RfbLocation> entities = rfbLocationDTOs.stream().map(rfbLocationMapper::toEntity).collect(Collectors.toList());
+        return rfbLocationRepository
+            .insertAll(entities)
+            .map(rfbLocationMapper::toDto)
+            .concatWith(Transactions.afterCommit(() -> cachedCount.update(ALL, count -> count + entities.size())).then(Mono.empty()));
     }
 
     @Override
@@ -42,15 +104,37 @@ public class RfbLocationServiceImpl implements RfbLocationService {
         log.debug("Request to partially update RfbLocation : {}", rfbLocationDTO);
 
         return rfbLocationRepository
-            .findById(rfbLocationDTO.getId())
-            .map(
-                existingRfbLocation -> {
-                    rfbLocationMapper.partialUpdate(existingRfbLocation, rfbLocationDTO);
-                    return existingRfbLocation;
+            .patch(rfbLocationMapper.toEntity(rfbLocationDTO))
+            .flatMap(
+                updated -> {
+                    if (updated > 0) {
+                        return rfbLocationRepository.findById(rfbLocationDTO.getId());
+                    }
+                    if (rfbLocationDTO.getVersion() == null) {
+                        return Mono.empty();
+                    }
+                    return rfbLocationRepository
+                        .existsById(rfbLocationDTO.getId())
+                        .filter(Boolean::booleanValue)
+                        .flatMap(
+                            exists ->
+                                Mono.<RfbLocation>error(
+                                    new OptimisticLockingFailureException(
+                                        "RfbLocation with id = " + rfbLocationDTO.getId() + " was updated concurrently"
+                                    )
+                                )
+                        );
                 }
             )
-            .flatMap(rfbLocationRepository::save)
-            .map(rfbLocationMapper::toDto);
+            .map(rfbLocationMapper::toDto)
+            .flatMap(updated -> Transactions.afterCommit(rfbLocationCache::invalidate).thenReturn(updated));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbLocationDTO> findAll() {
+        log.debug("Request to get all RfbLocations");
+        return rfbLocationRepository.findAll().map(rfbLocationMapper::toDto);
     }
 
     @Override
@@ -60,10 +144,43 @@ public class RfbLocationServiceImpl implements RfbLocationService {
         return rfbLocationRepository.findAllBy(pageable).map(rfbLocationMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbLocationDTO> findAllAfter(Keyset keyset, int size) {
+        log.debug("Request to get a keyset page of RfbLocations");
+        return rfbLocationRepository.findAllAfter(keyset, size).map(rfbLocationMapper::toDto);
+    }
+
     public Mono<Long> countAll() {
         return rfbLocationRepository.count();
     }
 
+    @Override
+    public Mono<Long> countAllCached() {
+        return cachedCount.get(ALL, all -> rfbLocationRepository.count());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<RfbLocationDTO>> findSlice(Pageable pageable) {
+        log.debug("Request to get a slice of RfbLocations");
+        return rfbLocationRepository
+            .findAllBy(Slices.withLookahead(pageable))
+            .map(rfbLocationMapper::toDto)
+            .collectList()
+            .map(rows -> Slices.toSlice(rows, pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbLocationDTO> findAllById(Collection<Long> ids) {
+        log.debug("Request to get RfbLocations : {}", ids);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return rfbLocationRepository.findAllBy(null, where("id").in(ids)).map(rfbLocationMapper::toDto);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Mono<RfbLocationDTO> findOne(Long id) {
@@ -71,9 +188,29 @@ public class RfbLocationServiceImpl implements RfbLocationService {
         return rfbLocationRepository.findById(id).map(rfbLocationMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbLocationDTO> loadRvbEvents(Flux<RfbLocationDTO> rfbLocationDTOs) {
+        log.debug("Request to load the RfbEvents of RfbLocations");
+        return rvbEventsLoader.load(
+            rfbLocationDTOs,
+            RfbLocationDTO::getId,
+            (rfbLocationDTO, rfbEvents) -> rfbLocationDTO.setRvbEvents(rfbEventMapper.toDto(rfbEvents))
+        );
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete RfbLocation : {}", id);
-        return rfbLocationRepository.deleteById(id);
+        return rfbLocationRepository
+            .deleteById(id)
+            .then(
+                Transactions.afterCommit(
+                    () -> {
+                        cachedCount.invalidate();
+                        rfbLocationCache.invalidate();
+                    }
+                )
+            );
     }
 }
@@ -1,16 +1,29 @@
 package com.rfb.service.impl;
 
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEventAttendance;
 import com.rfb.domain.RfbUser;
+import com.rfb.repository.BatchLoader;
+import com.rfb.repository.RfbEventAttendanceRepository;
 import com.rfb.repository.RfbUserRepository;
+import com.rfb.service.Keyset;
+import com.rfb.service.LookupCache;
 import com.rfb.service.RfbUserService;
+import com.rfb.service.Transactions;
 import com.rfb.service.dto.RfbUserDTO;
+import com.rfb.service.mapper.RfbEventAttendanceMapper;
 import com.rfb.service.mapper.RfbUserMapper;
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -28,15 +41,48 @@ public class RfbUserServiceImpl implements RfbUserService {
 
     private final RfbUserMapper rfbUserMapper;
 
-    public RfbUserServiceImpl(RfbUserRepository rfbUserRepository, RfbUserMapper rfbUserMapper) {
+    private final RfbEventAttendanceMapper rfbEventAttendanceMapper;
+
+    private final BatchLoader<RfbEventAttendance> rfbEventAttendancesLoader;
+
+    private final LookupCache<String, Long> idsByUsername = new LookupCache<>();
+
+    public RfbUserServiceImpl(
+        RfbUserRepository rfbUserRepository,
+        RfbUserMapper rfbUserMapper,
+        RfbEventAttendanceRepository rfbEventAttendanceRepository,
+        RfbEventAttendanceMapper rfbEventAttendanceMapper,
+        ApplicationProperties applicationProperties
+    ) {
         this.rfbUserRepository = rfbUserRepository;
         this.rfbUserMapper = rfbUserMapper;
+        this.rfbEventAttendanceMapper = rfbEventAttendanceMapper;
+        this.rfbEventAttendancesLoader =
+            new BatchLoader<>(
+                ids -> rfbEventAttendanceRepository.findAllBy(null, where("rfbUserId").in(ids)),
+                RfbEventAttendance::getRfbUserId,
+                applicationProperties.getBatch().getChunkSize()
+            );
     }
 
     @Override
     public Mono<RfbUserDTO> save(RfbUserDTO rfbUserDTO) {
         log.debug("Request to save RfbUser : {}", rfbUserDTO);
-        return rfbUserRepository.save(rfbUserMapper.toEntity(rfbUserDTO)).map(rfbUserMapper::toDto);
+        // a created rfbUser may reuse the username of an older one, which must no longer be found
+        return rfbUserRepository
+            .save(rfbUserMapper.toEntity(rfbUserDTO))
+            .map(rfbUserMapper::toDto)
+            .flatMap(saved -> Transactions.afterCommit(idsByUsername::invalidate).thenReturn(saved));
+    }
+
+    @Override
+    public Flux<RfbUserDTO> createAll(List<RfbUserDTO> rfbUserDTOs) {
+        log.debug("Request to create a batch of {} RfbUsers", rfbUserDTOs.size());
+        List<RfbUser> entities = rfbUserDTOs.stream().map(rfbUserMapper::toEntity).collect(Collectors.toList());
+        return rfbUserRepository
+            .insertAll(entities)
+            .map(rfbUserMapper::toDto)
+            .concatWith(Transactions.afterCommit(idsByUsername::invalidate).then(Mono.empty()));
     }
 
     @Override
@@ -44,15 +90,30 @@ public class RfbUserServiceImpl implements RfbUserService {
         log.debug("Request to partially update RfbUser : {}", rfbUserDTO);
 
         return rfbUserRepository
-            .findById(rfbUserDTO.getId())
-            .map(
-                existingRfbUser -> {
-                    rfbUserMapper.partialUpdate(existingRfbUser, rfbUserDTO);
-                    return existingRfbUser;
+            .patch(rfbUserMapper.toEntity(rfbUserDTO))
+            .flatMap(
+                updated -> {
+                    if (updated > 0) {
+                        return rfbUserRepository.findById(rfbUserDTO.getId());
+                    }
+                    if (rfbUserDTO.getVersion() == null) {
+                        return Mono.empty();
+                    }
+                    return rfbUserRepository
+                        .existsById(rfbUserDTO.getId())
+                        .filter(Boolean::booleanValue)
+                        .flatMap(
+                            exists ->
+                                Mono.<RfbUser>error(
+                                    new OptimisticLockingFailureException(
+                                        "RfbUser with id = " + rfbUserDTO.getId() + " was updated concurrently"
+                                    )
+                                )
+                        );
                 }
             )
-            .flatMap(rfbUserRepository::save)
-            .map(rfbUserMapper::toDto);
+            .map(rfbUserMapper::toDto)
+            .flatMap(updated -> Transactions.afterCommit(idsByUsername::invalidate).thenReturn(updated));
     }
 
     @Override
@@ -62,10 +123,27 @@ public class RfbUserServiceImpl implements RfbUserService {
         return rfbUserRepository.findAll().map(rfbUserMapper::toDto);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbUserDTO> findAllAfter(Keyset keyset, int size) {
+        log.debug("Request to get a keyset page of RfbUsers");
+        return rfbUserRepository.findAllAfter(keyset, size).map(rfbUserMapper::toDto);
+    }
+
     public Mono<Long> countAll() {
         return rfbUserRepository.count();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbUserDTO> findAllById(Collection<Long> ids) {
+        log.debug("Request to get RfbUsers : {}", ids);
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return rfbUserRepository.findAllBy(null, where("id").in(ids)).map(rfbUserMapper::toDto);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Mono<RfbUserDTO> findOne(Long id) {
@@ -73,9 +151,27 @@ public class RfbUserServiceImpl implements RfbUserService {
         return rfbUserRepository.findById(id).map(rfbUserMapper::toDto);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS) // a cached id doesn't need a connection
+    public Mono<Long> findIdByUsername(String username) {
+        log.debug("Request to get the id of the RfbUser with the username : {}", username);
+        return idsByUsername.get(username, rfbUserRepository::findIdByUsername);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<RfbUserDTO> loadRfbEventAttendances(Flux<RfbUserDTO> rfbUserDTOs) {
+        log.debug("Request to load the RfbEventAttendances of RfbUsers");
+        return rfbEventAttendancesLoader.load(
+            rfbUserDTOs,
+            RfbUserDTO::getId,
+            (rfbUserDTO, rfbEventAttendances) -> rfbUserDTO.setRfbEventAttendances(rfbEventAttendanceMapper.toDto(rfbEventAttendances))
+        );
+    }
+
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete RfbUser : {}", id);
-        return rfbUserRepository.deleteById(id);
+        return rfbUserRepository.deleteById(id).then(Transactions.afterCommit(idsByUsername::invalidate));
     }
 }
@@ -0,0 +1,164 @@
+package com.rfb.service.impl;
+
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.repository.RfbEventAttendanceRepository;
+import com.rfb.service.StreakCalendar;
+import com.rfb.service.StreakService;
+import com.rfb.service.Transactions;
+import com.rfb.service.dto.StreakDTO;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service Implementation for the weekly streaks.
+ * <p>
+ * The calendar of a user is loaded from its attendances when its streaks are first requested, and then updated with the attendances
+ * created by this instance of the application; a deleted or updated attendance drops the calendar, so it's loaded again. The calendars
+ * of many users are loaded with a single query per chunk of users.
+ */
+@Service
+public class StreakServiceImpl implements StreakService {
+
+    private final Logger log = LoggerFactory.getLogger(StreakServiceImpl.class);
+
+    private final RfbEventAttendanceRepository rfbEventAttendanceRepository;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Clock clock = Clock.systemDefaultZone();
+
+    // a calendar which is still loading is updated once it's loaded, so the attendances created meanwhile are not lost
+    private final ConcurrentMap<Long, Mono<StreakCalendar>> calendars = new ConcurrentHashMap<>();
+
+    public StreakServiceImpl(RfbEventAttendanceRepository rfbEventAttendanceRepository, ApplicationProperties applicationProperties) {
+        this.rfbEventAttendanceRepository = rfbEventAttendanceRepository;
+        this.applicationProperties = applicationProperties;
+    }
+
+    @Override
+    public Mono<Void> update(Collection<RfbEventAttendance> removed, Collection<RfbEventAttendance> added) {
+        if (keysOf(removed).equals(keysOf(added))) {
+            return Mono.empty();
+        }
+        return Transactions.afterCommit(
+            () -> {
+                removed.stream().map(RfbEventAttendance::getRfbUserId).filter(Objects::nonNull).forEach(calendars::remove);
+                for (RfbEventAttendance attendance : added) {
+                    Mono<StreakCalendar> calendar = attendance.getRfbUserId() != null && attendance.getAttendanceDate() != null
+                        ? calendars.get(attendance.getRfbUserId())
+                        : null;
+                    if (calendar != null) {
+                        long week = StreakCalendar.weekOf(attendance.getAttendanceDate());
+                        calendar.subscribe(loaded -> loaded.add(week), error -> {});
+                    }
+                }
+            }
+        );
+    }
+
+    private static Map<List<Object>, Long> keysOf(Collection<RfbEventAttendance> attendances) {
+        return attendances
+            .stream()
+            .collect(
+                Collectors.groupingBy(
+                    attendance -> Arrays.asList(attendance.getRfbUserId(), attendance.getAttendanceDate()),
+                    Collectors.counting()
+                )
+            );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<StreakDTO> findOne(Long rfbUserId, int lastWeeks) {
+        log.debug("Request to get the Streaks of RfbUser : {}", rfbUserId);
+        return findAll(List.of(rfbUserId), lastWeeks).next();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<StreakDTO> findAll(Collection<Long> rfbUserIds, int lastWeeks) {
+        log.debug("Request to get the Streaks of RfbUsers : {}", rfbUserIds);
+        return Flux.defer(
+            () -> {
+                List<Long> ids = new ArrayList<>(new LinkedHashSet<>(rfbUserIds));
+                Map<Long, Mono<StreakCalendar>> found = load(ids);
+                long currentWeek = StreakCalendar.weekOf(LocalDate.now(clock));
+                return Flux
+                    .fromIterable(ids)
+                    .concatMap(rfbUserId -> found.get(rfbUserId).map(calendar -> toDto(rfbUserId, calendar, currentWeek, lastWeeks)));
+            }
+        );
+    }
+
+    /**
+     * Gets the calendars of the users, and starts loading the missing ones with a single query per chunk.
+     */
+    private Map<Long, Mono<StreakCalendar>> load(List<Long> rfbUserIds) {
+        Map<Long, Mono<StreakCalendar>> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long rfbUserId : rfbUserIds) {
+            Mono<StreakCalendar> calendar = calendars.get(rfbUserId);
+            if (calendar != null) {
+                found.put(rfbUserId, calendar);
+            } else {
+                missing.add(rfbUserId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+        Map<Long, Mono<StreakCalendar>> loading = new HashMap<>();
+        Mono<Map<Long, StreakCalendar>> loaded = Flux
+            .fromIterable(missing)
+            .buffer(applicationProperties.getBatch().getChunkSize())
+            .concatMap(rfbEventAttendanceRepository::findAllByRfbUserIdIn)
+            .collect(
+                () -> missing.stream().collect(Collectors.toMap(rfbUserId -> rfbUserId, rfbUserId -> new StreakCalendar())),
+                (calendarsByUser, attendance) -> {
+                    if (attendance.getAttendanceDate() != null) {
+                        calendarsByUser.get(attendance.getRfbUserId()).add(StreakCalendar.weekOf(attendance.getAttendanceDate()));
+                    }
+                }
+            )
+            // the calendars are loaded again by the next request
+            .doOnError(error -> loading.forEach(calendars::remove))
+            .cache();
+        for (Long rfbUserId : missing) {
+            Mono<StreakCalendar> calendar = loaded.map(calendarsByUser -> calendarsByUser.get(rfbUserId));
+            Mono<StreakCalendar> existing = calendars.putIfAbsent(rfbUserId, calendar);
+            if (existing == null) {
+                loading.put(rfbUserId, calendar);
+            }
+            found.put(rfbUserId, existing != null ? existing : calendar);
+        }
+        return found;
+    }
+
+    private static StreakDTO toDto(Long rfbUserId, StreakCalendar calendar, long currentWeek, int lastWeeks) {
+        StreakDTO streakDTO = new StreakDTO();
+        streakDTO.setRfbUserId(rfbUserId);
+        streakDTO.setCurrentStreak(calendar.getCurrentStreak(currentWeek));
+        streakDTO.setLongestStreak(calendar.getLongestStreak());
+        streakDTO.setLastWeeks(lastWeeks);
+        streakDTO.setAttendedWeeks(calendar.countWeeks(currentWeek - lastWeeks + 1, currentWeek + 1));
+        return streakDTO;
+    }
+}
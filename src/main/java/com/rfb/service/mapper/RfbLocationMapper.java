@@ -9,6 +9,18 @@ import org.mapstruct.*;
  */
 @Mapper(componentModel = "spring", uses = {})
 public interface RfbLocationMapper extends EntityMapper<RfbLocationDTO, RfbLocation> {
+    @Mapping(target = "rvbEvents", ignore = true)
+    RfbLocationDTO toDto(RfbLocation s);
+
+    @Mapping(target = "rvbEvents", ignore = true)
+    RfbLocation toEntity(RfbLocationDTO rfbLocationDTO);
+
+    @Override
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "rvbEvents", ignore = true)
+    void partialUpdate(@MappingTarget RfbLocation entity, RfbLocationDTO dto);
+
     @Named("id")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
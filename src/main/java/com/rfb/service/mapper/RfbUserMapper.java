@@ -10,8 +10,18 @@ import org.mapstruct.*;
 @Mapper(componentModel = "spring", uses = { RfbLocationMapper.class })
 public interface RfbUserMapper extends EntityMapper<RfbUserDTO, RfbUser> {
     @Mapping(target = "homeLocation", source = "homeLocation", qualifiedByName = "id")
+    @Mapping(target = "rfbEventAttendances", ignore = true)
     RfbUserDTO toDto(RfbUser s);
 
+    @Mapping(target = "rfbEventAttendances", ignore = true)
+    RfbUser toEntity(RfbUserDTO rfbUserDTO);
+
+    @Override
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "rfbEventAttendances", ignore = true)
+    void partialUpdate(@MappingTarget RfbUser entity, RfbUserDTO dto);
+
     @Named("id")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
@@ -0,0 +1,52 @@
+package com.rfb.web.rest;
+
+import com.rfb.security.AuthoritiesConstants;
+import com.rfb.service.AttendanceArchiveService;
+import com.rfb.service.dto.RfbEventAttendanceDTO;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for the archived rfbEventAttendances, which were moved out of the database.
+ */
+@RestController
+@RequestMapping("/api/attendance-archive")
+public class AttendanceArchiveResource {
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceArchiveResource.class);
+
+    private final AttendanceArchiveService attendanceArchiveService;
+
+    public AttendanceArchiveResource(AttendanceArchiveService attendanceArchiveService) {
+        this.attendanceArchiveService = attendanceArchiveService;
+    }
+
+    /**
+     * {@code GET  /attendance-archive/users/:rfbUserId} : get the archived rfbEventAttendances of a rfbUser.
+     *
+     * @param rfbUserId the id of the rfbUser.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbEventAttendances in body.
+     */
+    @GetMapping("/users/{rfbUserId}")
+    public Mono<List<RfbEventAttendanceDTO>> getArchivedRfbEventAttendances(@PathVariable Long rfbUserId) {
+        log.debug("REST request to get the archived RfbEventAttendances of RfbUser : {}", rfbUserId);
+        return attendanceArchiveService.findAllByRfbUserId(rfbUserId).collectList();
+    }
+
+    /**
+     * {@code POST  /attendance-archive} : archive the rfbEventAttendances older than the configured horizon now.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<Void>> archiveRfbEventAttendances() {
+        log.debug("REST request to archive the old RfbEventAttendances");
+        return attendanceArchiveService.archive().map(archived -> ResponseEntity.noContent().build());
+    }
+}
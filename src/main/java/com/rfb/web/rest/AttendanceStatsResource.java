@@ -0,0 +1,57 @@
+package com.rfb.web.rest;
+
+import com.rfb.service.AttendanceStatsService;
+import com.rfb.service.dto.AttendanceStatsDTO;
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import java.time.LocalDate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for the attendance statistics, e.g. of a stats page.
+ */
+@RestController
+@RequestMapping("/api/attendance-stats")
+public class AttendanceStatsResource {
+
+    private final Logger log = LoggerFactory.getLogger(AttendanceStatsResource.class);
+
+    private static final String ENTITY_NAME = "attendanceStats";
+
+    static final int MAX_TOP = 1000;
+
+    private final AttendanceStatsService attendanceStatsService;
+
+    public AttendanceStatsResource(AttendanceStatsService attendanceStatsService) {
+        this.attendanceStatsService = attendanceStatsService;
+    }
+
+    /**
+     * {@code GET  /attendance-stats?from=:from&to=:to} : get the number of attendances of a period per rfbUser, rfbLocation and day of
+     * the week.
+     *
+     * @param from the first day of the period.
+     * @param to the first day after the period.
+     * @param top the maximum number of top rfbUsers.
+     * @return the {@link org.springframework.http.ResponseEntity} with status {@code 200 (OK)} and with body the attendanceStatsDTO, or
+     * with status {@code 400 (Bad Request)} if the period is empty.
+     */
+    @GetMapping("")
+    public Mono<AttendanceStatsDTO> getAttendanceStats(
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(defaultValue = "10") int top
+    ) {
+        log.debug("REST request to get the attendance statistics from {} to {}", from, to);
+        if (!from.isBefore(to)) {
+            throw new BadRequestAlertException("The period is empty", ENTITY_NAME, "periodinvalid");
+        }
+        if (top < 0 || top > MAX_TOP) {
+            throw new BadRequestAlertException("Invalid number of top users", ENTITY_NAME, "topinvalid");
+        }
+        return attendanceStatsService.getStats(from, to, top);
+    }
+}
@@ -0,0 +1,68 @@
+package com.rfb.web.rest;
+
+import com.rfb.security.AuthoritiesConstants;
+import com.rfb.service.CsvImportService;
+import com.rfb.service.dto.ImportProgressDTO;
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+/**
+ * REST controller for importing CSV content, e.g. the data of another club.
+ */
+@RestController
+@RequestMapping("/api/imports")
+public class CsvImportResource {
+
+    private final Logger log = LoggerFactory.getLogger(CsvImportResource.class);
+
+    private static final String ENTITY_NAME = "csvImport";
+
+    static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final CsvImportService csvImportService;
+
+    public CsvImportResource(CsvImportService csvImportService) {
+        this.csvImportService = csvImportService;
+    }
+
+    /**
+     * {@code POST  /imports/:type} : import CSV content, which starts with a header of the column names, see
+     * {@link CsvImportService.Type} for the columns of every type. The upload is streamed, so its size is not limited.
+     *
+     * @param type the imported entities: {@code locations}, {@code events}, {@code users} or {@code attendances}.
+     * @param delimiter the delimiter of the values.
+     * @param content the CSV content.
+     * @return the {@link org.springframework.http.ResponseEntity} with status {@code 200 (OK)} and the progress after every batch in
+     * body, as newline delimited JSON, or with status {@code 400 (Bad Request)} if the type is unknown or the header misses a required
+     * column.
+     */
+    @PostMapping(
+        value = "/{type}",
+        consumes = { TEXT_CSV_VALUE, MediaType.TEXT_PLAIN_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Flux<ImportProgressDTO> importCsv(
+        @PathVariable String type,
+        @RequestParam(defaultValue = ";") char delimiter,
+        @RequestBody Flux<DataBuffer> content
+    ) {
+        log.debug("REST request to import CSV content of type : {}", type);
+        CsvImportService.Type importType;
+        try {
+            importType = CsvImportService.Type.valueOf(type.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid import type", ENTITY_NAME, "typeinvalid");
+        }
+        return csvImportService
+            .importCsv(importType, content, delimiter)
+            .onErrorMap(IllegalArgumentException.class, e -> new BadRequestAlertException(e.getMessage(), ENTITY_NAME, "csvinvalid"));
+    }
+}
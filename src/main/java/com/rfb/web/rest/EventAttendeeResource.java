@@ -0,0 +1,66 @@
+package com.rfb.web.rest;
+
+import com.rfb.service.EventAttendeeService;
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import com.rfb.web.rest.util.MultiGetUtil;
+import java.util.List;
+import java.util.Locale;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for the set queries over the attendees of the rfbEvents, e.g. who attended event A but not B.
+ */
+@RestController
+@RequestMapping("/api/event-attendees")
+public class EventAttendeeResource {
+
+    private final Logger log = LoggerFactory.getLogger(EventAttendeeResource.class);
+
+    private static final String ENTITY_NAME = "eventAttendee";
+
+    private final EventAttendeeService eventAttendeeService;
+
+    public EventAttendeeResource(EventAttendeeService eventAttendeeService) {
+        this.eventAttendeeService = eventAttendeeService;
+    }
+
+    /**
+     * {@code GET  /event-attendees/:operation?ids=:ids} : get the rfbUsers who attended all ({@code and}), any ({@code or}) of the
+     * rfbEvents, or the first one but none of the others ({@code andnot}).
+     *
+     * @param operation the set operation: {@code and}, {@code or} or {@code andnot}.
+     * @param ids the ids of the rfbEvents.
+     * @return the {@link org.springframework.http.ResponseEntity} with status {@code 200 (OK)} and the ids of the rfbUsers in body, in
+     * ascending order.
+     */
+    @GetMapping("/{operation}")
+    public Mono<List<Long>> getAttendees(@PathVariable String operation, @RequestParam(MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get the attendees of the {} of RfbEvents : {}", operation, ids);
+        return eventAttendeeService.findAttendees(parseOperation(operation), MultiGetUtil.parseIds(ids, ENTITY_NAME));
+    }
+
+    /**
+     * {@code GET  /event-attendees/:operation/count?ids=:ids} : count the rfbUsers of a set operation across rfbEvents, e.g. the
+     * unique runners of a series with {@code or}.
+     *
+     * @param operation the set operation: {@code and}, {@code or} or {@code andnot}.
+     * @param ids the ids of the rfbEvents.
+     * @return the {@link org.springframework.http.ResponseEntity} with status {@code 200 (OK)} and the number of rfbUsers in body.
+     */
+    @GetMapping("/{operation}/count")
+    public Mono<Long> countAttendees(@PathVariable String operation, @RequestParam(MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to count the attendees of the {} of RfbEvents : {}", operation, ids);
+        return eventAttendeeService.countAttendees(parseOperation(operation), MultiGetUtil.parseIds(ids, ENTITY_NAME));
+    }
+
+    private static EventAttendeeService.Operation parseOperation(String operation) {
+        try {
+            return EventAttendeeService.Operation.valueOf(operation.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid operation", ENTITY_NAME, "operationinvalid");
+        }
+    }
+}
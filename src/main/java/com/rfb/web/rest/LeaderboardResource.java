@@ -0,0 +1,98 @@
+package com.rfb.web.rest;
+
+import com.rfb.service.Leaderboard;
+import com.rfb.service.LeaderboardService;
+import com.rfb.service.dto.LeaderboardEntryDTO;
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import tech.jhipster.web.util.reactive.ResponseUtil;
+
+/**
+ * REST controller for reading the {@link Leaderboard}s of the rfbUsers, globally or at a rfbLocation.
+ */
+@RestController
+@RequestMapping("/api/leaderboards")
+public class LeaderboardResource {
+
+    private final Logger log = LoggerFactory.getLogger(LeaderboardResource.class);
+
+    private static final String ENTITY_NAME = "leaderboard";
+
+    static final int MAX_SIZE = 1000;
+
+    private final LeaderboardService leaderboardService;
+
+    public LeaderboardResource(LeaderboardService leaderboardService) {
+        this.leaderboardService = leaderboardService;
+    }
+
+    /**
+     * {@code GET  /leaderboards} : get the top of a leaderboard.
+     *
+     * @param rfbLocationId the id of the rfbLocation, or none for the global leaderboard.
+     * @param window the period of the leaderboard.
+     * @param size the maximum number of rfbUsers.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbUsers in body, highest attendance count first.
+     */
+    @GetMapping("")
+    public Mono<List<LeaderboardEntryDTO>> getLeaderboard(
+        @RequestParam(required = false) Long rfbLocationId,
+        @RequestParam(defaultValue = "ALL_TIME") Leaderboard.Window window,
+        @RequestParam(defaultValue = "100") int size
+    ) {
+        log.debug("REST request to get the top {} of the {} Leaderboard of RfbLocation : {}", size, window, rfbLocationId);
+        checkSize(size);
+        return leaderboardService.findTop(rfbLocationId, window, size).collectList();
+    }
+
+    /**
+     * {@code GET  /leaderboards/users/:rfbUserId} : get the rank of a rfbUser.
+     *
+     * @param rfbUserId the id of the rfbUser.
+     * @param rfbLocationId the id of the rfbLocation, or none for the global leaderboard.
+     * @param window the period of the leaderboard.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the rfbUser, or with status {@code 404 (Not Found)}
+     * if the rfbUser has no attendances in the period.
+     */
+    @GetMapping("/users/{rfbUserId}")
+    public Mono<ResponseEntity<LeaderboardEntryDTO>> getLeaderboardEntry(
+        @PathVariable Long rfbUserId,
+        @RequestParam(required = false) Long rfbLocationId,
+        @RequestParam(defaultValue = "ALL_TIME") Leaderboard.Window window
+    ) {
+        log.debug("REST request to get RfbUser : {} on the {} Leaderboard of RfbLocation : {}", rfbUserId, window, rfbLocationId);
+        return ResponseUtil.wrapOrNotFound(leaderboardService.findOne(rfbLocationId, window, rfbUserId));
+    }
+
+    /**
+     * {@code GET  /leaderboards/users/:rfbUserId/neighbours} : get a rfbUser with the rfbUsers ranked just before and after.
+     *
+     * @param rfbUserId the id of the rfbUser.
+     * @param rfbLocationId the id of the rfbLocation, or none for the global leaderboard.
+     * @param window the period of the leaderboard.
+     * @param size the maximum number of rfbUsers on each side.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbUsers in body, highest attendance count first.
+     */
+    @GetMapping("/users/{rfbUserId}/neighbours")
+    public Mono<List<LeaderboardEntryDTO>> getLeaderboardNeighbours(
+        @PathVariable Long rfbUserId,
+        @RequestParam(required = false) Long rfbLocationId,
+        @RequestParam(defaultValue = "ALL_TIME") Leaderboard.Window window,
+        @RequestParam(defaultValue = "5") int size
+    ) {
+        log.debug("REST request to get the neighbours of RfbUser : {} on the {} Leaderboard : {}", rfbUserId, window, rfbLocationId);
+        checkSize(size);
+        return leaderboardService.findNeighbours(rfbLocationId, window, rfbUserId, size).collectList();
+    }
+
+    private static void checkSize(int size) {
+        if (size < 0 || size > MAX_SIZE) {
+            throw new BadRequestAlertException("Invalid size", ENTITY_NAME, "sizeinvalid");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.rfb.web.rest;
+
+import com.rfb.security.AuthoritiesConstants;
+import com.rfb.service.RfbAttendanceCounterService;
+import com.rfb.service.dto.RfbAttendanceCounterDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for reading the {@link com.rfb.domain.RfbAttendanceCounter}s, which are maintained together with the
+ * rfbEventAttendances.
+ */
+@RestController
+@RequestMapping("/api/rfb-attendance-counters")
+public class RfbAttendanceCounterResource {
+
+    private final Logger log = LoggerFactory.getLogger(RfbAttendanceCounterResource.class);
+
+    private final RfbAttendanceCounterService rfbAttendanceCounterService;
+
+    public RfbAttendanceCounterResource(RfbAttendanceCounterService rfbAttendanceCounterService) {
+        this.rfbAttendanceCounterService = rfbAttendanceCounterService;
+    }
+
+    /**
+     * {@code GET  /rfb-attendance-counters/users/:rfbUserId} : get the number of attendances of the rfbUser.
+     *
+     * @param rfbUserId the id of the rfbUser.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the rfbAttendanceCounterDTO.
+     */
+    @GetMapping("/users/{rfbUserId}")
+    public Mono<RfbAttendanceCounterDTO> getRfbUserAttendanceCounter(@PathVariable Long rfbUserId) {
+        log.debug("REST request to get the RfbAttendanceCounter of RfbUser : {}", rfbUserId);
+        return rfbAttendanceCounterService.findOne(rfbUserId, null);
+    }
+
+    /**
+     * {@code GET  /rfb-attendance-counters/locations/:rfbLocationId} : get the number of attendances at the rfbLocation.
+     *
+     * @param rfbLocationId the id of the rfbLocation.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the rfbAttendanceCounterDTO.
+     */
+    @GetMapping("/locations/{rfbLocationId}")
+    public Mono<RfbAttendanceCounterDTO> getRfbLocationAttendanceCounter(@PathVariable Long rfbLocationId) {
+        log.debug("REST request to get the RfbAttendanceCounter of RfbLocation : {}", rfbLocationId);
+        return rfbAttendanceCounterService.findOne(null, rfbLocationId);
+    }
+
+    /**
+     * {@code GET  /rfb-attendance-counters/users/:rfbUserId/locations/:rfbLocationId} : get the number of attendances of the rfbUser
+     * at the rfbLocation.
+     *
+     * @param rfbUserId the id of the rfbUser.
+     * @param rfbLocationId the id of the rfbLocation.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the rfbAttendanceCounterDTO.
+     */
+    @GetMapping("/users/{rfbUserId}/locations/{rfbLocationId}")
+    public Mono<RfbAttendanceCounterDTO> getRfbAttendanceCounter(@PathVariable Long rfbUserId, @PathVariable Long rfbLocationId) {
+        log.debug("REST request to get the RfbAttendanceCounter of RfbUser : {} at RfbLocation : {}", rfbUserId, rfbLocationId);
+        return rfbAttendanceCounterService.findOne(rfbUserId, rfbLocationId);
+    }
+
+    /**
+     * {@code POST  /rfb-attendance-counters/rebuild} : count all the rfbEventAttendances again.
+     *
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}.
+     */
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
+    public Mono<ResponseEntity<Void>> rebuildRfbAttendanceCounters() {
+        log.debug("REST request to rebuild the RfbAttendanceCounters");
+        return rfbAttendanceCounterService
+            .rebuild()
+            .map(
+                count -> {
+                    log.info("Rebuilt {} RfbAttendanceCounters", count);
+                    return ResponseEntity.noContent().build();
+                }
+            );
+    }
+}
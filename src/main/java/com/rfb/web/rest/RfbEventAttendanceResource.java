@@ -1,21 +1,36 @@
 package com.rfb.web.rest;
 
+import com.rfb.config.ApplicationProperties;
 import com.rfb.repository.RfbEventAttendanceRepository;
+import com.rfb.service.Keyset;
 import com.rfb.service.RfbEventAttendanceService;
+import com.rfb.service.RfbEventService;
+import com.rfb.service.RfbUserService;
+import com.rfb.service.dto.BatchItemResultDTO;
 import com.rfb.service.dto.RfbEventAttendanceDTO;
+import com.rfb.service.dto.RfbEventDTO;
+import com.rfb.service.dto.RfbUserDTO;
 import com.rfb.web.rest.errors.BadRequestAlertException;
+import com.rfb.web.rest.util.KeysetPaginationUtil;
+import com.rfb.web.rest.util.MultiGetUtil;
+import com.rfb.web.rest.util.SlicePaginationUtil;
+import com.rfb.web.rest.vm.CheckInVM;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -41,6 +56,10 @@ public class RfbEventAttendanceResource {
 
     private static final String ENTITY_NAME = "rfbEventAttendance";
 
+    private static final Set<String> KEYSET_SORT_PROPERTIES = Set.of("attendanceDate");
+
+    private static final String ATTENDANCE_DATE_FROM_PARAMETER = "attendanceDateFrom";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -48,12 +67,24 @@ public class RfbEventAttendanceResource {
 
     private final RfbEventAttendanceRepository rfbEventAttendanceRepository;
 
+    private final RfbEventService rfbEventService;
+
+    private final RfbUserService rfbUserService;
+
+    private final ApplicationProperties applicationProperties;
+
     public RfbEventAttendanceResource(
         RfbEventAttendanceService rfbEventAttendanceService,
-        RfbEventAttendanceRepository rfbEventAttendanceRepository
+        RfbEventAttendanceRepository rfbEventAttendanceRepository,
+        RfbEventService rfbEventService,
+        RfbUserService rfbUserService,
+        ApplicationProperties applicationProperties
     ) {
         this.rfbEventAttendanceService = rfbEventAttendanceService;
         this.rfbEventAttendanceRepository = rfbEventAttendanceRepository;
+        this.rfbEventService = rfbEventService;
+        this.rfbUserService = rfbUserService;
+        this.applicationProperties = applicationProperties;
     }
 
     /**
@@ -86,6 +117,70 @@ public class RfbEventAttendanceResource {
             );
     }
 
+    /**
+     * {@code POST  /check-in} : Check a rfbUser in at a rfbEvent today, with the event code and the username typed at the start line.
+     * <p>
+     * The rfbEvent and the rfbUser are resolved from the cached ids of their codes, so a check-in is a single request which only writes
+     * the attendance. A retried check-in returns the existing attendance.
+     *
+     * @param checkIn the event code and the username.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the rfbEventAttendanceDTO, or with status
+     * {@code 400 (Bad Request)} if the event code or the username is unknown.
+     */
+    @PostMapping("/check-in")
+    public Mono<ResponseEntity<RfbEventAttendanceDTO>> checkIn(@Valid @RequestBody CheckInVM checkIn) {
+        log.debug("REST request to check in : {}", checkIn);
+        Mono<Long> rfbEventId = rfbEventService
+            .findIdByEventCode(checkIn.getEventCode())
+            .switchIfEmpty(Mono.error(() -> new BadRequestAlertException("Unknown event code", ENTITY_NAME, "eventcodenotfound")));
+        Mono<Long> rfbUserId = rfbUserService
+            .findIdByUsername(checkIn.getUsername())
+            .switchIfEmpty(Mono.error(() -> new BadRequestAlertException("Unknown username", ENTITY_NAME, "usernamenotfound")));
+        return Mono
+            .zip(rfbEventId, rfbUserId)
+            .flatMap(
+                ids -> {
+                    RfbEventAttendanceDTO rfbEventAttendanceDTO = new RfbEventAttendanceDTO();
+                    rfbEventAttendanceDTO.setAttendanceDate(LocalDate.now());
+                    RfbEventDTO rfbEventDTO = new RfbEventDTO();
+                    rfbEventDTO.setId(ids.getT1());
+                    rfbEventAttendanceDTO.setRfbEvent(rfbEventDTO);
+                    RfbUserDTO rfbUserDTO = new RfbUserDTO();
+                    rfbUserDTO.setId(ids.getT2());
+                    rfbEventAttendanceDTO.setRfbUser(rfbUserDTO);
+                    return rfbEventAttendanceService.save(rfbEventAttendanceDTO);
+                }
+            )
+            .map(
+                result ->
+                    ResponseEntity
+                        .created(URI.create("/api/rfb-event-attendances/" + result.getId()))
+                        .headers(HeaderUtil.createEntityCreationAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
+            );
+    }
+
+    /**
+     * {@code POST  /rfb-event-attendances/batch} : Create a batch of new rfbEventAttendances, e.g. the check-ins collected offline by a
+     * kiosk.
+     * <p>
+     * The batch is saved in chunks, every chunk in its own transaction. An item is a duplicate if its user already attended its event.
+     *
+     * @param rfbEventAttendanceDTOs the rfbEventAttendanceDTOs to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of every item, in the order of the batch,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PostMapping("/rfb-event-attendances/batch")
+    public Mono<ResponseEntity<List<BatchItemResultDTO>>> createRfbEventAttendances(
+        @RequestBody List<RfbEventAttendanceDTO> rfbEventAttendanceDTOs
+    ) {
+        log.debug("REST request to save a batch of {} RfbEventAttendances", rfbEventAttendanceDTOs.size());
+        if (rfbEventAttendanceDTOs.size() > applicationProperties.getBatch().getMaxSize()) {
+            throw new BadRequestAlertException("The batch is too large", ENTITY_NAME, "batchtoolarge");
+        }
+        return rfbEventAttendanceService.saveAll(rfbEventAttendanceDTOs).collectList().map(ResponseEntity::ok);
+    }
+
     /**
      * {@code PUT  /rfb-event-attendances/:id} : Updates an existing rfbEventAttendance.
      *
@@ -141,6 +236,7 @@ public class RfbEventAttendanceResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated rfbEventAttendanceDTO,
      * or with status {@code 400 (Bad Request)} if the rfbEventAttendanceDTO is not valid,
      * or with status {@code 404 (Not Found)} if the rfbEventAttendanceDTO is not found,
+     * or with status {@code 409 (Conflict)} if the rfbEventAttendanceDTO has a version, which isn't the current one,
      * or with status {@code 500 (Internal Server Error)} if the rfbEventAttendanceDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -157,28 +253,15 @@ public class RfbEventAttendanceResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return rfbEventAttendanceRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<RfbEventAttendanceDTO> result = rfbEventAttendanceService.partialUpdate(rfbEventAttendanceDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return rfbEventAttendanceService
+            .partialUpdate(rfbEventAttendanceDTO)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                res ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                        .body(res)
             );
     }
 
@@ -186,14 +269,34 @@ public class RfbEventAttendanceResource {
      * {@code GET  /rfb-event-attendances} : get all the rfbEventAttendances.
      *
      * @param pageable the pagination information.
+     * @param cursor the keyset pagination cursor, an empty cursor selects the first page. Offset pagination is used without a cursor.
+     * @param count how the total is counted without a cursor: {@code exact}, {@code cached} or {@code none}.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbEventAttendances in body.
      */
     @GetMapping("/rfb-event-attendances")
-    public Mono<ResponseEntity<List<RfbEventAttendanceDTO>>> getAllRfbEventAttendances(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<List<RfbEventAttendanceDTO>>> getAllRfbEventAttendances(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(value = SlicePaginationUtil.COUNT_PARAMETER, defaultValue = SlicePaginationUtil.DEFAULT_COUNT) String count,
+        ServerHttpRequest request
+    ) {
+        if (cursor != null) {
+            return getRfbEventAttendancesAfter(
+                KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), KEYSET_SORT_PROPERTIES, ENTITY_NAME),
+                pageable,
+                request
+            );
+        }
+        SlicePaginationUtil.CountMode countMode = SlicePaginationUtil.parseCountMode(count, ENTITY_NAME);
+        if (countMode == SlicePaginationUtil.CountMode.NONE) {
+            return getRfbEventAttendanceSlice(pageable, request);
+        }
         log.debug("REST request to get a page of RfbEventAttendances");
-        return rfbEventAttendanceService
-            .countAll()
+        Mono<Long> total = countMode == SlicePaginationUtil.CountMode.CACHED
+            ? rfbEventAttendanceService.countAllCached()
+            : rfbEventAttendanceService.countAll();
+        return total
             .zipWith(rfbEventAttendanceService.findAll(pageable).collectList())
             .map(
                 countWithEntities -> {
@@ -210,6 +313,112 @@ public class RfbEventAttendanceResource {
             );
     }
 
+    private Mono<ResponseEntity<List<RfbEventAttendanceDTO>>> getRfbEventAttendanceSlice(Pageable pageable, ServerHttpRequest request) {
+        log.debug("REST request to get a slice of RfbEventAttendances");
+        return rfbEventAttendanceService
+            .findSlice(pageable)
+            .map(
+                slice ->
+                    ResponseEntity
+                        .ok()
+                        .headers(SlicePaginationUtil.generateSliceHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), slice))
+                        .body(slice.getContent())
+            );
+    }
+
+    private Mono<ResponseEntity<List<RfbEventAttendanceDTO>>> getRfbEventAttendancesAfter(
+        Keyset keyset,
+        Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a keyset page of RfbEventAttendances");
+        return rfbEventAttendanceService
+            .findAllAfter(keyset, pageable.getPageSize())
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                                UriComponentsBuilder.fromHttpRequest(request),
+                                keyset,
+                                entities,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(entities)
+            );
+    }
+
+    /**
+     * {@code GET  /rfb-event-attendances?attendanceDateFrom=:from} : get a slice of the rfbEventAttendances of a period.
+     *
+     * @param attendanceDateFrom the first attendance date.
+     * @param attendanceDateTo the first attendance date after the period, or none for no end.
+     * @param pageable the pagination information.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbEventAttendances in body, or with status
+     * {@code 400 (Bad Request)} if the period is empty.
+     */
+    @GetMapping(value = "/rfb-event-attendances", params = ATTENDANCE_DATE_FROM_PARAMETER)
+    public Mono<ResponseEntity<List<RfbEventAttendanceDTO>>> getRfbEventAttendancesByAttendanceDate(
+        @RequestParam(ATTENDANCE_DATE_FROM_PARAMETER) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate attendanceDateFrom,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate attendanceDateTo,
+        Pageable pageable,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a slice of RfbEventAttendances from {} to {}", attendanceDateFrom, attendanceDateTo);
+        if (attendanceDateTo != null && !attendanceDateFrom.isBefore(attendanceDateTo)) {
+            throw new BadRequestAlertException("Invalid attendance date range", ENTITY_NAME, "daterangeinvalid");
+        }
+        return rfbEventAttendanceService
+            .findSliceByAttendanceDate(attendanceDateFrom, attendanceDateTo, pageable)
+            .map(
+                slice ->
+                    ResponseEntity
+                        .ok()
+                        .headers(SlicePaginationUtil.generateSliceHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), slice))
+                        .body(slice.getContent())
+            );
+    }
+
+    /**
+     * {@code GET  /rfb-event-attendances?ids=:ids} : get the rfbEventAttendances with the given ids, with a single query.
+     *
+     * @param ids the ids of the rfbEventAttendances, at most {@link MultiGetUtil#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbEventAttendances in body, in the order of the ids,
+     * or with status {@code 400 (Bad Request)} if there are too many ids. The ids without an entity are listed in the
+     * {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/rfb-event-attendances", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<RfbEventAttendanceDTO>>> getRfbEventAttendancesByIds(
+        @RequestParam(MultiGetUtil.IDS_PARAMETER) List<Long> ids
+    ) {
+        log.debug("REST request to get RfbEventAttendances : {}", ids);
+        List<Long> distinctIds = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        return rfbEventAttendanceService
+            .findAllById(distinctIds)
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(MultiGetUtil.generateMissingIdsHttpHeaders(distinctIds, entities, RfbEventAttendanceDTO::getId))
+                        .body(MultiGetUtil.inRequestOrder(distinctIds, entities, RfbEventAttendanceDTO::getId))
+            );
+    }
+
+    /**
+     * {@code GET  /rfb-event-attendances} : get all the rfbEventAttendances as a stream, as newline delimited JSON or server-sent events.
+     * @return the {@link Flux} of rfbEventAttendances.
+     */
+    @GetMapping(value = "/rfb-event-attendances", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<RfbEventAttendanceDTO> getAllRfbEventAttendancesAsStream() {
+        log.debug("REST request to get all RfbEventAttendances as a stream");
+        return rfbEventAttendanceService.findAll();
+    }
+
     /**
      * {@code GET  /rfb-event-attendances/:id} : get the "id" rfbEventAttendance.
      *
@@ -1,15 +1,20 @@
 package com.rfb.web.rest;
 
 import com.rfb.repository.RfbEventRepository;
+import com.rfb.service.Keyset;
 import com.rfb.service.RfbEventService;
 import com.rfb.service.dto.RfbEventDTO;
 import com.rfb.web.rest.errors.BadRequestAlertException;
+import com.rfb.web.rest.util.KeysetPaginationUtil;
+import com.rfb.web.rest.util.MultiGetUtil;
+import com.rfb.web.rest.util.SlicePaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -41,6 +46,8 @@ public class RfbEventResource {
 
     private static final String ENTITY_NAME = "rfbEvent";
 
+    private static final Set<String> KEYSET_SORT_PROPERTIES = Set.of("eventDate", "eventCode");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -137,6 +144,7 @@ public class RfbEventResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated rfbEventDTO,
      * or with status {@code 400 (Bad Request)} if the rfbEventDTO is not valid,
      * or with status {@code 404 (Not Found)} if the rfbEventDTO is not found,
+     * or with status {@code 409 (Conflict)} if the rfbEventDTO has a version, which isn't the current one,
      * or with status {@code 500 (Internal Server Error)} if the rfbEventDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -153,28 +161,15 @@ public class RfbEventResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return rfbEventRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<RfbEventDTO> result = rfbEventService.partialUpdate(rfbEventDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return rfbEventService
+            .partialUpdate(rfbEventDTO)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                res ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                        .body(res)
             );
     }
 
@@ -182,14 +177,34 @@ public class RfbEventResource {
      * {@code GET  /rfb-events} : get all the rfbEvents.
      *
      * @param pageable the pagination information.
+     * @param cursor the keyset pagination cursor, an empty cursor selects the first page. Offset pagination is used without a cursor.
+     * @param count how the total is counted without a cursor: {@code exact}, {@code cached} or {@code none}.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbEvents in body.
      */
     @GetMapping("/rfb-events")
-    public Mono<ResponseEntity<List<RfbEventDTO>>> getAllRfbEvents(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<List<RfbEventDTO>>> getAllRfbEvents(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(value = SlicePaginationUtil.COUNT_PARAMETER, defaultValue = SlicePaginationUtil.DEFAULT_COUNT) String count,
+        ServerHttpRequest request
+    ) {
+        if (cursor != null) {
+            return getRfbEventsAfter(
+                KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), KEYSET_SORT_PROPERTIES, ENTITY_NAME),
+                pageable,
+                request
+            );
+        }
+        SlicePaginationUtil.CountMode countMode = SlicePaginationUtil.parseCountMode(count, ENTITY_NAME);
+        if (countMode == SlicePaginationUtil.CountMode.NONE) {
+            return getRfbEventSlice(pageable, request);
+        }
         log.debug("REST request to get a page of RfbEvents");
-        return rfbEventService
-            .countAll()
+        Mono<Long> total = countMode == SlicePaginationUtil.CountMode.CACHED
+            ? rfbEventService.countAllCached()
+            : rfbEventService.countAll();
+        return total
             .zipWith(rfbEventService.findAll(pageable).collectList())
             .map(
                 countWithEntities -> {
@@ -206,6 +221,74 @@ public class RfbEventResource {
             );
     }
 
+    private Mono<ResponseEntity<List<RfbEventDTO>>> getRfbEventSlice(Pageable pageable, ServerHttpRequest request) {
+        log.debug("REST request to get a slice of RfbEvents");
+        return rfbEventService
+            .findSlice(pageable)
+            .map(
+                slice ->
+                    ResponseEntity
+                        .ok()
+                        .headers(SlicePaginationUtil.generateSliceHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), slice))
+                        .body(slice.getContent())
+            );
+    }
+
+    private Mono<ResponseEntity<List<RfbEventDTO>>> getRfbEventsAfter(Keyset keyset, Pageable pageable, ServerHttpRequest request) {
+        log.debug("REST request to get a keyset page of RfbEvents");
+        return rfbEventService
+            .findAllAfter(keyset, pageable.getPageSize())
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                                UriComponentsBuilder.fromHttpRequest(request),
+                                keyset,
+                                entities,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(entities)
+            );
+    }
+
+    /**
+     * {@code GET  /rfb-events?ids=:ids} : get the rfbEvents with the given ids, with a single query.
+     *
+     * @param ids the ids of the rfbEvents, at most {@link MultiGetUtil#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbEvents in body, in the order of the ids,
+     * or with status {@code 400 (Bad Request)} if there are too many ids. The ids without an entity are listed in the
+     * {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/rfb-events", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<RfbEventDTO>>> getRfbEventsByIds(@RequestParam(MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get RfbEvents : {}", ids);
+        List<Long> distinctIds = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        return rfbEventService
+            .findAllById(distinctIds)
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(MultiGetUtil.generateMissingIdsHttpHeaders(distinctIds, entities, RfbEventDTO::getId))
+                        .body(MultiGetUtil.inRequestOrder(distinctIds, entities, RfbEventDTO::getId))
+            );
+    }
+
+    /**
+     * {@code GET  /rfb-events} : get all the rfbEvents as a stream, as newline delimited JSON or server-sent events.
+     * @return the {@link Flux} of rfbEvents.
+     */
+    @GetMapping(value = "/rfb-events", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<RfbEventDTO> getAllRfbEventsAsStream() {
+        log.debug("REST request to get all RfbEvents as a stream");
+        return rfbEventService.findAll();
+    }
+
     /**
      * {@code GET  /rfb-events/:id} : get the "id" rfbEvent.
      *
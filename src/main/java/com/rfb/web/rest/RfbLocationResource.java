@@ -1,15 +1,21 @@
 package com.rfb.web.rest;
 
 import com.rfb.repository.RfbLocationRepository;
+import com.rfb.service.Keyset;
 import com.rfb.service.RfbLocationService;
 import com.rfb.service.dto.RfbLocationDTO;
 import com.rfb.web.rest.errors.BadRequestAlertException;
+import com.rfb.web.rest.util.IncludeUtil;
+import com.rfb.web.rest.util.KeysetPaginationUtil;
+import com.rfb.web.rest.util.MultiGetUtil;
+import com.rfb.web.rest.util.SlicePaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -41,6 +47,10 @@ public class RfbLocationResource {
 
     private static final String ENTITY_NAME = "rfbLocation";
 
+    private static final Set<String> KEYSET_SORT_PROPERTIES = Set.of("locationName", "runDayOfWeek");
+
+    private static final String INCLUDE_EVENTS = "events";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -137,6 +147,7 @@ public class RfbLocationResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated rfbLocationDTO,
      * or with status {@code 400 (Bad Request)} if the rfbLocationDTO is not valid,
      * or with status {@code 404 (Not Found)} if the rfbLocationDTO is not found,
+     * or with status {@code 409 (Conflict)} if the rfbLocationDTO has a version, which isn't the current one,
      * or with status {@code 500 (Internal Server Error)} if the rfbLocationDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -153,28 +164,15 @@ public class RfbLocationResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return rfbLocationRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<RfbLocationDTO> result = rfbLocationService.partialUpdate(rfbLocationDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return rfbLocationService
+            .partialUpdate(rfbLocationDTO)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                res ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                        .body(res)
             );
     }
 
@@ -182,15 +180,35 @@ public class RfbLocationResource {
      * {@code GET  /rfb-locations} : get all the rfbLocations.
      *
      * @param pageable the pagination information.
+     * @param cursor the keyset pagination cursor, an empty cursor selects the first page. Offset pagination is used without a cursor.
+     * @param count how the total is counted without a cursor: {@code exact}, {@code cached} or {@code none}.
+     * @param include the relationships to be included: {@code events}.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbLocations in body.
      */
     @GetMapping("/rfb-locations")
-    public Mono<ResponseEntity<List<RfbLocationDTO>>> getAllRfbLocations(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<List<RfbLocationDTO>>> getAllRfbLocations(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(value = SlicePaginationUtil.COUNT_PARAMETER, defaultValue = SlicePaginationUtil.DEFAULT_COUNT) String count,
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include,
+        ServerHttpRequest request
+    ) {
+        Set<String> includes = IncludeUtil.parseIncludes(include, Set.of(INCLUDE_EVENTS), ENTITY_NAME);
+        if (cursor != null) {
+            Keyset keyset = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), KEYSET_SORT_PROPERTIES, ENTITY_NAME);
+            return getRfbLocationsAfter(keyset, pageable, includes, request);
+        }
+        SlicePaginationUtil.CountMode countMode = SlicePaginationUtil.parseCountMode(count, ENTITY_NAME);
+        if (countMode == SlicePaginationUtil.CountMode.NONE) {
+            return getRfbLocationSlice(pageable, includes, request);
+        }
         log.debug("REST request to get a page of RfbLocations");
-        return rfbLocationService
-            .countAll()
-            .zipWith(rfbLocationService.findAll(pageable).collectList())
+        Mono<Long> total = countMode == SlicePaginationUtil.CountMode.CACHED
+            ? rfbLocationService.countAllCached()
+            : rfbLocationService.countAll();
+        return total
+            .zipWith(withIncludes(rfbLocationService.findAll(pageable), includes).collectList())
             .map(
                 countWithEntities -> {
                     return ResponseEntity
@@ -206,19 +224,109 @@ public class RfbLocationResource {
             );
     }
 
+    private Mono<ResponseEntity<List<RfbLocationDTO>>> getRfbLocationSlice(
+        Pageable pageable,
+        Set<String> includes,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a slice of RfbLocations");
+        return rfbLocationService
+            .findSlice(pageable)
+            .flatMap(slice -> withIncludes(Flux.fromIterable(slice.getContent()), includes).then(Mono.just(slice)))
+            .map(
+                slice ->
+                    ResponseEntity
+                        .ok()
+                        .headers(SlicePaginationUtil.generateSliceHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), slice))
+                        .body(slice.getContent())
+            );
+    }
+
+    private Mono<ResponseEntity<List<RfbLocationDTO>>> getRfbLocationsAfter(
+        Keyset keyset,
+        Pageable pageable,
+        Set<String> includes,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a keyset page of RfbLocations");
+        return withIncludes(rfbLocationService.findAllAfter(keyset, pageable.getPageSize()), includes)
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                                UriComponentsBuilder.fromHttpRequest(request),
+                                keyset,
+                                entities,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(entities)
+            );
+    }
+
+    /**
+     * {@code GET  /rfb-locations?ids=:ids} : get the rfbLocations with the given ids, with a single query.
+     *
+     * @param ids the ids of the rfbLocations, at most {@link MultiGetUtil#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbLocations in body, in the order of the ids,
+     * or with status {@code 400 (Bad Request)} if there are too many ids. The ids without an entity are listed in the
+     * {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/rfb-locations", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<RfbLocationDTO>>> getRfbLocationsByIds(@RequestParam(MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get RfbLocations : {}", ids);
+        List<Long> distinctIds = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        return rfbLocationService
+            .findAllById(distinctIds)
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(MultiGetUtil.generateMissingIdsHttpHeaders(distinctIds, entities, RfbLocationDTO::getId))
+                        .body(MultiGetUtil.inRequestOrder(distinctIds, entities, RfbLocationDTO::getId))
+            );
+    }
+
+    /**
+     * {@code GET  /rfb-locations} : get all the rfbLocations as a stream, as newline delimited JSON or server-sent events.
+     * @param include the relationships to be included: {@code events}.
+     * @return the {@link Flux} of rfbLocations.
+     */
+    @GetMapping(value = "/rfb-locations", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<RfbLocationDTO> getAllRfbLocationsAsStream(
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include
+    ) {
+        log.debug("REST request to get all RfbLocations as a stream");
+        Set<String> includes = IncludeUtil.parseIncludes(include, Set.of(INCLUDE_EVENTS), ENTITY_NAME);
+        return withIncludes(rfbLocationService.findAll(), includes);
+    }
+
     /**
      * {@code GET  /rfb-locations/:id} : get the "id" rfbLocation.
      *
      * @param id the id of the rfbLocationDTO to retrieve.
+     * @param include the relationships to be included: {@code events}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the rfbLocationDTO, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/rfb-locations/{id}")
-    public Mono<ResponseEntity<RfbLocationDTO>> getRfbLocation(@PathVariable Long id) {
+    public Mono<ResponseEntity<RfbLocationDTO>> getRfbLocation(
+        @PathVariable Long id,
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include
+    ) {
         log.debug("REST request to get RfbLocation : {}", id);
-        Mono<RfbLocationDTO> rfbLocationDTO = rfbLocationService.findOne(id);
+        Set<String> includes = IncludeUtil.parseIncludes(include, Set.of(INCLUDE_EVENTS), ENTITY_NAME);
+        Mono<RfbLocationDTO> rfbLocationDTO = withIncludes(rfbLocationService.findOne(id).flux(), includes).next();
         return ResponseUtil.wrapOrNotFound(rfbLocationDTO);
     }
 
+    private Flux<RfbLocationDTO> withIncludes(Flux<RfbLocationDTO> rfbLocationDTOs, Set<String> includes) {
+        return includes.contains(INCLUDE_EVENTS) ? rfbLocationService.loadRvbEvents(rfbLocationDTOs) : rfbLocationDTOs;
+    }
+
     /**
      * {@code DELETE  /rfb-locations/:id} : delete the "id" rfbLocation.
      *
@@ -1,22 +1,30 @@
 package com.rfb.web.rest;
 
 import com.rfb.repository.RfbUserRepository;
+import com.rfb.service.Keyset;
 import com.rfb.service.RfbUserService;
 import com.rfb.service.dto.RfbUserDTO;
 import com.rfb.web.rest.errors.BadRequestAlertException;
+import com.rfb.web.rest.util.IncludeUtil;
+import com.rfb.web.rest.util.KeysetPaginationUtil;
+import com.rfb.web.rest.util.MultiGetUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
@@ -33,6 +41,10 @@ public class RfbUserResource {
 
     private static final String ENTITY_NAME = "rfbUser";
 
+    private static final Set<String> KEYSET_SORT_PROPERTIES = Set.of("username");
+
+    private static final String INCLUDE_ATTENDANCES = "attendances";
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -129,6 +141,7 @@ public class RfbUserResource {
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated rfbUserDTO,
      * or with status {@code 400 (Bad Request)} if the rfbUserDTO is not valid,
      * or with status {@code 404 (Not Found)} if the rfbUserDTO is not found,
+     * or with status {@code 409 (Conflict)} if the rfbUserDTO has a version, which isn't the current one,
      * or with status {@code 500 (Internal Server Error)} if the rfbUserDTO couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
@@ -145,65 +158,128 @@ public class RfbUserResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return rfbUserRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<RfbUserDTO> result = rfbUserService.partialUpdate(rfbUserDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        return rfbUserService
+            .partialUpdate(rfbUserDTO)
+            .switchIfEmpty(Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound")))
+            .map(
+                res ->
+                    ResponseEntity
+                        .ok()
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                        .body(res)
             );
     }
 
     /**
      * {@code GET  /rfb-users} : get all the rfbUsers.
      *
+     * @param pageable the pagination information, only used with a cursor.
+     * @param cursor the keyset pagination cursor, an empty cursor selects the first page. All the rfbUsers are returned without a cursor.
+     * @param include the relationships to be included: {@code attendances}.
+     * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbUsers in body.
      */
     @GetMapping("/rfb-users")
-    public Mono<List<RfbUserDTO>> getAllRfbUsers() {
+    public Mono<ResponseEntity<List<RfbUserDTO>>> getAllRfbUsers(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.CURSOR_PARAMETER, required = false) String cursor,
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include,
+        ServerHttpRequest request
+    ) {
+        Set<String> includes = IncludeUtil.parseIncludes(include, Set.of(INCLUDE_ATTENDANCES), ENTITY_NAME);
+        if (cursor != null) {
+            Keyset keyset = KeysetPaginationUtil.parseCursor(cursor, pageable.getSort(), KEYSET_SORT_PROPERTIES, ENTITY_NAME);
+            return getRfbUsersAfter(keyset, pageable, includes, request);
+        }
         log.debug("REST request to get all RfbUsers");
-        return rfbUserService.findAll().collectList();
+        return withIncludes(rfbUserService.findAll(), includes).collectList().map(ResponseEntity::ok);
+    }
+
+    private Mono<ResponseEntity<List<RfbUserDTO>>> getRfbUsersAfter(
+        Keyset keyset,
+        Pageable pageable,
+        Set<String> includes,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to get a keyset page of RfbUsers");
+        return withIncludes(rfbUserService.findAllAfter(keyset, pageable.getPageSize()), includes)
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(
+                            KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+                                UriComponentsBuilder.fromHttpRequest(request),
+                                keyset,
+                                entities,
+                                pageable.getPageSize()
+                            )
+                        )
+                        .body(entities)
+            );
     }
 
     /**
-     * {@code GET  /rfb-users} : get all the rfbUsers as a stream.
+     * {@code GET  /rfb-users?ids=:ids} : get the rfbUsers with the given ids, with a single query.
+     *
+     * @param ids the ids of the rfbUsers, at most {@link MultiGetUtil#MAX_IDS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of rfbUsers in body, in the order of the ids,
+     * or with status {@code 400 (Bad Request)} if there are too many ids. The ids without an entity are listed in the
+     * {@code X-Missing-Ids} header.
+     */
+    @GetMapping(value = "/rfb-users", params = MultiGetUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<RfbUserDTO>>> getRfbUsersByIds(@RequestParam(MultiGetUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get RfbUsers : {}", ids);
+        List<Long> distinctIds = MultiGetUtil.parseIds(ids, ENTITY_NAME);
+        return rfbUserService
+            .findAllById(distinctIds)
+            .collectList()
+            .map(
+                entities ->
+                    ResponseEntity
+                        .ok()
+                        .headers(MultiGetUtil.generateMissingIdsHttpHeaders(distinctIds, entities, RfbUserDTO::getId))
+                        .body(MultiGetUtil.inRequestOrder(distinctIds, entities, RfbUserDTO::getId))
+            );
+    }
+
+    /**
+     * {@code GET  /rfb-users} : get all the rfbUsers as a stream, as newline delimited JSON or server-sent events.
+     * @param include the relationships to be included: {@code attendances}.
      * @return the {@link Flux} of rfbUsers.
      */
-    @GetMapping(value = "/rfb-users", produces = MediaType.APPLICATION_NDJSON_VALUE)
-    public Flux<RfbUserDTO> getAllRfbUsersAsStream() {
+    @GetMapping(value = "/rfb-users", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public Flux<RfbUserDTO> getAllRfbUsersAsStream(
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include
+    ) {
         log.debug("REST request to get all RfbUsers as a stream");
-        return rfbUserService.findAll();
+        Set<String> includes = IncludeUtil.parseIncludes(include, Set.of(INCLUDE_ATTENDANCES), ENTITY_NAME);
+        return withIncludes(rfbUserService.findAll(), includes);
     }
 
     /**
      * {@code GET  /rfb-users/:id} : get the "id" rfbUser.
      *
      * @param id the id of the rfbUserDTO to retrieve.
+     * @param include the relationships to be included: {@code attendances}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the rfbUserDTO, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/rfb-users/{id}")
-    public Mono<ResponseEntity<RfbUserDTO>> getRfbUser(@PathVariable Long id) {
+    public Mono<ResponseEntity<RfbUserDTO>> getRfbUser(
+        @PathVariable Long id,
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include
+    ) {
         log.debug("REST request to get RfbUser : {}", id);
-        Mono<RfbUserDTO> rfbUserDTO = rfbUserService.findOne(id);
+        Set<String> includes = IncludeUtil.parseIncludes(include, Set.of(INCLUDE_ATTENDANCES), ENTITY_NAME);
+        Mono<RfbUserDTO> rfbUserDTO = withIncludes(rfbUserService.findOne(id).flux(), includes).next();
         return ResponseUtil.wrapOrNotFound(rfbUserDTO);
     }
 
+    private Flux<RfbUserDTO> withIncludes(Flux<RfbUserDTO> rfbUserDTOs, Set<String> includes) {
+        return includes.contains(INCLUDE_ATTENDANCES) ? rfbUserService.loadRfbEventAttendances(rfbUserDTOs) : rfbUserDTOs;
+    }
+
     /**
      * {@code DELETE  /rfb-users/:id} : delete the "id" rfbUser.
      *
@@ -0,0 +1,69 @@
+package com.rfb.web.rest;
+
+import com.rfb.service.StreakService;
+import com.rfb.service.dto.StreakDTO;
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import com.rfb.web.rest.util.MultiGetUtil;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for reading the weekly streaks of the rfbUsers.
+ */
+@RestController
+@RequestMapping("/api/streaks")
+public class StreakResource {
+
+    private final Logger log = LoggerFactory.getLogger(StreakResource.class);
+
+    private static final String ENTITY_NAME = "streak";
+
+    static final int MAX_WEEKS = 520;
+
+    private final StreakService streakService;
+
+    public StreakResource(StreakService streakService) {
+        this.streakService = streakService;
+    }
+
+    /**
+     * {@code GET  /streaks/users/:rfbUserId} : get the streaks of a rfbUser.
+     *
+     * @param rfbUserId the id of the rfbUser.
+     * @param weeks the number of weeks, up to the current one, whose attended weeks are counted.
+     * @return the {@link org.springframework.http.ResponseEntity} with status {@code 200 (OK)} and with body the streakDTO.
+     */
+    @GetMapping("/users/{rfbUserId}")
+    public Mono<StreakDTO> getStreak(@PathVariable Long rfbUserId, @RequestParam(defaultValue = "12") int weeks) {
+        log.debug("REST request to get the Streaks of RfbUser : {}", rfbUserId);
+        checkWeeks(weeks);
+        return streakService.findOne(rfbUserId, weeks);
+    }
+
+    /**
+     * {@code GET  /streaks?ids=:ids} : get the streaks of many rfbUsers.
+     *
+     * @param ids the ids of the rfbUsers.
+     * @param weeks the number of weeks, up to the current one, whose attended weeks are counted.
+     * @return the {@link org.springframework.http.ResponseEntity} with status {@code 200 (OK)} and the list of streakDTOs in body, in
+     * the order of the ids.
+     */
+    @GetMapping("")
+    public Mono<List<StreakDTO>> getStreaks(
+        @RequestParam(MultiGetUtil.IDS_PARAMETER) List<Long> ids,
+        @RequestParam(defaultValue = "12") int weeks
+    ) {
+        log.debug("REST request to get the Streaks of RfbUsers : {}", ids);
+        checkWeeks(weeks);
+        return streakService.findAll(MultiGetUtil.parseIds(ids, ENTITY_NAME), weeks).collectList();
+    }
+
+    private static void checkWeeks(int weeks) {
+        if (weeks < 1 || weeks > MAX_WEEKS) {
+            throw new BadRequestAlertException("Invalid number of weeks", ENTITY_NAME, "weeksinvalid");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.rfb.web.rest.util;
+
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for the relationships, which are requested together with an entity.
+ * <p>
+ * The relationships are requested with an {@code include} parameter, either repeated or comma separated, e.g.
+ * {@code ?include=events}. They are not loaded without it.
+ */
+public final class IncludeUtil {
+
+    public static final String INCLUDE_PARAMETER = "include";
+
+    private IncludeUtil() {}
+
+    /**
+     * Parses the relationships requested by the client.
+     *
+     * @param include the requested relationships, or {@code null} if there is no {@code include} parameter.
+     * @param supported the relationships of the entity, which can be included.
+     * @param entityName the name of the entity, used for the error message.
+     * @return the requested relationships, in lower case.
+     * @throws BadRequestAlertException if a relationship is not supported.
+     */
+    public static Set<String> parseIncludes(List<String> include, Collection<String> supported, String entityName) {
+        if (include == null) {
+            return Set.of();
+        }
+        Set<String> includes = include.stream().map(String::trim).map(value -> value.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        if (!supported.containsAll(includes)) {
+            throw new BadRequestAlertException("Invalid include", entityName, "includeinvalid");
+        }
+        return includes;
+    }
+}
@@ -0,0 +1,87 @@
+package com.rfb.web.rest.util;
+
+import com.rfb.service.Keyset;
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (seek) pagination.
+ * <p>
+ * A keyset page is requested with a {@code cursor} parameter: an empty cursor selects the first page, and the cursor of the next page
+ * is returned in the {@code Link} header, with the same format as the {@link tech.jhipster.web.util.PaginationUtil} headers.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String CURSOR_PARAMETER = "cursor";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Parses the cursor received from the client.
+     *
+     * @param cursor the cursor, or an empty string for the first page.
+     * @param sort the requested sort, only used for the first page - the cursor holds the sort of the following pages.
+     * @param sortProperties the properties of the entity, which a keyset page can be sorted by besides the id: the columns whose values
+     * a {@link Keyset} can encode.
+     * @param entityName the name of the entity, used for the error message.
+     * @return the keyset of the requested page.
+     * @throws BadRequestAlertException if the cursor is invalid, or the sort property is not supported.
+     */
+    public static Keyset parseCursor(String cursor, Sort sort, Collection<String> sortProperties, String entityName) {
+        Keyset keyset;
+        if (cursor.isEmpty()) {
+            keyset = Keyset.first(sort);
+        } else {
+            try {
+                keyset = Keyset.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+            }
+        }
+        if (!Keyset.ID.equals(keyset.getProperty()) && !sortProperties.contains(keyset.getProperty())) {
+            throw new BadRequestAlertException("Invalid sort", entityName, "sortinvalid");
+        }
+        return keyset;
+    }
+
+    /**
+     * Generate pagination headers for a keyset page. There is no total count, only the links to the first and the next page.
+     *
+     * @param uriBuilder the URI builder, with the parameters of the current request.
+     * @param keyset the keyset of the current page.
+     * @param content the content of the current page.
+     * @param size the requested page size.
+     * @param <T> the type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Keyset keyset,
+        List<T> content,
+        int size
+    ) {
+        StringBuilder link = new StringBuilder();
+        if (!content.isEmpty() && content.size() >= size) {
+            BeanWrapper last = PropertyAccessorFactory.forBeanPropertyAccess(content.get(content.size() - 1));
+            Keyset next = keyset.next(last.getPropertyValue(keyset.getProperty()), (Long) last.getPropertyValue("id"));
+            link.append(prepareLink(uriBuilder, next.encode(), "next")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, "", "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, String cursor, String relType) {
+        String uri = uriBuilder.replaceQueryParam(CURSOR_PARAMETER, cursor).replaceQueryParam("page").toUriString();
+        return String.format(HEADER_LINK_FORMAT, uri.replace(",", "%2C").replace(";", "%3B"), relType);
+    }
+}
@@ -0,0 +1,80 @@
+package com.rfb.web.rest.util;
+
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Utility class for getting many entities by their ids with a single request.
+ * <p>
+ * The ids are requested with an {@code ids} parameter, either repeated or comma separated, e.g. {@code ?ids=3,1,2}. The entities are
+ * loaded with a single {@code IN} query, and returned in the order of the ids; the ids without an entity are listed in the
+ * {@code X-Missing-Ids} header.
+ */
+public final class MultiGetUtil {
+
+    public static final String IDS_PARAMETER = "ids";
+
+    public static final String MISSING_IDS_HEADER = "X-Missing-Ids";
+
+    // bounds the size of the IN list, and the length of the URL
+    public static final int MAX_IDS = 200;
+
+    private MultiGetUtil() {}
+
+    /**
+     * Checks the ids received from the client.
+     *
+     * @param ids the requested ids.
+     * @param entityName the name of the entity, used for the error message.
+     * @return the distinct ids, in the order of the request.
+     * @throws BadRequestAlertException if there are more than {@link #MAX_IDS} ids.
+     */
+    public static List<Long> parseIds(List<Long> ids, String entityName) {
+        Set<Long> distinctIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distinctIds.size() > MAX_IDS) {
+            throw new BadRequestAlertException("Too many ids", entityName, "idstoolarge");
+        }
+        return new ArrayList<>(distinctIds);
+    }
+
+    /**
+     * Orders the entities like the requested ids.
+     *
+     * @param ids the requested ids, as returned by {@link #parseIds(List, String)}.
+     * @param entities the entities, in any order.
+     * @param id the id of an entity.
+     * @param <T> the type of the entities.
+     * @return the entities in the order of the ids, without the missing ones.
+     */
+    public static <T> List<T> inRequestOrder(List<Long> ids, List<T> entities, Function<T, Long> id) {
+        Map<Long, T> entitiesById = entities.stream().collect(Collectors.toMap(id, Function.identity()));
+        return ids.stream().map(entitiesById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    /**
+     * Generate the header, which lists the ids without an entity.
+     *
+     * @param ids the requested ids.
+     * @param entities the entities, which were found.
+     * @param id the id of an entity.
+     * @param <T> the type of the entities.
+     * @return http header, without the missing ids header if all the entities were found.
+     */
+    public static <T> HttpHeaders generateMissingIdsHttpHeaders(List<Long> ids, List<T> entities, Function<T, Long> id) {
+        Set<Long> found = entities.stream().map(id).collect(Collectors.toSet());
+        HttpHeaders headers = new HttpHeaders();
+        String missing = ids.stream().filter(requested -> !found.contains(requested)).map(String::valueOf).collect(Collectors.joining(","));
+        if (!missing.isEmpty()) {
+            headers.add(MISSING_IDS_HEADER, missing);
+        }
+        return headers;
+    }
+}
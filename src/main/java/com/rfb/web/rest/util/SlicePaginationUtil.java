@@ -0,0 +1,82 @@
+package com.rfb.web.rest.util;
+
+import com.rfb.web.rest.errors.BadRequestAlertException;
+import java.util.Locale;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for choosing how the total of a paged list is counted.
+ * <p>
+ * The total is requested with a {@code count} parameter: {@code exact} counts the rows for every page, {@code cached} returns the
+ * cached total of the service, and {@code none} doesn't count at all - the page is returned with the {@code next} and {@code prev}
+ * links only, and without the {@code X-Total-Count} header.
+ */
+public final class SlicePaginationUtil {
+
+    public static final String COUNT_PARAMETER = "count";
+
+    public static final String DEFAULT_COUNT = "exact";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    /**
+     * How the total of a paged list is counted.
+     */
+    public enum CountMode {
+        EXACT,
+        CACHED,
+        NONE,
+    }
+
+    private SlicePaginationUtil() {}
+
+    /**
+     * Parses the count mode received from the client.
+     *
+     * @param count the count mode, one of {@code exact}, {@code cached} or {@code none}.
+     * @param entityName the name of the entity, used for the error message.
+     * @return the count mode.
+     * @throws BadRequestAlertException if the count mode is invalid.
+     */
+    public static CountMode parseCountMode(String count, String entityName) {
+        try {
+            return CountMode.valueOf(count.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid count", entityName, "countinvalid");
+        }
+    }
+
+    /**
+     * Generate pagination headers for a slice. There is no total count, only the links to the first, the previous and the next page.
+     *
+     * @param uriBuilder the URI builder, with the parameters of the current request.
+     * @param slice the slice.
+     * @param <T> the type of object.
+     * @return http header.
+     */
+    public static <T> HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        int pageNumber = slice.getNumber();
+        int pageSize = slice.getSize();
+        StringBuilder link = new StringBuilder();
+        if (slice.hasNext()) {
+            link.append(prepareLink(uriBuilder, pageNumber + 1, pageSize, "next")).append(",");
+        }
+        if (slice.hasPrevious()) {
+            link.append(prepareLink(uriBuilder, pageNumber - 1, pageSize, "prev")).append(",");
+        }
+        link.append(prepareLink(uriBuilder, 0, pageSize, "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relType) {
+        String uri = uriBuilder
+            .replaceQueryParam("page", Integer.toString(pageNumber))
+            .replaceQueryParam("size", Integer.toString(pageSize))
+            .toUriString();
+        return String.format(HEADER_LINK_FORMAT, uri.replace(",", "%2C").replace(";", "%3B"), relType);
+    }
+}
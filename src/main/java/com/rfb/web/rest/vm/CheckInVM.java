@@ -0,0 +1,40 @@
+package com.rfb.web.rest.vm;
+
+import javax.validation.constraints.NotNull;
+
+/**
+ * View Model object for checking a rfbUser in at a rfbEvent, with the codes typed at the start line.
+ */
+public class CheckInVM {
+
+    @NotNull
+    private String eventCode;
+
+    @NotNull
+    private String username;
+
+    public String getEventCode() {
+        return eventCode;
+    }
+
+    public void setEventCode(String eventCode) {
+        this.eventCode = eventCode;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CheckInVM{" +
+            "eventCode='" + eventCode + "'" +
+            ", username='" + username + "'" +
+            "}";
+    }
+}
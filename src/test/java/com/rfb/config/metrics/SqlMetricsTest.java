@@ -0,0 +1,91 @@
+package com.rfb.config.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class SqlMetricsTest {
+
+    @Test
+    void assertThatLiteralsAndBindMarkersAreReplaced() {
+        assertThat(SqlMetrics.fingerprint("SELECT e.id FROM rfb_event e WHERE e.event_code = 'ABC''D' AND e.id > $1 LIMIT 20"))
+            .isEqualTo("SELECT e.id FROM rfb_event e WHERE e.event_code = ? AND e.id > ? LIMIT ?");
+        assertThat(SqlMetrics.fingerprint("SELECT * FROM jhi_user WHERE login = :login AND t1.id = 42"))
+            .isEqualTo("SELECT * FROM jhi_user WHERE login = ? AND t1.id = ?");
+    }
+
+    @Test
+    void assertThatValueListsAndRowsAreCollapsed() {
+        assertThat(SqlMetrics.fingerprint("DELETE FROM t WHERE id IN ($1, $2, $3)")).isEqualTo("DELETE FROM t WHERE id IN (?...)");
+        assertThat(SqlMetrics.fingerprint("DELETE FROM t WHERE id IN ($1)")).isEqualTo("DELETE FROM t WHERE id IN (?)");
+        assertThat(SqlMetrics.fingerprint("INSERT INTO t (a, b) VALUES ($1, $2), ($3, $4),\n ($5, $6)"))
+            .isEqualTo(SqlMetrics.fingerprint("INSERT INTO t (a, b) VALUES ($1, $2), ($3, $4)"))
+            .isEqualTo("INSERT INTO t (a, b) VALUES (?...), ...");
+    }
+
+    @Test
+    void assertThatExecutionsAreRecordedPerStatementAndCaller() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlMetrics sqlMetrics = new SqlMetrics(registry);
+
+        sqlMetrics.record("SELECT * FROM t WHERE id = $1", "TRepository.findById", TimeUnit.MILLISECONDS.toNanos(2), 1);
+        sqlMetrics.record("SELECT * FROM t WHERE id = $1", "TRepository.findById", TimeUnit.MILLISECONDS.toNanos(4), 0);
+        sqlMetrics.record("SELECT * FROM t WHERE id = $1", SqlMetrics.UNKNOWN_CALLER, TimeUnit.MILLISECONDS.toNanos(1), 1);
+
+        assertThat(registry.find(SqlMetrics.STATEMENT_TIMER).timers()).hasSize(2);
+        assertThat(
+            registry
+                .get(SqlMetrics.STATEMENT_TIMER)
+                .tag(SqlMetrics.STATEMENT_TAG, "SELECT * FROM t WHERE id = ?")
+                .tag(SqlMetrics.CALLER_TAG, "TRepository.findById")
+                .timer()
+                .totalTime(TimeUnit.MILLISECONDS)
+        )
+            .isEqualTo(6);
+        assertThat(registry.get(SqlMetrics.STATEMENT_ROWS).tag(SqlMetrics.CALLER_TAG, "TRepository.findById").summary().totalAmount())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void assertThatStatementsBeyondTheLimitAreRecordedAsOther() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlMetrics sqlMetrics = new SqlMetrics(registry);
+
+        for (int i = 0; i < SqlMetrics.MAX_FINGERPRINTS; i++) {
+            sqlMetrics.record("SELECT * FROM t" + i, SqlMetrics.UNKNOWN_CALLER, 1, 0);
+        }
+        sqlMetrics.record("SELECT * FROM u WHERE id = $1", SqlMetrics.UNKNOWN_CALLER, 1, 0);
+        sqlMetrics.record("SELECT * FROM t0", SqlMetrics.UNKNOWN_CALLER, 1, 0);
+        // a new text of a recorded fingerprint
+        sqlMetrics.record("SELECT *\n FROM t0", SqlMetrics.UNKNOWN_CALLER, 1, 0);
+
+        assertThat(registry.find(SqlMetrics.STATEMENT_TIMER).timers()).hasSize(SqlMetrics.MAX_FINGERPRINTS + 1);
+        assertThat(registry.get(SqlMetrics.STATEMENT_TIMER).tag(SqlMetrics.STATEMENT_TAG, SqlMetrics.OTHER_STATEMENT).timer().count())
+            .isEqualTo(1);
+        assertThat(registry.get(SqlMetrics.STATEMENT_TIMER).tag(SqlMetrics.STATEMENT_TAG, "SELECT * FROM t0").timer().count()).isEqualTo(3);
+    }
+
+    @Test
+    void assertThatTheTextsOfAFingerprintDontCountTowardsTheLimit() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        SqlMetrics sqlMetrics = new SqlMetrics(registry);
+
+        // a text per length of the IN list, like the batch statements
+        StringBuilder ids = new StringBuilder("$1");
+        for (int i = 2; i <= SqlMetrics.MAX_FINGERPRINTS + 1; i++) {
+            ids.append(", $").append(i);
+            sqlMetrics.record("SELECT * FROM t WHERE id IN (" + ids + ")", SqlMetrics.UNKNOWN_CALLER, 1, 0);
+        }
+        sqlMetrics.record("SELECT * FROM u WHERE id = $1", SqlMetrics.UNKNOWN_CALLER, 1, 0);
+
+        assertThat(registry.find(SqlMetrics.STATEMENT_TIMER).timers()).hasSize(2);
+        assertThat(
+            registry.get(SqlMetrics.STATEMENT_TIMER).tag(SqlMetrics.STATEMENT_TAG, "SELECT * FROM t WHERE id IN (?...)").timer().count()
+        )
+            .isEqualTo(SqlMetrics.MAX_FINGERPRINTS);
+        assertThat(registry.get(SqlMetrics.STATEMENT_TIMER).tag(SqlMetrics.STATEMENT_TAG, "SELECT * FROM u WHERE id = ?").timer().count())
+            .isEqualTo(1);
+    }
+}
@@ -0,0 +1,61 @@
+package com.rfb.config.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.rfb.IntegrationTest;
+import com.rfb.repository.RfbAttendanceCounterRepository;
+import com.rfb.repository.RfbLocationRepository;
+import com.rfb.service.EntityManager;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link SqlStatsEndpoint}.
+ */
+@IntegrationTest
+class SqlStatsEndpointIT {
+
+    @Autowired
+    private RfbLocationRepository rfbLocationRepository;
+
+    @Autowired
+    private RfbAttendanceCounterRepository rfbAttendanceCounterRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private SqlStatsEndpoint sqlStatsEndpoint;
+
+    @Test
+    void assertThatRepositoryStatementsAreRecordedWithTheirCaller() {
+        rfbLocationRepository.findById(Long.MAX_VALUE).block();
+        rfbLocationRepository.findById(Long.MAX_VALUE - 1).block();
+
+        List<SqlStatsEndpoint.StatementStats> stats = sqlStatsEndpoint.sqlStats(Integer.MAX_VALUE);
+
+        assertThat(stats)
+            .filteredOn(statement -> statement.getCaller().equals("RfbLocationRepository.findById"))
+            .singleElement()
+            .satisfies(
+                statement -> {
+                    assertThat(statement.getStatement()).contains("rfb_location").doesNotContain(String.valueOf(Long.MAX_VALUE));
+                    assertThat(statement.getCount()).isGreaterThanOrEqualTo(2);
+                    assertThat(statement.getTotalTimeMs()).isPositive();
+                    assertThat(statement.getRows()).isZero();
+                }
+            );
+        assertThat(sqlStatsEndpoint.sqlStats(null)).hasSizeLessThanOrEqualTo(SqlStatsEndpoint.DEFAULT_TOP);
+    }
+
+    @Test
+    void assertThatOtherRepositoryStatementsAreRecordedWithTheirCaller() {
+        rfbAttendanceCounterRepository.findAttendanceCount(Long.MAX_VALUE, Long.MAX_VALUE).block();
+        em.deleteAll("rfb_attendance_counter").block();
+
+        assertThat(sqlStatsEndpoint.sqlStats(Integer.MAX_VALUE))
+            .extracting(SqlStatsEndpoint.StatementStats::getCaller)
+            .contains("RfbAttendanceCounterRepository.findAttendanceCount", "EntityManager.deleteAll");
+    }
+}
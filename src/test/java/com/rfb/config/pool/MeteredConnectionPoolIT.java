@@ -0,0 +1,45 @@
+package com.rfb.config.pool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.rfb.IntegrationTest;
+import com.rfb.repository.RfbLocationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * Integration tests for {@link MeteredConnectionPool} and {@link ConnectionPoolHealthIndicator}.
+ */
+@IntegrationTest
+class MeteredConnectionPoolIT {
+
+    @Autowired
+    private RfbLocationRepository rfbLocationRepository;
+
+    @Autowired
+    private ConnectionPoolHealthIndicator connectionPoolHealthIndicator;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void assertThatThePoolIsWarmedUp() {
+        Health health = connectionPoolHealthIndicator.health().block();
+
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsKeys("allocated", "acquired", "idle", "pending");
+        assertThat((Integer) health.getDetails().get("allocated")).isPositive();
+    }
+
+    @Test
+    void assertThatThePoolMetricsArePublished() {
+        rfbLocationRepository.count().block();
+
+        assertThat(meterRegistry.get("r2dbc.pool.acquire").tag("outcome", "success").timer().count()).isPositive();
+        assertThat(meterRegistry.get("r2dbc.pool.allocated").tag("name", "connectionFactory").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("r2dbc.pool.pending").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,116 @@
+package com.rfb.config.routing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.rfb.IntegrationTest;
+import com.rfb.service.RfbLocationService;
+import com.rfb.service.dto.RfbLocationDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Integration tests for {@link ReplicaRouting}, with a second H2 database standing in for the replica.
+ */
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.database.replicas[0].url=" + ReplicaRoutingIT.REPLICA_URL,
+        "application.database.lag-query=SELECT lag_seconds FROM replica_lag",
+        "application.database.lag-check-interval=1h",
+        "application.database.max-lag=5s",
+    }
+)
+class ReplicaRoutingIT {
+
+    static final String REPLICA_URL = "r2dbc:h2:mem:///rfbReplica;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+
+    private static final long REPLICA_LOCATION_ID = 1_000_000L;
+
+    private final ConnectionFactory replica = ConnectionFactories.get(REPLICA_URL);
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    @Autowired
+    private RfbLocationService rfbLocationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void initReplica() {
+        executeOnReplica(
+            "CREATE TABLE IF NOT EXISTS rfb_location" +
+            " (id BIGINT PRIMARY KEY, location_name VARCHAR(255), run_day_of_week INT, version BIGINT)",
+            "MERGE INTO rfb_location KEY (id) VALUES (" + REPLICA_LOCATION_ID + ", 'replica', 1, 0)",
+            "CREATE TABLE IF NOT EXISTS replica_lag (lag_seconds INT)",
+            "DELETE FROM replica_lag",
+            "INSERT INTO replica_lag VALUES (0)"
+        );
+        replicaRouting.checkReplicas().block();
+    }
+
+    @Test
+    void assertThatReadOnlyTransactionsAreRoutedToTheReplica() {
+        RfbLocationDTO location = rfbLocationService.findOne(REPLICA_LOCATION_ID).contextWrite(as("reader")).block();
+
+        assertThat(location).isNotNull();
+        assertThat(location.getLocationName()).isEqualTo("replica");
+        // the connection came from the metered pool of the replica
+        assertThat(meterRegistry.get("r2dbc.pool.acquire").tag("name", "replica0").tag("outcome", "success").timer().count()).isPositive();
+    }
+
+    @Test
+    void assertThatWritesAndTheReadsOfTheWriterGoToThePrimary() {
+        RfbLocationDTO location = new RfbLocationDTO();
+        location.setLocationName("primary");
+        location = rfbLocationService.save(location).contextWrite(as("writer")).block();
+
+        assertThat(rfbLocationService.findOne(location.getId()).contextWrite(as("writer")).block()).isNotNull();
+        assertThat(rfbLocationService.findOne(location.getId()).contextWrite(as("reader")).block()).isNull();
+
+        rfbLocationService.delete(location.getId()).contextWrite(as("writer")).block();
+    }
+
+    @Test
+    void assertThatLaggingReplicasAreSkipped() {
+        executeOnReplica("UPDATE replica_lag SET lag_seconds = 10");
+        replicaRouting.checkReplicas().block();
+
+        assertThat(rfbLocationService.findOne(REPLICA_LOCATION_ID).contextWrite(as("reader")).block()).isNull();
+
+        executeOnReplica("UPDATE replica_lag SET lag_seconds = NULL");
+        replicaRouting.checkReplicas().block();
+
+        assertThat(rfbLocationService.findOne(REPLICA_LOCATION_ID).contextWrite(as("reader")).block()).isNull();
+    }
+
+    private static Context as(String login) {
+        return ReactiveSecurityContextHolder.withAuthentication(new UsernamePasswordAuthenticationToken(login, null));
+    }
+
+    private void executeOnReplica(String... statements) {
+        Mono
+            .usingWhen(
+                replica.create(),
+                connection -> Flux.fromArray(statements).concatMap(sql -> executeUpdate(connection, sql)).then(),
+                Connection::close
+            )
+            .block();
+    }
+
+    private static Flux<Integer> executeUpdate(Connection connection, String sql) {
+        return Flux.from(connection.createStatement(sql).execute()).concatMap(result -> result.getRowsUpdated());
+    }
+}
@@ -0,0 +1,102 @@
+package com.rfb.repository.rowmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.rfb.domain.RfbEvent;
+import com.rfb.service.ColumnConverter;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link RowMapping} utility class.
+ */
+class RowMappingTest {
+
+    private ColumnConverter converter;
+
+    private RowMapping<RfbEvent> mapping;
+
+    @BeforeEach
+    public void setUp() {
+        converter = mock(ColumnConverter.class);
+        mapping =
+            new RowMapping<>(converter, RfbEvent::new)
+                .column("_id", Long.class, RfbEvent::setId)
+                .column("_event_date", LocalDate.class, RfbEvent::setEventDate)
+                .column("_event_code", String.class, RfbEvent::setEventCode);
+    }
+
+    @Test
+    void testColumnsAreResolvedOncePerResult() {
+        RowMetadata metadata = metadata(
+            column("E_EVENT_CODE", String.class),
+            column("E_ID", Long.class),
+            column("E_EVENT_DATE", LocalDate.class)
+        );
+        Row first = mock(Row.class);
+        when(first.get(1, Long.class)).thenReturn(1L);
+        when(first.get(2, LocalDate.class)).thenReturn(LocalDate.ofEpochDay(0L));
+        when(first.get(0, String.class)).thenReturn("AAA");
+        Row second = mock(Row.class);
+        when(second.get(1, Long.class)).thenReturn(2L);
+
+        RfbEvent firstEvent = mapping.apply(first, metadata, "e");
+        RfbEvent secondEvent = mapping.apply(second, metadata, "e");
+
+        assertThat(firstEvent.getId()).isEqualTo(1L);
+        assertThat(firstEvent.getEventDate()).isEqualTo(LocalDate.ofEpochDay(0L));
+        assertThat(firstEvent.getEventCode()).isEqualTo("AAA");
+        assertThat(secondEvent.getId()).isEqualTo(2L);
+        assertThat(secondEvent.getEventCode()).isNull();
+        verify(metadata, times(1)).getColumnMetadatas();
+    }
+
+    @Test
+    void testColumnsWithAnotherDriverTypeAreConverted() {
+        RowMetadata metadata = metadata(
+            column("E_ID", Integer.class),
+            column("E_EVENT_DATE", LocalDate.class),
+            column("E_EVENT_CODE", String.class)
+        );
+        Row row = mock(Row.class);
+        when(row.get(0)).thenReturn(1);
+        when(converter.convert(1, Long.class)).thenReturn(1L);
+
+        assertThat(mapping.apply(row, metadata, "e").getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void testMissingColumnIsRejected() {
+        RowMetadata metadata = metadata(column("E_ID", Long.class));
+
+        assertThatIllegalArgumentException().isThrownBy(() -> mapping.apply(mock(Row.class), metadata, "e"));
+    }
+
+    private static ColumnMetadata column(String name, Class<?> javaType) {
+        ColumnMetadata column = mock(ColumnMetadata.class);
+        when(column.getName()).thenReturn(name);
+        when(column.getJavaType()).then(invocation -> javaType);
+        return column;
+    }
+
+    private static RowMetadata metadata(ColumnMetadata... columns) {
+        List<ColumnMetadata> columnMetadatas = Arrays.asList(columns);
+        List<String> columnNames = columnMetadatas.stream().map(ColumnMetadata::getName).collect(Collectors.toList());
+        RowMetadata metadata = mock(RowMetadata.class);
+        when(metadata.getColumnMetadatas()).then(invocation -> columnMetadatas);
+        when(metadata.getColumnNames()).thenReturn(columnNames);
+        return metadata;
+    }
+}
@@ -7,12 +7,14 @@ import com.rfb.IntegrationTest;
 import com.rfb.config.Constants;
 import com.rfb.domain.User;
 import com.rfb.repository.UserRepository;
+import com.rfb.service.LookupCache;
+import com.rfb.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.Locale;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
 import org.springframework.security.core.userdetails.UserDetails;
 
 /**
@@ -32,7 +34,13 @@ class DomainUserDetailsServiceIT {
     private UserRepository userRepository;
 
     @Autowired
-    private ReactiveUserDetailsService domainUserDetailsService;
+    private DomainUserDetailsService domainUserDetailsService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @BeforeEach
     public void init() {
@@ -49,6 +57,8 @@ class DomainUserDetailsServiceIT {
         userOne.setLangKey("en");
         userOne.setCreatedBy(Constants.SYSTEM);
         userRepository.save(userOne).block();
+        // saved without the UserService, so the cached details of the previous tests' users are evicted here
+        domainUserDetailsService.evict(userOne);
 
         User userTwo = new User();
         userTwo.setLogin(USER_TWO_LOGIN);
@@ -60,6 +70,7 @@ class DomainUserDetailsServiceIT {
         userTwo.setLangKey("en");
         userTwo.setCreatedBy(Constants.SYSTEM);
         userRepository.save(userTwo).block();
+        domainUserDetailsService.evict(userTwo);
 
         User userThree = new User();
         userThree.setLogin(USER_THREE_LOGIN);
@@ -71,6 +82,7 @@ class DomainUserDetailsServiceIT {
         userThree.setLangKey("en");
         userThree.setCreatedBy(Constants.SYSTEM);
         userRepository.save(userThree).block();
+        domainUserDetailsService.evict(userThree);
     }
 
     @Test
@@ -113,4 +125,36 @@ class DomainUserDetailsServiceIT {
         assertThatExceptionOfType(UserNotActivatedException.class)
             .isThrownBy(() -> domainUserDetailsService.findByUsername(USER_THREE_LOGIN).block());
     }
+
+    @Test
+    void assertThatUserDetailsAreCached() {
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        domainUserDetailsService.findByUsername(USER_ONE_LOGIN.toUpperCase(Locale.ENGLISH)).block();
+
+        assertThat(cacheGets("miss")).isEqualTo(misses + 1);
+        assertThat(cacheGets("hit")).isEqualTo(hits + 1);
+    }
+
+    @Test
+    void assertThatUserDetailsAreEvictedWhenTheUserIsSaved() {
+        domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block();
+        User userOne = userRepository.findOneByLogin(USER_ONE_LOGIN).block();
+        userOne.setActivated(false);
+        userService.saveUser(userOne).block();
+
+        assertThatExceptionOfType(UserNotActivatedException.class)
+            .isThrownBy(() -> domainUserDetailsService.findByUsername(USER_ONE_LOGIN).block());
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry
+            .get(LookupCache.CACHE_GETS)
+            .tag("cache", DomainUserDetailsService.CACHE_NAME)
+            .tag("result", result)
+            .functionCounter()
+            .count();
+    }
 }
@@ -0,0 +1,109 @@
+package com.rfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbUser;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the {@link AttendanceSegment} utility class.
+ */
+class AttendanceSegmentTest {
+
+    private static final LocalDate DATE = LocalDate.of(2020, 3, 1);
+
+    @TempDir
+    Path directory;
+
+    private static RfbEventAttendance attendance(long id, Long eventId, Long userId, LocalDate date) {
+        RfbEventAttendance attendance = new RfbEventAttendance().attendanceDate(date);
+        attendance.setId(id);
+        attendance.setRfbEvent(eventId != null ? new RfbEvent().id(eventId) : null);
+        attendance.setRfbUser(userId != null ? new RfbUser().id(userId) : null);
+        return attendance;
+    }
+
+    @Test
+    void testWriteAndFind() throws IOException {
+        List<RfbEventAttendance> attendances = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            attendances.add(attendance(id, id % 7, id % 10, DATE.plusDays(id)));
+        }
+        attendances.add(attendance(1001, null, null, null));
+        Path path = directory.resolve("attendance" + AttendanceSegment.FILE_SUFFIX);
+        AttendanceSegment.write(path, attendances);
+
+        AttendanceSegment segment = AttendanceSegment.open(path);
+        assertThat(segment.size()).isEqualTo(1001);
+        // stored with 24 bytes per row, and compressed
+        assertThat(Files.size(path)).isLessThan(1001 * 24);
+
+        List<RfbEventAttendance> found = segment.findAllByUserId(3);
+        assertThat(found).hasSize(100);
+        assertThat(found).extracting(RfbEventAttendance::getId).isSorted().allMatch(id -> id % 10 == 3);
+        RfbEventAttendance first = found.get(0);
+        assertThat(first.getId()).isEqualTo(3);
+        assertThat(first.getRfbEventId()).isEqualTo(3);
+        assertThat(first.getRfbUserId()).isEqualTo(3);
+        assertThat(first.getAttendanceDate()).isEqualTo(DATE.plusDays(3));
+
+        assertThat(segment.findAllByUserId(11)).isEmpty();
+        // the attendances without a user are stored as user 0, together with the ones of the user 0
+        assertThat(segment.findAllByUserId(0))
+            .hasSize(101)
+            .filteredOn(attendance -> attendance.getId() == 1001)
+            .singleElement()
+            .satisfies(
+                attendance -> {
+                    assertThat(attendance.getRfbEventId()).isNull();
+                    assertThat(attendance.getAttendanceDate()).isNull();
+                }
+            );
+    }
+
+    @Test
+    void testWriteEmpty() throws IOException {
+        Path path = directory.resolve("empty" + AttendanceSegment.FILE_SUFFIX);
+        AttendanceSegment.write(path, List.of());
+
+        AttendanceSegment segment = AttendanceSegment.open(path);
+        assertThat(segment.size()).isZero();
+        assertThat(segment.findAllByUserId(1)).isEmpty();
+    }
+
+    @Test
+    void testOpenCorrupt() throws IOException {
+        Path path = directory.resolve("corrupt" + AttendanceSegment.FILE_SUFFIX);
+        AttendanceSegment.write(path, List.of(attendance(1, 1L, 1L, DATE), attendance(2, 1L, 2L, DATE)));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xff);
+        }
+
+        assertThatThrownBy(() -> AttendanceSegment.open(path)).isInstanceOf(IOException.class).hasMessageContaining("Corrupt");
+    }
+
+    @Test
+    void testOpenTruncated() throws IOException {
+        Path path = directory.resolve("truncated" + AttendanceSegment.FILE_SUFFIX);
+        AttendanceSegment.write(path, List.of(attendance(1, 1L, 1L, DATE)));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(file.length() - 1);
+        }
+
+        assertThatThrownBy(() -> AttendanceSegment.open(path)).isInstanceOf(IOException.class).hasMessageContaining("Truncated");
+    }
+}
@@ -0,0 +1,60 @@
+package com.rfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link AttendanceStats} utility class.
+ */
+class AttendanceStatsTest {
+
+    private static final LocalDate SATURDAY = LocalDate.of(2021, 4, 3);
+
+    @Test
+    void testCounts() {
+        AttendanceStats stats = new AttendanceStats();
+        stats.add(7L, 2L, SATURDAY);
+        stats.add(3L, 2L, SATURDAY.plusWeeks(1));
+        stats.add(7L, 1L, SATURDAY.plusDays(1));
+        stats.add(AttendanceStats.NONE, AttendanceStats.NONE, null);
+
+        assertThat(stats.getAttendanceCount()).isEqualTo(4);
+        assertThat(stats.getDayOfWeekCount(DayOfWeek.SATURDAY)).isEqualTo(2);
+        assertThat(stats.getDayOfWeekCount(DayOfWeek.SUNDAY)).isEqualTo(1);
+        assertThat(stats.getDayOfWeekCount(DayOfWeek.MONDAY)).isZero();
+
+        AttendanceStats.Counts userCounts = stats.getUserCounts();
+        assertThat(userCounts.size()).isEqualTo(2);
+        // sorted by id
+        assertThat(userCounts.getId(0)).isEqualTo(3L);
+        assertThat(userCounts.getCount(0)).isEqualTo(1);
+        assertThat(userCounts.get(7L)).isEqualTo(2);
+        assertThat(userCounts.get(5L)).isZero();
+
+        AttendanceStats.Counts locationCounts = stats.getLocationCounts();
+        assertThat(locationCounts.get(1L)).isEqualTo(1);
+        assertThat(locationCounts.get(2L)).isEqualTo(2);
+    }
+
+    @Test
+    void testTop() {
+        AttendanceStats stats = new AttendanceStats();
+        long[] userIds = { 5L, 1L, 9L, 5L, 9L, 4L, 9L };
+        for (long userId : userIds) {
+            stats.add(userId, AttendanceStats.NONE, SATURDAY);
+        }
+        AttendanceStats.Counts userCounts = stats.getUserCounts();
+
+        int[] top = userCounts.top(3);
+        assertThat(top).hasSize(3);
+        // highest count first, and the lowest id first for the same count
+        assertThat(userCounts.getId(top[0])).isEqualTo(9L);
+        assertThat(userCounts.getId(top[1])).isEqualTo(5L);
+        assertThat(userCounts.getId(top[2])).isEqualTo(1L);
+        assertThat(userCounts.top(10)).hasSize(4);
+        assertThat(userCounts.top(0)).isEmpty();
+    }
+}
@@ -0,0 +1,91 @@
+package com.rfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link AttendeeBitmap} utility class.
+ */
+class AttendeeBitmapTest {
+
+    @Test
+    void testAddAndRemove() {
+        AttendeeBitmap bitmap = new AttendeeBitmap();
+        assertThat(bitmap.add(3L)).isTrue();
+        assertThat(bitmap.add(70000L)).isTrue();
+        assertThat(bitmap.add(3L)).isFalse();
+        assertThat(bitmap.add(1L)).isTrue();
+
+        assertThat(bitmap.toArray()).containsExactly(1L, 3L, 70000L);
+        assertThat(bitmap.getCardinality()).isEqualTo(3);
+        assertThat(bitmap.contains(70000L)).isTrue();
+        assertThat(bitmap.contains(70001L)).isFalse();
+
+        assertThat(bitmap.remove(70000L)).isTrue();
+        assertThat(bitmap.remove(70000L)).isFalse();
+        assertThat(bitmap.remove(2L)).isFalse();
+        assertThat(bitmap.remove(1L)).isTrue();
+        assertThat(bitmap.remove(3L)).isTrue();
+        assertThat(bitmap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void testDenseContainers() {
+        AttendeeBitmap bitmap = new AttendeeBitmap();
+        // more ids than an array container holds, so it's converted to a bitset and back
+        for (long id = 0; id <= AttendeeBitmap.ARRAY_MAX * 2; id += 2) {
+            bitmap.add(id);
+        }
+        assertThat(bitmap.getCardinality()).isEqualTo(AttendeeBitmap.ARRAY_MAX + 1);
+        assertThat(bitmap.contains(AttendeeBitmap.ARRAY_MAX * 2)).isTrue();
+        assertThat(bitmap.contains(1L)).isFalse();
+        bitmap.remove(0L);
+        bitmap.remove(2L);
+        assertThat(bitmap.getCardinality()).isEqualTo(AttendeeBitmap.ARRAY_MAX - 1);
+        assertThat(bitmap.toArray()[0]).isEqualTo(4L);
+    }
+
+    @Test
+    void testSetOperationsMatchSortedSets() {
+        Random random = new Random(42);
+        for (int round = 0; round < 5; round++) {
+            // a chunk dense in both, one dense in a and sparse in b, and sparse ones, so every pair of containers is combined
+            TreeSet<Long> expectedA = new TreeSet<>();
+            TreeSet<Long> expectedB = new TreeSet<>();
+            AttendeeBitmap a = new AttendeeBitmap();
+            AttendeeBitmap b = new AttendeeBitmap();
+            for (int i = 0; i < 60000; i++) {
+                long id = random.nextInt(4 * 65536);
+                long chunk = id >>> 16;
+                boolean toA = chunk == 0 ? random.nextBoolean() : chunk == 1 ? random.nextInt(8) > 0 : random.nextInt(16) == 0;
+                boolean toB = chunk <= 1 ? !toA : random.nextInt(16) == 0;
+                if (toA) {
+                    a.add(id);
+                    expectedA.add(id);
+                }
+                if (toB) {
+                    b.add(id);
+                    expectedB.add(id);
+                }
+            }
+
+            TreeSet<Long> and = new TreeSet<>(expectedA);
+            and.retainAll(expectedB);
+            TreeSet<Long> or = new TreeSet<>(expectedA);
+            or.addAll(expectedB);
+            TreeSet<Long> andNot = new TreeSet<>(expectedA);
+            andNot.removeAll(expectedB);
+
+            assertThat(AttendeeBitmap.and(a, b).toArray()).containsExactly(and.stream().mapToLong(Long::longValue).toArray());
+            assertThat(AttendeeBitmap.or(a, b).toArray()).containsExactly(or.stream().mapToLong(Long::longValue).toArray());
+            assertThat(AttendeeBitmap.andNot(a, b).toArray()).containsExactly(andNot.stream().mapToLong(Long::longValue).toArray());
+            assertThat(AttendeeBitmap.or(a, b).getCardinality()).isEqualTo(or.size());
+            // the operands are left unchanged
+            assertThat(a.getCardinality()).isEqualTo(expectedA.size());
+            assertThat(b.getCardinality()).isEqualTo(expectedB.size());
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.rfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link CsvReader} utility class.
+ */
+class CsvReaderTest {
+
+    private static List<CsvReader.Row> read(String content, int chunkSize) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        CsvReader reader = new CsvReader(';');
+        List<CsvReader.Row> rows = new ArrayList<>();
+        for (int from = 0; from < bytes.length; from += chunkSize) {
+            rows.addAll(reader.read(ByteBuffer.wrap(bytes, from, Math.min(chunkSize, bytes.length - from))));
+        }
+        rows.addAll(reader.finish());
+        return rows;
+    }
+
+    @Test
+    void testRead() {
+        String content = "\uFEFFid;location_name\r\n1;Zürich\r\n\r\n2;\"Lake; \"\"North\"\"\nshore\"\n3;\n;4";
+        // every chunk size, down to single bytes which split the multi-byte characters, gives the same records
+        for (int chunkSize = 1; chunkSize <= content.length() + 4; chunkSize++) {
+            List<CsvReader.Row> rows = read(content, chunkSize);
+            assertThat(rows).extracting(CsvReader.Row::getLine).containsExactly(1, 2, 4, 6, 7);
+            assertThat(rows)
+                .extracting(CsvReader.Row::getValues)
+                .isEqualTo(
+                    List.of(
+                        List.of("id", "location_name"),
+                        List.of("1", "Zürich"),
+                        List.of("2", "Lake; \"North\"\nshore"),
+                        List.of("3", ""),
+                        List.of("", "4")
+                    )
+                );
+        }
+    }
+
+    @Test
+    void testReadEmpty() {
+        assertThat(read("", 1)).isEmpty();
+        assertThat(read("\n\r\n", 1)).isEmpty();
+    }
+
+    @Test
+    void testUnterminatedQuote() {
+        assertThatThrownBy(() -> read("id;name\n1;\"Lake\n", 4))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("line 2");
+    }
+
+    @Test
+    void testRecordTooLong() {
+        String content = "\"" + "x".repeat(CsvReader.MAX_RECORD_LENGTH + 1);
+        assertThatThrownBy(() -> read(content, 1024)).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("line 1");
+    }
+}
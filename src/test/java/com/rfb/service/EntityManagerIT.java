@@ -0,0 +1,126 @@
+package com.rfb.service;
+
+import static com.rfb.security.AuthoritiesConstants.ADMIN;
+import static com.rfb.security.AuthoritiesConstants.USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.rfb.IntegrationTest;
+import com.rfb.config.Constants;
+import com.rfb.domain.RfbLocation;
+import com.rfb.domain.User;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.Table;
+import org.springframework.r2dbc.core.PreparedOperation;
+
+/**
+ * Integration tests for {@link EntityManager}.
+ */
+@IntegrationTest
+class EntityManagerIT {
+
+    private static final Table TABLE = Table.aliased("rfb_location", EntityManager.ENTITY_ALIAS);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private R2dbcEntityTemplate r2dbcEntityTemplate;
+
+    private final AtomicInteger renderCount = new AtomicInteger();
+
+    private SelectFromAndJoin createSelectFrom() {
+        renderCount.incrementAndGet();
+        return Select.builder().select(Column.aliased("id", TABLE, "e_id")).from(TABLE);
+    }
+
+    @Test
+    void assertThatCriteriaValuesAreBoundAsParameters() {
+        PreparedOperation<String> first = entityManager.createSelect(
+            RfbLocation.class,
+            "test-bound",
+            this::createSelectFrom,
+            null,
+            where("id").is(41L)
+        );
+        PreparedOperation<String> second = entityManager.createSelect(
+            RfbLocation.class,
+            "test-bound",
+            this::createSelectFrom,
+            null,
+            where("id").is(42L)
+        );
+
+        assertThat(first.toQuery()).isEqualTo(second.toQuery()).contains("WHERE").doesNotContain("41").doesNotContain("42");
+        assertThat(renderCount).hasValue(1);
+    }
+
+    @Test
+    void assertThatCriteriaShapeIsPartOfTheCacheKey() {
+        String single = entityManager
+            .createSelect(RfbLocation.class, "test-shape", this::createSelectFrom, null, where("id").in(Arrays.asList(1L)))
+            .toQuery();
+        String multiple = entityManager
+            .createSelect(RfbLocation.class, "test-shape", this::createSelectFrom, null, where("id").in(Arrays.asList(1L, 2L)))
+            .toQuery();
+        String byName = entityManager
+            .createSelect(RfbLocation.class, "test-shape", this::createSelectFrom, null, where("locationName").is("x"))
+            .toQuery();
+
+        assertThat(single).isNotEqualTo(multiple).isNotEqualTo(byName);
+        assertThat(renderCount).hasValue(3);
+    }
+
+    @Test
+    void assertThatPagesShareTheRenderedSelect() {
+        String firstPage = entityManager
+            .createSelect(RfbLocation.class, "test-paged", this::createSelectFrom, PageRequest.of(0, 10, Sort.by("id")), null)
+            .toQuery();
+        String secondPage = entityManager
+            .createSelect(RfbLocation.class, "test-paged", this::createSelectFrom, PageRequest.of(1, 10, Sort.by("id")), null)
+            .toQuery();
+
+        assertThat(firstPage).isNotEqualTo(secondPage).contains("ORDER BY");
+        assertThat(renderCount).hasValue(1);
+    }
+
+    @Test
+    void assertThatOnlyTheChangedLinksAreWritten() {
+        EntityManager.LinkTable linkTable = new EntityManager.LinkTable("jhi_user_authority", "user_id", "authority_name");
+        User user = new User();
+        user.setLogin("linktable");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setCreatedBy(Constants.SYSTEM);
+        user = entityManager.insert(user).block();
+
+        assertThat(entityManager.updateLinkTable(linkTable, user.getId(), String.class, Stream.of(ADMIN, USER)).block()).isEqualTo(2);
+        assertThat(entityManager.updateLinkTable(linkTable, user.getId(), String.class, Stream.of(USER)).block()).isEqualTo(1);
+        assertThat(entityManager.updateLinkTable(linkTable, user.getId(), String.class, Stream.of(ADMIN)).block()).isEqualTo(2);
+        assertThat(entityManager.updateLinkTable(linkTable, user.getId(), String.class, Stream.of(ADMIN)).block()).isZero();
+        assertThat(
+            r2dbcEntityTemplate
+                .getDatabaseClient()
+                .sql("SELECT authority_name FROM jhi_user_authority WHERE user_id = :userId")
+                .bind("userId", user.getId())
+                .map((row, metadata) -> row.get(0, String.class))
+                .all()
+                .collectList()
+                .block()
+        )
+            .containsExactly(ADMIN);
+
+        entityManager.deleteFromLinkTable(linkTable, user.getId()).block();
+        r2dbcEntityTemplate.delete(user).block();
+    }
+}
@@ -0,0 +1,97 @@
+package com.rfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link Leaderboard} utility class.
+ */
+class LeaderboardTest {
+
+    @Test
+    void testUsersAreRankedByCount() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.add(1L, 3);
+        leaderboard.add(2L, 5);
+        leaderboard.add(3L, 3);
+        leaderboard.add(4L, 1);
+
+        assertThat(leaderboard.top(10)).extracting(Leaderboard.Entry::getUserId).containsExactly(2L, 1L, 3L, 4L);
+        // users with the same count share a rank
+        assertThat(leaderboard.top(10)).extracting(Leaderboard.Entry::getRank).containsExactly(1, 2, 2, 4);
+        assertThat(leaderboard.find(3L).get().getRank()).isEqualTo(2);
+        assertThat(leaderboard.find(4L).get().getRank()).isEqualTo(4);
+        assertThat(leaderboard.find(5L)).isEmpty();
+    }
+
+    @Test
+    void testUserLeavesWhenCountDropsToZero() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.add(1L, 2);
+        leaderboard.add(2L, 1);
+
+        assertThat(leaderboard.add(1L, -2)).isZero();
+        assertThat(leaderboard.size()).isEqualTo(1);
+        assertThat(leaderboard.find(1L)).isEmpty();
+        assertThat(leaderboard.find(2L).get().getRank()).isEqualTo(1);
+    }
+
+    @Test
+    void testNeighbours() {
+        Leaderboard leaderboard = new Leaderboard();
+        for (long userId = 1; userId <= 10; userId++) {
+            leaderboard.add(userId, userId);
+        }
+
+        assertThat(leaderboard.neighbours(5L, 2)).extracting(Leaderboard.Entry::getUserId).containsExactly(7L, 6L, 5L, 4L, 3L);
+        assertThat(leaderboard.neighbours(5L, 2)).extracting(Leaderboard.Entry::getRank).containsExactly(4, 5, 6, 7, 8);
+        assertThat(leaderboard.neighbours(10L, 2)).extracting(Leaderboard.Entry::getUserId).containsExactly(10L, 9L, 8L);
+        assertThat(leaderboard.neighbours(1L, 2)).extracting(Leaderboard.Entry::getUserId).containsExactly(3L, 2L, 1L);
+        assertThat(leaderboard.neighbours(11L, 2)).isEmpty();
+    }
+
+    @Test
+    void testRanksMatchSortedCounts() {
+        Leaderboard leaderboard = new Leaderboard();
+        long[] counts = new long[1000];
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int userId = random.nextInt(counts.length);
+            long delta = random.nextInt(5) - 1;
+            counts[userId] = Math.max(counts[userId] + delta, 0);
+            assertThat(leaderboard.add(userId, counts[userId] - leaderboard.find(userId).map(Leaderboard.Entry::getCount).orElse(0L)))
+                .isEqualTo(counts[userId]);
+        }
+
+        List<Long> expected = new ArrayList<>();
+        for (long count : counts) {
+            if (count > 0) {
+                expected.add(count);
+            }
+        }
+        expected.sort((a, b) -> Long.compare(b, a));
+        List<Leaderboard.Entry> top = leaderboard.top(counts.length);
+        assertThat(top.stream().map(Leaderboard.Entry::getCount).collect(Collectors.toList())).isEqualTo(expected);
+        for (Leaderboard.Entry entry : top) {
+            assertThat(entry.getRank()).isEqualTo(expected.indexOf(entry.getCount()) + 1);
+            assertThat(leaderboard.find(entry.getUserId()).get().getRank()).isEqualTo(entry.getRank());
+        }
+    }
+
+    @Test
+    void testWindows() {
+        LocalDate date = LocalDate.of(2026, 10, 18); // a Sunday
+
+        assertThat(Leaderboard.Window.WEEK.start(date)).isEqualTo(LocalDate.of(2026, 10, 12));
+        assertThat(Leaderboard.Window.WEEK.end(date)).isEqualTo(LocalDate.of(2026, 10, 19));
+        assertThat(Leaderboard.Window.MONTH.start(date)).isEqualTo(LocalDate.of(2026, 10, 1));
+        assertThat(Leaderboard.Window.YEAR.end(date)).isEqualTo(LocalDate.of(2027, 1, 1));
+        assertThat(Leaderboard.Window.ALL_TIME.start(date)).isEqualTo(LocalDate.MIN);
+    }
+}
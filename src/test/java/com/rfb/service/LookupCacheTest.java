@@ -0,0 +1,115 @@
+package com.rfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+/**
+ * Test class for the {@link LookupCache} utility class.
+ */
+class LookupCacheTest {
+
+    private final AtomicInteger queries = new AtomicInteger();
+
+    private Mono<Long> lookup(String key) {
+        return Mono.fromSupplier(() -> queries.incrementAndGet()).flatMap(query -> lookedUp(key));
+    }
+
+    private static Mono<Long> lookedUp(String key) {
+        return key.startsWith("unknown") ? Mono.empty() : Mono.just((long) key.length());
+    }
+
+    @Test
+    void testValueIsCached() {
+        LookupCache<String, Long> cache = new LookupCache<>();
+
+        assertThat(cache.get("abc", this::lookup).block()).isEqualTo(3L);
+        assertThat(cache.get("abc", this::lookup).block()).isEqualTo(3L);
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void testMissingKeyIsNotCached() {
+        LookupCache<String, Long> cache = new LookupCache<>();
+
+        assertThat(cache.get("unknown", this::lookup).block()).isNull();
+        assertThat(cache.get("unknown", this::lookup).block()).isNull();
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void testConcurrentLookupsShareTheLoad() {
+        LookupCache<String, Long> cache = new LookupCache<>();
+
+        Mono<Long> first = cache.get("abc", this::lookup);
+        Mono<Long> second = cache.get("abc", this::lookup);
+        assertThat(first.block()).isEqualTo(3L);
+        assertThat(second.block()).isEqualTo(3L);
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void testLeastRecentlyUsedKeyIsEvicted() {
+        LookupCache<String, Long> cache = new LookupCache<>(2, LookupCache.DEFAULT_TIME_TO_LIVE);
+
+        cache.get("a", this::lookup).block();
+        cache.get("bb", this::lookup).block();
+        cache.get("a", this::lookup).block();
+        cache.get("ccc", this::lookup).block();
+        assertThat(queries).hasValue(3);
+
+        cache.get("a", this::lookup).block();
+        assertThat(queries).hasValue(3);
+        cache.get("bb", this::lookup).block();
+        assertThat(queries).hasValue(4);
+    }
+
+    @Test
+    void testValueIsLoadedAgainAfterInvalidationOrWhenExpired() {
+        LookupCache<String, Long> cache = new LookupCache<>();
+        cache.get("abc", this::lookup).block();
+        cache.invalidate();
+        cache.get("abc", this::lookup).block();
+        assertThat(queries).hasValue(2);
+
+        cache.invalidate(value -> value == 2L);
+        cache.get("abc", this::lookup).block();
+        assertThat(queries).hasValue(2);
+        cache.invalidate(value -> value == 3L);
+        cache.get("abc", this::lookup).block();
+        assertThat(queries).hasValue(3);
+
+        LookupCache<String, Long> expiring = new LookupCache<>(10, Duration.ZERO);
+        expiring.get("abc", this::lookup).block();
+        expiring.get("abc", this::lookup).block();
+        assertThat(queries).hasValue(5);
+    }
+
+    @Test
+    void testValueIsUpdated() {
+        LookupCache<String, Long> cache = new LookupCache<>();
+
+        cache.update("abc", value -> value + 2);
+        assertThat(cache.get("abc", this::lookup).block()).isEqualTo(3L);
+        cache.update("abc", value -> value + 2);
+        assertThat(cache.get("abc", this::lookup).block()).isEqualTo(5L);
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void testLoadRunningConcurrentlyWithAnInvalidationOrAnUpdateIsNotCached() {
+        LookupCache<String, Long> cache = new LookupCache<>();
+
+        cache.get("abc", key -> lookup(key).doOnNext(value -> cache.invalidate())).block();
+        cache.get("abc", this::lookup).block();
+        assertThat(queries).hasValue(2);
+
+        cache.invalidate();
+        cache.get("abc", key -> lookup(key).doOnNext(value -> cache.update(key, updated -> updated + 1))).block();
+        assertThat(cache.get("abc", this::lookup).block()).isEqualTo(3L);
+        assertThat(queries).hasValue(4);
+    }
+}
@@ -0,0 +1,76 @@
+package com.rfb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link StreakCalendar} utility class.
+ */
+class StreakCalendarTest {
+
+    @Test
+    void testWeekOf() {
+        assertThat(StreakCalendar.weekOf(StreakCalendar.EPOCH_WEEK)).isZero();
+        assertThat(StreakCalendar.weekOf(StreakCalendar.EPOCH_WEEK.plusDays(6))).isZero();
+        assertThat(StreakCalendar.weekOf(StreakCalendar.EPOCH_WEEK.plusDays(7))).isEqualTo(1);
+        assertThat(StreakCalendar.weekOf(StreakCalendar.EPOCH_WEEK.minusDays(1))).isEqualTo(-1);
+        // a Sunday and the Monday after it
+        assertThat(StreakCalendar.weekOf(LocalDate.of(2026, 10, 19)) - StreakCalendar.weekOf(LocalDate.of(2026, 10, 18))).isEqualTo(1);
+    }
+
+    @Test
+    void testStreaks() {
+        StreakCalendar calendar = new StreakCalendar();
+        // two runs across word boundaries: 60..70 and 100..102
+        for (long week = 60; week <= 70; week++) {
+            calendar.add(week);
+        }
+        calendar.add(100);
+        calendar.add(102);
+        assertThat(calendar.add(101)).isTrue();
+        assertThat(calendar.add(101)).isFalse();
+
+        assertThat(calendar.getLongestStreak()).isEqualTo(11);
+        assertThat(calendar.getCurrentStreak(102)).isEqualTo(3);
+        // the current week isn't attended yet
+        assertThat(calendar.getCurrentStreak(103)).isEqualTo(3);
+        assertThat(calendar.getCurrentStreak(104)).isZero();
+        assertThat(calendar.countWeeks(65, 101)).isEqualTo(7);
+        assertThat(calendar.countWeeks(0, 1000)).isEqualTo(14);
+    }
+
+    @Test
+    void testStreaksMatchSortedWeeks() {
+        StreakCalendar calendar = new StreakCalendar();
+        TreeSet<Long> weeks = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            long week = random.nextInt(600) - 200;
+            weeks.add(week);
+            calendar.add(week);
+
+            int longest = 0;
+            int run = 0;
+            Long previous = null;
+            for (long attended : weeks) {
+                run = previous != null && attended == previous + 1 ? run + 1 : 1;
+                longest = Math.max(longest, run);
+                previous = attended;
+            }
+            assertThat(calendar.getLongestStreak()).isEqualTo(longest);
+        }
+        for (long current = -210; current < 410; current += 7) {
+            int streak = 0;
+            long last = weeks.contains(current) ? current : current - 1;
+            while (weeks.contains(last - streak)) {
+                streak++;
+            }
+            assertThat(calendar.getCurrentStreak(current)).isEqualTo(streak);
+            assertThat(calendar.countWeeks(current - 30, current + 1)).isEqualTo(weeks.subSet(current - 30, current + 1).size());
+        }
+    }
+}
@@ -6,6 +6,7 @@ import static org.springframework.security.test.web.reactive.server.SecurityMock
 
 import com.rfb.IntegrationTest;
 import com.rfb.config.Constants;
+import com.rfb.domain.Authority;
 import com.rfb.domain.User;
 import com.rfb.repository.AuthorityRepository;
 import com.rfb.repository.UserRepository;
@@ -683,6 +684,32 @@ class AccountResourceIT {
         assertThat(passwordEncoder.matches("new password", updatedUser.getPassword())).isTrue();
     }
 
+    @Test
+    @WithMockUser("change-password-authorities")
+    void testChangePasswordKeepsAuthorities() throws Exception {
+        User user = new User();
+        String currentPassword = RandomStringUtils.random(60);
+        user.setPassword(passwordEncoder.encode(currentPassword));
+        user.setLogin("change-password-authorities");
+        user.setEmail("change-password-authorities@example.com");
+        user.setCreatedBy(Constants.SYSTEM);
+        userRepository.save(user).block();
+        userRepository.saveUserAuthority(user.getId(), AuthoritiesConstants.USER).block();
+
+        accountWebTestClient
+            .post()
+            .uri("/api/account/change-password")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(new PasswordChangeDTO(currentPassword, "new password")))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        User updatedUser = userRepository.findOneWithAuthoritiesByLogin("change-password-authorities").block();
+        assertThat(passwordEncoder.matches("new password", updatedUser.getPassword())).isTrue();
+        assertThat(updatedUser.getAuthorities()).extracting(Authority::getName).containsExactly(AuthoritiesConstants.USER);
+    }
+
     @Test
     @WithMockUser("change-password-too-small")
     void testChangePasswordTooSmall() throws Exception {
@@ -0,0 +1,206 @@
+package com.rfb.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.rfb.IntegrationTest;
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbLocation;
+import com.rfb.domain.RfbUser;
+import com.rfb.repository.RfbEventAttendanceRepository;
+import com.rfb.security.AuthoritiesConstants;
+import com.rfb.service.AttendanceSegment;
+import com.rfb.service.EntityManager;
+import com.rfb.service.RfbAttendanceCounterService;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link AttendanceArchiveResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class AttendanceArchiveResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/attendance-archive";
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneId.systemDefault());
+
+    @Autowired
+    private RfbEventAttendanceRepository rfbEventAttendanceRepository;
+
+    @Autowired
+    private RfbAttendanceCounterService rfbAttendanceCounterService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private int segmentSize;
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        applicationProperties.getArchive().setSegmentSize(segmentSize);
+        deleteSegments();
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbLocationResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+        RfbAttendanceCounterResourceIT.deleteEntities(em);
+    }
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void initTest() throws IOException {
+        segmentSize = applicationProperties.getArchive().getSegmentSize();
+        deleteSegments();
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+    }
+
+    private void deleteSegments() throws IOException {
+        Path directory = Paths.get(applicationProperties.getArchive().getDirectory());
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + AttendanceSegment.FILE_SUFFIX)) {
+            for (Path path : files) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void archiveOldAttendances() {
+        // every segment holds 2 attendances, so the old attendances are archived to 2 segments
+        applicationProperties.getArchive().setSegmentSize(2);
+        LocalDate old = TODAY.minus(applicationProperties.getArchive().getHorizon()).minusDays(1);
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em)).block();
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        RfbUser otherRfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        RfbEventAttendance first = em.insert(new RfbEventAttendance().attendanceDate(old).rfbEvent(rfbEvent).rfbUser(rfbUser)).block();
+        em.insert(new RfbEventAttendance().attendanceDate(old).rfbEvent(rfbEvent).rfbUser(otherRfbUser)).block();
+        RfbEventAttendance last = em.insert(new RfbEventAttendance().attendanceDate(old.minusYears(1)).rfbUser(rfbUser)).block();
+        RfbEvent otherRfbEvent = em.insert(RfbEventResourceIT.createEntity(em)).block();
+        RfbEventAttendance recent = em
+            .insert(new RfbEventAttendance().attendanceDate(TODAY).rfbEvent(otherRfbEvent).rfbUser(rfbUser))
+            .block();
+
+        webTestClient.post().uri(ENTITY_API_URL).exchange().expectStatus().isNoContent();
+
+        // Only the recent attendance is left in the database
+        List<RfbEventAttendance> attendances = rfbEventAttendanceRepository.findAll().collectList().block();
+        assertThat(attendances).extracting(RfbEventAttendance::getId).containsExactly(recent.getId());
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}", rfbUser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(first.getId().intValue(), last.getId().intValue()))
+            .jsonPath("$.[0].rfbEvent.id")
+            .isEqualTo(rfbEvent.getId().intValue())
+            .jsonPath("$.[0].rfbUser.id")
+            .isEqualTo(rfbUser.getId().intValue())
+            .jsonPath("$.[0].attendanceDate")
+            .isEqualTo(old.toString())
+            .jsonPath("$.[1].rfbEvent")
+            .isEmpty();
+
+        // Nothing is left to archive
+        webTestClient.post().uri(ENTITY_API_URL).exchange().expectStatus().isNoContent();
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}", otherRfbUser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].rfbUser.id")
+            .value(contains(otherRfbUser.getId().intValue()));
+    }
+
+    @Test
+    void archiveRemovesTheAttendancesFromTheCounters() {
+        LocalDate old = TODAY.minus(applicationProperties.getArchive().getHorizon()).minusDays(1);
+        RfbLocation rfbLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        RfbEvent otherRfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        em.insert(new RfbEventAttendance().attendanceDate(old).rfbEvent(rfbEvent).rfbUser(rfbUser)).block();
+        em.insert(new RfbEventAttendance().attendanceDate(TODAY).rfbEvent(otherRfbEvent).rfbUser(rfbUser)).block();
+        rfbAttendanceCounterService.rebuild().block();
+        expectAttendanceCount(rfbUser, 2);
+
+        webTestClient.post().uri(ENTITY_API_URL).exchange().expectStatus().isNoContent();
+
+        // The counters don't count the archived attendance anymore, as their next rebuild
+        expectAttendanceCount(rfbUser, 1);
+        rfbAttendanceCounterService.rebuild().block();
+        expectAttendanceCount(rfbUser, 1);
+    }
+
+    private void expectAttendanceCount(RfbUser rfbUser, int attendanceCount) {
+        webTestClient
+            .get()
+            .uri("/api/rfb-attendance-counters/users/{id}", rfbUser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.attendanceCount")
+            .isEqualTo(attendanceCount);
+    }
+
+    @Test
+    void getArchivedAttendancesOfUnknownUser() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}", Long.MAX_VALUE)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$")
+            .isEmpty();
+    }
+
+    @Test
+    @WithMockUser
+    void archiveAsUserIsForbidden() {
+        webTestClient.post().uri(ENTITY_API_URL).exchange().expectStatus().isForbidden();
+    }
+}
@@ -0,0 +1,105 @@
+package com.rfb.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+
+import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbLocation;
+import com.rfb.domain.RfbUser;
+import com.rfb.service.EntityManager;
+import java.time.LocalDate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link AttendanceStatsResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class AttendanceStatsResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/attendance-stats?from={from}&to={to}&top={top}";
+
+    private static final LocalDate SATURDAY = LocalDate.of(2021, 4, 3);
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private RfbLocation rfbLocation;
+
+    private RfbUser rfbUser;
+
+    private RfbUser otherRfbUser;
+
+    @AfterEach
+    public void cleanup() {
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbLocationResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+    }
+
+    @BeforeEach
+    public void initTest() {
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        rfbLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        otherRfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+    }
+
+    private void attend(RfbEvent rfbEvent, RfbUser rfbUser, LocalDate attendanceDate) {
+        em.insert(new RfbEventAttendance().attendanceDate(attendanceDate).rfbEvent(rfbEvent).rfbUser(rfbUser)).block();
+    }
+
+    @Test
+    void getAttendanceStats() {
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        RfbEvent otherRfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        RfbEvent eventWithoutLocation = em.insert(RfbEventResourceIT.createEntity(em)).block();
+        attend(rfbEvent, rfbUser, SATURDAY);
+        attend(otherRfbEvent, rfbUser, SATURDAY.plusDays(1));
+        attend(rfbEvent, otherRfbUser, SATURDAY);
+        attend(eventWithoutLocation, otherRfbUser, SATURDAY.plusWeeks(1));
+        // outside of the period
+        attend(otherRfbEvent, otherRfbUser, SATURDAY.plusYears(1));
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL, SATURDAY, SATURDAY.plusMonths(1), 1)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.attendanceCount")
+            .isEqualTo(4)
+            .jsonPath("$.userCount")
+            .isEqualTo(2)
+            .jsonPath("$.dayOfWeekCounts.SATURDAY")
+            .isEqualTo(3)
+            .jsonPath("$.dayOfWeekCounts.SUNDAY")
+            .isEqualTo(1)
+            .jsonPath("$.locationCounts['" + rfbLocation.getId() + "']")
+            .isEqualTo(3)
+            .jsonPath("$.topUsers.[*].rfbUserId")
+            .value(contains((int) Math.min(rfbUser.getId(), otherRfbUser.getId())))
+            .jsonPath("$.topUsers.[*].rank")
+            .value(contains(1));
+    }
+
+    @Test
+    void getAttendanceStatsOfEmptyPeriod() {
+        webTestClient.get().uri(ENTITY_API_URL, SATURDAY, SATURDAY, 10).exchange().expectStatus().isBadRequest();
+    }
+}
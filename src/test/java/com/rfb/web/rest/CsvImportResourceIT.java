@@ -0,0 +1,222 @@
+package com.rfb.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.rfb.IntegrationTest;
+import com.rfb.config.ApplicationProperties;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbLocation;
+import com.rfb.domain.RfbUser;
+import com.rfb.repository.RfbEventAttendanceRepository;
+import com.rfb.repository.RfbEventRepository;
+import com.rfb.repository.RfbLocationRepository;
+import com.rfb.repository.RfbUserRepository;
+import com.rfb.security.AuthoritiesConstants;
+import com.rfb.service.EntityManager;
+import com.rfb.service.dto.BatchItemResultDTO;
+import com.rfb.service.dto.ImportProgressDTO;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link CsvImportResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+class CsvImportResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/imports/{type}";
+
+    @Autowired
+    private RfbLocationRepository rfbLocationRepository;
+
+    @Autowired
+    private RfbEventRepository rfbEventRepository;
+
+    @Autowired
+    private RfbUserRepository rfbUserRepository;
+
+    @Autowired
+    private RfbEventAttendanceRepository rfbEventAttendanceRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private int chunkSize;
+
+    @AfterEach
+    public void cleanup() {
+        applicationProperties.getBatch().setChunkSize(chunkSize);
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+        RfbLocationResourceIT.deleteEntities(em);
+        RfbAttendanceCounterResourceIT.deleteEntities(em);
+    }
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void initTest() {
+        // the rows are imported in batches of 2
+        chunkSize = applicationProperties.getBatch().getChunkSize();
+        applicationProperties.getBatch().setChunkSize(2);
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+        RfbLocationResourceIT.deleteEntities(em);
+    }
+
+    private List<ImportProgressDTO> importCsv(String type, String content) {
+        return webTestClient
+            .post()
+            .uri(ENTITY_API_URL, type)
+            .contentType(MediaType.parseMediaType(CsvImportResource.TEXT_CSV_VALUE))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(content)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(ImportProgressDTO.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    @Test
+    void importAll() {
+        List<ImportProgressDTO> progress = importCsv(
+            "locations",
+            "id;location_name;run_day_of_week\n1;Lake;6\n2;\"Park; North\";\n3;Hill;x\n"
+        );
+        // a progress per batch, and the done one
+        assertThat(progress).extracting(ImportProgressDTO::getRows).containsExactly(2L, 3L, 3L);
+        assertThat(progress).extracting(ImportProgressDTO::isDone).containsExactly(false, false, true);
+        ImportProgressDTO done = progress.get(2);
+        assertThat(done.getCreated()).isEqualTo(2);
+        assertThat(done.getInvalid()).isEqualTo(1);
+        BatchItemResultDTO rejected = progress.get(1).getRejected().get(0);
+        assertThat(rejected.getIndex()).isEqualTo(4);
+        assertThat(rejected.getMessage()).isEqualTo("Invalid run_day_of_week: x");
+        List<RfbLocation> rfbLocations = rfbLocationRepository.findAll().collectList().block();
+        assertThat(rfbLocations).extracting(RfbLocation::getLocationName).containsExactlyInAnyOrder("Lake", "Park; North");
+        assertThat(rfbLocations).extracting(RfbLocation::getRunDayOfWeek).containsExactlyInAnyOrder(6, null);
+
+        done = last(importCsv("events", "event_code,event_date,location_name\nE1,2021-04-02,Lake\nE2,,Park; North\nE3,,Nowhere\n", ','));
+        assertThat(done.getCreated()).isEqualTo(2);
+        assertThat(done.getInvalid()).isEqualTo(1);
+        RfbLocation lake = rfbLocations.stream().filter(location -> location.getLocationName().equals("Lake")).findFirst().get();
+        RfbEvent e1 = rfbEventRepository.findAll().filter(event -> event.getEventCode().equals("E1")).blockFirst();
+        assertThat(e1.getEventDate()).isEqualTo(LocalDate.of(2021, 4, 2));
+        assertThat(e1.getRfbLocationId()).isEqualTo(lake.getId());
+
+        done = last(importCsv("users", "username;home_location_name\nalice;Lake\nbob;\n"));
+        assertThat(done.getCreated()).isEqualTo(2);
+        RfbUser alice = rfbUserRepository.findAll().filter(user -> user.getUsername().equals("alice")).blockFirst();
+        assertThat(alice.getHomeLocationId()).isEqualTo(lake.getId());
+
+        done = last(
+            importCsv(
+                "attendances",
+                "attendance_date;event_code;username\n2021-04-02;E1;alice\n2021-04-02;E1;alice\n;E2;bob\n;E1;carol\n;;bob\n"
+            )
+        );
+        assertThat(done.getRows()).isEqualTo(5);
+        assertThat(done.getCreated()).isEqualTo(2);
+        assertThat(done.getDuplicates()).isEqualTo(1);
+        assertThat(done.getInvalid()).isEqualTo(2);
+        List<RfbEventAttendance> attendances = rfbEventAttendanceRepository.findAll().collectList().block();
+        assertThat(attendances).hasSize(2);
+        assertThat(attendances)
+            .filteredOn(attendance -> attendance.getRfbUserId().equals(alice.getId()))
+            .singleElement()
+            .satisfies(
+                attendance -> {
+                    assertThat(attendance.getRfbEventId()).isEqualTo(e1.getId());
+                    assertThat(attendance.getAttendanceDate()).isEqualTo(LocalDate.of(2021, 4, 2));
+                }
+            );
+    }
+
+    private List<ImportProgressDTO> importCsv(String type, String content, char delimiter) {
+        return webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "?delimiter={delimiter}", type, delimiter)
+            .contentType(MediaType.parseMediaType(CsvImportResource.TEXT_CSV_VALUE))
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(content)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(ImportProgressDTO.class)
+            .returnResult()
+            .getResponseBody();
+    }
+
+    private static ImportProgressDTO last(List<ImportProgressDTO> progress) {
+        ImportProgressDTO done = progress.get(progress.size() - 1);
+        assertThat(done.isDone()).isTrue();
+        return done;
+    }
+
+    @Test
+    void importEmpty() {
+        assertThat(importCsv("users", "")).extracting(ImportProgressDTO::getRows).containsExactly(0L);
+    }
+
+    @Test
+    void importWithMissingColumn() {
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL, "attendances")
+            .contentType(MediaType.parseMediaType(CsvImportResource.TEXT_CSV_VALUE))
+            .bodyValue("attendance_date;username\n2021-04-02;alice\n")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void importWithUnknownType() {
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL, "tracks")
+            .contentType(MediaType.parseMediaType(CsvImportResource.TEXT_CSV_VALUE))
+            .bodyValue("name\nx\n")
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    @WithMockUser
+    void importAsUserIsForbidden() {
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL, "users")
+            .contentType(MediaType.parseMediaType(CsvImportResource.TEXT_CSV_VALUE))
+            .bodyValue("username\nalice\n")
+            .exchange()
+            .expectStatus()
+            .isForbidden();
+    }
+}
@@ -0,0 +1,160 @@
+package com.rfb.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbLocation;
+import com.rfb.domain.RfbUser;
+import com.rfb.service.EntityManager;
+import com.rfb.service.EventAttendeeService;
+import com.rfb.service.dto.RfbEventAttendanceDTO;
+import com.rfb.service.mapper.RfbEventAttendanceMapper;
+import java.time.LocalDate;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link EventAttendeeResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class EventAttendeeResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/event-attendees/{operation}?ids={ids}";
+
+    private static final String ENTITY_API_URL_COUNT = "/api/event-attendees/{operation}/count?ids={ids}";
+
+    @Autowired
+    private EventAttendeeService eventAttendeeService;
+
+    @Autowired
+    private RfbEventAttendanceMapper rfbEventAttendanceMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private RfbEvent spring;
+
+    private RfbEvent autumn;
+
+    private RfbUser alice;
+
+    private RfbUser bob;
+
+    private RfbUser carol;
+
+    @AfterEach
+    public void cleanup() {
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbLocationResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+        RfbAttendanceCounterResourceIT.deleteEntities(em);
+        eventAttendeeService.rebuild().block();
+    }
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void initTest() {
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbLocation rfbLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        spring = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        autumn = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        alice = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        bob = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        carol = em.insert(RfbUserResourceIT.createEntity(em)).block();
+    }
+
+    private Long checkIn(RfbEvent rfbEvent, RfbUser rfbUser) throws Exception {
+        RfbEventAttendanceDTO rfbEventAttendanceDTO = rfbEventAttendanceMapper.toDto(
+            new RfbEventAttendance().attendanceDate(LocalDate.now()).rfbEvent(rfbEvent).rfbUser(rfbUser)
+        );
+        return webTestClient
+            .post()
+            .uri("/api/rfb-event-attendances")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventAttendanceDTO))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(RfbEventAttendanceDTO.class)
+            .returnResult()
+            .getResponseBody()
+            .getId();
+    }
+
+    private void expectAttendees(String operation, String ids, Long... rfbUserIds) {
+        List<Long> attendees = webTestClient
+            .get()
+            .uri(ENTITY_API_URL, operation, ids)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(Long.class)
+            .returnResult()
+            .getResponseBody();
+        assertThat(attendees).containsExactly(rfbUserIds);
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_COUNT, operation, ids)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody(Long.class)
+            .isEqualTo((long) rfbUserIds.length);
+    }
+
+    @Test
+    void getAttendeesAfterCheckIns() throws Exception {
+        checkIn(spring, alice);
+        checkIn(spring, bob);
+        Long id = checkIn(autumn, bob);
+        checkIn(autumn, carol);
+        String both = spring.getId() + "," + autumn.getId();
+
+        expectAttendees("and", both, bob.getId());
+        expectAttendees("or", both, alice.getId(), bob.getId(), carol.getId());
+        expectAttendees("andnot", both, alice.getId());
+        expectAttendees("ANDNOT", autumn.getId() + "," + spring.getId(), carol.getId());
+        expectAttendees("or", String.valueOf(Long.MAX_VALUE));
+
+        // a deleted check-in removes the attendee
+        webTestClient.delete().uri("/api/rfb-event-attendances/{id}", id).exchange().expectStatus().isNoContent();
+        expectAttendees("and", both);
+        expectAttendees("andnot", both, alice.getId(), bob.getId());
+    }
+
+    @Test
+    void getAttendeesAfterRebuild() {
+        em.insert(new RfbEventAttendance().attendanceDate(LocalDate.now()).rfbEvent(spring).rfbUser(carol)).block();
+        expectAttendees("or", String.valueOf(spring.getId()));
+
+        eventAttendeeService.rebuild().block();
+        expectAttendees("or", String.valueOf(spring.getId()), carol.getId());
+    }
+
+    @Test
+    void getAttendeesWithInvalidOperation() {
+        webTestClient.get().uri(ENTITY_API_URL, "xor", spring.getId()).exchange().expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,313 @@
+package com.rfb.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbLocation;
+import com.rfb.domain.RfbUser;
+import com.rfb.service.EntityManager;
+import com.rfb.service.LeaderboardService;
+import com.rfb.service.dto.RfbEventAttendanceDTO;
+import com.rfb.service.dto.RfbEventDTO;
+import com.rfb.service.dto.RfbLocationDTO;
+import com.rfb.service.mapper.RfbEventAttendanceMapper;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link LeaderboardResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class LeaderboardResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/leaderboards";
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneId.systemDefault());
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private RfbEventAttendanceMapper rfbEventAttendanceMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private RfbLocation rfbLocation;
+
+    private RfbEvent rfbEvent;
+
+    private RfbUser rfbUser;
+
+    private RfbUser otherRfbUser;
+
+    @AfterEach
+    public void cleanup() {
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbLocationResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+        RfbAttendanceCounterResourceIT.deleteEntities(em);
+    }
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void initTest() {
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbAttendanceCounterResourceIT.deleteEntities(em);
+        leaderboardService.rebuild().block();
+        rfbLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        otherRfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+    }
+
+    private Long checkIn(RfbEvent rfbEvent, RfbUser rfbUser, LocalDate attendanceDate) throws Exception {
+        RfbEventAttendanceDTO rfbEventAttendanceDTO = rfbEventAttendanceMapper.toDto(
+            new RfbEventAttendance().attendanceDate(attendanceDate).rfbEvent(rfbEvent).rfbUser(rfbUser)
+        );
+        return webTestClient
+            .post()
+            .uri("/api/rfb-event-attendances")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventAttendanceDTO))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(RfbEventAttendanceDTO.class)
+            .returnResult()
+            .getResponseBody()
+            .getId();
+    }
+
+    @Test
+    void getLeaderboardAfterCheckIns() throws Exception {
+        RfbEvent otherRfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        checkIn(rfbEvent, rfbUser, TODAY);
+        checkIn(otherRfbEvent, rfbUser, TODAY);
+        checkIn(rfbEvent, otherRfbUser, TODAY);
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?rfbLocationId={rfbLocationId}&window=WEEK", rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].rfbUserId")
+            .value(contains(rfbUser.getId().intValue(), otherRfbUser.getId().intValue()))
+            .jsonPath("$.[*].attendanceCount")
+            .value(contains(2, 1))
+            .jsonPath("$.[*].rank")
+            .value(contains(1, 2));
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?window=YEAR", otherRfbUser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.attendanceCount")
+            .isEqualTo(1)
+            .jsonPath("$.rank")
+            .isEqualTo(2);
+
+        webTestClient
+            .get()
+            .uri(
+                ENTITY_API_URL + "/users/{rfbUserId}/neighbours?rfbLocationId={rfbLocationId}&size=1",
+                otherRfbUser.getId(),
+                rfbLocation.getId()
+            )
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].rfbUserId")
+            .value(contains(rfbUser.getId().intValue(), otherRfbUser.getId().intValue()));
+    }
+
+    @Test
+    void getLeaderboardAfterDelete() throws Exception {
+        Long id = checkIn(rfbEvent, rfbUser, TODAY);
+        checkIn(rfbEvent, otherRfbUser, TODAY);
+
+        webTestClient.delete().uri("/api/rfb-event-attendances/{id}", id).exchange().expectStatus().isNoContent();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?rfbLocationId={rfbLocationId}&window=MONTH", rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].rfbUserId")
+            .value(contains(otherRfbUser.getId().intValue()));
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?rfbLocationId={rfbLocationId}", rfbUser.getId(), rfbLocation.getId())
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void getLeaderboardAfterEventMove() throws Exception {
+        RfbLocation otherRfbLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        RfbEvent otherRfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(otherRfbLocation)).block();
+        Long id = checkIn(rfbEvent, rfbUser, TODAY);
+        checkIn(rfbEvent, otherRfbUser, TODAY);
+        checkIn(otherRfbEvent, otherRfbUser, TODAY);
+
+        // Move the event to the other location
+        RfbEventDTO patch = new RfbEventDTO();
+        patch.setId(rfbEvent.getId());
+        patch.setRfbLocation(new RfbLocationDTO());
+        patch.getRfbLocation().setId(otherRfbLocation.getId());
+        webTestClient
+            .patch()
+            .uri("/api/rfb-events/{id}", patch.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(patch))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?rfbLocationId={rfbLocationId}&window=WEEK", rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$")
+            .isEmpty();
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?rfbLocationId={rfbLocationId}&window=WEEK", otherRfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].rfbUserId")
+            .value(contains(otherRfbUser.getId().intValue(), rfbUser.getId().intValue()))
+            .jsonPath("$.[*].attendanceCount")
+            .value(contains(2, 1))
+            .jsonPath("$.[*].rank")
+            .value(contains(1, 2));
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?rfbLocationId={rfbLocationId}", rfbUser.getId(), rfbLocation.getId())
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.NOT_FOUND);
+
+        // A deleted attendance of the moved event is removed from the leaderboard of its new location
+        webTestClient.delete().uri("/api/rfb-event-attendances/{id}", id).exchange().expectStatus().isNoContent();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?rfbLocationId={rfbLocationId}", rfbUser.getId(), otherRfbLocation.getId())
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.NOT_FOUND);
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?rfbLocationId={rfbLocationId}", otherRfbUser.getId(), otherRfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.attendanceCount")
+            .isEqualTo(2)
+            .jsonPath("$.rank")
+            .isEqualTo(1);
+    }
+
+    @Test
+    void getLeaderboardOfPastCheckIn() throws Exception {
+        checkIn(rfbEvent, rfbUser, TODAY.minusYears(1));
+
+        // Only counted in the all-time leaderboard
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?rfbLocationId={rfbLocationId}", rfbUser.getId(), rfbLocation.getId())
+            .exchange()
+            .expectStatus()
+            .isOk();
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?rfbLocationId={rfbLocationId}&window=YEAR", rfbUser.getId(), rfbLocation.getId())
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void getLeaderboardAfterRebuild() throws Exception {
+        em.insert(new RfbEventAttendance().attendanceDate(TODAY).rfbEvent(rfbEvent).rfbUser(rfbUser)).block();
+        em.insert(new RfbEventAttendance().attendanceDate(TODAY).rfbEvent(rfbEvent).rfbUser(otherRfbUser)).block();
+        em.insert(new RfbEventAttendance().attendanceDate(TODAY).rfbUser(otherRfbUser)).block();
+
+        leaderboardService.rebuild().block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?rfbLocationId={rfbLocationId}&window=WEEK", rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].attendanceCount")
+            .value(contains(1, 1))
+            .jsonPath("$.[*].rank")
+            .value(contains(1, 1));
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?window=WEEK")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].rfbUserId")
+            .value(contains(otherRfbUser.getId().intValue(), rfbUser.getId().intValue()))
+            .jsonPath("$.[*].attendanceCount")
+            .value(contains(2, 1));
+    }
+
+    @Test
+    void getLeaderboardWithInvalidSize() {
+        webTestClient.get().uri(ENTITY_API_URL + "?size={size}", LeaderboardResource.MAX_SIZE + 1).exchange().expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,282 @@
+package com.rfb.web.rest;
+
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbLocation;
+import com.rfb.domain.RfbUser;
+import com.rfb.security.AuthoritiesConstants;
+import com.rfb.service.EntityManager;
+import com.rfb.service.dto.RfbEventAttendanceDTO;
+import com.rfb.service.dto.RfbEventDTO;
+import com.rfb.service.dto.RfbLocationDTO;
+import com.rfb.service.dto.RfbUserDTO;
+import com.rfb.service.mapper.RfbEventAttendanceMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link RfbAttendanceCounterResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class RfbAttendanceCounterResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/rfb-attendance-counters";
+
+    @Autowired
+    private RfbEventAttendanceMapper rfbEventAttendanceMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private RfbLocation rfbLocation;
+
+    private RfbEvent rfbEvent;
+
+    private RfbUser rfbUser;
+
+    public static void deleteEntities(EntityManager em) {
+        em.deleteAll("rfb_attendance_counter").block();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbLocationResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+        deleteEntities(em);
+    }
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void initTest() {
+        deleteEntities(em);
+        rfbLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+    }
+
+    @Test
+    void countCheckIns() throws Exception {
+        RfbEventAttendanceDTO rfbEventAttendanceDTO = rfbEventAttendanceMapper.toDto(
+            RfbEventAttendanceResourceIT.createEntity(em).rfbEvent(rfbEvent).rfbUser(rfbUser)
+        );
+
+        // A retried check-in is counted once
+        Long id = null;
+        for (int i = 0; i < 2; i++) {
+            id =
+                webTestClient
+                    .post()
+                    .uri("/api/rfb-event-attendances")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventAttendanceDTO))
+                    .exchange()
+                    .expectStatus()
+                    .isCreated()
+                    .expectBody(RfbEventAttendanceDTO.class)
+                    .returnResult()
+                    .getResponseBody()
+                    .getId();
+        }
+        expectAttendanceCounts(1);
+
+        webTestClient.delete().uri("/api/rfb-event-attendances/{id}", id).exchange().expectStatus().isNoContent();
+        expectAttendanceCounts(0);
+    }
+
+    @Test
+    void countMovedCheckIn() throws Exception {
+        RfbEventAttendance rfbEventAttendance = RfbEventAttendanceResourceIT.createEntity(em).rfbEvent(rfbEvent).rfbUser(rfbUser);
+        RfbEventAttendanceDTO rfbEventAttendanceDTO = webTestClient
+            .post()
+            .uri("/api/rfb-event-attendances")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventAttendanceMapper.toDto(rfbEventAttendance)))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(RfbEventAttendanceDTO.class)
+            .returnResult()
+            .getResponseBody();
+
+        // Move the check-in to an event at another location
+        RfbLocation otherLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        RfbEvent otherEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(otherLocation)).block();
+        rfbEventAttendanceDTO.getRfbEvent().setId(otherEvent.getId());
+        webTestClient
+            .put()
+            .uri("/api/rfb-event-attendances/{id}", rfbEventAttendanceDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventAttendanceDTO))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        expectAttendanceCount("/locations/{id}", rfbLocation.getId(), 0);
+        expectAttendanceCount("/locations/{id}", otherLocation.getId(), 1);
+        expectAttendanceCount("/users/{id}", rfbUser.getId(), 1);
+    }
+
+    @Test
+    void countPatchedCheckIn() throws Exception {
+        RfbEventAttendance rfbEventAttendance = RfbEventAttendanceResourceIT.createEntity(em).rfbEvent(rfbEvent).rfbUser(rfbUser);
+        RfbEventAttendanceDTO rfbEventAttendanceDTO = webTestClient
+            .post()
+            .uri("/api/rfb-event-attendances")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventAttendanceMapper.toDto(rfbEventAttendance)))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(RfbEventAttendanceDTO.class)
+            .returnResult()
+            .getResponseBody();
+
+        // Patch only the user of the check-in
+        RfbUser otherUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        RfbEventAttendanceDTO patch = new RfbEventAttendanceDTO();
+        patch.setId(rfbEventAttendanceDTO.getId());
+        patch.setRfbUser(new RfbUserDTO());
+        patch.getRfbUser().setId(otherUser.getId());
+        webTestClient
+            .patch()
+            .uri("/api/rfb-event-attendances/{id}", patch.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(patch))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.rfbEvent.id")
+            .isEqualTo(rfbEvent.getId().intValue())
+            .jsonPath("$.rfbUser.id")
+            .isEqualTo(otherUser.getId().intValue())
+            .jsonPath("$.version")
+            .isEqualTo(rfbEventAttendanceDTO.getVersion().intValue() + 1);
+
+        expectAttendanceCount("/users/{id}", rfbUser.getId(), 0);
+        expectAttendanceCount("/users/{id}", otherUser.getId(), 1);
+        expectAttendanceCount("/locations/{id}", rfbLocation.getId(), 1);
+    }
+
+    @Test
+    void countCheckInOfMovedEvent() throws Exception {
+        webTestClient
+            .post()
+            .uri("/api/rfb-event-attendances")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(
+                TestUtil.convertObjectToJsonBytes(
+                    rfbEventAttendanceMapper.toDto(RfbEventAttendanceResourceIT.createEntity(em).rfbEvent(rfbEvent).rfbUser(rfbUser))
+                )
+            )
+            .exchange()
+            .expectStatus()
+            .isCreated();
+
+        // Move the event to another location
+        RfbLocation otherLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        RfbEventDTO patch = new RfbEventDTO();
+        patch.setId(rfbEvent.getId());
+        patch.setRfbLocation(new RfbLocationDTO());
+        patch.getRfbLocation().setId(otherLocation.getId());
+        webTestClient
+            .patch()
+            .uri("/api/rfb-events/{id}", patch.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(patch))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.rfbLocation.id")
+            .isEqualTo(otherLocation.getId().intValue());
+
+        expectAttendanceCount("/locations/{id}", rfbLocation.getId(), 0);
+        expectAttendanceCount("/locations/{id}", otherLocation.getId(), 1);
+        expectAttendanceCount("/users/{id}", rfbUser.getId(), 1);
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}/locations/{rfbLocationId}", rfbUser.getId(), otherLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.attendanceCount")
+            .isEqualTo(1);
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void rebuildAttendanceCounters() throws Exception {
+        em.insert(RfbEventAttendanceResourceIT.createEntity(em).rfbEvent(rfbEvent).rfbUser(rfbUser)).block();
+        // Inserted without the service, so it isn't counted yet
+        expectAttendanceCounts(0);
+
+        webTestClient.post().uri(ENTITY_API_URL + "/rebuild").exchange().expectStatus().isNoContent();
+
+        expectAttendanceCounts(1);
+    }
+
+    @Test
+    void rebuildAttendanceCountersIsForbiddenForUsers() throws Exception {
+        webTestClient.post().uri(ENTITY_API_URL + "/rebuild").exchange().expectStatus().isForbidden();
+    }
+
+    @Test
+    void getUnknownAttendanceCounter() {
+        expectAttendanceCount("/users/{id}", Long.MAX_VALUE, 0);
+    }
+
+    private void expectAttendanceCounts(int attendanceCount) {
+        expectAttendanceCount("/users/{id}", rfbUser.getId(), attendanceCount);
+        expectAttendanceCount("/locations/{id}", rfbLocation.getId(), attendanceCount);
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}/locations/{rfbLocationId}", rfbUser.getId(), rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.rfbUserId")
+            .isEqualTo(rfbUser.getId().intValue())
+            .jsonPath("$.rfbLocationId")
+            .isEqualTo(rfbLocation.getId().intValue())
+            .jsonPath("$.attendanceCount")
+            .isEqualTo(attendanceCount);
+    }
+
+    private void expectAttendanceCount(String path, Long id, int attendanceCount) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + path, id)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.attendanceCount")
+            .isEqualTo(attendanceCount);
+    }
+}
@@ -1,16 +1,23 @@
 package com.rfb.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
 import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbUser;
 import com.rfb.repository.RfbEventAttendanceRepository;
 import com.rfb.service.EntityManager;
 import com.rfb.service.dto.RfbEventAttendanceDTO;
+import com.rfb.service.dto.RfbEventDTO;
 import com.rfb.service.mapper.RfbEventAttendanceMapper;
+import com.rfb.service.mapper.RfbEventMapper;
+import com.rfb.web.rest.vm.CheckInVM;
+import com.rfb.web.rest.util.MultiGetUtil;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -25,9 +32,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
 
 /**
  * Integration tests for the {@link RfbEventAttendanceResource} REST controller.
@@ -52,6 +61,9 @@ class RfbEventAttendanceResourceIT {
     @Autowired
     private RfbEventAttendanceMapper rfbEventAttendanceMapper;
 
+    @Autowired
+    private RfbEventMapper rfbEventMapper;
+
     @Autowired
     private EntityManager em;
 
@@ -150,6 +162,253 @@ class RfbEventAttendanceResourceIT {
         assertThat(rfbEventAttendanceList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void createRfbEventAttendanceTwice() throws Exception {
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em)).block();
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        int databaseSizeBeforeCreate = rfbEventAttendanceRepository.findAll().collectList().block().size();
+        RfbEventAttendanceDTO rfbEventAttendanceDTO = rfbEventAttendanceMapper.toDto(
+            rfbEventAttendance.rfbEvent(rfbEvent).rfbUser(rfbUser)
+        );
+
+        // A retried check-in returns the existing RfbEventAttendance
+        Long[] ids = new Long[2];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] =
+                webTestClient
+                    .post()
+                    .uri(ENTITY_API_URL)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventAttendanceDTO))
+                    .exchange()
+                    .expectStatus()
+                    .isCreated()
+                    .expectBody(RfbEventAttendanceDTO.class)
+                    .returnResult()
+                    .getResponseBody()
+                    .getId();
+        }
+        assertThat(ids[1]).isEqualTo(ids[0]);
+
+        // Validate the RfbEventAttendance in the database
+        List<RfbEventAttendance> rfbEventAttendanceList = rfbEventAttendanceRepository.findAll().collectList().block();
+        assertThat(rfbEventAttendanceList).hasSize(databaseSizeBeforeCreate + 1);
+
+        deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void upsertRfbEventAttendanceConcurrently() {
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em)).block();
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        int databaseSizeBeforeCreate = rfbEventAttendanceRepository.findAll().collectList().block().size();
+
+        List<RfbEventAttendance> checkIns = Flux
+            .range(0, 16)
+            .flatMap(i -> rfbEventAttendanceRepository.upsert(createEntity(em).rfbEvent(rfbEvent).rfbUser(rfbUser)))
+            .collectList()
+            .block();
+
+        assertThat(checkIns).hasSize(16).extracting(RfbEventAttendance::getId).containsOnly(checkIns.get(0).getId());
+        List<RfbEventAttendance> rfbEventAttendanceList = rfbEventAttendanceRepository.findAll().collectList().block();
+        assertThat(rfbEventAttendanceList).hasSize(databaseSizeBeforeCreate + 1);
+
+        deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void createRfbEventAttendancesInBatch() throws Exception {
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em)).block();
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        RfbUser otherRfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+        rfbEventAttendanceRepository.save(createEntity(em).rfbEvent(rfbEvent).rfbUser(otherRfbUser)).block();
+        int databaseSizeBeforeCreate = rfbEventAttendanceRepository.findAll().collectList().block().size();
+
+        RfbEventAttendanceDTO valid = rfbEventAttendanceMapper.toDto(createEntity(em).rfbEvent(rfbEvent).rfbUser(rfbUser));
+        RfbEventAttendanceDTO alreadyAttended = rfbEventAttendanceMapper.toDto(createEntity(em).rfbEvent(rfbEvent).rfbUser(otherRfbUser));
+        RfbEvent unknownRfbEvent = new RfbEvent();
+        unknownRfbEvent.setId(count.incrementAndGet());
+        RfbEventAttendanceDTO unknownEvent = rfbEventAttendanceMapper.toDto(createEntity(em).rfbEvent(unknownRfbEvent).rfbUser(rfbUser));
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(List.of(valid, alreadyAttended, valid, unknownEvent)))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].index")
+            .value(contains(0, 1, 2, 3))
+            .jsonPath("$.[*].status")
+            .value(contains("CREATED", "DUPLICATE", "DUPLICATE", "INVALID"))
+            .jsonPath("$.[0].id")
+            .isNumber();
+
+        // Validate the RfbEventAttendance in the database
+        List<RfbEventAttendance> rfbEventAttendanceList = rfbEventAttendanceRepository.findAll().collectList().block();
+        assertThat(rfbEventAttendanceList).hasSize(databaseSizeBeforeCreate + 1);
+        RfbEventAttendance testRfbEventAttendance = rfbEventAttendanceList.get(rfbEventAttendanceList.size() - 1);
+        assertThat(testRfbEventAttendance.getRfbEventId()).isEqualTo(rfbEvent.getId());
+        assertThat(testRfbEventAttendance.getRfbUserId()).isEqualTo(rfbUser.getId());
+
+        deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void checkIn() throws Exception {
+        // the codes are unique, as the cached ids of the other tests' entities aren't invalidated by their cleanup
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).eventCode("event-" + count.incrementAndGet())).block();
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em).username("user-" + count.incrementAndGet())).block();
+        int databaseSizeBeforeCreate = rfbEventAttendanceRepository.findAll().collectList().block().size();
+        CheckInVM checkIn = new CheckInVM();
+        checkIn.setEventCode(rfbEvent.getEventCode());
+        checkIn.setUsername(rfbUser.getUsername());
+
+        // A retried check-in returns the existing RfbEventAttendance
+        Long[] ids = new Long[2];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] =
+                webTestClient
+                    .post()
+                    .uri("/api/check-in")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(TestUtil.convertObjectToJsonBytes(checkIn))
+                    .exchange()
+                    .expectStatus()
+                    .isCreated()
+                    .expectBody(RfbEventAttendanceDTO.class)
+                    .returnResult()
+                    .getResponseBody()
+                    .getId();
+        }
+        assertThat(ids[1]).isEqualTo(ids[0]);
+
+        // Validate the RfbEventAttendance in the database
+        List<RfbEventAttendance> rfbEventAttendanceList = rfbEventAttendanceRepository.findAll().collectList().block();
+        assertThat(rfbEventAttendanceList).hasSize(databaseSizeBeforeCreate + 1);
+        RfbEventAttendance testRfbEventAttendance = rfbEventAttendanceRepository.findById(ids[0]).block();
+        assertThat(testRfbEventAttendance.getRfbEventId()).isEqualTo(rfbEvent.getId());
+        assertThat(testRfbEventAttendance.getRfbUserId()).isEqualTo(rfbUser.getId());
+        assertThat(testRfbEventAttendance.getAttendanceDate()).isEqualTo(LocalDate.now());
+
+        deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void checkInAtMostRecentEventWithCode() throws Exception {
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).eventCode("event-" + count.incrementAndGet())).block();
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em).username("user-" + count.incrementAndGet())).block();
+        CheckInVM checkIn = new CheckInVM();
+        checkIn.setEventCode(rfbEvent.getEventCode());
+        checkIn.setUsername(rfbUser.getUsername());
+        webTestClient
+            .post()
+            .uri("/api/check-in")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(checkIn))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody()
+            .jsonPath("$.rfbEvent.id")
+            .isEqualTo(rfbEvent.getId().intValue());
+
+        // An event created with the same code is found by the next check-in
+        RfbEvent recreated = RfbEventResourceIT.createEntity(em).eventCode(rfbEvent.getEventCode());
+        Long recreatedId = webTestClient
+            .post()
+            .uri("/api/rfb-events")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventMapper.toDto(recreated)))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(RfbEventDTO.class)
+            .returnResult()
+            .getResponseBody()
+            .getId();
+        webTestClient
+            .post()
+            .uri("/api/check-in")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(checkIn))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody()
+            .jsonPath("$.rfbEvent.id")
+            .isEqualTo(recreatedId.intValue());
+
+        deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void checkInWithDuplicateCodes() throws Exception {
+        String eventCode = "event-" + count.incrementAndGet();
+        String username = "user-" + count.incrementAndGet();
+        em.insert(RfbEventResourceIT.createEntity(em).eventCode(eventCode)).block();
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).eventCode(eventCode)).block();
+        em.insert(RfbUserResourceIT.createEntity(em).username(username)).block();
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em).username(username)).block();
+        CheckInVM checkIn = new CheckInVM();
+        checkIn.setEventCode(eventCode);
+        checkIn.setUsername(username);
+
+        // The most recently created event and user with the codes are checked in
+        webTestClient
+            .post()
+            .uri("/api/check-in")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(checkIn))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody()
+            .jsonPath("$.rfbEvent.id")
+            .isEqualTo(rfbEvent.getId().intValue())
+            .jsonPath("$.rfbUser.id")
+            .isEqualTo(rfbUser.getId().intValue());
+
+        deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void checkInWithUnknownEventCode() throws Exception {
+        RfbUser rfbUser = em.insert(RfbUserResourceIT.createEntity(em).username("user-" + count.incrementAndGet())).block();
+        int databaseSizeBeforeCreate = rfbEventAttendanceRepository.findAll().collectList().block().size();
+        CheckInVM checkIn = new CheckInVM();
+        checkIn.setEventCode("unknown-" + count.incrementAndGet());
+        checkIn.setUsername(rfbUser.getUsername());
+
+        webTestClient
+            .post()
+            .uri("/api/check-in")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(checkIn))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+
+        List<RfbEventAttendance> rfbEventAttendanceList = rfbEventAttendanceRepository.findAll().collectList().block();
+        assertThat(rfbEventAttendanceList).hasSize(databaseSizeBeforeCreate);
+
+        RfbUserResourceIT.deleteEntities(em);
+    }
+
     @Test
     void getAllRfbEventAttendances() {
         // Initialize the database
@@ -172,6 +431,31 @@ class RfbEventAttendanceResourceIT {
             .value(hasItem(DEFAULT_ATTENDANCE_DATE.toString()));
     }
 
+    @Test
+    void getAllRfbEventAttendancesAsStream() {
+        // Initialize the database
+        rfbEventAttendanceRepository.save(rfbEventAttendance).block();
+
+        List<RfbEventAttendance> rfbEventAttendanceList = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(RfbEventAttendanceDTO.class)
+            .getResponseBody()
+            .map(rfbEventAttendanceMapper::toEntity)
+            .filter(rfbEventAttendance::equals)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(rfbEventAttendanceList).isNotNull();
+        assertThat(rfbEventAttendanceList).hasSize(1);
+    }
+
     @Test
     void getRfbEventAttendance() {
         // Initialize the database
@@ -194,6 +478,74 @@ class RfbEventAttendanceResourceIT {
             .value(is(DEFAULT_ATTENDANCE_DATE.toString()));
     }
 
+    @Test
+    void getRfbEventAttendancesByAttendanceDate() {
+        // Initialize the database
+        em.insert(createEntity(em).attendanceDate(DEFAULT_ATTENDANCE_DATE.minusDays(1))).block();
+        RfbEventAttendance inRange = em.insert(createEntity(em)).block();
+        em.insert(createEntity(em).attendanceDate(DEFAULT_ATTENDANCE_DATE.plusDays(1))).block();
+
+        // Get the rfbEventAttendances of a single day
+        webTestClient
+            .get()
+            .uri(
+                ENTITY_API_URL + "?attendanceDateFrom={from}&attendanceDateTo={to}",
+                DEFAULT_ATTENDANCE_DATE,
+                DEFAULT_ATTENDANCE_DATE.plusDays(1)
+            )
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(inRange.getId().intValue()));
+
+        // Without an end
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?attendanceDateFrom={from}", DEFAULT_ATTENDANCE_DATE)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2);
+    }
+
+    @Test
+    void getRfbEventAttendancesByEmptyAttendanceDateRange() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?attendanceDateFrom={from}&attendanceDateTo={to}", DEFAULT_ATTENDANCE_DATE, DEFAULT_ATTENDANCE_DATE)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getRfbEventAttendancesByIds() {
+        // Initialize the database
+        rfbEventAttendanceRepository.save(rfbEventAttendance).block();
+        RfbEventAttendance otherRfbEventAttendance = rfbEventAttendanceRepository.save(createEntity(em)).block();
+        long missingId = count.incrementAndGet();
+
+        // Get the rfbEventAttendances in the order of the ids
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?ids={ids}", otherRfbEventAttendance.getId() + "," + missingId + "," + rfbEventAttendance.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(MultiGetUtil.MISSING_IDS_HEADER, String.valueOf(missingId))
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(otherRfbEventAttendance.getId().intValue(), rfbEventAttendance.getId().intValue()));
+    }
+
     @Test
     void getNonExistingRfbEventAttendance() {
         // Get the rfbEventAttendance
@@ -359,6 +711,42 @@ class RfbEventAttendanceResourceIT {
         assertThat(testRfbEventAttendance.getAttendanceDate()).isEqualTo(UPDATED_ATTENDANCE_DATE);
     }
 
+    @Test
+    void partialUpdateRfbEventAttendanceWithStaleVersion() throws Exception {
+        // Initialize the database
+        rfbEventAttendanceRepository.save(rfbEventAttendance).block();
+
+        RfbEventAttendance partialUpdatedRfbEventAttendance = new RfbEventAttendance();
+        partialUpdatedRfbEventAttendance.setId(rfbEventAttendance.getId());
+        partialUpdatedRfbEventAttendance.attendanceDate(UPDATED_ATTENDANCE_DATE).version(rfbEventAttendance.getVersion());
+
+        // The first update with the current version wins, and increments the version
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbEventAttendance.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbEventAttendance))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .isEqualTo(rfbEventAttendance.getVersion().intValue() + 1);
+
+        // The second update with the same version conflicts
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbEventAttendance.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbEventAttendance))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        assertThat(rfbEventAttendanceRepository.findById(rfbEventAttendance.getId()).block().getVersion())
+            .isEqualTo(rfbEventAttendance.getVersion() + 1);
+    }
+
     @Test
     void patchNonExistingRfbEventAttendance() throws Exception {
         int databaseSizeBeforeUpdate = rfbEventAttendanceRepository.findAll().collectList().block().size();
@@ -382,6 +770,26 @@ class RfbEventAttendanceResourceIT {
         assertThat(rfbEventAttendanceList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    void patchNonExistingRfbEventAttendanceWithVersion() throws Exception {
+        RfbEventAttendance partialUpdatedRfbEventAttendance = new RfbEventAttendance();
+        partialUpdatedRfbEventAttendance.setId(count.incrementAndGet());
+        partialUpdatedRfbEventAttendance.setVersion(0L);
+
+        // A missing entity is not found, rather than updated concurrently
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbEventAttendance.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbEventAttendance))
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.idnotfound");
+    }
+
     @Test
     void patchWithIdMismatchRfbEventAttendance() throws Exception {
         int databaseSizeBeforeUpdate = rfbEventAttendanceRepository.findAll().collectList().block().size();
@@ -1,16 +1,22 @@
 package com.rfb.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.rfb.IntegrationTest;
 import com.rfb.domain.RfbEvent;
 import com.rfb.repository.RfbEventRepository;
 import com.rfb.service.EntityManager;
+import com.rfb.service.Keyset;
 import com.rfb.service.dto.RfbEventDTO;
 import com.rfb.service.mapper.RfbEventMapper;
+import com.rfb.web.rest.util.MultiGetUtil;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.ZoneId;
@@ -25,6 +31,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -178,6 +186,198 @@ class RfbEventResourceIT {
             .value(hasItem(DEFAULT_EVENT_CODE));
     }
 
+    @Test
+    void getAllRfbEventsWithCursor() {
+        // Initialize the database, with two events on the same date
+        RfbEvent latest = rfbEventRepository.save(createEntity(em).eventDate(DEFAULT_EVENT_DATE.plusDays(2))).block();
+        RfbEvent first = rfbEventRepository.save(createEntity(em)).block();
+        RfbEvent second = rfbEventRepository.save(createEntity(em)).block();
+
+        // Get the first page, sorted by descending date, with the id as tie-breaker
+        List<String> links = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=&size=2&sort=eventDate,desc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(latest.getId().intValue(), second.getId().intValue()))
+            .returnResult()
+            .getResponseHeaders()
+            .get("Link");
+        assertThat(links).hasSize(1);
+        String next = links.get(0).substring(links.get(0).indexOf('<') + 1, links.get(0).indexOf(">; rel=\"next\""));
+
+        // Follow the cursor to the last page
+        webTestClient
+            .get()
+            .uri(next)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(first.getId().intValue()));
+    }
+
+    @Test
+    void getAllRfbEventsWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=invalid")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllRfbEventsWithInvalidSort() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor=&sort=rfbLocation,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest()
+            .expectBody()
+            .jsonPath("$.message")
+            .isEqualTo("error.sortinvalid");
+
+        // A cursor sorted by an unsupported property is rejected too
+        String cursor = Keyset.first(Sort.by("rfbLocation")).next("value", 1L).encode();
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?cursor={cursor}", cursor)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllRfbEventsWithoutCount() {
+        // Initialize the database
+        RfbEvent first = rfbEventRepository.save(createEntity(em)).block();
+        RfbEvent second = rfbEventRepository.save(createEntity(em)).block();
+        RfbEvent third = rfbEventRepository.save(createEntity(em)).block();
+
+        // Get the first page, the lookahead row is not returned
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?count=none&page=0&size=2&sort=id,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectHeader()
+            .value("Link", containsString("rel=\"next\""))
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(first.getId().intValue(), second.getId().intValue()));
+
+        // Get the last page
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?count=none&page=1&size=2&sort=id,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .value("Link", both(containsString("rel=\"prev\"")).and(not(containsString("rel=\"next\""))))
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(third.getId().intValue()));
+    }
+
+    @Test
+    void getAllRfbEventsWithCachedCount() {
+        // Initialize the database
+        rfbEventRepository.save(rfbEvent).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?count=cached&sort=id,desc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .exists("X-Total-Count")
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(rfbEvent.getId().intValue()));
+    }
+
+    @Test
+    void getAllRfbEventsWithInvalidCount() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?count=invalid")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllRfbEventsAsStream() {
+        // Initialize the database
+        rfbEventRepository.save(rfbEvent).block();
+
+        List<RfbEvent> rfbEventList = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(RfbEventDTO.class)
+            .getResponseBody()
+            .map(rfbEventMapper::toEntity)
+            .filter(rfbEvent::equals)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(rfbEventList).isNotNull();
+        assertThat(rfbEventList).hasSize(1);
+    }
+
+    @Test
+    void getAllRfbEventsAsServerSentEvents() {
+        // Initialize the database
+        rfbEventRepository.save(rfbEvent).block();
+
+        List<RfbEvent> rfbEventList = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+            .returnResult(RfbEventDTO.class)
+            .getResponseBody()
+            .map(rfbEventMapper::toEntity)
+            .filter(rfbEvent::equals)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(rfbEventList).hasSize(1);
+        assertThat(rfbEventList.get(0).getEventCode()).isEqualTo(DEFAULT_EVENT_CODE);
+    }
+
     @Test
     void getRfbEvent() {
         // Initialize the database
@@ -202,6 +402,28 @@ class RfbEventResourceIT {
             .value(is(DEFAULT_EVENT_CODE));
     }
 
+    @Test
+    void getRfbEventsByIds() {
+        // Initialize the database
+        rfbEventRepository.save(rfbEvent).block();
+        RfbEvent otherRfbEvent = rfbEventRepository.save(createEntity(em)).block();
+        long missingId = count.incrementAndGet();
+
+        // Get the rfbEvents in the order of the ids
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?ids={ids}", otherRfbEvent.getId() + "," + missingId + "," + rfbEvent.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(MultiGetUtil.MISSING_IDS_HEADER, String.valueOf(missingId))
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(otherRfbEvent.getId().intValue(), rfbEvent.getId().intValue()));
+    }
+
     @Test
     void getNonExistingRfbEvent() {
         // Get the rfbEvent
@@ -266,6 +488,29 @@ class RfbEventResourceIT {
         assertThat(rfbEventList).hasSize(databaseSizeBeforeUpdate);
     }
 
+    @Test
+    void putRfbEventWithStaleVersion() throws Exception {
+        // Initialize the database
+        rfbEventRepository.save(rfbEvent).block();
+        rfbEventRepository.patch(new RfbEvent().id(rfbEvent.getId()).eventCode(UPDATED_EVENT_CODE)).block();
+
+        RfbEventDTO rfbEventDTO = rfbEventMapper.toDto(rfbEvent);
+
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, rfbEventDTO.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        // Validate the RfbEvent in the database
+        RfbEvent testRfbEvent = rfbEventRepository.findById(rfbEvent.getId()).block();
+        assertThat(testRfbEvent.getEventCode()).isEqualTo(UPDATED_EVENT_CODE);
+        assertThat(testRfbEvent.getVersion()).isEqualTo(rfbEvent.getVersion() + 1);
+    }
+
     @Test
     void putWithIdMismatchRfbEvent() throws Exception {
         int databaseSizeBeforeUpdate = rfbEventRepository.findAll().collectList().block().size();
@@ -372,6 +617,41 @@ class RfbEventResourceIT {
         assertThat(testRfbEvent.getEventCode()).isEqualTo(UPDATED_EVENT_CODE);
     }
 
+    @Test
+    void partialUpdateRfbEventWithStaleVersion() throws Exception {
+        // Initialize the database
+        rfbEventRepository.save(rfbEvent).block();
+
+        RfbEvent partialUpdatedRfbEvent = new RfbEvent();
+        partialUpdatedRfbEvent.setId(rfbEvent.getId());
+        partialUpdatedRfbEvent.eventCode(UPDATED_EVENT_CODE).version(rfbEvent.getVersion());
+
+        // The first update with the current version wins, and increments the version
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbEvent.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbEvent))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .isEqualTo(rfbEvent.getVersion().intValue() + 1);
+
+        // The second update with the same version conflicts
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbEvent.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbEvent))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        assertThat(rfbEventRepository.findById(rfbEvent.getId()).block().getVersion()).isEqualTo(rfbEvent.getVersion() + 1);
+    }
+
     @Test
     void patchNonExistingRfbEvent() throws Exception {
         int databaseSizeBeforeUpdate = rfbEventRepository.findAll().collectList().block().size();
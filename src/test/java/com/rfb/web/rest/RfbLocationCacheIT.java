@@ -0,0 +1,74 @@
+package com.rfb.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbLocation;
+import com.rfb.repository.RfbEventRepository;
+import com.rfb.repository.RfbLocationCache;
+import com.rfb.service.EntityManager;
+import com.rfb.service.RfbLocationService;
+import com.rfb.service.mapper.RfbLocationMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the {@link RfbLocationCache}.
+ */
+@IntegrationTest
+class RfbLocationCacheIT {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private RfbEventRepository rfbEventRepository;
+
+    @Autowired
+    private RfbLocationService rfbLocationService;
+
+    @Autowired
+    private RfbLocationMapper rfbLocationMapper;
+
+    @AfterEach
+    public void cleanup() {
+        RfbEventResourceIT.deleteEntities(em);
+        RfbLocationResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void rfbEventHasItsLocation() {
+        // inserted without the service, so the location is missing from the cache
+        RfbLocation rfbLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+
+        RfbEvent found = rfbEventRepository.findById(rfbEvent.getId()).block();
+        assertThat(found.getRfbLocation()).isNotNull();
+        assertThat(found.getRfbLocation().getId()).isEqualTo(rfbLocation.getId());
+        assertThat(found.getRfbLocation().getLocationName()).isEqualTo(rfbLocation.getLocationName());
+        assertThat(found.getRfbLocationId()).isEqualTo(rfbLocation.getId());
+    }
+
+    @Test
+    void updatedLocationIsReloaded() {
+        RfbLocation rfbLocation = em.insert(RfbLocationResourceIT.createEntity(em)).block();
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        assertThat(rfbEventRepository.findById(rfbEvent.getId()).block().getRfbLocation().getLocationName())
+            .isEqualTo(rfbLocation.getLocationName());
+
+        rfbLocationService.save(rfbLocationMapper.toDto(rfbLocation.locationName("Renamed"))).block();
+
+        assertThat(rfbEventRepository.findById(rfbEvent.getId()).block().getRfbLocation().getLocationName()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void rfbEventWithoutLocation() {
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em)).block();
+
+        RfbEvent found = rfbEventRepository.findById(rfbEvent.getId()).block();
+        assertThat(found.getRfbLocation()).isNull();
+        assertThat(found.getRfbLocationId()).isNull();
+    }
+}
@@ -1,16 +1,20 @@
 package com.rfb.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
 import com.rfb.domain.RfbLocation;
 import com.rfb.repository.RfbLocationRepository;
 import com.rfb.service.EntityManager;
 import com.rfb.service.dto.RfbLocationDTO;
 import com.rfb.service.mapper.RfbLocationMapper;
+import com.rfb.web.rest.util.MultiGetUtil;
 import java.time.Duration;
 import java.util.List;
 import java.util.Random;
@@ -23,6 +27,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -176,6 +181,31 @@ class RfbLocationResourceIT {
             .value(hasItem(DEFAULT_RUN_DAY_OF_WEEK));
     }
 
+    @Test
+    void getAllRfbLocationsAsStream() {
+        // Initialize the database
+        rfbLocationRepository.save(rfbLocation).block();
+
+        List<RfbLocation> rfbLocationList = webTestClient
+            .get()
+            .uri(ENTITY_API_URL)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(RfbLocationDTO.class)
+            .getResponseBody()
+            .map(rfbLocationMapper::toEntity)
+            .filter(rfbLocation::equals)
+            .collectList()
+            .block(Duration.ofSeconds(5));
+
+        assertThat(rfbLocationList).isNotNull();
+        assertThat(rfbLocationList).hasSize(1);
+    }
+
     @Test
     void getRfbLocation() {
         // Initialize the database
@@ -200,6 +230,102 @@ class RfbLocationResourceIT {
             .value(is(DEFAULT_RUN_DAY_OF_WEEK));
     }
 
+    @Test
+    void getAllRfbLocationsWithEvents() {
+        // Initialize the database
+        rfbLocationRepository.save(rfbLocation).block();
+        RfbLocation otherRfbLocation = rfbLocationRepository.save(createEntity(em)).block();
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+        RfbEvent otherRfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+
+        // Get all the rfbLocationList with their events
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,asc&include=events")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[?(@.id == %d)].rvbEvents[*].id", rfbLocation.getId())
+            .value(containsInAnyOrder(rfbEvent.getId().intValue(), otherRfbEvent.getId().intValue()))
+            .jsonPath("$[?(@.id == %d)].rvbEvents[*]", otherRfbLocation.getId())
+            .isEmpty();
+
+        // The events are only included on request
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.rvbEvents")
+            .doesNotExist();
+
+        RfbEventResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void getRfbLocationWithEvents() {
+        // Initialize the database
+        rfbLocationRepository.save(rfbLocation).block();
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em).rfbLocation(rfbLocation)).block();
+
+        // Get the rfbLocation with its events
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "?include=events", rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.id")
+            .value(is(rfbLocation.getId().intValue()))
+            .jsonPath("$.rvbEvents[*].id")
+            .value(contains(rfbEvent.getId().intValue()));
+
+        RfbEventResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void getRfbLocationWithInvalidInclude() {
+        // Initialize the database
+        rfbLocationRepository.save(rfbLocation).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "?include=attendances", rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getRfbLocationsByIds() {
+        // Initialize the database
+        rfbLocationRepository.save(rfbLocation).block();
+        RfbLocation otherRfbLocation = rfbLocationRepository.save(createEntity(em)).block();
+        long missingId = count.incrementAndGet();
+
+        // Get the rfbLocations in the order of the ids
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?ids={ids}", otherRfbLocation.getId() + "," + missingId + "," + rfbLocation.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(MultiGetUtil.MISSING_IDS_HEADER, String.valueOf(missingId))
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(otherRfbLocation.getId().intValue(), rfbLocation.getId().intValue()));
+    }
+
     @Test
     void getNonExistingRfbLocation() {
         // Get the rfbLocation
@@ -368,6 +494,41 @@ class RfbLocationResourceIT {
         assertThat(testRfbLocation.getRunDayOfWeek()).isEqualTo(UPDATED_RUN_DAY_OF_WEEK);
     }
 
+    @Test
+    void partialUpdateRfbLocationWithStaleVersion() throws Exception {
+        // Initialize the database
+        rfbLocationRepository.save(rfbLocation).block();
+
+        RfbLocation partialUpdatedRfbLocation = new RfbLocation();
+        partialUpdatedRfbLocation.setId(rfbLocation.getId());
+        partialUpdatedRfbLocation.locationName(UPDATED_LOCATION_NAME).version(rfbLocation.getVersion());
+
+        // The first update with the current version wins, and increments the version
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbLocation.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbLocation))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .isEqualTo(rfbLocation.getVersion().intValue() + 1);
+
+        // The second update with the same version conflicts
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbLocation.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbLocation))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        assertThat(rfbLocationRepository.findById(rfbLocation.getId()).block().getVersion()).isEqualTo(rfbLocation.getVersion() + 1);
+    }
+
     @Test
     void patchNonExistingRfbLocation() throws Exception {
         int databaseSizeBeforeUpdate = rfbLocationRepository.findAll().collectList().block().size();
@@ -1,20 +1,26 @@
 package com.rfb.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
 
 import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
 import com.rfb.domain.RfbUser;
 import com.rfb.repository.RfbUserRepository;
 import com.rfb.service.EntityManager;
 import com.rfb.service.dto.RfbUserDTO;
 import com.rfb.service.mapper.RfbUserMapper;
+import com.rfb.web.rest.util.MultiGetUtil;
 import java.time.Duration;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +29,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -219,6 +226,65 @@ class RfbUserResourceIT {
             .value(is(DEFAULT_USERNAME));
     }
 
+    @Test
+    void getAllRfbUsersWithAttendances() {
+        // Initialize the database
+        rfbUserRepository.save(rfbUser).block();
+        RfbUser otherRfbUser = rfbUserRepository.save(createEntity(em)).block();
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em)).block();
+        RfbEventAttendance rfbEventAttendance = em
+            .insert(RfbEventAttendanceResourceIT.createEntity(em).rfbEvent(rfbEvent).rfbUser(rfbUser))
+            .block();
+
+        // Get all the rfbUserList with their attendances
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?include=attendances")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[?(@.id == %d)].rfbEventAttendances[*].id", rfbUser.getId())
+            .value(contains(rfbEventAttendance.getId().intValue()))
+            .jsonPath("$[?(@.id == %d)].rfbEventAttendances[*].rfbEvent.id", rfbUser.getId())
+            .value(contains(rfbEvent.getId().intValue()))
+            .jsonPath("$[?(@.id == %d)].rfbEventAttendances[*]", otherRfbUser.getId())
+            .isEmpty();
+
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+    }
+
+    @Test
+    void getRfbUsersByIds() {
+        // Initialize the database
+        rfbUserRepository.save(rfbUser).block();
+        RfbUser otherRfbUser = rfbUserRepository.save(createEntity(em)).block();
+        long missingId = count.incrementAndGet();
+
+        // Get the rfbUsers in the order of the ids
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?ids={ids}", otherRfbUser.getId() + "," + missingId + "," + rfbUser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(MultiGetUtil.MISSING_IDS_HEADER, String.valueOf(missingId))
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(contains(otherRfbUser.getId().intValue(), rfbUser.getId().intValue()));
+    }
+
+    @Test
+    void getRfbUsersByTooManyIds() {
+        String ids = LongStream.rangeClosed(1, MultiGetUtil.MAX_IDS + 1).mapToObj(String::valueOf).collect(Collectors.joining(","));
+
+        webTestClient.get().uri(ENTITY_API_URL + "?ids=" + ids).accept(MediaType.APPLICATION_JSON).exchange().expectStatus().isBadRequest();
+    }
+
     @Test
     void getNonExistingRfbUser() {
         // Get the rfbUser
@@ -384,6 +450,41 @@ class RfbUserResourceIT {
         assertThat(testRfbUser.getUsername()).isEqualTo(UPDATED_USERNAME);
     }
 
+    @Test
+    void partialUpdateRfbUserWithStaleVersion() throws Exception {
+        // Initialize the database
+        rfbUserRepository.save(rfbUser).block();
+
+        RfbUser partialUpdatedRfbUser = new RfbUser();
+        partialUpdatedRfbUser.setId(rfbUser.getId());
+        partialUpdatedRfbUser.username(UPDATED_USERNAME).version(rfbUser.getVersion());
+
+        // The first update with the current version wins, and increments the version
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbUser.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbUser))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.version")
+            .isEqualTo(rfbUser.getVersion().intValue() + 1);
+
+        // The second update with the same version conflicts
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedRfbUser.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedRfbUser))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.CONFLICT);
+
+        assertThat(rfbUserRepository.findById(rfbUser.getId()).block().getVersion()).isEqualTo(rfbUser.getVersion() + 1);
+    }
+
     @Test
     void patchNonExistingRfbUser() throws Exception {
         int databaseSizeBeforeUpdate = rfbUserRepository.findAll().collectList().block().size();
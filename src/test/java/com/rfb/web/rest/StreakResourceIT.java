@@ -0,0 +1,150 @@
+package com.rfb.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+
+import com.rfb.IntegrationTest;
+import com.rfb.domain.RfbEvent;
+import com.rfb.domain.RfbEventAttendance;
+import com.rfb.domain.RfbUser;
+import com.rfb.service.EntityManager;
+import com.rfb.service.dto.RfbEventAttendanceDTO;
+import com.rfb.service.mapper.RfbEventAttendanceMapper;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests for the {@link StreakResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class StreakResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/streaks";
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneId.systemDefault());
+
+    @Autowired
+    private RfbEventAttendanceMapper rfbEventAttendanceMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    private RfbUser rfbUser;
+
+    @AfterEach
+    public void cleanup() {
+        RfbEventAttendanceResourceIT.deleteEntities(em);
+        RfbEventResourceIT.deleteEntities(em);
+        RfbUserResourceIT.deleteEntities(em);
+        RfbAttendanceCounterResourceIT.deleteEntities(em);
+    }
+
+    @BeforeEach
+    public void setupCsrf() {
+        webTestClient = webTestClient.mutateWith(csrf());
+    }
+
+    @BeforeEach
+    public void initTest() {
+        rfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+    }
+
+    private Long checkIn(LocalDate attendanceDate) throws Exception {
+        RfbEvent rfbEvent = em.insert(RfbEventResourceIT.createEntity(em)).block();
+        RfbEventAttendanceDTO rfbEventAttendanceDTO = rfbEventAttendanceMapper.toDto(
+            new RfbEventAttendance().attendanceDate(attendanceDate).rfbEvent(rfbEvent).rfbUser(rfbUser)
+        );
+        return webTestClient
+            .post()
+            .uri("/api/rfb-event-attendances")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(rfbEventAttendanceDTO))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectBody(RfbEventAttendanceDTO.class)
+            .returnResult()
+            .getResponseBody()
+            .getId();
+    }
+
+    private void expectStreaks(int currentStreak, int longestStreak, int attendedWeeks) {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?weeks=4", rfbUser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.rfbUserId")
+            .isEqualTo(rfbUser.getId().intValue())
+            .jsonPath("$.currentStreak")
+            .isEqualTo(currentStreak)
+            .jsonPath("$.longestStreak")
+            .isEqualTo(longestStreak)
+            .jsonPath("$.lastWeeks")
+            .isEqualTo(4)
+            .jsonPath("$.attendedWeeks")
+            .isEqualTo(attendedWeeks);
+    }
+
+    @Test
+    void getStreaksAfterCheckIns() throws Exception {
+        Long id = checkIn(TODAY);
+        checkIn(TODAY.minusWeeks(1));
+        checkIn(TODAY.minusWeeks(3));
+        checkIn(TODAY.minusWeeks(10));
+        expectStreaks(2, 2, 3);
+
+        // The loaded calendar is updated with a new check-in
+        checkIn(TODAY.minusWeeks(2));
+        expectStreaks(4, 4, 4);
+
+        // A deleted check-in drops the calendar, and the streak still counts while the current week isn't attended
+        webTestClient.delete().uri("/api/rfb-event-attendances/{id}", id).exchange().expectStatus().isNoContent();
+        expectStreaks(3, 3, 3);
+    }
+
+    @Test
+    void getStreaksOfManyUsers() throws Exception {
+        checkIn(TODAY);
+        RfbUser otherRfbUser = em.insert(RfbUserResourceIT.createEntity(em)).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?ids={otherId},{id}", otherRfbUser.getId(), rfbUser.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].rfbUserId")
+            .value(contains(otherRfbUser.getId().intValue(), rfbUser.getId().intValue()))
+            .jsonPath("$.[*].currentStreak")
+            .value(contains(0, 1));
+    }
+
+    @Test
+    void getStreaksWithInvalidWeeks() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/users/{rfbUserId}?weeks={weeks}", rfbUser.getId(), StreakResource.MAX_WEEKS + 1)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+}